@@ -0,0 +1,69 @@
+package breakout.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import breakout.BreakoutState;
+import breakout.BroadPhase;
+
+/**
+ * `BreakoutState.tick` with each `BroadPhase`, on maps with the blocks in even
+ * rows (`Maps.generated`) and on maps with clusters of small blocks and a few
+ * long slabs (`Maps.irregular`).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BroadPhaseBenchmark {
+
+	@Param({ "LINEAR", "GRID", "TREE" })
+	public BroadPhase broadPhase;
+
+	@Param({ "rows", "irregular" })
+	public String layout;
+
+	@Param({ "100", "10000" })
+	public int blocks;
+
+	@Param({ "50" })
+	public int balls;
+
+	BreakoutState state;
+	final PaddleBot bot = new PaddleBot();
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		state = newState();
+	}
+
+	BreakoutState newState() {
+		BreakoutState result = layout.equals("rows") ? Maps.generated(blocks, balls) : Maps.irregular(blocks, balls);
+		result.setBroadPhase(broadPhase);
+		return result;
+	}
+
+	@Benchmark
+	public BreakoutState tick() {
+		if (state.isDead() || state.isWon()) {
+			state = newState();
+		}
+		bot.play(state, TickBenchmark.ELAPSED_TIME);
+		return state;
+	}
+
+}
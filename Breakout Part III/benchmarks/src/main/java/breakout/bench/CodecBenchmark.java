@@ -0,0 +1,62 @@
+package breakout.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import breakout.BreakoutState;
+import breakout.StateCodec;
+
+/**
+ * Encoding a whole state with `StateCodec` and decoding it again, on generated
+ * maps with ten balls, part way into a game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int blocks;
+
+	BreakoutState state;
+	ByteBuffer out;
+	ByteBuffer encoded;
+
+	@Setup
+	public void setUp() {
+		state = Maps.generated(blocks, 10);
+		for (int i = 0; i < 200; i++) {
+			state.tick(0, 20);
+		}
+		out = ByteBuffer.allocate(StateCodec.maxEncodedSize(state));
+		encoded = StateCodec.encode(state);
+	}
+
+	@Benchmark
+	public ByteBuffer encode() {
+		out.clear();
+		StateCodec.encode(state, out);
+		return out;
+	}
+
+	@Benchmark
+	public BreakoutState decode() {
+		return StateCodec.decode(encoded.duplicate());
+	}
+
+}
@@ -0,0 +1,61 @@
+package breakout.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import breakout.utils.Circle;
+import breakout.utils.Point;
+import breakout.utils.Rect;
+import breakout.utils.Vector;
+
+/**
+ * The geometry primitives a tick is built from.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+	// Not final, so that the JIT cannot fold the computations.
+	Rect block = new Rect(new Point(10000, 5000), new Point(15000, 6500));
+	Circle hitting = new Circle(new Point(12000, 6800), 700);
+	Circle touchingCorner = new Circle(new Point(15200, 6700), 700);
+	Circle missing = new Circle(new Point(30000, 20000), 700);
+	Point alphaPos = new Point(20000, 12000);
+	Point ballPos = new Point(26000, 9000);
+	Vector ballSpeed = new Vector(4, -5);
+	int eCharge = -3;
+
+	@Benchmark
+	public Vector collideWithHit() {
+		return block.collideWith(hitting);
+	}
+
+	@Benchmark
+	public Vector collideWithCorner() {
+		return block.collideWith(touchingCorner);
+	}
+
+	@Benchmark
+	public Vector collideWithMiss() {
+		return block.collideWith(missing);
+	}
+
+	@Benchmark
+	public Vector magnetSpeed() {
+		return Vector.magnetSpeed(alphaPos, ballPos, eCharge, ballSpeed);
+	}
+
+}
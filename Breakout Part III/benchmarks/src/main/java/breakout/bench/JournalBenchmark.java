@@ -0,0 +1,87 @@
+package breakout.bench;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import breakout.BreakoutState;
+import breakout.journal.JournalReplayer;
+import breakout.journal.JournalWriter;
+import breakout.journal.ReplayResult;
+
+/**
+ * The cost of recording a game: `BreakoutState.tick` on `initMap2` with and
+ * without a `JournalWriter` attached (writing to a channel that discards the
+ * bytes, so that only the recording itself is measured), and the speed of
+ * `JournalReplayer` on a journal of 5000 ticks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalBenchmark {
+
+	@Param({ "false", "true" })
+	public boolean recording;
+
+	BreakoutState state;
+	final PaddleBot bot = new PaddleBot();
+	byte[] journal;
+
+	@Setup(Level.Iteration)
+	public void setUp() throws IOException {
+		state = newState();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		BreakoutState recorded = Maps.fromDescription("initMap2");
+		try (JournalWriter writer = new JournalWriter(Channels.newChannel(bytes), Maps.description("initMap2"),
+				recorded, JournalWriter.DEFAULT_CHECKSUM_INTERVAL)) {
+			recorded.setJournal(writer);
+			for (int i = 0; i < 5000 && !recorded.isDead() && !recorded.isWon(); i++) {
+				bot.play(recorded, TickBenchmark.ELAPSED_TIME);
+			}
+		}
+		journal = bytes.toByteArray();
+	}
+
+	BreakoutState newState() {
+		BreakoutState result = Maps.fromDescription("initMap2");
+		if (recording) {
+			result.setJournal(new JournalWriter(Channels.newChannel(OutputStream.nullOutputStream()),
+					Maps.description("initMap2"), result, JournalWriter.DEFAULT_CHECKSUM_INTERVAL));
+		}
+		return result;
+	}
+
+	@Benchmark
+	public BreakoutState tick() {
+		if (state.isDead() || state.isWon()) {
+			state = newState();
+		}
+		bot.play(state, TickBenchmark.ELAPSED_TIME);
+		return state;
+	}
+
+	@Benchmark
+	public ReplayResult replay() {
+		return JournalReplayer.replay(Channels.newChannel(new ByteArrayInputStream(journal)));
+	}
+
+}
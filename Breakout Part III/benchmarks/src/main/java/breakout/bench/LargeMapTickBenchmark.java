@@ -0,0 +1,55 @@
+package breakout.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import breakout.BreakoutState;
+
+/**
+ * `BreakoutState.tick` on generated maps (see `Maps.generated`), to see how a
+ * tick scales with the number of blocks and balls.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LargeMapTickBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int blocks;
+
+	@Param({ "1", "50" })
+	public int balls;
+
+	BreakoutState state;
+	final PaddleBot bot = new PaddleBot();
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		state = Maps.generated(blocks, balls);
+	}
+
+	@Benchmark
+	public BreakoutState tick() {
+		if (state.isDead() || state.isWon()) {
+			state = Maps.generated(blocks, balls);
+		}
+		bot.play(state, TickBenchmark.ELAPSED_TIME);
+		return state;
+	}
+
+}
@@ -0,0 +1,141 @@
+package breakout.bench;
+
+import java.util.Random;
+
+import breakout.BlockState;
+import breakout.BreakoutFacade;
+import breakout.BreakoutState;
+import breakout.GameMap;
+import breakout.PaddleState;
+import breakout.gui.BreakoutApplication;
+import breakout.radioactivity.Alpha;
+import breakout.radioactivity.Ball;
+import breakout.utils.Point;
+import breakout.utils.Vector;
+
+/**
+ * The game states the benchmarks run on: the maps of `BreakoutApplication`, and
+ * generated maps with many more blocks and balls than fit in a map description.
+ */
+final class Maps {
+
+	static final BreakoutFacade facade = new BreakoutFacade();
+
+	private Maps() {
+	}
+
+	/**
+	 * Return the description of the `BreakoutApplication` map with the given name.
+	 */
+	static String description(String name) {
+		switch (name) {
+		case "initMap":
+			return BreakoutApplication.initMap;
+		case "initMap2":
+			return BreakoutApplication.initMap2;
+		case "initMap3":
+			return BreakoutApplication.initMap3;
+		default:
+			throw new IllegalArgumentException(name);
+		}
+	}
+
+	static BreakoutState fromDescription(String name) {
+		return GameMap.createStateFromDescription(description(name));
+	}
+
+	/**
+	 * Return a state with `blocks` blocks in rows across the top half of a field
+	 * that grows with the number of blocks, and `balls` balls with random
+	 * velocities in the bottom half, each linked to one of `balls / 2 + 1` alphas.
+	 * The same arguments always give the same state.
+	 */
+	static BreakoutState generated(int blocks, int balls) {
+		Random random = new Random(blocks * 31 + balls);
+		int columns = (int) Math.ceil(Math.sqrt(blocks * 2.0));
+		int width = columns * 1000;
+		int height = width * 3 / 5;
+		int rows = (blocks + columns - 1) / columns;
+		int rowHeight = height / 2 / rows;
+
+		BlockState[] blockStates = new BlockState[blocks];
+		for (int k = 0; k < blocks; k++) {
+			Point tl = new Point(k % columns * 1000, k / columns * rowHeight);
+			Point br = tl.plus(new Vector(900, rowHeight * 4 / 5));
+			blockStates[k] = k % 7 == 0 ? facade.createSturdyBlockState(tl, br, 3)
+					: facade.createNormalBlockState(tl, br);
+		}
+
+		Alpha[] alphas = new Alpha[balls / 2 + 1];
+		for (int j = 0; j < alphas.length; j++) {
+			alphas[j] = facade.createAlpha(randomPoint(random, width, height), 700, randomVelocity(random));
+		}
+		Ball[] ballArray = new Ball[balls];
+		for (int i = 0; i < balls; i++) {
+			ballArray[i] = facade.createNormalBall(randomPoint(random, width, height), 700, randomVelocity(random));
+			facade.addLink(ballArray[i], alphas[random.nextInt(alphas.length)]);
+		}
+
+		PaddleState paddle = facade.createNormalPaddleState(new Point(width / 2, height - 1000));
+		return facade.createBreakoutState(alphas, ballArray, blockStates, new Point(width, height), paddle);
+	}
+
+	/**
+	 * Return a state like `generated(blocks, balls)`, but with the blocks bunched
+	 * together in a few clusters of small blocks, and with one block in twenty a
+	 * long slab somewhere else in the top half of the field. Most of the field is
+	 * empty, and the blocks differ a lot in size.
+	 * The same arguments always give the same state.
+	 */
+	static BreakoutState irregular(int blocks, int balls) {
+		Random random = new Random(blocks * 37 + balls);
+		int columns = (int) Math.ceil(Math.sqrt(blocks * 2.0));
+		int width = columns * 1000;
+		int height = width * 3 / 5;
+		int clusters = 4;
+		int clusterSize = Math.max(2000, (int) Math.sqrt(blocks / clusters) * 400);
+		Point[] corners = new Point[clusters];
+		for (int c = 0; c < clusters; c++) {
+			corners[c] = new Point(random.nextInt(width - clusterSize), random.nextInt(height / 2 - clusterSize));
+		}
+
+		BlockState[] blockStates = new BlockState[blocks];
+		for (int k = 0; k < blocks; k++) {
+			Point tl;
+			Point br;
+			if (k % 20 == 0) {
+				int w = Math.min(width / 2, 2000 + random.nextInt(width / 4 + 1));
+				tl = new Point(random.nextInt(width - w), random.nextInt(height / 2 - 400));
+				br = tl.plus(new Vector(w, 100 + random.nextInt(300)));
+			} else {
+				Point corner = corners[k % clusters];
+				tl = corner.plus(new Vector(random.nextInt(clusterSize - 300), random.nextInt(clusterSize - 200)));
+				br = tl.plus(new Vector(100 + random.nextInt(200), 100 + random.nextInt(100)));
+			}
+			blockStates[k] = k % 7 == 0 ? facade.createSturdyBlockState(tl, br, 3)
+					: facade.createNormalBlockState(tl, br);
+		}
+
+		Alpha[] alphas = new Alpha[balls / 2 + 1];
+		for (int j = 0; j < alphas.length; j++) {
+			alphas[j] = facade.createAlpha(randomPoint(random, width, height), 700, randomVelocity(random));
+		}
+		Ball[] ballArray = new Ball[balls];
+		for (int i = 0; i < balls; i++) {
+			ballArray[i] = facade.createNormalBall(randomPoint(random, width, height), 700, randomVelocity(random));
+			facade.addLink(ballArray[i], alphas[random.nextInt(alphas.length)]);
+		}
+
+		PaddleState paddle = facade.createNormalPaddleState(new Point(width / 2, height - 1000));
+		return facade.createBreakoutState(alphas, ballArray, blockStates, new Point(width, height), paddle);
+	}
+
+	private static Point randomPoint(Random random, int width, int height) {
+		return new Point(1000 + random.nextInt(width - 2000), height / 2 + 1000 + random.nextInt(height / 2 - 3000));
+	}
+
+	private static Vector randomVelocity(Random random) {
+		return new Vector(random.nextInt(11) - 5, -1 - random.nextInt(5));
+	}
+
+}
@@ -0,0 +1,34 @@
+package breakout.bench;
+
+import breakout.BallView;
+import breakout.BreakoutState;
+
+/**
+ * Plays a tick the way `GameView` does, with the arrow keys pressed towards the
+ * lowest ball.
+ */
+final class PaddleBot {
+
+	private int lowestX;
+	private int lowestY;
+	private final BallView findLowest = (index, x, y, diameter, vx, vy, eCharge, color) -> {
+		if (y > lowestY) {
+			lowestX = x;
+			lowestY = y;
+		}
+	};
+
+	void play(BreakoutState state, int elapsedTime) {
+		lowestY = Integer.MIN_VALUE;
+		state.forEachBall(findLowest);
+		int paddleX = state.getPaddle().getCenter().getX();
+		int dir = lowestX < paddleX - 500 ? -1 : lowestX > paddleX + 500 ? 1 : 0;
+		if (dir < 0) {
+			state.movePaddleLeft(elapsedTime);
+		} else if (dir > 0) {
+			state.movePaddleRight(elapsedTime);
+		}
+		state.tick(dir, elapsedTime);
+	}
+
+}
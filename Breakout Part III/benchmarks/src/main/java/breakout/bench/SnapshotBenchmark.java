@@ -0,0 +1,79 @@
+package breakout.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import breakout.BreakoutSnapshot;
+import breakout.BreakoutState;
+import breakout.radioactivity.Alpha;
+import breakout.radioactivity.Ball;
+
+/**
+ * Reading the balls and alphas of a state: the cloning getters, which build a
+ * linked copy of every ball and alpha, against the views used for painting;
+ * and copying the whole state with `snapshot()` and `restore()`.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+
+	@Param({ "1", "50", "500" })
+	public int balls;
+
+	BreakoutState state;
+	BreakoutSnapshot snapshot;
+
+	@Setup
+	public void setUp() {
+		state = Maps.generated(100, balls);
+		snapshot = state.snapshot();
+	}
+
+	@Benchmark
+	public Ball[] getBalls() {
+		return state.getBalls();
+	}
+
+	@Benchmark
+	public Alpha[] getAlphas() {
+		return state.getAlphas();
+	}
+
+	@Benchmark
+	public void forEachBall(Blackhole bh) {
+		state.forEachBall((index, x, y, diameter, vx, vy, eCharge, color) -> bh.consume(x + y));
+	}
+
+	@Benchmark
+	public void forEachLink(Blackhole bh) {
+		state.forEachLink((ballIndex, alphaIndex, ballX, ballY, alphaX, alphaY) -> bh.consume(alphaIndex));
+	}
+
+	@Benchmark
+	public BreakoutSnapshot snapshot() {
+		return state.snapshot();
+	}
+
+	@Benchmark
+	public BreakoutState restore() {
+		state.restore(snapshot);
+		return state;
+	}
+
+}
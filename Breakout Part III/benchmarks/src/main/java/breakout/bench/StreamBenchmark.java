@@ -0,0 +1,93 @@
+package breakout.bench;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import breakout.BreakoutState;
+import breakout.StateCodec;
+import breakout.StateStreamEncoder;
+
+/**
+ * Streaming a game to spectators: every tick of a game on one of the maps of
+ * `BreakoutApplication` is followed by a frame, either a whole state from
+ * `StateCodec` (`full`) or a frame from a `StateStreamEncoder` with the
+ * default keyframe interval (`delta`). Besides the ticks per second, the
+ * `bytesPerTick` counter gives the average frame size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamBenchmark {
+
+	@Param({ "initMap", "initMap2", "initMap3" })
+	public String map;
+
+	@Param({ "full", "delta" })
+	public String encoding;
+
+	/**
+	 * The bytes sent, per tick played.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Counters {
+
+		long bytes;
+		long ticks;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			bytes = 0;
+			ticks = 0;
+		}
+
+		public double bytesPerTick() {
+			return ticks == 0 ? 0 : (double) bytes / ticks;
+		}
+
+	}
+
+	BreakoutState state;
+	StateStreamEncoder encoder;
+	final PaddleBot bot = new PaddleBot();
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		newGame();
+	}
+
+	void newGame() {
+		state = Maps.fromDescription(map);
+		encoder = new StateStreamEncoder(StateStreamEncoder.DEFAULT_KEYFRAME_INTERVAL);
+	}
+
+	@Benchmark
+	public ByteBuffer tick(Counters counters) {
+		if (state.isDead() || state.isWon()) {
+			newGame();
+		}
+		bot.play(state, TickBenchmark.ELAPSED_TIME);
+		ByteBuffer frame = encoding.equals("full") ? StateCodec.encode(state) : encoder.encode(state);
+		counters.bytes += frame.remaining();
+		counters.ticks++;
+		return frame;
+	}
+
+}
@@ -0,0 +1,57 @@
+package breakout.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import breakout.BreakoutState;
+
+/**
+ * `BreakoutState.tick` on the maps of `BreakoutApplication`.
+ *
+ * The paddle follows the lowest ball, so that games last, and a game that is
+ * won or lost is started over; the restarts are part of the measurement but
+ * rare compared to the ticks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TickBenchmark {
+
+	static final int ELAPSED_TIME = 20;
+
+	@Param({ "initMap", "initMap2", "initMap3" })
+	public String map;
+
+	BreakoutState state;
+	final PaddleBot bot = new PaddleBot();
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		state = Maps.fromDescription(map);
+	}
+
+	@Benchmark
+	public BreakoutState tick() {
+		if (state.isDead() || state.isWon()) {
+			state = Maps.fromDescription(map);
+		}
+		bot.play(state, ELAPSED_TIME);
+		return state;
+	}
+
+}
@@ -0,0 +1,20 @@
+package breakout;
+
+import java.awt.Color;
+
+/**
+ * Receives the alphas of a BreakoutState one at a time, as primitive values, so that
+ * renderers and inspectors can look at the alphas without any alpha objects being created.
+ * 
+ * @see BreakoutState#forEachAlpha(AlphaView)
+ */
+@FunctionalInterface
+public interface AlphaView {
+
+	/**
+	 * Called for the alpha at position `index` in `getAlphas()`.
+	 * 
+	 * @post The arguments equal the center, diameter, velocity and color of `getAlphas()[index]`.
+	 */
+	void visit(int index, int centerX, int centerY, int diameter, int velocityX, int velocityY, Color color);
+}
@@ -0,0 +1,21 @@
+package breakout;
+
+import java.awt.Color;
+
+/**
+ * Receives the balls of a BreakoutState one at a time, as primitive values, so that
+ * renderers and inspectors can look at the balls without any ball objects being created.
+ * 
+ * @see BreakoutState#forEachBall(BallView)
+ */
+@FunctionalInterface
+public interface BallView {
+
+	/**
+	 * Called for the ball at position `index` in `getBalls()`.
+	 * 
+	 * @post The arguments equal the center, diameter, velocity, eCharge and color of `getBalls()[index]`.
+	 */
+	void visit(int index, int centerX, int centerY, int diameter, int velocityX, int velocityY, int eCharge,
+			Color color);
+}
@@ -0,0 +1,174 @@
+package breakout;
+
+import java.util.Arrays;
+
+import breakout.utils.Rect;
+
+/**
+ * A uniform grid over the game field in which every block is bucketed in the
+ * cells its rectangle overlaps. A ball then only has to be tested against the
+ * blocks in the cells its circle overlaps, instead of against every block.
+ * This suits fields evenly covered with blocks of about the same size.
+ *
+ * @invar | getCellSize() > 0
+ */
+class BlockGrid implements BlockIndex {
+
+	/**
+	 * @invar | cellSize > 0
+	 * @invar | columns > 0 && rows > 0
+	 * @invar | cells.length == columns * rows
+	 * @invar | cellCounts.length == cells.length
+	 */
+	private final int cellSize;
+	private final int columns;
+	private final int rows;
+	/**
+	 * The ids of the blocks overlapping each cell, row-major. Only the first
+	 * `cellCounts[c]` entries of `cells[c]` are in use.
+	 */
+	private final int[][] cells;
+	private final int[] cellCounts;
+
+	/**
+	 * Construct a grid over the given field containing the given blocks; null
+	 * slots are left out.
+	 *
+	 * The cell size is chosen so that there are about as many cells as blocks,
+	 * but never smaller than the largest block.
+	 *
+	 * @pre | field != null
+	 * @pre | blocks != null
+	 * @pre | Arrays.stream(blocks).allMatch(b -> b == null || field.contains(b.getLocation()))
+	 * @inspects blocks
+	 */
+	BlockGrid(Rect field, BlockState[] blocks) {
+		int width = field.getWidth();
+		int height = field.getHeight();
+		int maxBlockSize = 1;
+		for (BlockState block : blocks) {
+			if (block == null) {
+				continue;
+			}
+			Rect loc = block.getLocation();
+			maxBlockSize = Math.max(maxBlockSize, Math.max(loc.getWidth(), loc.getHeight()));
+		}
+		int fairShare = (int) Math.ceil(Math.sqrt((double) width * height / Math.max(1, blocks.length)));
+		this.cellSize = Math.max(1, Math.max(maxBlockSize, fairShare));
+		this.columns = width / cellSize + 1;
+		this.rows = height / cellSize + 1;
+		this.cells = new int[columns * rows][];
+		this.cellCounts = new int[columns * rows];
+
+		for (int id = 0; id < blocks.length; id++) {
+			if (blocks[id] != null) {
+				insert(id, blocks[id].getLocation());
+			}
+		}
+	}
+
+	/**
+	 * Return the side of the square cells of this grid.
+	 */
+	int getCellSize() {
+		return cellSize;
+	}
+
+	@Override
+	public int firstCollision(int cx, int cy, int radius, int vx, int vy, BlockState[] blocks) {
+		int col0 = columnOf(cx - radius);
+		int col1 = columnOf(cx + radius);
+		int row0 = rowOf(cy - radius);
+		int row1 = rowOf(cy + radius);
+
+		int best = -1;
+		for (int row = row0; row <= row1; row++) {
+			for (int col = col0; col <= col1; col++) {
+				int cell = row * columns + col;
+				int[] ids = cells[cell];
+				for (int k = 0; k < cellCounts[cell]; k++) {
+					int id = ids[k];
+					if ((best < 0 || id < best) && blocks[id].getLocation().isHitBy(cx, cy, radius, vx, vy)) {
+						best = id;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	@Override
+	public int firstSweptCollision(int sx, int sy, int dx, int dy, int radius, BlockState[] blocks, int[] skipped,
+			int skippedCount, Sweep sweep) {
+		int col0 = columnOf(Math.min(sx, sx + dx) - radius);
+		int col1 = columnOf(Math.max(sx, sx + dx) + radius);
+		int row0 = rowOf(Math.min(sy, sy + dy) - radius);
+		int row1 = rowOf(Math.max(sy, sy + dy) + radius);
+
+		int best = -1;
+		double bestTime = 0;
+		boolean bestVerticalSide = false;
+		for (int row = row0; row <= row1; row++) {
+			for (int col = col0; col <= col1; col++) {
+				int cell = row * columns + col;
+				int[] ids = cells[cell];
+				for (int k = 0; k < cellCounts[cell]; k++) {
+					int id = ids[k];
+					if (id == best || BlockIndex.contains(skipped, skippedCount, id)) {
+						continue;
+					}
+					if (sweep.cast(blocks[id].getLocation(), radius, sx, sy, dx, dy)
+							&& (best < 0 || sweep.time < bestTime || sweep.time == bestTime && id < best)) {
+						best = id;
+						bestTime = sweep.time;
+						bestVerticalSide = sweep.verticalSide;
+					}
+				}
+			}
+		}
+		sweep.time = bestTime;
+		sweep.verticalSide = bestVerticalSide;
+		return best;
+	}
+
+	@Override
+	public void remove(int id, Rect loc) {
+		for (int row = rowOf(loc.getTopLeft().getY()); row <= rowOf(loc.getBottomRight().getY()); row++) {
+			for (int col = columnOf(loc.getTopLeft().getX()); col <= columnOf(loc.getBottomRight().getX()); col++) {
+				int cell = row * columns + col;
+				int[] ids = cells[cell];
+				for (int k = 0; k < cellCounts[cell]; k++) {
+					if (ids[k] == id) {
+						ids[k] = ids[--cellCounts[cell]];
+						break;
+					}
+				}
+			}
+		}
+	}
+
+	private int columnOf(int x) {
+		return Math.min(columns - 1, Math.max(0, Math.floorDiv(x, cellSize)));
+	}
+
+	private int rowOf(int y) {
+		return Math.min(rows - 1, Math.max(0, Math.floorDiv(y, cellSize)));
+	}
+
+	@Override
+	public boolean insert(int id, Rect loc) {
+		for (int row = rowOf(loc.getTopLeft().getY()); row <= rowOf(loc.getBottomRight().getY()); row++) {
+			for (int col = columnOf(loc.getTopLeft().getX()); col <= columnOf(loc.getBottomRight().getX()); col++) {
+				int cell = row * columns + col;
+				int[] ids = cells[cell];
+				if (ids == null) {
+					ids = cells[cell] = new int[4];
+				} else if (cellCounts[cell] == ids.length) {
+					ids = cells[cell] = Arrays.copyOf(ids, ids.length * 2);
+				}
+				ids[cellCounts[cell]++] = id;
+			}
+		}
+		return true;
+	}
+}
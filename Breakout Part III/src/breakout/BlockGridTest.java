@@ -0,0 +1,147 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import breakout.radioactivity.*;
+import breakout.utils.*;
+
+class BlockGridTest {
+
+	static final Rect field = new Rect(Point.ORIGIN, new Point(50000, 30000));
+	static final Vector[] speeds = new Vector[] { new Vector(4, 5), new Vector(-4, 5), new Vector(4, -5),
+			new Vector(-4, -5), new Vector(0, 5), new Vector(5, 0) };
+
+	Random random;
+	BlockState[] blocks;
+	BlockGrid grid;
+
+	@BeforeEach
+	void setUp() {
+		random = new Random(42);
+		blocks = new BlockState[2000];
+		for (int i = 0; i < blocks.length; i++) {
+			int w = 100 + random.nextInt(3000);
+			int h = 100 + random.nextInt(1500);
+			Point tl = new Point(random.nextInt(50000 - w), random.nextInt(30000 - h));
+			Rect loc = new Rect(tl, tl.plus(new Vector(w, h)));
+			blocks[i] = i % 3 == 0 ? new SturdyBlockState(loc, 3) : new NormalBlockState(loc);
+		}
+		grid = new BlockGrid(field, blocks);
+	}
+
+	// The reference implementation: the first block in array order the ball collides with.
+	static int linearScan(BlockState[] blocks, Ball ball) {
+		for (int i = 0; i < blocks.length; i++) {
+			if (blocks[i] != null && ball.collidesWith(blocks[i].getLocation())) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	static int firstCollision(BlockIndex grid, BlockState[] blocks, Ball ball) {
+		return grid.firstCollision(ball.getCenterX(), ball.getCenterY(), ball.getDiameter() / 2,
+				ball.getVelocityX(), ball.getVelocityY(), blocks);
+	}
+
+	Ball randomBall() {
+		Point center = new Point(random.nextInt(52000) - 1000, random.nextInt(32000) - 1000);
+		return new NormalBall(new Circle(center, 700), speeds[random.nextInt(speeds.length)]);
+	}
+
+	@Test
+	void testFirstCollisionMatchesLinearScan() {
+		for (int i = 0; i < 20000; i++) {
+			Ball ball = randomBall();
+			assertEquals(linearScan(blocks, ball), firstCollision(grid, blocks, ball));
+		}
+	}
+
+	@Test
+	void testFirstCollisionAfterHits() {
+		for (int round = 0; round < 1500; round++) {
+			int id = random.nextInt(blocks.length);
+			if (blocks[id] == null) {
+				continue;
+			}
+			BlockState nb = blocks[id].blockStateAfterHit();
+			if (nb == null) {
+				grid.remove(id, blocks[id].getLocation());
+			}
+			blocks[id] = nb;
+			for (int i = 0; i < 20; i++) {
+				Ball ball = randomBall();
+				assertEquals(linearScan(blocks, ball), firstCollision(grid, blocks, ball));
+			}
+		}
+	}
+
+	// The reference implementation: the block the ball runs into earliest, the first in array order on a tie.
+	static int linearSweep(BlockState[] blocks, int sx, int sy, int dx, int dy, int radius, Sweep sweep) {
+		int best = -1;
+		double bestTime = 0;
+		for (int i = 0; i < blocks.length; i++) {
+			if (blocks[i] != null && sweep.cast(blocks[i].getLocation(), radius, sx, sy, dx, dy)
+					&& (best < 0 || sweep.time < bestTime)) {
+				best = i;
+				bestTime = sweep.time;
+			}
+		}
+		sweep.time = bestTime;
+		return best;
+	}
+
+	@Test
+	void testFirstSweptCollisionMatchesLinearScan() {
+		Sweep expected = new Sweep();
+		Sweep actual = new Sweep();
+		int[] skipped = new int[4];
+		for (int i = 0; i < 20000; i++) {
+			int sx = random.nextInt(52000) - 1000;
+			int sy = random.nextInt(32000) - 1000;
+			int dx = random.nextInt(8001) - 4000;
+			int dy = random.nextInt(8001) - 4000;
+			int id = linearSweep(blocks, sx, sy, dx, dy, 350, expected);
+			assertEquals(id, grid.firstSweptCollision(sx, sy, dx, dy, 350, blocks, skipped, 0, actual));
+			if (id >= 0) {
+				assertEquals(expected.time, actual.time);
+				// skipping the first block finds the next one
+				skipped[0] = id;
+				BlockState first = blocks[id];
+				blocks[id] = null;
+				int next = linearSweep(blocks, sx, sy, dx, dy, 350, expected);
+				blocks[id] = first;
+				assertEquals(next, grid.firstSweptCollision(sx, sy, dx, dy, 350, blocks, skipped, 1, actual));
+			}
+		}
+	}
+
+	@Test
+	void testSweepHitsThinBlock() {
+		Sweep sweep = new Sweep();
+		Rect thin = new Rect(new Point(3000, 2000), new Point(5000, 2100));
+		// passes right through the block during the move
+		assertTrue(sweep.cast(thin, 350, 4000, 3000, 0, -2000));
+		assertEquals((2100 + 350 - 3000) / -2000.0, sweep.time);
+		assertFalse(sweep.verticalSide);
+		// from the side
+		assertTrue(sweep.cast(thin, 350, 1000, 2050, 4000, 0));
+		assertTrue(sweep.verticalSide);
+		// misses, stops short, or overlaps from the start
+		assertFalse(sweep.cast(thin, 350, 1000, 3000, 0, -2000));
+		assertFalse(sweep.cast(thin, 350, 4000, 5000, 0, -2000));
+		assertFalse(sweep.cast(thin, 350, 4000, 2050, 0, -2000));
+	}
+
+	@Test
+	void testNoBlocks() {
+		BlockGrid empty = new BlockGrid(field, new BlockState[] {});
+		assertEquals(-1, firstCollision(empty, new BlockState[] {}, randomBall()));
+	}
+
+}
@@ -0,0 +1,80 @@
+package breakout;
+
+import breakout.utils.Rect;
+
+/**
+ * A broad phase for the collisions between balls and blocks: an index over the
+ * blocks of a BreakoutState that narrows down which blocks a ball has to be
+ * tested against.
+ *
+ * Blocks are identified by their slot in the block store the index was built
+ * from (see BreakoutState). The index only stores ids; the blocks themselves
+ * are looked up in the store that is passed to each query. Whatever the index,
+ * the queries give the same answers as testing every block in slot order.
+ *
+ * @see BroadPhase
+ */
+interface BlockIndex {
+
+	/**
+	 * Return the smallest id of a block in `blocks` that is hit by the ball with
+	 * center (`cx`, `cy`), the given radius and velocity (`vx`, `vy`), or -1 if
+	 * there is none. Since ids follow the order of the blocks, this is the block
+	 * a linear scan over the blocks would find first.
+	 *
+	 * @pre | radius >= 0
+	 * @pre | blocks != null
+	 * @inspects blocks
+	 */
+	int firstCollision(int cx, int cy, int radius, int vx, int vy, BlockState[] blocks);
+
+	/**
+	 * Return the id of the block in `blocks` that the ball with the given radius,
+	 * moving from (`sx`, `sy`) by (`dx`, `dy`), runs into first, or -1 if there is
+	 * none. Blocks whose id is among the first `skippedCount` entries of `skipped`
+	 * are ignored. If the ball runs into several blocks at the same moment, the
+	 * smallest id wins. `sweep` is left describing the impact with the result.
+	 *
+	 * @pre | radius >= 0
+	 * @pre | blocks != null && sweep != null
+	 * @pre | skipped != null && 0 <= skippedCount && skippedCount <= skipped.length
+	 * @inspects blocks, skipped
+	 * @mutates sweep
+	 */
+	int firstSweptCollision(int sx, int sy, int dx, int dy, int radius, BlockState[] blocks, int[] skipped,
+			int skippedCount, Sweep sweep);
+
+	/**
+	 * Remove the block with the given id, occupying the given rectangle, from
+	 * this index. A block that is replaced by a block occupying the same rectangle
+	 * keeps its id and need not be removed.
+	 *
+	 * @pre | loc != null
+	 * @mutates this
+	 */
+	void remove(int id, Rect loc);
+
+	/**
+	 * Put the block with the given id, occupying the given rectangle, back into
+	 * this index after it was removed, and return whether that worked. An index
+	 * may refuse a block it was not built with; the caller then has to build a
+	 * new index.
+	 *
+	 * @pre | loc != null
+	 * @mutates this
+	 */
+	boolean insert(int id, Rect loc);
+
+	/**
+	 * Return whether `id` occurs among the first `count` entries of `ids`.
+	 */
+	static boolean contains(int[] ids, int count, int id) {
+		for (int k = 0; k < count; k++) {
+			if (ids[k] == id) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
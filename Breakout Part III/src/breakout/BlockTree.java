@@ -0,0 +1,271 @@
+package breakout;
+
+import java.util.Arrays;
+
+import breakout.utils.Rect;
+
+/**
+ * A bounding volume hierarchy over the blocks: a binary tree whose leaves are
+ * the blocks and whose inner nodes hold the bounding box of the blocks below
+ * them. A query only descends into the nodes whose box it overlaps.
+ *
+ * The tree is built once, top-down, by splitting the blocks at the median of
+ * their centers along the longer side of their bounding box, so it stays
+ * balanced however the blocks are spread and however their sizes differ, and
+ * it takes memory in proportion to the number of blocks rather than to the
+ * area of the field. Removing a block empties its leaf and shrinks the boxes
+ * above it, and inserting it again fills the leaf back in; the tree is never
+ * rebalanced, and it only takes back the blocks it was built with.
+ *
+ * Nodes are stored in parallel arrays, and queries use a preallocated stack,
+ * so neither queries nor removals allocate.
+ */
+class BlockTree implements BlockIndex {
+
+	private static final int NONE = -1;
+
+	/**
+	 * The bounding box of each node; an empty node has `minX > maxX`.
+	 * `left` and `right` are the children of an inner node, and `leafBlock`
+	 * the block id of a leaf (`NONE` for an inner node).
+	 *
+	 * @invar | root == NONE || 0 <= root && root < nodeCount
+	 */
+	private final int[] minX, minY, maxX, maxY;
+	private final int[] left, right, parent, leafBlock;
+	private int nodeCount;
+	private final int root;
+	/**
+	 * The leaf of each block id the tree was built with, or `NONE` for the other
+	 * ids. The leaf of a removed block stays, with an empty box.
+	 */
+	private final int[] leafOf;
+	private final int[] stack;
+
+	// Scratch space for the build: the centers of the blocks, by id.
+	private int[] centerX, centerY;
+
+	/**
+	 * Construct a tree containing the given blocks; null slots are left out.
+	 *
+	 * @pre | blocks != null
+	 * @inspects blocks
+	 */
+	BlockTree(BlockState[] blocks) {
+		int[] ids = new int[blocks.length];
+		int count = 0;
+		centerX = new int[blocks.length];
+		centerY = new int[blocks.length];
+		for (int id = 0; id < blocks.length; id++) {
+			if (blocks[id] != null) {
+				Rect loc = blocks[id].getLocation();
+				centerX[id] = (loc.getTopLeft().getX() + loc.getBottomRight().getX()) / 2;
+				centerY[id] = (loc.getTopLeft().getY() + loc.getBottomRight().getY()) / 2;
+				ids[count++] = id;
+			}
+		}
+		int capacity = Math.max(1, 2 * count - 1);
+		minX = new int[capacity];
+		minY = new int[capacity];
+		maxX = new int[capacity];
+		maxY = new int[capacity];
+		left = new int[capacity];
+		right = new int[capacity];
+		parent = new int[capacity];
+		leafBlock = new int[capacity];
+		leafOf = new int[blocks.length];
+		Arrays.fill(leafOf, NONE);
+
+		root = count == 0 ? NONE : build(blocks, ids, 0, count, NONE);
+		centerX = null;
+		centerY = null;
+		// a median split halves the blocks at every level
+		int depth = 1;
+		while ((1 << (depth - 1)) < count) {
+			depth++;
+		}
+		stack = new int[depth + 1];
+	}
+
+	// Build the subtree over ids[from..to) and return its node.
+	private int build(BlockState[] blocks, int[] ids, int from, int to, int parentNode) {
+		int node = nodeCount++;
+		parent[node] = parentNode;
+		if (to - from == 1) {
+			int id = ids[from];
+			Rect loc = blocks[id].getLocation();
+			minX[node] = loc.getTopLeft().getX();
+			minY[node] = loc.getTopLeft().getY();
+			maxX[node] = loc.getBottomRight().getX();
+			maxY[node] = loc.getBottomRight().getY();
+			left[node] = right[node] = NONE;
+			leafBlock[node] = id;
+			leafOf[id] = node;
+			return node;
+		}
+		int cMinX = Integer.MAX_VALUE, cMinY = Integer.MAX_VALUE;
+		int cMaxX = Integer.MIN_VALUE, cMaxY = Integer.MIN_VALUE;
+		for (int k = from; k < to; k++) {
+			cMinX = Math.min(cMinX, centerX[ids[k]]);
+			cMaxX = Math.max(cMaxX, centerX[ids[k]]);
+			cMinY = Math.min(cMinY, centerY[ids[k]]);
+			cMaxY = Math.max(cMaxY, centerY[ids[k]]);
+		}
+		int[] keys = cMaxX - cMinX >= cMaxY - cMinY ? centerX : centerY;
+		int mid = (from + to) / 2;
+		select(ids, keys, from, to - 1, mid);
+		leafBlock[node] = NONE;
+		left[node] = build(blocks, ids, from, mid, node);
+		right[node] = build(blocks, ids, mid, to, node);
+		refit(node);
+		return node;
+	}
+
+	// Reorder ids[lo..hi] so that ids[k] has the key it would have if they were sorted (quickselect).
+	private static void select(int[] ids, int[] keys, int lo, int hi, int k) {
+		while (lo < hi) {
+			int pivot = keys[ids[(lo + hi) >>> 1]];
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (keys[ids[i]] < pivot) {
+					i++;
+				}
+				while (keys[ids[j]] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					int t = ids[i];
+					ids[i] = ids[j];
+					ids[j] = t;
+					i++;
+					j--;
+				}
+			}
+			if (k <= j) {
+				hi = j;
+			} else if (k >= i) {
+				lo = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+	// Set the box of an inner node to the union of the boxes of its children; return whether it changed.
+	private boolean refit(int node) {
+		int l = left[node];
+		int r = right[node];
+		int nMinX = Math.min(minX[l], minX[r]);
+		int nMinY = Math.min(minY[l], minY[r]);
+		int nMaxX = Math.max(maxX[l], maxX[r]);
+		int nMaxY = Math.max(maxY[l], maxY[r]);
+		if (nMinX == minX[node] && nMinY == minY[node] && nMaxX == maxX[node] && nMaxY == maxY[node]) {
+			return false;
+		}
+		minX[node] = nMinX;
+		minY[node] = nMinY;
+		maxX[node] = nMaxX;
+		maxY[node] = nMaxY;
+		return true;
+	}
+
+	private boolean overlaps(int node, int qMinX, int qMinY, int qMaxX, int qMaxY) {
+		return minX[node] <= qMaxX && qMinX <= maxX[node] && minY[node] <= qMaxY && qMinY <= maxY[node];
+	}
+
+	@Override
+	public int firstCollision(int cx, int cy, int radius, int vx, int vy, BlockState[] blocks) {
+		if (root == NONE) {
+			return -1;
+		}
+		int qMinX = cx - radius, qMinY = cy - radius, qMaxX = cx + radius, qMaxY = cy + radius;
+		int best = -1;
+		int top = 0;
+		stack[top++] = root;
+		while (top > 0) {
+			int node = stack[--top];
+			if (!overlaps(node, qMinX, qMinY, qMaxX, qMaxY)) {
+				continue;
+			}
+			int id = leafBlock[node];
+			if (id != NONE) {
+				if ((best < 0 || id < best) && blocks[id].getLocation().isHitBy(cx, cy, radius, vx, vy)) {
+					best = id;
+				}
+			} else {
+				stack[top++] = right[node];
+				stack[top++] = left[node];
+			}
+		}
+		return best;
+	}
+
+	@Override
+	public int firstSweptCollision(int sx, int sy, int dx, int dy, int radius, BlockState[] blocks, int[] skipped,
+			int skippedCount, Sweep sweep) {
+		int best = -1;
+		double bestTime = 0;
+		boolean bestVerticalSide = false;
+		if (root != NONE) {
+			int qMinX = Math.min(sx, sx + dx) - radius;
+			int qMinY = Math.min(sy, sy + dy) - radius;
+			int qMaxX = Math.max(sx, sx + dx) + radius;
+			int qMaxY = Math.max(sy, sy + dy) + radius;
+			int top = 0;
+			stack[top++] = root;
+			while (top > 0) {
+				int node = stack[--top];
+				if (!overlaps(node, qMinX, qMinY, qMaxX, qMaxY)) {
+					continue;
+				}
+				int id = leafBlock[node];
+				if (id == NONE) {
+					stack[top++] = right[node];
+					stack[top++] = left[node];
+				} else if (!BlockIndex.contains(skipped, skippedCount, id)
+						&& sweep.cast(blocks[id].getLocation(), radius, sx, sy, dx, dy)
+						&& (best < 0 || sweep.time < bestTime || sweep.time == bestTime && id < best)) {
+					best = id;
+					bestTime = sweep.time;
+					bestVerticalSide = sweep.verticalSide;
+				}
+			}
+		}
+		sweep.time = bestTime;
+		sweep.verticalSide = bestVerticalSide;
+		return best;
+	}
+
+	@Override
+	public void remove(int id, Rect loc) {
+		int node = leafOf[id];
+		if (node == NONE) {
+			return;
+		}
+		// an empty box, which no query overlaps and which does not widen its parent's
+		minX[node] = minY[node] = Integer.MAX_VALUE;
+		maxX[node] = maxY[node] = Integer.MIN_VALUE;
+		refitAncestors(node);
+	}
+
+	@Override
+	public boolean insert(int id, Rect loc) {
+		int node = leafOf[id];
+		if (node == NONE) {
+			return false;
+		}
+		minX[node] = loc.getTopLeft().getX();
+		minY[node] = loc.getTopLeft().getY();
+		maxX[node] = loc.getBottomRight().getX();
+		maxY[node] = loc.getBottomRight().getY();
+		refitAncestors(node);
+		return true;
+	}
+
+	private void refitAncestors(int node) {
+		for (int p = parent[node]; p != NONE && refit(p); p = parent[p]) {
+		}
+	}
+
+}
@@ -0,0 +1,153 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import breakout.radioactivity.*;
+import breakout.utils.*;
+
+class BlockTreeTest {
+
+	Random random;
+	BlockState[] blocks;
+	BlockIndex tree;
+	BlockIndex linear;
+
+	// A few tight clusters of small blocks and some large blocks in between, in a large field.
+	@BeforeEach
+	void setUp() {
+		random = new Random(7);
+		blocks = new BlockState[1500];
+		for (int i = 0; i < blocks.length; i++) {
+			int w, h, x, y;
+			if (i % 50 == 0) {
+				w = 2000 + random.nextInt(8000);
+				h = 500 + random.nextInt(3000);
+				x = random.nextInt(50000 - w);
+				y = random.nextInt(30000 - h);
+			} else {
+				int cluster = i % 4;
+				w = 100 + random.nextInt(400);
+				h = 100 + random.nextInt(200);
+				x = 2000 + cluster * 12000 + random.nextInt(3000);
+				y = 3000 + cluster * 6000 + random.nextInt(2000);
+			}
+			Point tl = new Point(x, y);
+			Rect loc = new Rect(tl, tl.plus(new Vector(w, h)));
+			blocks[i] = i % 3 == 0 ? new SturdyBlockState(loc, 3) : new NormalBlockState(loc);
+		}
+		tree = new BlockTree(blocks);
+		linear = new LinearBlockScan();
+	}
+
+	Ball randomBall() {
+		Point center = new Point(random.nextInt(52000) - 1000, random.nextInt(32000) - 1000);
+		Vector speed = BlockGridTest.speeds[random.nextInt(BlockGridTest.speeds.length)];
+		return new NormalBall(new Circle(center, 100 + random.nextInt(1500)), speed);
+	}
+
+	@Test
+	void testFirstCollisionMatchesLinearScan() {
+		for (int i = 0; i < 20000; i++) {
+			Ball ball = randomBall();
+			int expected = BlockGridTest.linearScan(blocks, ball);
+			assertEquals(expected, BlockGridTest.firstCollision(tree, blocks, ball));
+			assertEquals(expected, BlockGridTest.firstCollision(linear, blocks, ball));
+		}
+	}
+
+	@Test
+	void testFirstCollisionAfterHits() {
+		for (int round = 0; round < 2500; round++) {
+			int id = random.nextInt(blocks.length);
+			if (blocks[id] == null) {
+				continue;
+			}
+			BlockState nb = blocks[id].blockStateAfterHit();
+			if (nb == null) {
+				tree.remove(id, blocks[id].getLocation());
+				linear.remove(id, blocks[id].getLocation());
+			}
+			blocks[id] = nb;
+			for (int i = 0; i < 10; i++) {
+				Ball ball = randomBall();
+				int expected = BlockGridTest.linearScan(blocks, ball);
+				assertEquals(expected, BlockGridTest.firstCollision(tree, blocks, ball));
+				assertEquals(expected, BlockGridTest.firstCollision(linear, blocks, ball));
+			}
+		}
+	}
+
+	@Test
+	void testFirstSweptCollisionMatchesLinearScan() {
+		Sweep expected = new Sweep();
+		Sweep actual = new Sweep();
+		int[] skipped = new int[1];
+		for (int round = 0; round < 5000; round++) {
+			if (round % 5 == 0) {
+				int id = random.nextInt(blocks.length);
+				if (blocks[id] != null) {
+					tree.remove(id, blocks[id].getLocation());
+					blocks[id] = null;
+				}
+			}
+			int sx = random.nextInt(52000) - 1000;
+			int sy = random.nextInt(32000) - 1000;
+			int dx = random.nextInt(8001) - 4000;
+			int dy = random.nextInt(8001) - 4000;
+			int id = BlockGridTest.linearSweep(blocks, sx, sy, dx, dy, 350, expected);
+			assertEquals(id, tree.firstSweptCollision(sx, sy, dx, dy, 350, blocks, skipped, 0, actual));
+			assertEquals(id, linear.firstSweptCollision(sx, sy, dx, dy, 350, blocks, skipped, 0, actual));
+			if (id >= 0) {
+				assertEquals(expected.time, actual.time);
+				skipped[0] = id;
+				BlockState first = blocks[id];
+				blocks[id] = null;
+				int next = BlockGridTest.linearSweep(blocks, sx, sy, dx, dy, 350, expected);
+				blocks[id] = first;
+				assertEquals(next, tree.firstSweptCollision(sx, sy, dx, dy, 350, blocks, skipped, 1, actual));
+			}
+		}
+	}
+
+	@Test
+	void testRemoveAll() {
+		for (int id = 0; id < blocks.length; id++) {
+			tree.remove(id, blocks[id].getLocation());
+			blocks[id] = null;
+		}
+		assertEquals(-1, BlockGridTest.firstCollision(tree, blocks, randomBall()));
+		BlockTree empty = new BlockTree(blocks);
+		assertEquals(-1, BlockGridTest.firstCollision(empty, blocks, randomBall()));
+		assertFalse(empty.insert(0, new Rect(Point.ORIGIN, new Point(100, 100))));
+	}
+
+	@Test
+	void testInsertAgain() {
+		BlockState[] all = blocks.clone();
+		BlockIndex grid = new BlockGrid(BlockGridTest.field, blocks);
+		for (int round = 0; round < 3000; round++) {
+			int id = random.nextInt(blocks.length);
+			if (blocks[id] != null) {
+				tree.remove(id, blocks[id].getLocation());
+				grid.remove(id, blocks[id].getLocation());
+				blocks[id] = null;
+			} else {
+				assertTrue(tree.insert(id, all[id].getLocation()));
+				assertTrue(grid.insert(id, all[id].getLocation()));
+				blocks[id] = all[id];
+			}
+			for (int i = 0; i < 5; i++) {
+				Ball ball = randomBall();
+				int expected = BlockGridTest.linearScan(blocks, ball);
+				assertEquals(expected, BlockGridTest.firstCollision(tree, blocks, ball));
+				assertEquals(expected, BlockGridTest.firstCollision(grid, blocks, ball));
+			}
+		}
+	}
+
+}
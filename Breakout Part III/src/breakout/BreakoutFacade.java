@@ -4,6 +4,8 @@ package breakout;
 import java.awt.Color;
 import java.util.Set;
 
+import breakout.journal.JournalWriter;
+import breakout.metrics.TickMetrics;
 import breakout.radioactivity.*;
 import breakout.utils.*;
 
@@ -118,6 +120,18 @@ public class BreakoutFacade {
 		return breakoutState.getAlphas();
 	}
 
+	public void forEachBall(BreakoutState breakoutState, BallView view) {
+		breakoutState.forEachBall(view);
+	}
+
+	public void forEachAlpha(BreakoutState breakoutState, AlphaView view) {
+		breakoutState.forEachAlpha(view);
+	}
+
+	public void forEachLink(BreakoutState breakoutState, LinkView view) {
+		breakoutState.forEachLink(view);
+	}
+
 	public Color getColor(BlockState block) {
 		return block.getColor();
 	}
@@ -242,11 +256,71 @@ public class BreakoutFacade {
 	
 	
 	public int getBallsLen(BreakoutState state) {
-		return getBalls(state).length;
+		return state.getBallCount();
+	}
+	
+	public int getAlphasLen(BreakoutState state) {
+		return state.getAlphaCount();
+	}
+	
+	public int getMaxAlphaCount(BreakoutState state) {
+		return state.getMaxAlphaCount();
+	}
+	
+	public void setMaxAlphaCount(BreakoutState state, int maxAlphaCount) {
+		state.setMaxAlphaCount(maxAlphaCount);
+	}
+	
+	public TickMetrics getMetrics(BreakoutState state) {
+		return state.getMetrics();
+	}
+	
+	public void setMetrics(BreakoutState state, TickMetrics metrics) {
+		state.setMetrics(metrics);
+	}
+	
+	public CollisionMode getCollisionMode(BreakoutState state) {
+		return state.getCollisionMode();
+	}
+	
+	public void setCollisionMode(BreakoutState state, CollisionMode collisionMode) {
+		state.setCollisionMode(collisionMode);
+	}
+	
+	public BroadPhase getBroadPhase(BreakoutState state) {
+		return state.getBroadPhase();
+	}
+	
+	public void setBroadPhase(BreakoutState state, BroadPhase broadPhase) {
+		state.setBroadPhase(broadPhase);
+	}
+	
+	public BreakoutSnapshot snapshot(BreakoutState state) {
+		return state.snapshot();
+	}
+	
+	public void restore(BreakoutState state, BreakoutSnapshot snapshot) {
+		state.restore(snapshot);
+	}
+	
+	public long checksum(BreakoutState state) {
+		return state.checksum();
+	}
+	
+	public JournalWriter getJournal(BreakoutState state) {
+		return state.getJournal();
+	}
+	
+	public void setJournal(BreakoutState state, JournalWriter journal) {
+		state.setJournal(journal);
 	}
 	
 	public int getBlocksLen(BreakoutState state) {
-		return getBlocks(state).length;
+		return state.getBlockCount();
+	}
+	
+	public long getBlockVersion(BreakoutState state) {
+		return state.getBlockVersion();
 	}
 	
 	/**
@@ -0,0 +1,98 @@
+package breakout;
+
+import breakout.radioactivity.LinkGraph;
+import breakout.utils.Point;
+
+/**
+ * A copy of everything that changes while a BreakoutState is played: its balls
+ * (including the lifetimes of supercharged balls), alphas, links, blocks and
+ * paddle. See `BreakoutState.snapshot()` and `BreakoutState.restore()`.
+ *
+ * The balls and alphas are kept like in the state itself, as columns of ints,
+ * here packed one after the other in a single array, so that taking or
+ * restoring a snapshot is a handful of `System.arraycopy` calls. Blocks and
+ * paddle states are immutable and are shared with the state.
+ *
+ * Settings of the state, such as its collision mode, broad phase, metrics and
+ * maximum number of alphas, are not part of a snapshot.
+ *
+ * @immutable
+ */
+public final class BreakoutSnapshot {
+
+	/**
+	 * The number of int columns per ball: x, y, vx, vy, diameter, lifetime and kind.
+	 */
+	static final int BALL_COLUMNS = 7;
+	/**
+	 * The number of int columns per alpha: x, y, vx, vy and diameter.
+	 */
+	static final int ALPHA_COLUMNS = 5;
+
+	/**
+	 * Column `c` of ball `i` is `balls[c * ballCount + i]`, and likewise for the alphas.
+	 *
+	 * @invar | balls.length == BALL_COLUMNS * ballCount
+	 * @invar | alphas.length == ALPHA_COLUMNS * alphaCount
+	 * @invar | links.getBallCount() == ballCount && links.getAlphaCount() == alphaCount
+	 * @representationObject
+	 */
+	final Point bottomRight;
+	final int ballCount;
+	final int[] balls;
+	final int alphaCount;
+	final int[] alphas;
+	final LinkGraph links;
+	final BlockState[] blocks;
+	final int liveBlockCount;
+	final PaddleState paddle;
+
+	BreakoutSnapshot(Point bottomRight, int ballCount, int[] balls, int alphaCount, int[] alphas, LinkGraph links,
+			BlockState[] blocks, int liveBlockCount, PaddleState paddle) {
+		this.bottomRight = bottomRight;
+		this.ballCount = ballCount;
+		this.balls = balls;
+		this.alphaCount = alphaCount;
+		this.alphas = alphas;
+		this.links = links;
+		this.blocks = blocks;
+		this.liveBlockCount = liveBlockCount;
+		this.paddle = paddle;
+	}
+
+	/**
+	 * Return the bottom right corner of the field of the state this snapshot was
+	 * taken of.
+	 */
+	public Point getBottomRight() {
+		return bottomRight;
+	}
+
+	public int getBallCount() {
+		return ballCount;
+	}
+
+	public int getAlphaCount() {
+		return alphaCount;
+	}
+
+	/**
+	 * Return the number of blocks that were left when this snapshot was taken.
+	 */
+	public int getBlockCount() {
+		return liveBlockCount;
+	}
+
+	/**
+	 * Return the number of block slots of the state this snapshot was taken of:
+	 * the number of blocks its map started with.
+	 */
+	public int getBlockSlotCount() {
+		return blocks.length;
+	}
+
+	public PaddleState getPaddle() {
+		return paddle;
+	}
+
+}
@@ -1,18 +1,27 @@
 package breakout;
 
+import java.awt.Color;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import java.util.Arrays;
 
+import breakout.jfr.GameEvents;
+import breakout.jfr.GameTickEvent;
+import breakout.journal.JournalWriter;
+import breakout.metrics.TickEvent;
+import breakout.metrics.TickMetrics;
+import breakout.metrics.TickPhase;
 import breakout.utils.*;
 import breakout.radioactivity.*;
 
@@ -41,31 +50,141 @@ import breakout.radioactivity.*;
 public class BreakoutState {
 
 	private static final Vector PADDLE_VEL = new Vector(10, 0);
+	// PADDLE_VEL scaled by the usual paddle directions -1, 0 and 1, so that tick need not allocate them.
+	private static final Vector[] PADDLE_DIR_VELS = new Vector[] { PADDLE_VEL.scaled(-1), PADDLE_VEL.scaled(0),
+			PADDLE_VEL };
 	public static final int MAX_BALL_REPLICATE = 5;
 	private static final Vector[] BALL_VEL_VARIATIONS = new Vector[] { new Vector(0, 0), new Vector(2, -2),
 			new Vector(-2, 2), new Vector(2, 2), new Vector(-2, -2) };
 	public static int MAX_ELAPSED_TIME = 50;
+	/**
+	 * The number of blocks a ball can bounce on during one tick in the `SWEPT`
+	 * collision mode.
+	 */
+	public static final int MAX_SWEPT_HITS = 4;
 	/**
 	 * @invar | bottomRight != null
 	 * @invar | Point.ORIGIN.isUpAndLeftFrom(bottomRight)
 	 */
 	private final Point bottomRight;
 	/**
-	 * @invar | balls != null
-	 * @invar | Arrays.stream(balls).allMatch(b -> getFieldInternal().contains(b.getLocation()))
-	 * @invar | Arrays.stream(balls).allMatch(b -> b != null)
-	 * @invar | Arrays.stream(balls).allMatch(b -> b.getLinkedAlphas().stream().allMatch(a -> a.getLinkedBalls().contains(b) ))
+	 * The balls of this state, stored as parallel arrays indexed by ball number
+	 * (structure of arrays): ball `i` has its center at (`ballX[i]`, `ballY[i]`),
+	 * diameter `ballDiameter[i]` and velocity (`ballVX[i]`, `ballVY[i]`); its eCharge
+	 * is kept by `links`. `ballKind[i]` tells whether it is a normal or a supercharged
+	 * ball; `ballLifetime[i]` is the remaining lifetime of a supercharged ball and -1
+	 * for a normal ball. Only the first `ballCount` entries are in use.
+	 * 
+	 * Ball objects are only created when a client asks for them (see `getBalls()`),
+	 * or temporarily when a collision with a block or the paddle is delegated to the
+	 * ball's own behaviour.
+	 * 
+	 * @invar | 0 <= ballCount && ballCount <= ballX.length
+	 * @invar | ballY.length == ballX.length && ballVX.length == ballX.length && ballVY.length == ballX.length
+	 * @invar | ballDiameter.length == ballX.length
+	 * @invar | ballLifetime.length == ballX.length && ballKind.length == ballX.length
+	 * @invar | IntStream.range(0, ballCount).allMatch(i -> getFieldInternal().contains(new Point(ballX[i], ballY[i])))
+	 * @representationObject
+	 */
+	private int ballCount;
+	private int[] ballX = {};
+	private int[] ballY = {};
+	private int[] ballVX = {};
+	private int[] ballVY = {};
+	private int[] ballDiameter = {};
+	private int[] ballLifetime = {};
+	private int[] ballKind = {};
+	/**
+	 * Where each ball was at the start of the current tick; only kept up to date
+	 * in the `SWEPT` collision mode.
+	 *
+	 * @invar | ballStartX.length == ballX.length && ballStartY.length == ballX.length
+	 * @representationObject
+	 */
+	private int[] ballStartX = {};
+	private int[] ballStartY = {};
+	static final int NORMAL_BALL = 0;
+	static final int SUPERCHARGED_BALL = 1;
+	/**
+	 * The alphas of this state, stored like the balls. Alphas always have eCharge 1.
+	 * 
+	 * @invar | 0 <= alphaCount && alphaCount <= alphaX.length
+	 * @invar | alphaY.length == alphaX.length && alphaVX.length == alphaX.length && alphaVY.length == alphaX.length
+	 * @invar | alphaDiameter.length == alphaX.length
+	 * @invar | IntStream.range(0, alphaCount).allMatch(i -> getFieldInternal().contains(new Point(alphaX[i], alphaY[i])))
 	 * @representationObject
-	 * @representationObjects Each ball is a representation object
 	 */
-	private Ball[] balls;
+	private int alphaCount;
+	private int[] alphaX = {};
+	private int[] alphaY = {};
+	private int[] alphaVX = {};
+	private int[] alphaVY = {};
+	private int[] alphaDiameter = {};
+	/**
+	 * The links between balls and alphas, which also keep the eCharges of the balls.
+	 * Ball and alpha ids in the graph are their numbers in the arrays above.
+	 * 
+	 * @invar | links != null
+	 * @invar | links.getBallCount() == ballCount
+	 * @invar | links.getAlphaCount() == alphaCount
+	 * @representationObject
+	 */
+	private final LinkGraph links = new LinkGraph();
+	/**
+	 * The number of alphas above which a paddle hit no longer emits a new alpha.
+	 * 
+	 * @invar | maxAlphaCount >= 0
+	 */
+	private int maxAlphaCount = Integer.MAX_VALUE;
+	/**
+	 * The recorder that ticks report their timings and events to, or null if they
+	 * are not measured.
+	 */
+	private TickMetrics metrics;
+	/**
+	 * The journal that ticks and paddle moves are recorded to, or null if they
+	 * are not recorded.
+	 */
+	private JournalWriter journal;
 	/**
+	 * @invar | collisionMode != null
+	 */
+	private CollisionMode collisionMode = CollisionMode.DISCRETE;
+	// Scratch space for the swept collisions of one ball: the impact found last, and
+	// the blocks the ball has already run into this tick.
+	private final Sweep sweep = new Sweep();
+	private final int[] sweptBlocks = new int[2 * MAX_SWEPT_HITS];
+	// Scratch space for the renumbering done when dead balls or alphas are removed.
+	private int[] newNumbers = {};
+	/**
+	 * The block store: one slot per block given to the constructor, in the same order.
+	 * A destroyed block leaves a null slot behind; a block that is replaced after a hit
+	 * keeps its slot. This makes removing or replacing a block O(1).
+	 * 
 	 * @invar | blocks !=null
-	 * @invar | Arrays.stream(blocks).allMatch(b -> getFieldInternal().contains(b.getLocation()))
+	 * @invar | Arrays.stream(blocks).allMatch(b -> b == null || getFieldInternal().contains(b.getLocation()))
+	 * @invar | liveBlockCount == Arrays.stream(blocks).filter(b -> b != null).count()
 	 * @representationObject
 	 */
-	
-	private BlockState[] blocks;
+	private final BlockState[] blocks;
+	private int liveBlockCount;
+	/**
+	 * The number of times the blocks changed: a block was hit, and so replaced or
+	 * destroyed, or a snapshot with other blocks was restored.
+	 * 
+	 * @invar | blockVersion >= 0
+	 */
+	private long blockVersion;
+	/**
+	 * Spatial index over the blocks, used to find the block a ball collides with.
+	 * Block ids in the index are the slots in `blocks`.
+	 * 
+	 * @invar | broadPhase != null
+	 * @invar | blockIndex != null
+	 * @representationObject
+	 */
+	private BroadPhase broadPhase = BroadPhase.GRID;
+	private BlockIndex blockIndex;
 	/**
 	 * @invar | paddle != null
 	 * @invar | getFieldInternal().contains(paddle.getLocation())
@@ -76,16 +195,6 @@ public class BreakoutState {
 	private final Rect rightWall;
 	private final Rect leftWall;
 	private final Rect[] walls;
-	/**
-	 * 
-	 * @invar | alphas != null
-	 * @invar | Arrays.stream(alphas).allMatch(a -> getFieldInternal().contains(a.getLocation()))
-	 * @invar | Arrays.stream(alphas).allMatch(a -> a != null)
-	 * @invar | Arrays.stream(alphas).allMatch(a -> a.getLinkedBalls().stream().allMatch(b -> b.getLinkedAlphas().contains(a) ))
-	 * @representationObject
-	 * @representationOjbects Each Alpha on itself is representation object
-	 */
-	private Alpha[] alphas= {};
 
 	/**
 	 * Construct a new BreakoutState with the given balls, blocks, paddle.
@@ -149,22 +258,63 @@ public class BreakoutState {
 		if (!Arrays.stream(balls).allMatch(b -> b != null)) 
 			throw new IllegalArgumentException();
 
-		// balls.clone() does a shallow copy by default
-		this.balls = balls;
-		
-		
-		// balls.clone() does a shallow copy by default
-		this.alphas = alphas;
-		
-		
 		this.blocks = blocks.clone();
+		this.liveBlockCount = blocks.length;
+		this.blockIndex = broadPhase.createIndex(getFieldInternal(), this.blocks);
 		this.paddle = paddle;
 
-		this.topWall = new Rect(new Point(0, -1000), new Point(bottomRight.getX(), 0));
-		this.rightWall = new Rect(new Point(bottomRight.getX(), 0),
-				new Point(bottomRight.getX() + 1000, bottomRight.getY()));
-		this.leftWall = new Rect(new Point(-1000, 0), new Point(0, bottomRight.getY()));
-		this.walls = new Rect[] { topWall, rightWall, leftWall };
+		this.walls = wallsAround(bottomRight);
+		this.topWall = walls[0];
+		this.rightWall = walls[1];
+		this.leftWall = walls[2];
+
+		IdentityHashMap<Alpha, Integer> alphaNumbers = new IdentityHashMap<>();
+		for (Alpha alpha : alphas) {
+			alphaNumbers.put(alpha, addAlpha(alpha));
+		}
+		for (Ball ball : balls) {
+			int b = addBall(ball);
+			// links to alphas that are not part of this state are dropped
+			for (Alpha alpha : ball.getLinkedAlphas()) {
+				Integer a = alphaNumbers.get(alpha);
+				if (a != null) {
+					links.link(b, a);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Construct a BreakoutState with the given field, block slots (null for a
+	 * destroyed block) and paddle, and no balls or alphas yet, for `StateCodec`
+	 * to restore a decoded snapshot into.
+	 * 
+	 * @pre | bottomRight != null && Point.ORIGIN.isUpAndLeftFrom(bottomRight)
+	 * @pre | blocks != null
+	 * @pre | Arrays.stream(blocks).allMatch(b -> b == null || new Rect(Point.ORIGIN, bottomRight).contains(b.getLocation()))
+	 * @pre | paddle != null && new Rect(Point.ORIGIN, bottomRight).contains(paddle.getLocation())
+	 */
+	BreakoutState(Point bottomRight, BlockState[] blocks, PaddleState paddle) {
+		this.bottomRight = bottomRight;
+		this.blocks = blocks.clone();
+		for (BlockState block : blocks) {
+			if (block != null) {
+				liveBlockCount++;
+			}
+		}
+		this.blockIndex = broadPhase.createIndex(getFieldInternal(), this.blocks);
+		this.paddle = paddle;
+		this.walls = wallsAround(bottomRight);
+		this.topWall = walls[0];
+		this.rightWall = walls[1];
+		this.leftWall = walls[2];
+	}
+
+	// The top, right and left walls, just outside the field.
+	private static Rect[] wallsAround(Point bottomRight) {
+		return new Rect[] { new Rect(new Point(0, -1000), new Point(bottomRight.getX(), 0)),
+				new Rect(new Point(bottomRight.getX(), 0), new Point(bottomRight.getX() + 1000, bottomRight.getY())),
+				new Rect(new Point(-1000, 0), new Point(0, bottomRight.getY())) };
 	}
 
 	/**
@@ -176,25 +326,8 @@ public class BreakoutState {
 	 * 
 	 */
 	public Ball[] getBalls() {
-		
-		Alpha[] clonedAlphas = new Alpha[alphas.length];
-		Ball[] clonedBalls = new Ball[balls.length];
-		for (int i = 0; i < balls.length; i++) {
-			clonedBalls[i] = balls[i].shallowClone();
-		}
-		for (int i = 0; i < alphas.length; i++) {
-			clonedAlphas[i] = alphas[i].shallowClone();
-		}
-		
-		for (int i = 0; i < balls.length; i++) {
-			for (Alpha alpha: balls[i].getLinkedAlphas()) {
-				for (int j = 0; j < alphas.length; j++) {
-					if (alpha == alphas[j]) {
-						clonedBalls[i].linkTo(clonedAlphas[j]);
-					}
-				}
-			}
-		}
+		Ball[] clonedBalls = new Ball[ballCount];
+		materialize(clonedBalls, new Alpha[alphaCount]);
 		return clonedBalls;
 	}
 	/**
@@ -206,29 +339,424 @@ public class BreakoutState {
 	 * 
 	 */
 	public Alpha[] getAlphas() {
-		
-		Alpha[] clonedAlphas = new Alpha[alphas.length];
-		Ball[] clonedBalls = new Ball[balls.length];
-		for (int i = 0; i < balls.length; i++) {
-			clonedBalls[i] = balls[i].shallowClone();
+		Alpha[] clonedAlphas = new Alpha[alphaCount];
+		materialize(new Ball[ballCount], clonedAlphas);
+		return clonedAlphas;
+	}
+
+	// Fill the given arrays with new ball and alpha objects for the current balls and alphas, linked like them.
+	private void materialize(Ball[] clonedBalls, Alpha[] clonedAlphas) {
+		for (int i = 0; i < ballCount; i++) {
+			clonedBalls[i] = ballObject(i);
 		}
-		for (int i = 0; i < alphas.length; i++) {
-			clonedAlphas[i] = alphas[i].shallowClone();
+		for (int j = 0; j < alphaCount; j++) {
+			clonedAlphas[j] = alphaObject(j);
 		}
-		
-		for (int i = 0; i < balls.length; i++) {
-			for (Alpha alpha: balls[i].getLinkedAlphas()) {
-				for (int j = 0; j < alphas.length; j++) {
-					if (alpha == alphas[j]) {
-						clonedBalls[i].linkTo(clonedAlphas[j]);
-					}
-				}
+		for (int i = 0; i < ballCount; i++) {
+			for (int k = 0; k < links.getBallDegree(i); k++) {
+				clonedBalls[i].linkTo(clonedAlphas[links.getLinkedAlpha(i, k)]);
 			}
 		}
-		return clonedAlphas;
 	}
 
-	
+	/**
+	 * Call `view` for each ball of this BreakoutState, in the order of `getBalls()`.
+	 * Unlike `getBalls()`, this creates no ball objects.
+	 * 
+	 * @pre | view != null
+	 * @inspects this
+	 */
+	public void forEachBall(BallView view) {
+		for (int i = 0; i < ballCount; i++) {
+			view.visit(i, ballX[i], ballY[i], ballDiameter[i], ballVX[i], ballVY[i], links.getEcharge(i), ballColor(i));
+		}
+	}
+
+	/**
+	 * Call `view` for each alpha of this BreakoutState, in the order of `getAlphas()`.
+	 * Unlike `getAlphas()`, this creates no alpha objects.
+	 * 
+	 * @pre | view != null
+	 * @inspects this
+	 */
+	public void forEachAlpha(AlphaView view) {
+		for (int j = 0; j < alphaCount; j++) {
+			view.visit(j, alphaX[j], alphaY[j], alphaDiameter[j], alphaVX[j], alphaVY[j], Alpha.getAlphaColor());
+		}
+	}
+
+	/**
+	 * Call `view` for each link between a ball and an alpha of this BreakoutState.
+	 * 
+	 * @pre | view != null
+	 * @inspects this
+	 */
+	public void forEachLink(LinkView view) {
+		for (int i = 0; i < ballCount; i++) {
+			for (int k = 0; k < links.getBallDegree(i); k++) {
+				int j = links.getLinkedAlpha(i, k);
+				view.visit(i, j, ballX[i], ballY[i], alphaX[j], alphaY[j]);
+			}
+		}
+	}
+
+	// Same as ballObject(i).getColor()
+	private Color ballColor(int i) {
+		if (ballKind[i] == SUPERCHARGED_BALL && ballLifetime[i] >= 0) {
+			return SuperChargedBall.getChargedColor();
+		}
+		return NormalBall.getNormalColor();
+	}
+
+	/**
+	 * Return the number of balls of this BreakoutState.
+	 *
+	 * @post | result == getBalls().length
+	 * @inspects this
+	 */
+	public int getBallCount() {
+		return ballCount;
+	}
+
+	/**
+	 * Return the number of alphas of this BreakoutState.
+	 *
+	 * @post | result == getAlphas().length
+	 * @inspects this
+	 */
+	public int getAlphaCount() {
+		return alphaCount;
+	}
+
+	/**
+	 * Return the number of blocks of this BreakoutState.
+	 *
+	 * @post | result == getBlocks().length
+	 * @inspects this
+	 */
+	public int getBlockCount() {
+		return liveBlockCount;
+	}
+
+	/**
+	 * Return the number of block slots of this BreakoutState: the number of
+	 * blocks it started with. A block keeps its slot until it is destroyed, and
+	 * the slot stays empty after that.
+	 *
+	 * @post | result >= getBlockCount()
+	 * @inspects this
+	 */
+	public int getBlockSlotCount() {
+		return blocks.length;
+	}
+
+	/**
+	 * Return a number that changes whenever the blocks of this BreakoutState
+	 * change, that is, whenever a block is hit or a snapshot with other blocks is
+	 * restored. Views can use it to find out
+	 * whether what they drew for the blocks is still up to date.
+	 *
+	 * @post | result >= 0
+	 * @inspects this
+	 */
+	public long getBlockVersion() {
+		return blockVersion;
+	}
+
+	/**
+	 * Return the maximum number of alphas of this BreakoutState. While there are
+	 * that many alphas, a ball hitting the paddle bounces without emitting a new
+	 * alpha. Unless it is changed, there is no limit.
+	 * 
+	 * @post | result >= 0
+	 * @inspects this
+	 */
+	public int getMaxAlphaCount() {
+		return maxAlphaCount;
+	}
+
+	/**
+	 * Set the maximum number of alphas of this BreakoutState. Alphas beyond the
+	 * new maximum are not removed; they only stop new ones from being emitted.
+	 * 
+	 * @throws IllegalArgumentException | maxAlphaCount < 0
+	 * @mutates this
+	 * @post | getMaxAlphaCount() == maxAlphaCount
+	 */
+	public void setMaxAlphaCount(int maxAlphaCount) {
+		if (maxAlphaCount < 0)
+			throw new IllegalArgumentException();
+		this.maxAlphaCount = maxAlphaCount;
+	}
+
+	/**
+	 * Return the recorder that the ticks of this BreakoutState report to, or null
+	 * if they are not measured.
+	 * 
+	 * @inspects this
+	 */
+	public TickMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Let the ticks of this BreakoutState report how long each of their phases takes
+	 * and what happens in them to `metrics`, or stop measuring them if `metrics` is null.
+	 * 
+	 * @mutates this
+	 * @post | getMetrics() == metrics
+	 */
+	public void setMetrics(TickMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Return the journal that the ticks and paddle moves of this BreakoutState
+	 * are recorded to, or null if they are not recorded.
+	 * 
+	 * @inspects this
+	 */
+	public JournalWriter getJournal() {
+		return journal;
+	}
+
+	/**
+	 * Record every later call of `tick`, `movePaddleLeft` and `movePaddleRight` on
+	 * this BreakoutState to `journal`, or stop recording if `journal` is null.
+	 * Other changes, such as `restore` or new settings, are not recorded, so a
+	 * journal only replays the game if there are none while it records.
+	 * 
+	 * @mutates this
+	 * @post | getJournal() == journal
+	 */
+	public void setJournal(JournalWriter journal) {
+		this.journal = journal;
+	}
+
+	/**
+	 * Return how the ticks of this BreakoutState find the blocks that balls hit.
+	 * Unless it is changed, this is `CollisionMode.DISCRETE`.
+	 * 
+	 * @post | result != null
+	 * @inspects this
+	 */
+	public CollisionMode getCollisionMode() {
+		return collisionMode;
+	}
+
+	/**
+	 * Set how the ticks of this BreakoutState find the blocks that balls hit.
+	 * In the `SWEPT` mode ticks of up to `MAX_ELAPSED_TIME` ms stay correct
+	 * however fast the balls go, so that the game can be simulated in fewer,
+	 * longer ticks.
+	 * 
+	 * @throws IllegalArgumentException | collisionMode == null
+	 * @mutates this
+	 * @post | getCollisionMode() == collisionMode
+	 */
+	public void setCollisionMode(CollisionMode collisionMode) {
+		if (collisionMode == null)
+			throw new IllegalArgumentException();
+		this.collisionMode = collisionMode;
+	}
+
+	/**
+	 * Return how the ticks of this BreakoutState narrow down the blocks they test
+	 * the balls against. Unless it is changed, this is `BroadPhase.GRID`.
+	 * 
+	 * @post | result != null
+	 * @inspects this
+	 */
+	public BroadPhase getBroadPhase() {
+		return broadPhase;
+	}
+
+	/**
+	 * Set how the ticks of this BreakoutState narrow down the blocks they test the
+	 * balls against, and build the index it needs over the blocks that are left.
+	 * This does not change how the game plays, only how fast.
+	 * 
+	 * @throws IllegalArgumentException | broadPhase == null
+	 * @mutates this
+	 * @post | getBroadPhase() == broadPhase
+	 */
+	public void setBroadPhase(BroadPhase broadPhase) {
+		if (broadPhase == null)
+			throw new IllegalArgumentException();
+		if (broadPhase != this.broadPhase) {
+			this.broadPhase = broadPhase;
+			this.blockIndex = broadPhase.createIndex(getFieldInternal(), blocks);
+		}
+	}
+
+	/**
+	 * Return a snapshot of the balls, alphas, links, blocks and paddle of this
+	 * BreakoutState, which `restore` can later bring back. This takes time linear
+	 * in the number of balls, alphas, links and block slots.
+	 * 
+	 * @inspects this
+	 * @creates result
+	 * @post | result.getBottomRight().equals(getBottomRight())
+	 * @post | result.getBallCount() == getBallCount()
+	 * @post | result.getAlphaCount() == getAlphaCount()
+	 * @post | result.getBlockCount() == getBlockCount()
+	 * @post | result.getPaddle() == getPaddle()
+	 */
+	public BreakoutSnapshot snapshot() {
+		int n = ballCount;
+		int[] ballData = new int[BreakoutSnapshot.BALL_COLUMNS * n];
+		System.arraycopy(ballX, 0, ballData, 0, n);
+		System.arraycopy(ballY, 0, ballData, n, n);
+		System.arraycopy(ballVX, 0, ballData, 2 * n, n);
+		System.arraycopy(ballVY, 0, ballData, 3 * n, n);
+		System.arraycopy(ballDiameter, 0, ballData, 4 * n, n);
+		System.arraycopy(ballLifetime, 0, ballData, 5 * n, n);
+		System.arraycopy(ballKind, 0, ballData, 6 * n, n);
+		int m = alphaCount;
+		int[] alphaData = new int[BreakoutSnapshot.ALPHA_COLUMNS * m];
+		System.arraycopy(alphaX, 0, alphaData, 0, m);
+		System.arraycopy(alphaY, 0, alphaData, m, m);
+		System.arraycopy(alphaVX, 0, alphaData, 2 * m, m);
+		System.arraycopy(alphaVY, 0, alphaData, 3 * m, m);
+		System.arraycopy(alphaDiameter, 0, alphaData, 4 * m, m);
+		LinkGraph linksCopy = new LinkGraph();
+		linksCopy.copyFrom(links);
+		return new BreakoutSnapshot(bottomRight, n, ballData, m, alphaData, linksCopy, blocks.clone(), liveBlockCount,
+				paddle);
+	}
+
+	/**
+	 * Bring back the balls, alphas, links, blocks and paddle of the given
+	 * snapshot. The snapshot may have been taken of this BreakoutState or of
+	 * another one with the same field and the same initial blocks, such as one
+	 * created from the same map. Settings like the collision mode are kept.
+	 * 
+	 * This takes time linear in the number of balls, alphas, links and block
+	 * slots, and only allocates when the snapshot has more balls or alphas than
+	 * this BreakoutState has room for.
+	 * 
+	 * @throws IllegalArgumentException | snapshot == null
+	 * @throws IllegalArgumentException | !snapshot.getBottomRight().equals(getBottomRight())
+	 * @throws IllegalArgumentException | snapshot.getBlockSlotCount() != getBlockSlotCount()
+	 * @mutates this
+	 * @post | getBallCount() == snapshot.getBallCount()
+	 * @post | getAlphaCount() == snapshot.getAlphaCount()
+	 * @post | getBlockCount() == snapshot.getBlockCount()
+	 * @post | getPaddle() == snapshot.getPaddle()
+	 * @post | getBlockVersion() >= old(getBlockVersion())
+	 */
+	public void restore(BreakoutSnapshot snapshot) {
+		if (snapshot == null)
+			throw new IllegalArgumentException();
+		if (!snapshot.bottomRight.equals(bottomRight) || snapshot.blocks.length != blocks.length)
+			throw new IllegalArgumentException();
+
+		int n = snapshot.ballCount;
+		if (ballX.length < n) {
+			growBalls(n);
+		}
+		int[] ballData = snapshot.balls;
+		System.arraycopy(ballData, 0, ballX, 0, n);
+		System.arraycopy(ballData, n, ballY, 0, n);
+		System.arraycopy(ballData, 2 * n, ballVX, 0, n);
+		System.arraycopy(ballData, 3 * n, ballVY, 0, n);
+		System.arraycopy(ballData, 4 * n, ballDiameter, 0, n);
+		System.arraycopy(ballData, 5 * n, ballLifetime, 0, n);
+		System.arraycopy(ballData, 6 * n, ballKind, 0, n);
+		ballCount = n;
+		int m = snapshot.alphaCount;
+		if (alphaX.length < m) {
+			growAlphas(m);
+		}
+		int[] alphaData = snapshot.alphas;
+		System.arraycopy(alphaData, 0, alphaX, 0, m);
+		System.arraycopy(alphaData, m, alphaY, 0, m);
+		System.arraycopy(alphaData, 2 * m, alphaVX, 0, m);
+		System.arraycopy(alphaData, 3 * m, alphaVY, 0, m);
+		System.arraycopy(alphaData, 4 * m, alphaDiameter, 0, m);
+		alphaCount = m;
+		links.copyFrom(snapshot.links);
+
+		boolean changed = false;
+		boolean rebuild = false;
+		for (int id = 0; id < blocks.length; id++) {
+			BlockState block = blocks[id];
+			BlockState restored = snapshot.blocks[id];
+			if (block == restored) {
+				continue;
+			}
+			changed = true;
+			if (restored == null) {
+				blockIndex.remove(id, block.getLocation());
+			} else if (block == null && !blockIndex.insert(id, restored.getLocation())) {
+				rebuild = true;
+			}
+		}
+		System.arraycopy(snapshot.blocks, 0, blocks, 0, blocks.length);
+		liveBlockCount = snapshot.liveBlockCount;
+		if (rebuild) {
+			blockIndex = broadPhase.createIndex(getFieldInternal(), blocks);
+		}
+		if (changed) {
+			blockVersion++;
+		}
+		paddle = snapshot.paddle;
+	}
+
+	/**
+	 * Return a 64-bit hash of the balls, alphas, links, blocks and paddle of this
+	 * BreakoutState. States that play the same have the same checksum, in any
+	 * run and on any JVM, so checksums can be compared to check that a replay
+	 * follows the game it replays. Settings are not included.
+	 * 
+	 * @inspects this
+	 */
+	public long checksum() {
+		long h = mix(ballCount, alphaCount);
+		for (int i = 0; i < ballCount; i++) {
+			h = mix(h, ballX[i]);
+			h = mix(h, ballY[i]);
+			h = mix(h, ballVX[i]);
+			h = mix(h, ballVY[i]);
+			h = mix(h, ballDiameter[i]);
+			h = mix(h, ballLifetime[i]);
+			h = mix(h, ballKind[i]);
+		}
+		for (int j = 0; j < alphaCount; j++) {
+			h = mix(h, alphaX[j]);
+			h = mix(h, alphaY[j]);
+			h = mix(h, alphaVX[j]);
+			h = mix(h, alphaVY[j]);
+			h = mix(h, alphaDiameter[j]);
+		}
+		// the order of the links of a ball does not matter, so they are summed
+		long linkSum = 0;
+		for (int i = 0; i < ballCount; i++) {
+			for (int k = 0; k < links.getBallDegree(i); k++) {
+				linkSum += mix(i, links.getLinkedAlpha(i, k));
+			}
+		}
+		h = mix(h, linkSum);
+		for (int id = 0; id < blocks.length; id++) {
+			BlockState block = blocks[id];
+			if (block == null) {
+				continue;
+			}
+			h = mix(h, id);
+			h = mix(h, block.getClass().getName().hashCode());
+			h = mix(h, block instanceof SturdyBlockState ? ((SturdyBlockState) block).getLivesLeft() : 0);
+		}
+		h = mix(h, paddle.getClass().getName().hashCode());
+		h = mix(h, paddle.getCenter().getX());
+		h = mix(h, paddle.getCenter().getY());
+		h = mix(h, paddle instanceof ReplicatingPaddleState ? ((ReplicatingPaddleState) paddle).getCount() : 0);
+		return h;
+	}
+
+	private static long mix(long h, long value) {
+		h = (h ^ value) * 0x9e3779b97f4a7c15L;
+		return h ^ (h >>> 29);
+	}
 
 	/**
 	 * Return the blocks of this BreakoutState.
@@ -236,7 +764,14 @@ public class BreakoutState {
 	 * @creates result
 	 */
 	public BlockState[] getBlocks() {
-		return blocks.clone();
+		BlockState[] result = new BlockState[liveBlockCount];
+		int n = 0;
+		for (BlockState block : blocks) {
+			if (block != null) {
+				result[n++] = block;
+			}
+		}
+		return result;
 	}
 
 	/**
@@ -271,83 +806,358 @@ public class BreakoutState {
 		return getFieldInternal();
 	}
 
-	private void bounceWalls(Ball ball) {
+	// Ball and alpha storage
+
+	/**
+	 * Return a new ball object for ball `i`, without links.
+	 * 
+	 * @creates result
+	 */
+	private Ball ballObject(int i) {
+		Circle location = new Circle(new Point(ballX[i], ballY[i]), ballDiameter[i]);
+		Vector velocity = new Vector(ballVX[i], ballVY[i]);
+		if (ballKind[i] == SUPERCHARGED_BALL) {
+			return new SuperChargedBall(location, velocity, ballLifetime[i]);
+		}
+		return new NormalBall(location, velocity);
+	}
+
+	/**
+	 * Store the location, velocity and kind of the given ball object as ball `i`.
+	 * The links and eCharge of ball `i` are left untouched.
+	 */
+	private void setBall(int i, Ball ball) {
+		ballX[i] = ball.getCenterX();
+		ballY[i] = ball.getCenterY();
+		ballDiameter[i] = ball.getDiameter();
+		ballVX[i] = ball.getVelocityX();
+		ballVY[i] = ball.getVelocityY();
+		if (ball instanceof SuperChargedBall) {
+			ballKind[i] = SUPERCHARGED_BALL;
+			ballLifetime[i] = ((SuperChargedBall) ball).getLifetime();
+		} else {
+			ballKind[i] = NORMAL_BALL;
+			ballLifetime[i] = -1;
+		}
+	}
+
+	/**
+	 * Append the given ball, without links, and return its number.
+	 * The slots of removed balls are reused; when they run out, the
+	 * arrays double, so that adding balls takes amortized constant time.
+	 */
+	private int addBall(Ball ball) {
+		if (ballCount == ballX.length) {
+			growBalls(Math.max(4, 2 * ballCount));
+		}
+		int i = ballCount++;
+		setBall(i, ball);
+		links.addBall();
+		return i;
+	}
+
+	private void growBalls(int capacity) {
+		ballX = Arrays.copyOf(ballX, capacity);
+		ballY = Arrays.copyOf(ballY, capacity);
+		ballVX = Arrays.copyOf(ballVX, capacity);
+		ballVY = Arrays.copyOf(ballVY, capacity);
+		ballDiameter = Arrays.copyOf(ballDiameter, capacity);
+		ballLifetime = Arrays.copyOf(ballLifetime, capacity);
+		ballKind = Arrays.copyOf(ballKind, capacity);
+		ballStartX = Arrays.copyOf(ballStartX, capacity);
+		ballStartY = Arrays.copyOf(ballStartY, capacity);
+	}
+
+	private Alpha alphaObject(int j) {
+		return new Alpha(new Circle(new Point(alphaX[j], alphaY[j]), alphaDiameter[j]),
+				new Vector(alphaVX[j], alphaVY[j]));
+	}
+
+	private void setAlpha(int j, Alpha alpha) {
+		setAlpha(j, alpha.getCenterX(), alpha.getCenterY(), alpha.getDiameter(), alpha.getVelocityX(),
+				alpha.getVelocityY());
+	}
+
+	private void setAlpha(int j, int x, int y, int diameter, int vx, int vy) {
+		alphaX[j] = x;
+		alphaY[j] = y;
+		alphaDiameter[j] = diameter;
+		alphaVX[j] = vx;
+		alphaVY[j] = vy;
+	}
+
+	/**
+	 * Append the given alpha, without links, and return its number.
+	 */
+	private int addAlpha(Alpha alpha) {
+		return addAlpha(alpha.getCenterX(), alpha.getCenterY(), alpha.getDiameter(), alpha.getVelocityX(),
+				alpha.getVelocityY());
+	}
+
+	/**
+	 * Append an alpha with the given center, diameter and velocity, without links,
+	 * and return its number. Storage grows like in `addBall`.
+	 */
+	private int addAlpha(int x, int y, int diameter, int vx, int vy) {
+		if (alphaCount == alphaX.length) {
+			growAlphas(Math.max(4, 2 * alphaCount));
+		}
+		int j = alphaCount++;
+		setAlpha(j, x, y, diameter, vx, vy);
+		links.addAlpha();
+		return j;
+	}
+
+	private void growAlphas(int capacity) {
+		alphaX = Arrays.copyOf(alphaX, capacity);
+		alphaY = Arrays.copyOf(alphaY, capacity);
+		alphaVX = Arrays.copyOf(alphaVX, capacity);
+		alphaVY = Arrays.copyOf(alphaVY, capacity);
+		alphaDiameter = Arrays.copyOf(alphaDiameter, capacity);
+	}
+
+	// Collisions
+
+	private void bounceWallsBall(int i) {
 		for (Rect wall : walls) {
-			if (ball.collidesWith(wall)) {
-				ball.hitWall(wall);
+			if (wall.isHitBy(ballX[i], ballY[i], ballDiameter[i] / 2, ballVX[i], ballVY[i])) {
+				Vector coldir = Rect.COLLISSION_DIRS[wall.collisionDirection(ballX[i], ballY[i], ballDiameter[i] / 2)];
+				int product = ballVX[i] * coldir.getX() + ballVY[i] * coldir.getY();
+				ballVX[i] -= 2 * product * coldir.getX();
+				ballVY[i] -= 2 * product * coldir.getY();
+				if (metrics != null) metrics.count(TickEvent.WALL_COLLISION);
 			}
 		}
 	}
-	
-	private void bounceWalls(Alpha alpha) {
+
+	// Like Alpha.hitWall: the alpha bounces and attracts or repels its linked balls.
+	private void bounceWallsAlpha(int j) {
 		for (Rect wall : walls) {
-			if (alpha.collidesWith(wall)) {
-				alpha.hitWall(wall);
+			if (wall.isHitBy(alphaX[j], alphaY[j], alphaDiameter[j] / 2, alphaVX[j], alphaVY[j])) {
+				Vector coldir = Rect.COLLISSION_DIRS[wall.collisionDirection(alphaX[j], alphaY[j], alphaDiameter[j] / 2)];
+				int product = alphaVX[j] * coldir.getX() + alphaVY[j] * coldir.getY();
+				alphaVX[j] -= 2 * product * coldir.getX();
+				alphaVY[j] -= 2 * product * coldir.getY();
+				if (metrics != null) metrics.count(TickEvent.WALL_COLLISION);
+				for (int k = 0; k < links.getAlphaDegree(j); k++) {
+					int b = links.getLinkedBall(j, k);
+					Vector nspeed = Vector.magnetSpeed(new Point(alphaX[j], alphaY[j]), new Point(ballX[b], ballY[b]),
+							links.getEcharge(b), new Vector(ballVX[b], ballVY[b]));
+					ballVX[b] = nspeed.getX();
+					ballVY[b] = nspeed.getY();
+				}
 			}
 		}
 	}
-	
 
-	private Ball removeDead(Ball ball) {
-		if( ball.getLocation().getBottommostPoint().getY() > bottomRight.getY()) { 
-			for (Alpha alpha: ball.getLinkedAlphas()) {
-				ball.unLink(alpha);
+	private boolean isDeadBall(int i) {
+		return ballY[i] + ballDiameter[i] / 2 > bottomRight.getY();
+	}
+
+	private boolean isDeadAlpha(int j) {
+		return alphaY[j] + alphaDiameter[j] / 2 > bottomRight.getY();
+	}
+
+	/**
+	 * Unlink the balls that have left the field through the bottom, and return how
+	 * many there are. They are removed by `removeDead`.
+	 */
+	private int unlinkDeadBalls() {
+		int deadBalls = 0;
+		for (int i = 0; i < ballCount; i++) {
+			if (isDeadBall(i)) {
+				while (links.getBallDegree(i) > 0) {
+					links.unlink(i, links.getLinkedAlpha(i, links.getBallDegree(i) - 1));
+				}
+				deadBalls++;
+			}
+		}
+		if (metrics != null) metrics.count(TickEvent.BALL_LOST, deadBalls);
+		return deadBalls;
+	}
+
+	/**
+	 * Unlink the alphas that have left the field through the bottom, and return how
+	 * many there are. They are removed by `removeDead`.
+	 */
+	private int unlinkDeadAlphas() {
+		int deadAlphas = 0;
+		for (int j = 0; j < alphaCount; j++) {
+			if (isDeadAlpha(j)) {
+				while (links.getAlphaDegree(j) > 0) {
+					links.unlink(links.getLinkedBall(j, links.getAlphaDegree(j) - 1), j);
+				}
+				deadAlphas++;
 			}
-			// Remove alphas which have only one connection (this ball)
-									
-			return null; }
-		else { return ball; }
+		}
+		if (metrics != null) metrics.count(TickEvent.ALPHA_LOST, deadAlphas);
+		return deadAlphas;
 	}
-	
-	private Alpha removeDead(Alpha alpha) {
-		if( alpha.getLocation().getBottommostPoint().getY() > bottomRight.getY()) { 
-			for(Ball ball:alpha.getLinkedBalls()) {
-				ball.unLink(alpha);
+
+	/**
+	 * Remove the given numbers of dead balls and alphas, which have been unlinked
+	 * already. The remaining balls and alphas keep their relative order; the slots
+	 * that are freed at the end are reused by the balls and alphas added later.
+	 */
+	private void removeDead(int deadBalls, int deadAlphas) {
+		if (deadBalls > 0) {
+			compactBalls();
+		}
+		if (deadAlphas > 0) {
+			compactAlphas();
+		}
+	}
+
+	private void compactBalls() {
+		int[] newNumber = newNumbers(ballCount);
+		int n = 0;
+		for (int i = 0; i < ballCount; i++) {
+			if (isDeadBall(i)) {
+				newNumber[i] = -1;
+				continue;
 			}
-			return null; 
+			newNumber[i] = n;
+			ballX[n] = ballX[i];
+			ballY[n] = ballY[i];
+			ballVX[n] = ballVX[i];
+			ballVY[n] = ballVY[i];
+			ballDiameter[n] = ballDiameter[i];
+			ballLifetime[n] = ballLifetime[i];
+			ballKind[n] = ballKind[i];
+			ballStartX[n] = ballStartX[i];
+			ballStartY[n] = ballStartY[i];
+			n++;
+		}
+		ballCount = n;
+		links.compactBalls(newNumber, n);
+	}
+
+	private void compactAlphas() {
+		int[] newNumber = newNumbers(alphaCount);
+		int n = 0;
+		for (int j = 0; j < alphaCount; j++) {
+			if (isDeadAlpha(j)) {
+				newNumber[j] = -1;
+				continue;
 			}
-		else { return alpha; }
+			newNumber[j] = n;
+			alphaX[n] = alphaX[j];
+			alphaY[n] = alphaY[j];
+			alphaVX[n] = alphaVX[j];
+			alphaVY[n] = alphaVY[j];
+			alphaDiameter[n] = alphaDiameter[j];
+			n++;
+		}
+		alphaCount = n;
+		links.compactAlphas(newNumber, n);
 	}
 
-	private void clampBall(Ball b) {
-		Circle loc = getFieldInternal().constrain(b.getLocation());
-	    b.move(loc.getCenter().minus(b.getLocation().getCenter()),0);
+	private int[] newNumbers(int count) {
+		if (newNumbers.length < count) {
+			newNumbers = new int[Math.max(count, 2 * newNumbers.length)];
+		}
+		return newNumbers;
 	}
-	
-	private void clampAlpha(Alpha a) {
-		Circle loc = getFieldInternal().constrain(a.getLocation());
-	    a.move(loc.getCenter().minus(a.getLocation().getCenter()),0);
+
+	// Same as getFieldInternal().constrain(ball.getLocation()), without allocating.
+	private void clampBall(int i) {
+		int radius = ballDiameter[i] / 2;
+		ballX[i] = Math.min(bottomRight.getX() - radius, Math.max(radius, ballX[i]));
+		ballY[i] = Math.min(bottomRight.getY() - radius, Math.max(radius, ballY[i]));
 	}
 	
+	private void clampAlpha(int j) {
+		int radius = alphaDiameter[j] / 2;
+		alphaX[j] = Math.min(bottomRight.getX() - radius, Math.max(radius, alphaX[j]));
+		alphaY[j] = Math.min(bottomRight.getY() - radius, Math.max(radius, alphaY[j]));
+	}
 	
-	private Ball collideBallBlocks(Ball ball) {
-		for (BlockState block : blocks) {
-			if (ball.collidesWith(block.getLocation())) {
-				boolean destroyed = hitBlock(block);
-				ball.hitBlock(block.getLocation(), destroyed);
-				paddle = block.paddleStateAfterHit(paddle);
-				return block.ballStateAfterHit(ball);
-			}
+	private void collideBallBlocks(int i) {
+		int id = blockIndex.firstCollision(ballX[i], ballY[i], ballDiameter[i] / 2, ballVX[i], ballVY[i], blocks);
+		if (id >= 0) {
+			hitBallOnBlock(i, id);
 		}
-		return ball;
 	}
 
-	private boolean hitBlock(BlockState block) {
-		boolean destroyed = true;
-		ArrayList<BlockState> nblocks = new ArrayList<BlockState>();
-		for (BlockState b : blocks) {
-			if (b != block) {
-				nblocks.add(b);
+	/**
+	 * Follow ball `i` from where it started this tick to where it is now, and let
+	 * it bounce on the blocks it runs into on the way, in order. At each impact
+	 * the ball is put just inside the block, where the usual collision rules
+	 * decide what happens, and then moves on with its new velocity for the rest
+	 * of the tick. A ball that runs into no block this way is still checked where
+	 * it ends up, like in the discrete mode, in case it started out overlapping one.
+	 */
+	private void sweepBallBlocks(int i, int elapsedTime) {
+		int radius = ballDiameter[i] / 2;
+		int sx = ballStartX[i];
+		int sy = ballStartY[i];
+		int dx = ballX[i] - sx;
+		int dy = ballY[i] - sy;
+		double timeLeft = elapsedTime;
+		int hits = 0;
+		int seen = 0;
+		while (hits < MAX_SWEPT_HITS && seen < sweptBlocks.length) {
+			int id = blockIndex.firstSweptCollision(sx, sy, dx, dy, radius, blocks, sweptBlocks, seen, sweep);
+			if (id < 0) {
+				break;
+			}
+			sweptBlocks[seen++] = id;
+			Rect loc = blocks[id].getLocation();
+			int px, py;
+			if (sweep.verticalSide) {
+				px = dx > 0 ? loc.getTopLeft().getX() - radius + 1 : loc.getBottomRight().getX() + radius - 1;
+				py = sy + (int) Math.round(dy * sweep.time);
 			} else {
-				BlockState nb = block.blockStateAfterHit();
-				if (nb != null) {
-					nblocks.add(nb);
-					destroyed = false;
-				}
+				px = sx + (int) Math.round(dx * sweep.time);
+				py = dy > 0 ? loc.getTopLeft().getY() - radius + 1 : loc.getBottomRight().getY() + radius - 1;
+			}
+			// a ball that only grazes a corner does not hit the block
+			if (!loc.isHitBy(px, py, radius, ballVX[i], ballVY[i])) {
+				continue;
 			}
+			ballX[i] = px;
+			ballY[i] = py;
+			hitBallOnBlock(i, id);
+			hits++;
+			timeLeft *= 1 - sweep.time;
+			sx = px;
+			sy = py;
+			dx = (int) Math.round(ballVX[i] * timeLeft);
+			dy = (int) Math.round(ballVY[i] * timeLeft);
+			ballX[i] = sx + dx;
+			ballY[i] = sy + dy;
+		}
+		if (hits == 0) {
+			collideBallBlocks(i);
+		}
+	}
+
+	private void hitBallOnBlock(int i, int id) {
+		BlockState block = blocks[id];
+		boolean destroyed = hitBlock(id, block);
+		if (metrics != null) {
+			metrics.count(TickEvent.BLOCK_COLLISION);
+			if (destroyed) metrics.count(TickEvent.BLOCK_DESTROYED);
+		}
+		if (destroyed) {
+			GameEvents.blockDestroyed(block, liveBlockCount);
+		}
+		Ball ball = ballObject(i);
+		ball.hitBlock(block.getLocation(), destroyed);
+		paddle = block.paddleStateAfterHit(paddle);
+		setBall(i, block.ballStateAfterHit(ball));
+	}
+
+	private boolean hitBlock(int id, BlockState block) {
+		BlockState nb = block.blockStateAfterHit();
+		blocks[id] = nb;
+		blockVersion++;
+		if (nb != null) {
+			return false;
 		}
-		blocks = nblocks.toArray(new BlockState[] {});
-		return destroyed;
+		blockIndex.remove(id, block.getLocation());
+		liveBlockCount--;
+		return true;
 	}
 
 	/**
@@ -359,147 +1169,193 @@ public class BreakoutState {
 	 * @pre | elapsedTime <= MAX_ELAPSED_TIME
 	 */
 	public void tick(int paddleDir, int elapsedTime) {
+		GameTickEvent event = GameEvents.beginTick();
+		if (metrics != null) {
+			measuredTick(metrics, paddleDir, elapsedTime);
+		} else {
+			stepBalls(elapsedTime);
+			stepAlphas(elapsedTime);
+			bounceBallsOnWalls();
+			bounceAlphasOnWalls();
+			int deadBalls = unlinkDeadBalls();
+			int deadAlphas = unlinkDeadAlphas();
+			removeDead(deadBalls, deadAlphas);
+			bounceBallsOnBlocks(elapsedTime);
+			bounceBallsOnPaddle(paddleDir);
+			bounceAlphasOnPaddle(paddleDir);
+			clampBalls();
+			clampAlphas();
+		}
+		if (event != null) {
+			GameEvents.endTick(event, elapsedTime, ballCount, alphaCount, liveBlockCount);
+		}
+		if (journal != null) {
+			journal.ticked(this, paddleDir, elapsedTime);
+		}
+	}
+
+	// The same phases as tick, timed one by one. Kept apart so that an unmeasured
+	// tick does not even read the clock.
+	private void measuredTick(TickMetrics metrics, int paddleDir, int elapsedTime) {
+		long start = metrics.startTick();
 		stepBalls(elapsedTime);
+		long t = metrics.endPhase(TickPhase.STEP_BALLS, start);
 		stepAlphas(elapsedTime);
+		t = metrics.endPhase(TickPhase.STEP_ALPHAS, t);
 		bounceBallsOnWalls();
+		t = metrics.endPhase(TickPhase.BOUNCE_BALLS_ON_WALLS, t);
 		bounceAlphasOnWalls();
-		removeDeadBalls();
-		removeDeadAlphas();
-		bounceBallsOnBlocks();
+		t = metrics.endPhase(TickPhase.BOUNCE_ALPHAS_ON_WALLS, t);
+		int deadBalls = unlinkDeadBalls();
+		int deadAlphas = unlinkDeadAlphas();
+		t = metrics.endPhase(TickPhase.REMOVE_DEAD, t);
+		removeDead(deadBalls, deadAlphas);
+		t = metrics.endPhase(TickPhase.COMPACT, t);
+		bounceBallsOnBlocks(elapsedTime);
+		t = metrics.endPhase(TickPhase.BOUNCE_BALLS_ON_BLOCKS, t);
 		bounceBallsOnPaddle(paddleDir);
+		t = metrics.endPhase(TickPhase.BOUNCE_BALLS_ON_PADDLE, t);
 		bounceAlphasOnPaddle(paddleDir);
+		t = metrics.endPhase(TickPhase.BOUNCE_ALPHAS_ON_PADDLE, t);
 		clampBalls();
+		t = metrics.endPhase(TickPhase.CLAMP_BALLS, t);
 		clampAlphas();
-		balls = Arrays.stream(balls).filter(x -> x != null).toArray(Ball[]::new);
-		alphas = Arrays.stream(alphas).filter(x -> x != null).toArray(Alpha[]::new);
+		t = metrics.endPhase(TickPhase.CLAMP_ALPHAS, t);
+		metrics.endTick(start, t);
 	}
 
 	private void clampBalls() {
-		for(int i = 0; i < balls.length; ++i) {
-			if(balls[i] != null) {
-				clampBall(balls[i]);
-			}		
+		for(int i = 0; i < ballCount; ++i) {
+			clampBall(i);
 		}
 	}
 	
 	private void clampAlphas() {
-		for(int i = 0; i < alphas.length; ++i) {
-			if(alphas[i] != null) {
-				clampAlpha(alphas[i]);
-			}		
+		for(int j = 0; j < alphaCount; ++j) {
+			clampAlpha(j);
 		}
 	}
 	
 
-	private void collideBallPaddle(Ball ball, Vector paddleVel) {
-		if (ball.collidesWith(paddle.getLocation())) {
-			ball.hitPaddle(paddle.getLocation(),paddleVel);
+	private void collideBallPaddle(int i, Vector paddleVel) {
+		Rect paddleLoc = paddle.getLocation();
+		if (paddleLoc.isHitBy(ballX[i], ballY[i], ballDiameter[i] / 2, ballVX[i], ballVY[i])) {
+			Ball ball = ballObject(i);
+			ball.hitPaddle(paddleLoc, paddleVel);
+			setBall(i, ball);
+			if (metrics != null) metrics.count(TickEvent.PADDLE_COLLISION);
 			
-			//Creation of Alpha particles !!!
-			Alpha[] new_alphas= new Alpha[alphas.length+1];
-			for (int i = 0; i < alphas.length; i++)
-	            new_alphas[i] = alphas[i];
-			Alpha new_alpha = new Alpha(ball.getLocation(),paddleVel.plus(new Vector(-2,-2)));
-			ball.linkTo(new_alpha);
-			
-			new_alphas[new_alphas.length-1]=new_alpha;
-			
-			this.alphas=new_alphas;
+			//Creation of Alpha particles !!! (unless there are too many already)
+			if (alphaCount < maxAlphaCount) {
+				int newAlpha = addAlpha(ballX[i], ballY[i], ballDiameter[i], paddleVel.getX() - 2, paddleVel.getY() - 2);
+				links.link(i, newAlpha);
+				if (metrics != null) metrics.count(TickEvent.ALPHA_SPAWNED);
+				GameEvents.alphaSpawned(alphaX[newAlpha], alphaY[newAlpha], alphaCount);
+			}
 			
 			int nrBalls = paddle.numberOfBallsAfterHit();
-			if(nrBalls > 1) {
-				Ball[] curballs = balls;
-				balls = new Ball[curballs.length + nrBalls - 1];
-				for(int i = 0; i < curballs.length; ++i) {
-					balls[i] = curballs[i];
-				}
-				for(int i = 1; i < nrBalls; ++i) {
-					Vector nballVel = ball.getVelocity().plus(BALL_VEL_VARIATIONS[i]);
-					balls[curballs.length + i -1] = ball.cloneWithVelocity(nballVel);					
-				}
+			if (metrics != null) metrics.count(TickEvent.BALL_REPLICATED, nrBalls - 1);
+			for(int k = 1; k < nrBalls; ++k) {
+				Vector nballVel = ball.getVelocity().plus(BALL_VEL_VARIATIONS[k]);
+				addBall(ball.cloneWithVelocity(nballVel));
+			}
+			if (nrBalls > 1) {
+				GameEvents.ballsReplicated(nrBalls - 1, ballCount);
 			}
 			paddle = paddle.stateAfterHit();
 		}
 	}
 	
-	private void collideAlphaPaddle(Alpha alpha, Vector paddleVel) {
-		if (alpha.collidesWith(paddle.getLocation())) {
-			alpha.hitPaddle(paddle.getLocation(),paddleVel);
-			//anti-radioactivity -> spwan ball linked to this alpha. Update balls field
-			Ball[] curballs = balls;
-			balls = new Ball[balls.length+1];
-			for(int i = 0; i < balls.length-1; ++i) {
-				balls[i] = curballs[i];
+	private void collideAlphaPaddle(int j, Vector paddleVel) {
+		Rect paddleLoc = paddle.getLocation();
+		if (paddleLoc.isHitBy(alphaX[j], alphaY[j], alphaDiameter[j] / 2, alphaVX[j], alphaVY[j])) {
+			Alpha alpha = alphaObject(j);
+			alpha.hitPaddle(paddleLoc, paddleVel);
+			setAlpha(j, alpha);
+			//anti-radioactivity -> spawn ball linked to this alpha
+			Vector nspeed = alpha.getVelocity().plus(new Vector(-2, -2));
+			int antiball = addBall(alpha.transformToBallWithVelocity(nspeed));
+			links.link(antiball, j);
+			if (metrics != null) {
+				metrics.count(TickEvent.PADDLE_COLLISION);
+				metrics.count(TickEvent.ANTI_BALL_SPAWNED);
 			}
-			//create ball with nspeed vector
-			Vector nspeed = alpha.getVelocity().plus(new Vector(-2, -2));			
-			Ball antiball = alpha.transformToBallWithVelocity(nspeed);
-			//link ball to alpha
-			antiball.linkTo(alpha);
-			balls[balls.length-1] = antiball;
+			GameEvents.antiBallCreated(ballX[antiball], ballY[antiball], ballCount);
 		}
 	}
 	
+	private static Vector paddleVelocity(int paddleDir) {
+		if (-1 <= paddleDir && paddleDir <= 1) {
+			return PADDLE_DIR_VELS[paddleDir + 1];
+		}
+		return PADDLE_VEL.scaled(paddleDir);
+	}
 
 	private void bounceBallsOnPaddle(int paddleDir) {
-		Vector paddleVel = PADDLE_VEL.scaled(paddleDir);
-		Ball[] balls = this.balls; 
-		for(int i = 0; i < balls.length; ++i) {
-			if(balls[i] != null) {
-				collideBallPaddle(balls[i], paddleVel);
-			}
+		Vector paddleVel = paddleVelocity(paddleDir);
+		// balls replicated by the paddle only take part from the next tick on
+		int nbBalls = ballCount;
+		for(int i = 0; i < nbBalls; ++i) {
+			collideBallPaddle(i, paddleVel);
 		}
 	}
 	private void bounceAlphasOnPaddle(int paddleDir) {
-		Vector paddleVel = PADDLE_VEL.scaled(paddleDir);
-		for(int i = 0; i < alphas.length; ++i) {
-			if(alphas[i] != null) {
-				collideAlphaPaddle(alphas[i], paddleVel);
-			}
+		Vector paddleVel = paddleVelocity(paddleDir);
+		for(int j = 0; j < alphaCount; ++j) {
+			collideAlphaPaddle(j, paddleVel);
 		}
 	}
 
-	private void bounceBallsOnBlocks() {
-		for(int i = 0; i < balls.length; ++i) {
-			if(balls[i] != null) {
-				balls[i] = collideBallBlocks(balls[i]);
+	private void bounceBallsOnBlocks(int elapsedTime) {
+		if (collisionMode == CollisionMode.SWEPT) {
+			for(int i = 0; i < ballCount; ++i) {
+				sweepBallBlocks(i, elapsedTime);
 			}
+			return;
 		}
-	}
-
-	private void removeDeadBalls() {
-		for(int i = 0; i < balls.length; ++i) {
-			balls[i] = removeDead(balls[i]);
-		}
-	}
-	
-	private void removeDeadAlphas() {
-		for(int i = 0; i < alphas.length; ++i) {
-			alphas[i] = removeDead(alphas[i]);
+		for(int i = 0; i < ballCount; ++i) {
+			collideBallBlocks(i);
 		}
 	}
 
 	private void bounceBallsOnWalls() {
-		for(int i = 0; i < balls.length; ++i) {
-			bounceWalls(balls[i]);
+		for(int i = 0; i < ballCount; ++i) {
+			bounceWallsBall(i);
 		}
 	}
 	
 	private void bounceAlphasOnWalls() {
-		for(int i = 0; i < alphas.length; ++i) {
-			bounceWalls(alphas[i]);
+		for(int j = 0; j < alphaCount; ++j) {
+			bounceWallsAlpha(j);
 		}
 	}
 
+	// Kept as simple loops over the coordinate arrays, so that the JIT can vectorize them.
 	private void stepBalls(int elapsedTime) {
-		for(int i = 0; i < balls.length; ++i) {
-			balls[i].move(balls[i].getVelocity().scaled(elapsedTime), elapsedTime);
+		if (collisionMode == CollisionMode.SWEPT) {
+			System.arraycopy(ballX, 0, ballStartX, 0, ballCount);
+			System.arraycopy(ballY, 0, ballStartY, 0, ballCount);
+		}
+		for(int i = 0; i < ballCount; ++i) {
+			ballX[i] += ballVX[i] * elapsedTime;
+		}
+		for(int i = 0; i < ballCount; ++i) {
+			ballY[i] += ballVY[i] * elapsedTime;
+		}
+		// like SuperChargedBall.move; normal balls have lifetime -1
+		for(int i = 0; i < ballCount; ++i) {
+			if (ballLifetime[i] >= 0) {
+				ballLifetime[i] -= elapsedTime;
+			}
 		}
 	}
 	
 	private void stepAlphas(int elapsedTime) {
-		for(int i = 0; i < alphas.length; ++i) {
-			alphas[i].move(alphas[i].getVelocity().scaled(elapsedTime), elapsedTime);
+		for(int j = 0; j < alphaCount; ++j) {
+			alphaX[j] += alphaVX[j] * elapsedTime;
+		}
+		for(int j = 0; j < alphaCount; ++j) {
+			alphaY[j] += alphaVY[j] * elapsedTime;
 		}
 	}
 	
@@ -512,6 +1368,9 @@ public class BreakoutState {
 	 */
 	public void movePaddleRight(int elapsedTime) {
 		paddle = paddle.move(PADDLE_VEL.scaled(elapsedTime), getField());
+		if (journal != null) {
+			journal.paddleMoved(1, elapsedTime);
+		}
 	}
 
 	/**
@@ -521,26 +1380,29 @@ public class BreakoutState {
 	 */
 	public void movePaddleLeft(int elapsedTime) {
 		paddle = paddle.move(PADDLE_VEL.scaled(-elapsedTime), getField());
+		if (journal != null) {
+			journal.paddleMoved(-1, elapsedTime);
+		}
 	}
 
 	/**
 	 * Return whether this BreakoutState represents a game where the player has won.
 	 * 
-	 * @post | result == (getBlocks().length == 0 && !isDead())
+	 * @post | result == (getBlockCount() == 0 && !isDead())
 	 * @inspects this
 	 */
 	public boolean isWon() {
-		return getBlocks().length == 0 && !isDead();
+		return liveBlockCount == 0 && !isDead();
 	}
 
 	/**
 	 * Return whether this BreakoutState represents a game where the player is dead.
 	 * 
-	 * @post | result == (getBalls().length == 0)
+	 * @post | result == (getBallCount() == 0)
 	 * @inspects this
 	 */
 	public boolean isDead() {
-		return getBalls().length == 0;
+		return ballCount == 0;
 	}
 
 
@@ -4,6 +4,11 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.api.Test;
 
+import breakout.gui.BreakoutApplication;
+import breakout.headless.PaddleInput;
+import breakout.radioactivity.Alpha;
+import breakout.radioactivity.Ball;
+import breakout.radioactivity.SuperChargedBall;
 import breakout.utils.Point;
 import breakout.utils.Vector;
 
@@ -20,4 +25,273 @@ class BreakoutStateTest {
 		
 	}
 
+	@Test
+	void testViewsMatchGetters() {
+		Ball normal = fac.createNormalBall(new Point(5000, 5000), 700, new Vector(3, 4));
+		Ball charged = fac.createSuperchargedBall(new Point(8000, 6000), 900, new Vector(-2, 5), 10000);
+		Alpha a1 = fac.createAlpha(new Point(20000, 5000), 700, new Vector(-6, 0));
+		Alpha a2 = fac.createAlpha(new Point(30000, 7000), 800, new Vector(0, 4));
+		fac.addLink(normal, a1);
+		fac.addLink(normal, a2);
+		fac.addLink(charged, a2);
+		PaddleState paddle = fac.createNormalPaddleState(new Point(25000, 28000));
+		BreakoutState state = fac.createBreakoutState(new Alpha[] { a1, a2 }, new Ball[] { normal, charged },
+				new BlockState[] {}, BR, paddle);
+		fac.tick(state, 1, 20);
+
+		Ball[] balls = fac.getBalls(state);
+		Alpha[] alphas = fac.getAlphas(state);
+
+		int[] nbBalls = { 0 };
+		fac.forEachBall(state, (i, x, y, diameter, vx, vy, eCharge, color) -> {
+			assertEquals(fac.getCenter(balls[i]), new Point(x, y));
+			assertEquals(fac.getDiameter(balls[i]), diameter);
+			assertEquals(fac.getVelocity(balls[i]), new Vector(vx, vy));
+			assertEquals(fac.getEcharge(balls[i]), eCharge);
+			assertEquals(fac.getColor(balls[i]), color);
+			nbBalls[0]++;
+		});
+		assertEquals(2, nbBalls[0]);
+
+		int[] nbAlphas = { 0 };
+		fac.forEachAlpha(state, (j, x, y, diameter, vx, vy, color) -> {
+			assertEquals(fac.getCenter(alphas[j]), new Point(x, y));
+			assertEquals(fac.getDiameter(alphas[j]), diameter);
+			assertEquals(fac.getVelocity(alphas[j]), new Vector(vx, vy));
+			assertEquals(fac.getColor(alphas[j]), color);
+			nbAlphas[0]++;
+		});
+		assertEquals(2, nbAlphas[0]);
+
+		int[] nbLinks = { 0 };
+		fac.forEachLink(state, (i, j, ballX, ballY, alphaX, alphaY) -> {
+			assertTrue(fac.getAlphas(balls[i]).stream().anyMatch(a -> fac.getCenter(a).equals(new Point(alphaX, alphaY))));
+			assertEquals(fac.getCenter(balls[i]), new Point(ballX, ballY));
+			assertEquals(fac.getCenter(alphas[j]), new Point(alphaX, alphaY));
+			nbLinks[0]++;
+		});
+		assertEquals(3, nbLinks[0]);
+	}
+
+	@Test
+	void testHitBlockKeepsBlockOrder() {
+		BlockState left = fac.createNormalBlockState(origin, new Point(2000, 500));
+		BlockState sturdy = fac.createSturdyBlockState(new Point(3000, 1351), new Point(5000, 1550), 2);
+		BlockState right = fac.createNormalBlockState(new Point(6000, 0), new Point(8000, 500));
+		Ball ball = fac.createNormalBall(new Point(4000, 1000), 700, downSpeed);
+		PaddleState paddle = fac.createNormalPaddleState(new Point(8000, 2500));
+		BreakoutState state = fac.createBreakoutState(new Ball[] { ball },
+				new BlockState[] { left, sturdy, right }, new Point(10000, 3000), paddle);
+
+		fac.tickDuring(state, 20);
+		BlockState[] blocks = fac.getBlocks(state);
+		assertEquals(3, blocks.length);
+		assertSame(left, blocks[0]);
+		assertEquals(1, ((SturdyBlockState) blocks[1]).getLivesLeft());
+		assertSame(right, blocks[2]);
+		assertEquals(3, fac.getBlocksLen(state));
+		assertFalse(fac.isWon(state));
+
+		fac.tickDuring(state, 2000);
+		blocks = fac.getBlocks(state);
+		assertEquals(2, blocks.length);
+		assertSame(left, blocks[0]);
+		assertSame(right, blocks[1]);
+	}
+
+	BreakoutState paddleHitState() {
+		Ball ball = fac.createNormalBall(new Point(5000, 1500), 700, downSpeed);
+		PaddleState paddle = fac.createNormalPaddleState(new Point(5000, 2500));
+		return fac.createBreakoutState(new Ball[] { ball }, new BlockState[] {}, new Point(10000, 3000), paddle);
+	}
+
+	@Test
+	void testPaddleHitEmitsAlpha() {
+		BreakoutState state = paddleHitState();
+		assertEquals(Integer.MAX_VALUE, fac.getMaxAlphaCount(state));
+		fac.tickDuring(state, 100);
+		assertEquals(1, fac.getAlphasLen(state));
+		assertEquals(1, fac.getAlphas(fac.getBalls(state)[0]).size());
+	}
+
+	@Test
+	void testMaxAlphaCount() {
+		BreakoutState state = paddleHitState();
+		fac.setMaxAlphaCount(state, 0);
+		fac.tickDuring(state, 100);
+		assertEquals(0, fac.getAlphasLen(state));
+		assertEquals(1, fac.getBallsLen(state));
+		assertTrue(fac.getVelocity(fac.getBalls(state)[0]).getY() < 0);
+		assertEquals(1, fac.getEcharge(fac.getBalls(state)[0]));
+		assertThrows(IllegalArgumentException.class, () -> fac.setMaxAlphaCount(state, -1));
+	}
+
+	@Test
+	void testCountsFollowLostBallsAndBlocks() {
+		BlockState block = fac.createNormalBlockState(new Point(3000, 0), new Point(5000, 500));
+		Ball hitter = fac.createNormalBall(new Point(4000, 1000), 700, new Vector(0, -5));
+		Ball lost = fac.createNormalBall(new Point(1000, 2000), 700, downSpeed);
+		PaddleState paddle = fac.createNormalPaddleState(new Point(8000, 2500));
+		BreakoutState state = fac.createBreakoutState(new Ball[] { hitter, lost },
+				new BlockState[] { block }, new Point(10000, 3000), paddle);
+		assertEquals(2, fac.getBallsLen(state));
+		assertEquals(1, fac.getBlocksLen(state));
+		assertEquals(0, fac.getBlockVersion(state));
+
+		fac.tickDuring(state, 200);
+		assertEquals(1, fac.getBallsLen(state));
+		assertEquals(0, fac.getBlocksLen(state));
+		assertEquals(1, fac.getBlockVersion(state));
+		assertTrue(fac.isWon(state));
+		assertFalse(fac.isDead(state));
+
+		fac.tickDuring(state, 2000);
+		assertEquals(0, fac.getBallsLen(state));
+		assertTrue(fac.isDead(state));
+		assertFalse(fac.isWon(state));
+	}
+
+	BreakoutState fastBallState() {
+		BlockState thin = fac.createNormalBlockState(new Point(3000, 2000), new Point(5000, 2300));
+		Ball ball = fac.createNormalBall(new Point(4000, 5000), 700, new Vector(0, -100));
+		PaddleState paddle = fac.createNormalPaddleState(new Point(8000, 7500));
+		return fac.createBreakoutState(new Ball[] { ball }, new BlockState[] { thin }, new Point(10000, 8000),
+				paddle);
+	}
+
+	@Test
+	void testDiscreteFastBallPassesThinBlock() {
+		BreakoutState state = fastBallState();
+		assertEquals(CollisionMode.DISCRETE, fac.getCollisionMode(state));
+		fac.tick(state, 0, 20);
+		fac.tick(state, 0, 20);
+		assertEquals(1, fac.getBlocksLen(state));
+		assertEquals(new Point(4000, 1000), fac.getCenter(fac.getBalls(state)[0]));
+	}
+
+	@Test
+	void testSweptFastBallHitsThinBlock() {
+		BreakoutState state = fastBallState();
+		fac.setCollisionMode(state, CollisionMode.SWEPT);
+		fac.tick(state, 0, 20);
+		fac.tick(state, 0, 20);
+		assertEquals(0, fac.getBlocksLen(state));
+		Ball ball = fac.getBalls(state)[0];
+		assertEquals(new Vector(0, 100), fac.getVelocity(ball));
+		// it hit the block 17.5% into the tick and went back down for the rest of it
+		assertEquals(new Point(4000, 2300 + 350 - 1 + 1650), fac.getCenter(ball));
+		assertThrows(IllegalArgumentException.class, () -> fac.setCollisionMode(state, null));
+	}
+
+	// Play `ticks` ticks with a paddle that follows the first ball, and return the balls and block count after each.
+	static String trace(BreakoutState state, int ticks) {
+		StringBuilder trace = new StringBuilder();
+		PaddleInput input = PaddleInput.followBall();
+		for (int tick = 0; tick < ticks && !fac.isWon(state) && !fac.isDead(state); tick++) {
+			int dir = input.paddleDir(tick, state);
+			if (dir == 1) {
+				fac.movePaddleRight(state, 20);
+			} else if (dir == -1) {
+				fac.movePaddleLeft(state, 20);
+			}
+			fac.tick(state, dir, 20);
+			trace.append(fac.getBlocksLen(state));
+			for (Ball ball : fac.getBalls(state)) {
+				trace.append(' ').append(fac.getCenter(ball)).append(fac.getVelocity(ball));
+			}
+			trace.append('\n');
+		}
+		return trace.toString();
+	}
+
+	// Play the second map, switching to `switchTo` halfway.
+	static String play(BroadPhase broadPhase, BroadPhase switchTo, CollisionMode collisionMode) {
+		BreakoutState state = fac.createStateFromDescription(BreakoutApplication.initMap2);
+		fac.setBroadPhase(state, broadPhase);
+		fac.setCollisionMode(state, collisionMode);
+		String trace = trace(state, 1500);
+		fac.setBroadPhase(state, switchTo);
+		assertEquals(switchTo, fac.getBroadPhase(state));
+		return trace + trace(state, 1500);
+	}
+
+	@Test
+	void testBroadPhasesPlayTheSame() {
+		for (CollisionMode mode : CollisionMode.values()) {
+			String expected = play(BroadPhase.GRID, BroadPhase.GRID, mode);
+			assertEquals(expected, play(BroadPhase.LINEAR, BroadPhase.TREE, mode));
+			assertEquals(expected, play(BroadPhase.TREE, BroadPhase.LINEAR, mode));
+			assertEquals(expected, play(BroadPhase.GRID, BroadPhase.TREE, mode));
+		}
+		BreakoutState state = fastBallState();
+		assertEquals(BroadPhase.GRID, fac.getBroadPhase(state));
+		assertThrows(IllegalArgumentException.class, () -> fac.setBroadPhase(state, null));
+	}
+
+	@Test
+	void testRestoreReplaysTheSameGame() {
+		for (BroadPhase broadPhase : BroadPhase.values()) {
+			BreakoutState state = fac.createStateFromDescription(BreakoutApplication.initMap2);
+			BreakoutSnapshot start = fac.snapshot(state);
+			trace(state, 600);
+			// a tree built now leaves out the blocks destroyed so far, so restoring `start` has to rebuild it
+			fac.setBroadPhase(state, broadPhase);
+			BreakoutSnapshot middle = fac.snapshot(state);
+			assertEquals(fac.getBlocksLen(state), middle.getBlockCount());
+			assertTrue(middle.getBlockCount() < start.getBlockCount());
+			assertEquals(fac.getBallsLen(state), middle.getBallCount());
+			String expected = trace(state, 1500);
+
+			long version = fac.getBlockVersion(state);
+			fac.restore(state, middle);
+			assertTrue(fac.getBlockVersion(state) > version);
+			assertSame(middle.getPaddle(), fac.getPaddle(state));
+			assertEquals(expected, trace(state, 1500));
+
+			// back to the start, and forward again to the middle
+			fac.restore(state, start);
+			assertEquals(start.getBlockCount(), fac.getBlocksLen(state));
+			trace(state, 600);
+			BreakoutState other = fac.createStateFromDescription(BreakoutApplication.initMap2);
+			fac.restore(other, fac.snapshot(state));
+			assertEquals(expected, trace(state, 1500));
+			assertEquals(expected, trace(other, 1500));
+		}
+	}
+
+	@Test
+	void testRestoreLinksAndLifetimes() {
+		Alpha alpha = fac.createAlpha(new Point(8000, 8000), 700, new Vector(0, 3));
+		Ball ball = fac.createSuperchargedBall(new Point(5000, 5000), 700, downSpeed, 3000);
+		Ball other = fac.createNormalBall(new Point(9000, 5000), 700, downSpeed);
+		fac.addLink(ball, alpha);
+		fac.addLink(other, alpha);
+		BreakoutState state = fac.createBreakoutState(new Alpha[] { alpha }, new Ball[] { ball, other },
+				new BlockState[] {}, BR, fac.createNormalPaddleState(new Point(25000, 28000)));
+		BreakoutSnapshot snapshot = fac.snapshot(state);
+		for (int i = 0; i < 40; i++) {
+			fac.tick(state, 0, 20);
+		}
+		fac.restore(state, snapshot);
+		Ball[] balls = fac.getBalls(state);
+		assertEquals(2, balls.length);
+		assertEquals(3000, ((SuperChargedBall) balls[0]).getLifetime());
+		assertEquals(new Point(5000, 5000), fac.getCenter(balls[0]));
+		assertEquals(-2, fac.getEcharge(balls[0]));
+		assertEquals(-2, fac.getEcharge(balls[1]));
+		assertEquals(1, fac.getAlphas(balls[0]).size());
+		assertSame(fac.getAlphas(balls[0]).iterator().next(), fac.getAlphas(balls[1]).iterator().next());
+
+		BreakoutState wrongField = fac.createBreakoutState(new Alpha[] {}, new Ball[] {}, new BlockState[] {},
+				new Point(40000, 30000), fac.createNormalPaddleState(new Point(25000, 28000)));
+		assertThrows(IllegalArgumentException.class, () -> fac.restore(wrongField, snapshot));
+		BreakoutState moreBlocks = fac.createBreakoutState(new Alpha[] {}, new Ball[] {},
+				new BlockState[] { fac.createNormalBlockState(new Point(0, 0), new Point(5000, 1000)) }, BR,
+				fac.createNormalPaddleState(new Point(25000, 28000)));
+		assertEquals(1, moreBlocks.getBlockSlotCount());
+		assertEquals(0, snapshot.getBlockSlotCount());
+		assertThrows(IllegalArgumentException.class, () -> fac.restore(moreBlocks, snapshot));
+		assertThrows(IllegalArgumentException.class, () -> fac.restore(state, null));
+	}
+
 }
@@ -0,0 +1,42 @@
+package breakout;
+
+import breakout.utils.Rect;
+
+/**
+ * How a BreakoutState narrows down the blocks it tests a ball against. All of
+ * them find the same blocks; they differ only in speed, depending on how many
+ * blocks there are and how they are laid out.
+ */
+public enum BroadPhase {
+
+	/**
+	 * Test every block. Fastest for a handful of blocks.
+	 */
+	LINEAR,
+
+	/**
+	 * Only test the blocks in the cells of a uniform grid over the field that the
+	 * ball touches. Fastest for fields evenly filled with blocks of about the
+	 * same size, like the usual levels.
+	 */
+	GRID,
+
+	/**
+	 * Only test the blocks in the branches of a bounding volume hierarchy whose
+	 * boxes the ball touches. Suits levels with blocks of very different sizes,
+	 * or blocks bunched together in a few places of a large field.
+	 */
+	TREE;
+
+	BlockIndex createIndex(Rect field, BlockState[] blocks) {
+		switch (this) {
+		case LINEAR:
+			return new LinearBlockScan();
+		case TREE:
+			return new BlockTree(blocks);
+		default:
+			return new BlockGrid(field, blocks);
+		}
+	}
+
+}
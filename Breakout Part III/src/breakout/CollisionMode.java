@@ -0,0 +1,23 @@
+package breakout;
+
+/**
+ * How a BreakoutState finds the blocks its balls hit during a tick.
+ */
+public enum CollisionMode {
+
+	/**
+	 * Only look at where each ball is at the end of its move. A ball that moves
+	 * further than the thickness of a block in one tick can pass right through it,
+	 * so this needs short ticks. This is how the game always worked.
+	 */
+	DISCRETE,
+
+	/**
+	 * Follow each ball along the whole segment it moves during the tick, and
+	 * handle the blocks it meets in the order it meets them, moving it to the
+	 * point of impact and letting it go on from there with its new velocity.
+	 * Fast balls no longer pass through blocks, so long ticks stay correct.
+	 */
+	SWEPT
+
+}
@@ -0,0 +1,52 @@
+package breakout;
+
+import breakout.utils.Rect;
+
+/**
+ * The trivial broad phase: test every block. It needs no memory and no upkeep,
+ * which makes it the fastest choice when there are only a few blocks.
+ */
+class LinearBlockScan implements BlockIndex {
+
+	@Override
+	public int firstCollision(int cx, int cy, int radius, int vx, int vy, BlockState[] blocks) {
+		for (int id = 0; id < blocks.length; id++) {
+			if (blocks[id] != null && blocks[id].getLocation().isHitBy(cx, cy, radius, vx, vy)) {
+				return id;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int firstSweptCollision(int sx, int sy, int dx, int dy, int radius, BlockState[] blocks, int[] skipped,
+			int skippedCount, Sweep sweep) {
+		int best = -1;
+		double bestTime = 0;
+		boolean bestVerticalSide = false;
+		for (int id = 0; id < blocks.length; id++) {
+			if (blocks[id] == null || BlockIndex.contains(skipped, skippedCount, id)) {
+				continue;
+			}
+			if (sweep.cast(blocks[id].getLocation(), radius, sx, sy, dx, dy) && (best < 0 || sweep.time < bestTime)) {
+				best = id;
+				bestTime = sweep.time;
+				bestVerticalSide = sweep.verticalSide;
+			}
+		}
+		sweep.time = bestTime;
+		sweep.verticalSide = bestVerticalSide;
+		return best;
+	}
+
+	@Override
+	public void remove(int id, Rect loc) {
+		// destroyed blocks leave a null slot, which the scans skip
+	}
+
+	@Override
+	public boolean insert(int id, Rect loc) {
+		return true;
+	}
+
+}
@@ -0,0 +1,17 @@
+package breakout;
+
+/**
+ * Receives the links between the balls and alphas of a BreakoutState one at a time.
+ * 
+ * @see BreakoutState#forEachLink(LinkView)
+ */
+@FunctionalInterface
+public interface LinkView {
+
+	/**
+	 * Called for the link between the ball at position `ballIndex` in `getBalls()` and the
+	 * alpha at position `alphaIndex` in `getAlphas()`, centered at (`ballX`, `ballY`) and
+	 * (`alphaX`, `alphaY`) respectively.
+	 */
+	void visit(int ballIndex, int alphaIndex, int ballX, int ballY, int alphaX, int alphaY);
+}
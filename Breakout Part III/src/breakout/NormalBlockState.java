@@ -6,7 +6,9 @@ import breakout.radioactivity.*;
 
 public class NormalBlockState extends BlockState {
 
-	private static final Color COLOR = new Color(0x80, 0x00, 0xff);
+	private static class Colors {
+		static final Color COLOR = new Color(0x80, 0x00, 0xff);
+	}
 
 	/**
 	 * Construct a block occupying a given rectangle in the field.
@@ -34,7 +36,7 @@ public class NormalBlockState extends BlockState {
 
 	@Override
 	public Color getColor() {
-		return COLOR;
+		return Colors.COLOR;
 	}
 
 }
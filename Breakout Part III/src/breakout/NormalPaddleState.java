@@ -5,7 +5,9 @@ import breakout.utils.*;
 
 public class NormalPaddleState extends PaddleState {
 
-	private static final Color COLOR = new Color(0x99, 0xff, 0xff);
+	private static class Colors {
+		static final Color COLOR = new Color(0x99, 0xff, 0xff);
+	}
 
 	public NormalPaddleState(Point center) {
 		super(center);
@@ -24,7 +26,7 @@ public class NormalPaddleState extends PaddleState {
 
 	@Override
 	public Color getColor() {
-		return COLOR;
+		return Colors.COLOR;
 	}
 
 	@Override
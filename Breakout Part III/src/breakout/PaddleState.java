@@ -17,6 +17,12 @@ public abstract class PaddleState {
 	 * @invar | center != null
 	 */
 	private final Point center;
+	/**
+	 * Computed once, since the paddle is tested for collisions on every tick.
+	 * 
+	 * @invar | location != null
+	 */
+	private final Rect location;
 
 	/**
 	 * Construct a paddle located around a given center in the field.
@@ -26,6 +32,8 @@ public abstract class PaddleState {
 	 */
 	public PaddleState(Point center) {
 		this.center = center;
+		Vector halfDiag = new Vector(-WIDTH / 2, -HEIGHT / 2);
+		this.location = new Rect(center.plus(halfDiag), center.plus(halfDiag.scaled(-1)));
 	}
 
 	/**
@@ -43,8 +51,7 @@ public abstract class PaddleState {
 	 * @post | result.getBottomRight().equals(getCenter().plus(new Vector(WIDTH/2,HEIGHT/2)))
 	 */
 	public Rect getLocation() {
-		Vector halfDiag = new Vector(-WIDTH / 2, -HEIGHT / 2);
-		return new Rect(center.plus(halfDiag), center.plus(halfDiag.scaled(-1)));
+		return location;
 	}
 
 	/**
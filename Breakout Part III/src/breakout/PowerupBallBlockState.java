@@ -7,7 +7,9 @@ import breakout.radioactivity.*;
 public class PowerupBallBlockState extends NormalBlockState {
 
 	private static final int SUPERCHARGED_BALL_LIFETIME = 10000;
-	private static final Color COLOR = new Color(0xff, 0x5e, 0x81);
+	private static class Colors {
+		static final Color COLOR = new Color(0xff, 0x5e, 0x81);
+	}
 
 	public PowerupBallBlockState(Rect location) {
 		super(location);
@@ -29,7 +31,7 @@ public class PowerupBallBlockState extends NormalBlockState {
 
 	@Override
 	public Color getColor() {
-		return COLOR;
+		return Colors.COLOR;
 	}
 
 }
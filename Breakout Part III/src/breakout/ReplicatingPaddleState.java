@@ -5,7 +5,9 @@ import breakout.utils.*;
 
 public class ReplicatingPaddleState extends PaddleState {
 	private int count;
-	private static final Color COLOR = new Color(0xff, 0xff, 0x00);
+	private static class Colors {
+		static final Color COLOR = new Color(0xff, 0xff, 0x00);
+	}
 
 	@Override
 	public int numberOfBallsAfterHit() {
@@ -35,7 +37,7 @@ public class ReplicatingPaddleState extends PaddleState {
 
 	@Override
 	public Color getColor() {
-		return COLOR;
+		return Colors.COLOR;
 	}
 
 	@Override
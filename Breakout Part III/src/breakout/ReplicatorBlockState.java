@@ -6,7 +6,9 @@ import breakout.radioactivity.*;
 
 public class ReplicatorBlockState extends NormalBlockState {
 
-	private static final Color COLOR = new Color(0xcf, 0x5e, 0x51);
+	private static class Colors {
+		static final Color COLOR = new Color(0xcf, 0x5e, 0x51);
+	}
 
 	public ReplicatorBlockState(Rect location) {
 		super(location);
@@ -19,7 +21,7 @@ public class ReplicatorBlockState extends NormalBlockState {
 
 	@Override
 	public Color getColor() {
-		return COLOR;
+		return Colors.COLOR;
 	}
 
 }
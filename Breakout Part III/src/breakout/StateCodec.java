@@ -0,0 +1,498 @@
+package breakout;
+
+import static breakout.utils.Varints.getZigzag;
+import static breakout.utils.Varints.putVarint;
+import static breakout.utils.Varints.putZigzag;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import breakout.radioactivity.LinkGraph;
+import breakout.utils.Point;
+import breakout.utils.Rect;
+import breakout.utils.Varints;
+
+/**
+ * Writes a BreakoutState to bytes and reads it back: everything that changes
+ * while the game is played, as in a `BreakoutSnapshot`, plus the field and the
+ * settings (collision mode, broad phase and maximum number of alphas). A
+ * decoded state plays exactly like the state that was encoded and has the
+ * same checksum. Metrics and journals are not encoded.
+ *
+ * The format, version `VERSION`, is:
+ *
+ * - the magic number `MAGIC` and the version (one byte);
+ * - the ordinals of the collision mode and the broad phase, the maximum number
+ *   of alphas and the bottom right corner of the field, as varints;
+ * - the paddle: a kind byte (0 normal, 1 replicating), the center as zigzag
+ *   varints and, for a replicating paddle, its count;
+ * - the blocks: the number of block slots, then per slot a tag byte whose low
+ *   bits give the kind (0 for a destroyed block, then normal, sturdy, replicator
+ *   and powerup ball) and whose `SAME_SIZE` bit says that the block is as large
+ *   as the previous one. A block follows its tag as the offset of its top left
+ *   corner from that of the previous block (zigzag varints), its width and
+ *   height unless they are the same, and for a sturdy block its lives left.
+ *   Blocks on a map are laid out in rows of equal blocks, so most take four
+ *   bytes: the tag and two small offsets;
+ * - the balls: their number, then per ball a kind byte (0 normal, 1
+ *   supercharged), the center, diameter and velocity, and for a supercharged
+ *   ball its lifetime;
+ * - the alphas: their number, then per alpha the center, diameter and velocity;
+ * - the links: per ball, the number of alphas linked to it and their ids in
+ *   increasing order, each as the difference with the previous one.
+ *
+ * All ints are varints; signed ones are zigzag encoded. The order of a ball's
+ * links is not kept, as nothing in the game depends on it.
+ */
+public final class StateCodec {
+
+	public static final int MAGIC = 0x42524B53; // "BRKS"
+	public static final byte VERSION = 1;
+
+	static final int BLOCK_NONE = 0;
+	static final int BLOCK_NORMAL = 1;
+	static final int BLOCK_STURDY = 2;
+	static final int BLOCK_REPLICATOR = 3;
+	static final int BLOCK_POWERUP_BALL = 4;
+	static final int BLOCK_KIND_MASK = 0x07;
+	static final int SAME_SIZE = 0x08;
+
+	static final int PADDLE_NORMAL = 0;
+	static final int PADDLE_REPLICATING = 1;
+
+	// The most bytes a varint takes.
+	static final int VARINT_MAX = Varints.MAX_BYTES;
+
+	private StateCodec() {
+	}
+
+	/**
+	 * Return the largest number of bytes `encode` writes for the given state.
+	 *
+	 * @throws IllegalArgumentException | state == null
+	 * @inspects state
+	 */
+	public static int maxEncodedSize(BreakoutState state) {
+		if (state == null)
+			throw new IllegalArgumentException();
+		return maxEncodedSize(state.snapshot());
+	}
+
+	static int maxEncodedSize(BreakoutSnapshot snapshot) {
+		long links = 0;
+		for (int b = 0; b < snapshot.ballCount; b++) {
+			links += snapshot.links.getBallDegree(b);
+		}
+		long size = 5 + 6 * VARINT_MAX // header and settings
+				+ 1 + 3 * VARINT_MAX // paddle
+				+ VARINT_MAX + (1 + 5L * VARINT_MAX) * snapshot.blocks.length
+				+ VARINT_MAX + (1 + 6L * VARINT_MAX) * snapshot.ballCount
+				+ VARINT_MAX + 5L * VARINT_MAX * snapshot.alphaCount
+				+ (long) VARINT_MAX * (snapshot.ballCount + links);
+		if (size > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("state too large to encode");
+		return (int) size;
+	}
+
+	/**
+	 * Return a buffer, ready for reading, that holds the encoding of the given state.
+	 *
+	 * @throws IllegalArgumentException | state == null
+	 * @throws IllegalArgumentException if the state has blocks or a paddle of a
+	 *         kind other than those of this package
+	 * @inspects state
+	 * @creates result
+	 * @post | result.position() == 0
+	 */
+	public static ByteBuffer encode(BreakoutState state) {
+		if (state == null)
+			throw new IllegalArgumentException();
+		BreakoutSnapshot snapshot = state.snapshot();
+		ByteBuffer buffer = ByteBuffer.allocate(maxEncodedSize(snapshot));
+		encode(state, snapshot, buffer);
+		return buffer.flip();
+	}
+
+	/**
+	 * Write the encoding of the given state to `out`, from its position on. A
+	 * buffer with `maxEncodedSize(state)` bytes remaining is always large enough.
+	 *
+	 * @throws IllegalArgumentException | state == null || out == null
+	 * @throws IllegalArgumentException if the state has blocks or a paddle of a
+	 *         kind other than those of this package
+	 * @throws java.nio.BufferOverflowException if the encoding does not fit in
+	 *         what remains of `out`
+	 * @inspects state
+	 * @mutates out
+	 */
+	public static void encode(BreakoutState state, ByteBuffer out) {
+		if (state == null || out == null)
+			throw new IllegalArgumentException();
+		encode(state, state.snapshot(), out);
+	}
+
+	static void encode(BreakoutState state, BreakoutSnapshot snapshot, ByteBuffer out) {
+		out.putInt(MAGIC);
+		out.put(VERSION);
+		putVarint(out, state.getCollisionMode().ordinal());
+		putVarint(out, state.getBroadPhase().ordinal());
+		putVarint(out, state.getMaxAlphaCount());
+		putVarint(out, snapshot.bottomRight.getX());
+		putVarint(out, snapshot.bottomRight.getY());
+
+		PaddleState paddle = snapshot.paddle;
+		out.put((byte) paddleKind(paddle));
+		putZigzag(out, paddle.getCenter().getX());
+		putZigzag(out, paddle.getCenter().getY());
+		if (paddle instanceof ReplicatingPaddleState replicating) {
+			putVarint(out, replicating.getCount());
+		}
+
+		BlockState[] blocks = snapshot.blocks;
+		putVarint(out, blocks.length);
+		int lastX = 0;
+		int lastY = 0;
+		int lastWidth = -1;
+		int lastHeight = -1;
+		for (BlockState block : blocks) {
+			int kind = blockKind(block);
+			if (kind == BLOCK_NONE) {
+				out.put((byte) BLOCK_NONE);
+				continue;
+			}
+			Rect location = block.getLocation();
+			int width = location.getWidth();
+			int height = location.getHeight();
+			boolean sameSize = width == lastWidth && height == lastHeight;
+			out.put((byte) (sameSize ? kind | SAME_SIZE : kind));
+			putZigzag(out, location.getTopLeft().getX() - lastX);
+			putZigzag(out, location.getTopLeft().getY() - lastY);
+			if (!sameSize) {
+				putVarint(out, width);
+				putVarint(out, height);
+			}
+			if (kind == BLOCK_STURDY) {
+				putVarint(out, ((SturdyBlockState) block).getLivesLeft());
+			}
+			lastX = location.getTopLeft().getX();
+			lastY = location.getTopLeft().getY();
+			lastWidth = width;
+			lastHeight = height;
+		}
+
+		int n = snapshot.ballCount;
+		int[] balls = snapshot.balls;
+		putVarint(out, n);
+		for (int i = 0; i < n; i++) {
+			int kind = balls[6 * n + i];
+			out.put((byte) kind);
+			putZigzag(out, balls[i]);
+			putZigzag(out, balls[n + i]);
+			putVarint(out, balls[4 * n + i]);
+			putZigzag(out, balls[2 * n + i]);
+			putZigzag(out, balls[3 * n + i]);
+			if (kind == BreakoutState.SUPERCHARGED_BALL) {
+				putZigzag(out, balls[5 * n + i]);
+			}
+		}
+
+		int m = snapshot.alphaCount;
+		int[] alphas = snapshot.alphas;
+		putVarint(out, m);
+		for (int j = 0; j < m; j++) {
+			putZigzag(out, alphas[j]);
+			putZigzag(out, alphas[m + j]);
+			putVarint(out, alphas[4 * m + j]);
+			putZigzag(out, alphas[2 * m + j]);
+			putZigzag(out, alphas[3 * m + j]);
+		}
+
+		LinkGraph links = snapshot.links;
+		int[] linked = new int[4];
+		for (int b = 0; b < n; b++) {
+			int degree = links.getBallDegree(b);
+			if (linked.length < degree) {
+				linked = new int[degree];
+			}
+			for (int k = 0; k < degree; k++) {
+				linked[k] = links.getLinkedAlpha(b, k);
+			}
+			Arrays.sort(linked, 0, degree);
+			putVarint(out, degree);
+			int last = 0;
+			for (int k = 0; k < degree; k++) {
+				putVarint(out, linked[k] - last);
+				last = linked[k];
+			}
+		}
+	}
+
+	static int paddleKind(PaddleState paddle) {
+		if (paddle.getClass() == NormalPaddleState.class) {
+			return PADDLE_NORMAL;
+		}
+		if (paddle.getClass() == ReplicatingPaddleState.class) {
+			return PADDLE_REPLICATING;
+		}
+		throw new IllegalArgumentException("cannot encode a " + paddle.getClass().getName());
+	}
+
+	static int blockKind(BlockState block) {
+		if (block == null) {
+			return BLOCK_NONE;
+		}
+		Class<?> type = block.getClass();
+		if (type == NormalBlockState.class) {
+			return BLOCK_NORMAL;
+		}
+		if (type == SturdyBlockState.class) {
+			return BLOCK_STURDY;
+		}
+		if (type == ReplicatorBlockState.class) {
+			return BLOCK_REPLICATOR;
+		}
+		if (type == PowerupBallBlockState.class) {
+			return BLOCK_POWERUP_BALL;
+		}
+		throw new IllegalArgumentException("cannot encode a " + type.getName());
+	}
+
+	/**
+	 * Read a state written by `encode` from `in`, from its position on, and
+	 * return it. The position of `in` is left after the encoding.
+	 *
+	 * @throws IllegalArgumentException | in == null
+	 * @throws IllegalArgumentException if the bytes are not the encoding of a
+	 *         state of a known version, or end before it does
+	 * @mutates in
+	 * @creates result
+	 */
+	public static BreakoutState decode(ByteBuffer in) {
+		if (in == null)
+			throw new IllegalArgumentException();
+		try {
+			return decodeState(in);
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("encoded state is cut off", e);
+		}
+	}
+
+	private static BreakoutState decodeState(ByteBuffer in) {
+		if (in.getInt() != MAGIC)
+			throw new IllegalArgumentException("not an encoded state");
+		byte version = in.get();
+		if (version != VERSION)
+			throw new IllegalArgumentException("unknown version " + version);
+		CollisionMode collisionMode = CollisionMode.values()[getIndex(in, CollisionMode.values().length)];
+		BroadPhase broadPhase = BroadPhase.values()[getIndex(in, BroadPhase.values().length)];
+		int maxAlphaCount = getVarint(in);
+		Point bottomRight = new Point(getVarint(in), getVarint(in));
+		Rect field = new Rect(Point.ORIGIN, bottomRight);
+
+		int paddleKind = in.get();
+		PaddleState paddle = getPaddle(in, paddleKind, new Point(getZigzag(in), getZigzag(in)));
+		check(field.contains(paddle.getLocation()));
+
+		BlockState[] blocks = new BlockState[getCount(in)];
+		int liveBlockCount = 0;
+		int lastX = 0;
+		int lastY = 0;
+		int lastWidth = -1;
+		int lastHeight = -1;
+		for (int id = 0; id < blocks.length; id++) {
+			int tag = in.get();
+			int kind = tag & BLOCK_KIND_MASK;
+			if (tag == BLOCK_NONE) {
+				continue;
+			}
+			int x = lastX + getZigzag(in);
+			int y = lastY + getZigzag(in);
+			if ((tag & ~(BLOCK_KIND_MASK | SAME_SIZE)) != 0 || (tag & SAME_SIZE) != 0 && lastWidth < 0)
+				throw new IllegalArgumentException("malformed block tag " + tag);
+			int width = (tag & SAME_SIZE) != 0 ? lastWidth : getVarint(in);
+			int height = (tag & SAME_SIZE) != 0 ? lastHeight : getVarint(in);
+			Rect location = new Rect(new Point(x, y), new Point(x + width, y + height));
+			check(field.contains(location));
+			blocks[id] = getBlock(in, kind, location);
+			liveBlockCount++;
+			lastX = x;
+			lastY = y;
+			lastWidth = width;
+			lastHeight = height;
+		}
+
+		int n = getCount(in);
+		int[] balls = new int[BreakoutSnapshot.BALL_COLUMNS * n];
+		for (int i = 0; i < n; i++) {
+			int kind = in.get();
+			if (kind != BreakoutState.NORMAL_BALL && kind != BreakoutState.SUPERCHARGED_BALL)
+				throw new IllegalArgumentException("unknown ball kind " + kind);
+			balls[i] = getZigzag(in);
+			balls[n + i] = getZigzag(in);
+			balls[4 * n + i] = getVarint(in);
+			balls[2 * n + i] = getZigzag(in);
+			balls[3 * n + i] = getZigzag(in);
+			balls[5 * n + i] = kind == BreakoutState.SUPERCHARGED_BALL ? getZigzag(in) : -1;
+			balls[6 * n + i] = kind;
+			check(field.contains(balls[i], balls[n + i]));
+		}
+
+		int m = getCount(in);
+		int[] alphas = new int[BreakoutSnapshot.ALPHA_COLUMNS * m];
+		for (int j = 0; j < m; j++) {
+			alphas[j] = getZigzag(in);
+			alphas[m + j] = getZigzag(in);
+			alphas[4 * m + j] = getVarint(in);
+			alphas[2 * m + j] = getZigzag(in);
+			alphas[3 * m + j] = getZigzag(in);
+			check(field.contains(alphas[j], alphas[m + j]));
+		}
+
+		LinkGraph links = new LinkGraph();
+		for (int i = 0; i < n; i++) {
+			links.addBall();
+		}
+		for (int j = 0; j < m; j++) {
+			links.addAlpha();
+		}
+		for (int b = 0; b < n; b++) {
+			int degree = getVarint(in);
+			check(degree <= m);
+			int a = 0;
+			for (int k = 0; k < degree; k++) {
+				int delta = getVarint(in);
+				check(k == 0 || delta > 0);
+				a += delta;
+				check(0 <= a && a < m);
+				links.link(b, a);
+			}
+		}
+
+		BreakoutState state = new BreakoutState(bottomRight, blocks, paddle);
+		state.setCollisionMode(collisionMode);
+		state.setBroadPhase(broadPhase);
+		state.setMaxAlphaCount(maxAlphaCount);
+		state.restore(
+				new BreakoutSnapshot(bottomRight, n, balls, m, alphas, links, blocks, liveBlockCount, paddle));
+		return state;
+	}
+
+	/**
+	 * Return a paddle of the given kind at the given center, reading the count of
+	 * a replicating paddle from `in`.
+	 */
+	static PaddleState getPaddle(ByteBuffer in, int kind, Point center) {
+		return switch (kind) {
+		case PADDLE_NORMAL -> new NormalPaddleState(center);
+		case PADDLE_REPLICATING -> new ReplicatingPaddleState(center, getVarint(in));
+		default -> throw new IllegalArgumentException("unknown paddle kind " + kind);
+		};
+	}
+
+	/**
+	 * Return a block of the given kind at the given location, reading the lives
+	 * of a sturdy block from `in`.
+	 */
+	static BlockState getBlock(ByteBuffer in, int kind, Rect location) {
+		return switch (kind) {
+		case BLOCK_NORMAL -> new NormalBlockState(location);
+		case BLOCK_STURDY -> {
+			int lives = getVarint(in);
+			check(lives >= 1);
+			yield new SturdyBlockState(location, lives);
+		}
+		case BLOCK_REPLICATOR -> new ReplicatorBlockState(location);
+		case BLOCK_POWERUP_BALL -> new PowerupBallBlockState(location);
+		default -> throw new IllegalArgumentException("unknown block kind " + kind);
+		};
+	}
+
+	/**
+	 * Write the encoding of the given state to the given file, replacing what
+	 * was in it.
+	 *
+	 * @throws IllegalArgumentException | state == null || path == null
+	 * @throws IllegalArgumentException if the state has blocks or a paddle of a
+	 *         kind other than those of this package
+	 * @throws IOException if the file cannot be written
+	 * @inspects state
+	 */
+	public static void save(BreakoutState state, Path path) throws IOException {
+		if (state == null || path == null)
+			throw new IllegalArgumentException();
+		ByteBuffer buffer = encode(state);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * Read a state written by `save` from the given file.
+	 *
+	 * @throws IllegalArgumentException | path == null
+	 * @throws IllegalArgumentException if the file does not hold exactly the
+	 *         encoding of a state of a known version
+	 * @throws IOException if the file cannot be read
+	 * @creates result
+	 */
+	public static BreakoutState load(Path path) throws IOException {
+		if (path == null)
+			throw new IllegalArgumentException();
+		ByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE)
+				throw new IllegalArgumentException("file too large");
+			buffer = ByteBuffer.allocate((int) size);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+			}
+		}
+		buffer.flip();
+		BreakoutState state = decode(buffer);
+		if (buffer.hasRemaining())
+			throw new IllegalArgumentException("trailing bytes after encoded state");
+		return state;
+	}
+
+	static void check(boolean condition) {
+		if (!condition)
+			throw new IllegalArgumentException("malformed encoded state");
+	}
+
+	/**
+	 * Read a varint that must fit in a non-negative int.
+	 *
+	 * @throws IllegalArgumentException if it does not
+	 * @throws BufferUnderflowException if the buffer ends before the varint does
+	 */
+	static int getVarint(ByteBuffer buffer) {
+		long value = Varints.getVarint(buffer);
+		if (value > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("malformed varint");
+		return (int) value;
+	}
+
+	private static int getIndex(ByteBuffer buffer, int bound) {
+		int index = getVarint(buffer);
+		check(index < bound);
+		return index;
+	}
+
+	// A count of elements that take at least one byte each, so that a corrupt
+	// count is caught before an array of that size is allocated.
+	static int getCount(ByteBuffer buffer) {
+		int count = getVarint(buffer);
+		if (count > buffer.remaining())
+			throw new BufferUnderflowException();
+		return count;
+	}
+
+}
@@ -0,0 +1,169 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import breakout.gui.BreakoutApplication;
+import breakout.radioactivity.Alpha;
+import breakout.radioactivity.Ball;
+import breakout.radioactivity.SuperChargedBall;
+import breakout.utils.Point;
+import breakout.utils.Rect;
+import breakout.utils.Vector;
+
+class StateCodecTest {
+
+	static final BreakoutFacade fac = BreakoutStateTest.fac;
+	static final Point BR = BreakoutStateTest.BR;
+
+	// A state with every kind of block, ball and paddle, links, and a destroyed block.
+	static BreakoutState everyKindState(PaddleState paddle) {
+		Alpha alpha = fac.createAlpha(new Point(8000, 8000), 700, new Vector(0, 3));
+		Alpha lonely = fac.createAlpha(new Point(30000, 9000), 500, new Vector(-2, 1));
+		Ball charged = fac.createSuperchargedBall(new Point(5000, 5000), 700, new Vector(3, -5), 3000);
+		Ball normal = fac.createNormalBall(new Point(9000, 15000), 700, new Vector(-1, 4));
+		fac.addLink(charged, alpha);
+		fac.addLink(normal, alpha);
+		fac.addLink(normal, lonely);
+		BlockState[] blocks = {
+				fac.createNormalBlockState(new Point(0, 0), new Point(5000, 1000)),
+				fac.createSturdyBlockState(new Point(5000, 0), new Point(10000, 1000), 2),
+				fac.createReplicatorBlockState(new Point(10000, 0), new Point(15000, 1000)),
+				fac.createPowerupBallBlockState(new Point(15000, 0), new Point(20000, 1000)),
+				fac.createNormalBlockState(new Point(4000, 20000), new Point(6000, 20500)), };
+		BreakoutState state = fac.createBreakoutState(new Alpha[] { alpha, lonely }, new Ball[] { charged, normal },
+				blocks, BR, paddle);
+		state.restore(withoutBlock(state.snapshot(), 4));
+		return state;
+	}
+
+	static BreakoutSnapshot withoutBlock(BreakoutSnapshot snapshot, int id) {
+		BlockState[] blocks = snapshot.blocks.clone();
+		blocks[id] = null;
+		return new BreakoutSnapshot(snapshot.bottomRight, snapshot.ballCount, snapshot.balls, snapshot.alphaCount,
+				snapshot.alphas, snapshot.links, blocks, snapshot.liveBlockCount - 1, snapshot.paddle);
+	}
+
+	static BreakoutState roundTrip(BreakoutState state) {
+		ByteBuffer buffer = StateCodec.encode(state);
+		BreakoutState decoded = StateCodec.decode(buffer);
+		assertFalse(buffer.hasRemaining());
+		return decoded;
+	}
+
+	@Test
+	void testRoundTripEveryKind() {
+		BreakoutState state = everyKindState(fac.createReplicatingPaddleState(new Point(25000, 28000), 2));
+		BreakoutState decoded = roundTrip(state);
+
+		assertEquals(state.checksum(), decoded.checksum());
+		assertEquals(BR, decoded.getBottomRight());
+		BlockState[] slots = decoded.snapshot().blocks;
+		assertEquals(5, slots.length);
+		assertNull(slots[4]);
+		assertEquals(4, decoded.getBlockCount());
+		assertEquals(NormalBlockState.class, slots[0].getClass());
+		assertEquals(SturdyBlockState.class, slots[1].getClass());
+		assertEquals(2, ((SturdyBlockState) slots[1]).getLivesLeft());
+		assertEquals(ReplicatorBlockState.class, slots[2].getClass());
+		assertEquals(PowerupBallBlockState.class, slots[3].getClass());
+		assertEquals(new Rect(new Point(5000, 0), new Point(10000, 1000)), slots[1].getLocation());
+		ReplicatingPaddleState paddle = (ReplicatingPaddleState) decoded.getPaddle();
+		assertEquals(2, paddle.getCount());
+		assertEquals(new Point(25000, 28000), paddle.getCenter());
+
+		Ball[] balls = fac.getBalls(decoded);
+		assertEquals(3000, ((SuperChargedBall) balls[0]).getLifetime());
+		assertFalse(balls[1] instanceof SuperChargedBall);
+		assertEquals(new Point(9000, 15000), fac.getCenter(balls[1]));
+		assertEquals(new Vector(-1, 4), fac.getVelocity(balls[1]));
+		assertEquals(1, fac.getAlphas(balls[0]).size());
+		assertEquals(2, fac.getAlphas(balls[1]).size());
+		assertEquals(2, fac.getAlphas(decoded).length);
+
+		BreakoutState normalPaddle = everyKindState(fac.createNormalPaddleState(new Point(25000, 28000)));
+		assertEquals(NormalPaddleState.class, roundTrip(normalPaddle).getPaddle().getClass());
+		assertEquals(normalPaddle.checksum(), roundTrip(normalPaddle).checksum());
+	}
+
+	@Test
+	void testDecodedStatePlaysTheSame() {
+		for (CollisionMode mode : CollisionMode.values()) {
+			BreakoutState state = fac.createStateFromDescription(BreakoutApplication.initMap2);
+			fac.setCollisionMode(state, mode);
+			fac.setBroadPhase(state, BroadPhase.TREE);
+			fac.setMaxAlphaCount(state, 7);
+			BreakoutStateTest.trace(state, 800);
+			BreakoutState decoded = roundTrip(state);
+			assertEquals(mode, fac.getCollisionMode(decoded));
+			assertEquals(BroadPhase.TREE, fac.getBroadPhase(decoded));
+			assertEquals(7, fac.getMaxAlphaCount(decoded));
+			assertEquals(state.checksum(), decoded.checksum());
+			assertEquals(BreakoutStateTest.trace(state, 800), BreakoutStateTest.trace(decoded, 800));
+			assertEquals(state.checksum(), decoded.checksum());
+		}
+	}
+
+	@Test
+	void testEncodeIntoBuffer() {
+		BreakoutState state = fac.createStateFromDescription(BreakoutApplication.initMap3);
+		ByteBuffer encoded = StateCodec.encode(state);
+		ByteBuffer out = ByteBuffer.allocate(StateCodec.maxEncodedSize(state) + 3);
+		out.put((byte) 1).put((byte) 2).put((byte) 3);
+		StateCodec.encode(state, out);
+		assertEquals(3 + encoded.remaining(), out.position());
+		out.flip().position(3);
+		assertEquals(state.checksum(), StateCodec.decode(out).checksum());
+		// most blocks of a map are as large as the block before them and take four bytes
+		assertTrue(encoded.remaining() < 5 * fac.getBlocksLen(state) + 50);
+	}
+
+	@Test
+	void testSaveAndLoad(@TempDir Path dir) throws IOException {
+		BreakoutState state = everyKindState(fac.createReplicatingPaddleState(new Point(25000, 28000), 3));
+		Path file = dir.resolve("state.bin");
+		StateCodec.save(state, file);
+		assertEquals(StateCodec.encode(state).remaining(), Files.size(file));
+		assertEquals(state.checksum(), StateCodec.load(file).checksum());
+
+		Files.write(file, new byte[] { 0 }, StandardOpenOption.APPEND);
+		assertThrows(IllegalArgumentException.class, () -> StateCodec.load(file));
+	}
+
+	@Test
+	void testMalformedInput() {
+		BreakoutState state = everyKindState(fac.createNormalPaddleState(new Point(25000, 28000)));
+		byte[] bytes = StateCodec.encode(state).array();
+		int length = StateCodec.encode(state).remaining();
+		for (int cut = 0; cut < length; cut++) {
+			ByteBuffer truncated = ByteBuffer.wrap(bytes, 0, cut);
+			assertThrows(IllegalArgumentException.class, () -> StateCodec.decode(truncated));
+		}
+		byte[] badMagic = bytes.clone();
+		badMagic[0] ^= 1;
+		assertThrows(IllegalArgumentException.class, () -> StateCodec.decode(ByteBuffer.wrap(badMagic)));
+		byte[] badVersion = bytes.clone();
+		badVersion[4] = StateCodec.VERSION + 1;
+		assertThrows(IllegalArgumentException.class, () -> StateCodec.decode(ByteBuffer.wrap(badVersion)));
+		assertThrows(IllegalArgumentException.class, () -> StateCodec.decode(null));
+		assertThrows(IllegalArgumentException.class, () -> StateCodec.encode(null));
+	}
+
+	@Test
+	void testUnknownBlockKind() {
+		BlockState custom = new NormalBlockState(new Rect(new Point(0, 0), new Point(1000, 1000))) {
+		};
+		BreakoutState state = fac.createBreakoutState(new Alpha[] {}, new Ball[] {}, new BlockState[] { custom }, BR,
+				fac.createNormalPaddleState(new Point(25000, 28000)));
+		assertThrows(IllegalArgumentException.class, () -> StateCodec.encode(state));
+	}
+
+}
@@ -0,0 +1,259 @@
+package breakout;
+
+import static breakout.StateCodec.check;
+import static breakout.StateCodec.getCount;
+import static breakout.StateCodec.getVarint;
+import static breakout.utils.Varints.getZigzag;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import breakout.radioactivity.LinkGraph;
+import breakout.utils.Point;
+import breakout.utils.Rect;
+
+/**
+ * Rebuilds the state of a game from the frames written by a
+ * `StateStreamEncoder`, for a spectator. The decoder starts without a state;
+ * it gets one from the first keyframe and updates it, in place, with every
+ * frame after that.
+ *
+ * A delta only makes sense on top of the frame just before it, so after a
+ * lost frame the decoder refuses deltas until the next keyframe.
+ *
+ * @invar | getFrames() >= 0
+ * @invar | getFrames() == 0 || getState() != null
+ */
+public final class StateStreamDecoder {
+
+	/**
+	 * @invar | (state == null) == (current == null)
+	 * @invar | current == null || links.length >= current.ballCount && degrees.length == links.length
+	 * @representationObject
+	 */
+	private BreakoutState state;
+	private BreakoutSnapshot current;
+	// The sorted linked alphas of each ball of `current`.
+	private int[][] links = {};
+	private int[] degrees = {};
+	private short frameNumber;
+	private boolean inSync;
+	private long frames;
+
+	/**
+	 * @post | getState() == null
+	 * @post | getFrames() == 0
+	 */
+	public StateStreamDecoder() {
+	}
+
+	/**
+	 * Return the state rebuilt from the frames so far, or null before the first
+	 * keyframe. The same object is updated by the deltas that follow, and
+	 * replaced by a new one at every keyframe.
+	 */
+	public BreakoutState getState() {
+		return state;
+	}
+
+	/**
+	 * Return the number of frames applied so far.
+	 */
+	public long getFrames() {
+		return frames;
+	}
+
+	/**
+	 * Return whether the given frame, from its position on, is a keyframe, which
+	 * a decoder can start from.
+	 *
+	 * @throws IllegalArgumentException | frame == null || !frame.hasRemaining()
+	 * @inspects frame
+	 */
+	public static boolean isKeyframe(ByteBuffer frame) {
+		if (frame == null || !frame.hasRemaining())
+			throw new IllegalArgumentException();
+		return frame.get(frame.position()) == StateStreamEncoder.KEYFRAME;
+	}
+
+	/**
+	 * Apply the given frame, which must be all of the remaining bytes of `frame`,
+	 * and return the state it brings. If the frame cannot be applied, the state
+	 * is left as it was.
+	 *
+	 * @throws IllegalArgumentException | frame == null
+	 * @throws IllegalArgumentException if the bytes are not a frame, or hold more
+	 *         or less than one
+	 * @throws IllegalStateException if the frame is a delta and no keyframe was
+	 *         applied yet or a frame was lost since the last keyframe
+	 * @mutates this
+	 * @mutates frame
+	 * @post | result == getState()
+	 * @post | getFrames() == old(getFrames()) + 1
+	 */
+	public BreakoutState apply(ByteBuffer frame) {
+		if (frame == null)
+			throw new IllegalArgumentException();
+		try {
+			int type = frame.get();
+			short number = frame.getShort();
+			if (type == StateStreamEncoder.KEYFRAME) {
+				BreakoutState decoded = StateCodec.decode(frame);
+				checkEnd(frame);
+				state = decoded;
+				current = decoded.snapshot();
+				links = new int[current.ballCount][];
+				degrees = new int[current.ballCount];
+				for (int b = 0; b < current.ballCount; b++) {
+					degrees[b] = current.links.getBallDegree(b);
+					links[b] = new int[degrees[b]];
+					for (int k = 0; k < degrees[b]; k++) {
+						links[b][k] = current.links.getLinkedAlpha(b, k);
+					}
+					Arrays.sort(links[b]);
+				}
+			} else if (type == StateStreamEncoder.DELTA) {
+				if (state == null)
+					throw new IllegalStateException("no keyframe yet");
+				if (!inSync || number != (short) (frameNumber + 1)) {
+					inSync = false;
+					throw new IllegalStateException("lost a frame before frame " + (number & 0xFFFF));
+				}
+				applyDelta(frame);
+				state.restore(current);
+			} else {
+				throw new IllegalArgumentException("unknown frame type " + type);
+			}
+			frameNumber = number;
+			inSync = true;
+			frames++;
+			return state;
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("frame is cut off", e);
+		}
+	}
+
+	private static void checkEnd(ByteBuffer frame) {
+		if (frame.hasRemaining())
+			throw new IllegalArgumentException("trailing bytes after frame");
+	}
+
+	// Read a delta on top of `current`, which must be all of the rest of `in`, and replace `current`, `links` and
+	// `degrees` by the result. Nothing is replaced if the delta is malformed.
+	private void applyDelta(ByteBuffer in) {
+		BreakoutSnapshot old = current;
+		Rect field = new Rect(Point.ORIGIN, old.bottomRight);
+
+		PaddleState paddle = old.paddle;
+		int paddleTag = in.get();
+		if (paddleTag != StateStreamEncoder.PADDLE_SAME) {
+			Point center = paddle.getCenter();
+			center = new Point(center.getX() + getZigzag(in), center.getY() + getZigzag(in));
+			paddle = StateCodec.getPaddle(in, paddleTag - 1, center);
+			check(field.contains(paddle.getLocation()));
+		}
+
+		BlockState[] blocks = old.blocks.clone();
+		int liveBlockCount = old.liveBlockCount;
+		int changed = getCount(in);
+		int id = -1;
+		for (int i = 0; i < changed; i++) {
+			id += 1 + getVarint(in);
+			check(id < blocks.length);
+			BlockState oldBlock = blocks[id];
+			int tag = in.get();
+			int kind = tag & StateCodec.BLOCK_KIND_MASK;
+			BlockState block;
+			if (tag == StateCodec.BLOCK_NONE) {
+				block = null;
+			} else if ((tag & StateStreamEncoder.SAME_PLACE) != 0) {
+				check(oldBlock != null && (tag & ~(StateCodec.BLOCK_KIND_MASK | StateStreamEncoder.SAME_PLACE)) == 0);
+				block = StateCodec.getBlock(in, kind, oldBlock.getLocation());
+			} else {
+				check((tag & ~StateCodec.BLOCK_KIND_MASK) == 0);
+				int x = getZigzag(in);
+				int y = getZigzag(in);
+				Rect location = new Rect(new Point(x, y), new Point(x + getVarint(in), y + getVarint(in)));
+				check(field.contains(location));
+				block = StateCodec.getBlock(in, kind, location);
+			}
+			liveBlockCount += (block != null ? 1 : 0) - (oldBlock != null ? 1 : 0);
+			blocks[id] = block;
+		}
+
+		int n = getCount(in);
+		int[] balls = getColumns(in, n, old.balls, old.ballCount, BreakoutSnapshot.BALL_COLUMNS);
+		for (int i = 0; i < n; i++) {
+			int kind = balls[6 * n + i];
+			check(kind == BreakoutState.NORMAL_BALL || kind == BreakoutState.SUPERCHARGED_BALL);
+			check(field.contains(balls[i], balls[n + i]));
+		}
+		int m = getCount(in);
+		int[] alphas = getColumns(in, m, old.alphas, old.alphaCount, BreakoutSnapshot.ALPHA_COLUMNS);
+		for (int j = 0; j < m; j++) {
+			check(field.contains(alphas[j], alphas[m + j]));
+		}
+
+		int[][] newLinks = Arrays.copyOf(links, n);
+		int[] newDegrees = Arrays.copyOf(degrees, n);
+		for (int b = old.ballCount; b < n; b++) {
+			newLinks[b] = new int[0];
+		}
+		changed = getCount(in);
+		int b = -1;
+		for (int i = 0; i < changed; i++) {
+			b += 1 + getVarint(in);
+			check(b < n);
+			int degree = getCount(in);
+			check(degree <= m);
+			int[] linked = new int[degree];
+			int a = 0;
+			for (int k = 0; k < degree; k++) {
+				int delta = getVarint(in);
+				check(k == 0 || delta > 0);
+				a += delta;
+				check(a < m);
+				linked[k] = a;
+			}
+			newLinks[b] = linked;
+			newDegrees[b] = degree;
+		}
+		LinkGraph graph = new LinkGraph();
+		for (int i = 0; i < n; i++) {
+			graph.addBall();
+		}
+		for (int j = 0; j < m; j++) {
+			graph.addAlpha();
+		}
+		for (int i = 0; i < n; i++) {
+			for (int k = 0; k < newDegrees[i]; k++) {
+				check(newLinks[i][k] < m);
+				graph.link(i, newLinks[i][k]);
+			}
+		}
+
+		checkEnd(in);
+
+		current = new BreakoutSnapshot(old.bottomRight, n, balls, m, alphas, graph, blocks, liveBlockCount, paddle);
+		links = newLinks;
+		degrees = newDegrees;
+	}
+
+	private static int[] getColumns(ByteBuffer in, int count, int[] oldData, int oldCount, int columns) {
+		int[] data = new int[columns * count];
+		for (int i = 0; i < count; i++) {
+			int changed = in.get() & 0xFF;
+			check(changed >> columns == 0);
+			for (int c = 0; c < columns; c++) {
+				int value = i < oldCount ? oldData[c * oldCount + i] : 0;
+				if ((changed & 1 << c) != 0) {
+					value += getZigzag(in);
+				}
+				data[c * count + i] = value;
+			}
+		}
+		return data;
+	}
+
+}
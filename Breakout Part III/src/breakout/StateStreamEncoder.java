@@ -0,0 +1,313 @@
+package breakout;
+
+import static breakout.StateCodec.VARINT_MAX;
+import static breakout.utils.Varints.putVarint;
+import static breakout.utils.Varints.putZigzag;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import breakout.radioactivity.LinkGraph;
+
+/**
+ * Turns the successive states of a game into a stream of frames for
+ * spectators, to be read back by a `StateStreamDecoder`. Every call of
+ * `encode` writes one frame, normally once per tick.
+ *
+ * A keyframe holds the whole state, encoded by `StateCodec`. The other frames
+ * are deltas: they only hold what changed since the previous frame. Most blocks
+ * never change between ticks, so a delta is mostly the balls and alphas that
+ * moved, a few bytes each. A keyframe is sent every `getKeyframeInterval()`
+ * frames, when asked for with `requestKeyframe`, for instance when a
+ * spectator joins, and when the state has another field or number of block
+ * slots than the previous one.
+ *
+ * A frame is a type byte (`KEYFRAME` or `DELTA`) and a 16-bit frame number,
+ * which lets the decoder notice a lost frame, followed by the state or the
+ * delta. A delta is, with all ints varints as in `StateCodec`:
+ *
+ * - the paddle: 0 if it did not change, else 1 plus its kind, the offset of its
+ *   center and, for a replicating paddle, its count;
+ * - the block slots that changed: their number, then per slot the gap from the
+ *   previous changed slot and a tag as in `StateCodec`, whose `SAME_PLACE` bit
+ *   says that the block took the place of one at the same location (a sturdy
+ *   block losing a life), followed by the location otherwise and the lives of
+ *   a sturdy block;
+ * - the balls: their number, then per ball a byte with a bit for each of its
+ *   columns (x, y, vx, vy, diameter, lifetime, kind) that changed, followed by
+ *   the differences of those columns. A ball beyond the previous number of
+ *   balls is compared to all zeroes;
+ * - the alphas, in the same way, with five columns;
+ * - the balls whose links changed: their number, then per ball the gap from
+ *   the previous one and all its links, as in `StateCodec`.
+ *
+ * The metrics, journal and settings of the state are not streamed; the
+ * settings are in every keyframe.
+ *
+ * @invar | getKeyframeInterval() >= 1
+ * @invar | getFrames() >= 0
+ */
+public final class StateStreamEncoder {
+
+	/**
+	 * A keyframe every five seconds at the time step of the GUI.
+	 */
+	public static final int DEFAULT_KEYFRAME_INTERVAL = 250;
+
+	static final int KEYFRAME = 1;
+	static final int DELTA = 2;
+	static final int SAME_PLACE = 0x10;
+	static final int PADDLE_SAME = 0;
+
+	/**
+	 * @invar | keyframeInterval >= 1
+	 * @invar | frames >= 0
+	 * @invar | previous == null || previousDegrees.length >= previous.ballCount
+	 * @invar | previousLinks.length == previousDegrees.length
+	 * @invar | currentLinks.length == currentDegrees.length
+	 * @representationObject
+	 */
+	private final int keyframeInterval;
+	private long frames;
+	private boolean keyframeRequested;
+	private BreakoutSnapshot previous;
+	// The linked alphas of each ball, sorted, in the previous frame and in this one.
+	private int[][] previousLinks = {};
+	private int[] previousDegrees = {};
+	private int[][] currentLinks = {};
+	private int[] currentDegrees = {};
+	private ByteBuffer buffer = ByteBuffer.allocate(1 << 12);
+
+	/**
+	 * @throws IllegalArgumentException | keyframeInterval < 1
+	 * @post | getKeyframeInterval() == keyframeInterval
+	 * @post | getFrames() == 0
+	 */
+	public StateStreamEncoder(int keyframeInterval) {
+		if (keyframeInterval < 1)
+			throw new IllegalArgumentException();
+		this.keyframeInterval = keyframeInterval;
+	}
+
+	public int getKeyframeInterval() {
+		return keyframeInterval;
+	}
+
+	/**
+	 * Return the number of frames encoded so far.
+	 */
+	public long getFrames() {
+		return frames;
+	}
+
+	/**
+	 * Make the next frame a keyframe.
+	 *
+	 * @mutates this
+	 */
+	public void requestKeyframe() {
+		keyframeRequested = true;
+	}
+
+	/**
+	 * Encode the next frame, for the given state, and return a buffer, ready for
+	 * reading, that holds it. The buffer belongs to this encoder and is
+	 * overwritten by the next call.
+	 *
+	 * @throws IllegalArgumentException | state == null
+	 * @throws IllegalArgumentException if the state has blocks or a paddle of a
+	 *         kind other than those of this package
+	 * @inspects state
+	 * @mutates this
+	 * @post | getFrames() == old(getFrames()) + 1
+	 */
+	public ByteBuffer encode(BreakoutState state) {
+		if (state == null)
+			throw new IllegalArgumentException();
+		BreakoutSnapshot snapshot = state.snapshot();
+		boolean keyframe = previous == null || keyframeRequested || frames % keyframeInterval == 0
+				|| !snapshot.bottomRight.equals(previous.bottomRight)
+				|| snapshot.blocks.length != previous.blocks.length;
+		int totalLinks = sortLinks(snapshot);
+		long size = 3 + (keyframe ? StateCodec.maxEncodedSize(snapshot) : maxDeltaSize(snapshot, totalLinks));
+		if (size > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("state too large to encode");
+		if (buffer.capacity() < size) {
+			buffer = ByteBuffer.allocate((int) Math.max(size, Math.min(2L * buffer.capacity(), Integer.MAX_VALUE)));
+		}
+		buffer.clear();
+		buffer.put((byte) (keyframe ? KEYFRAME : DELTA));
+		buffer.putShort((short) frames);
+		if (keyframe) {
+			StateCodec.encode(state, snapshot, buffer);
+		} else {
+			putDelta(snapshot);
+		}
+
+		int[][] links = previousLinks;
+		previousLinks = currentLinks;
+		currentLinks = links;
+		int[] degrees = previousDegrees;
+		previousDegrees = currentDegrees;
+		currentDegrees = degrees;
+		previous = snapshot;
+		keyframeRequested = false;
+		frames++;
+		return buffer.flip();
+	}
+
+	// Fill `currentLinks` and `currentDegrees` with the sorted links of the given snapshot, and return their number.
+	private int sortLinks(BreakoutSnapshot snapshot) {
+		int n = snapshot.ballCount;
+		if (currentLinks.length < n) {
+			currentLinks = Arrays.copyOf(currentLinks, Math.max(n, 2 * currentLinks.length));
+			currentDegrees = Arrays.copyOf(currentDegrees, currentLinks.length);
+		}
+		LinkGraph links = snapshot.links;
+		int total = 0;
+		for (int b = 0; b < n; b++) {
+			int degree = links.getBallDegree(b);
+			if (currentLinks[b] == null || currentLinks[b].length < degree) {
+				currentLinks[b] = new int[Math.max(4, degree)];
+			}
+			for (int k = 0; k < degree; k++) {
+				currentLinks[b][k] = links.getLinkedAlpha(b, k);
+			}
+			Arrays.sort(currentLinks[b], 0, degree);
+			currentDegrees[b] = degree;
+			total += degree;
+		}
+		return total;
+	}
+
+	private long maxDeltaSize(BreakoutSnapshot snapshot, int totalLinks) {
+		return 1 + 3L * VARINT_MAX // paddle
+				+ VARINT_MAX + (long) snapshot.blocks.length * (1 + 6L * VARINT_MAX)
+				+ VARINT_MAX + (long) snapshot.ballCount * (1 + BreakoutSnapshot.BALL_COLUMNS * VARINT_MAX)
+				+ VARINT_MAX + (long) snapshot.alphaCount * (1 + BreakoutSnapshot.ALPHA_COLUMNS * VARINT_MAX)
+				+ VARINT_MAX + (long) snapshot.ballCount * 2 * VARINT_MAX + (long) totalLinks * VARINT_MAX;
+	}
+
+	private void putDelta(BreakoutSnapshot snapshot) {
+		ByteBuffer out = buffer;
+
+		PaddleState paddle = snapshot.paddle;
+		PaddleState oldPaddle = previous.paddle;
+		if (samePaddle(paddle, oldPaddle)) {
+			out.put((byte) PADDLE_SAME);
+		} else {
+			out.put((byte) (1 + StateCodec.paddleKind(paddle)));
+			putZigzag(out, paddle.getCenter().getX() - oldPaddle.getCenter().getX());
+			putZigzag(out, paddle.getCenter().getY() - oldPaddle.getCenter().getY());
+			if (paddle instanceof ReplicatingPaddleState replicating) {
+				putVarint(out, replicating.getCount());
+			}
+		}
+
+		BlockState[] blocks = snapshot.blocks;
+		BlockState[] oldBlocks = previous.blocks;
+		int changed = 0;
+		for (int id = 0; id < blocks.length; id++) {
+			if (blocks[id] != oldBlocks[id]) {
+				changed++;
+			}
+		}
+		putVarint(out, changed);
+		int next = 0;
+		for (int id = 0; id < blocks.length; id++) {
+			BlockState block = blocks[id];
+			BlockState oldBlock = oldBlocks[id];
+			if (block == oldBlock) {
+				continue;
+			}
+			putVarint(out, id - next);
+			next = id + 1;
+			int kind = StateCodec.blockKind(block);
+			if (block == null) {
+				out.put((byte) kind);
+				continue;
+			}
+			if (oldBlock != null && block.getLocation().equals(oldBlock.getLocation())) {
+				out.put((byte) (kind | SAME_PLACE));
+			} else {
+				out.put((byte) kind);
+				putZigzag(out, block.getLocation().getTopLeft().getX());
+				putZigzag(out, block.getLocation().getTopLeft().getY());
+				putVarint(out, block.getLocation().getWidth());
+				putVarint(out, block.getLocation().getHeight());
+			}
+			if (block instanceof SturdyBlockState sturdy) {
+				putVarint(out, sturdy.getLivesLeft());
+			}
+		}
+
+		putColumns(out, snapshot.balls, snapshot.ballCount, previous.balls, previous.ballCount,
+				BreakoutSnapshot.BALL_COLUMNS);
+		putColumns(out, snapshot.alphas, snapshot.alphaCount, previous.alphas, previous.alphaCount,
+				BreakoutSnapshot.ALPHA_COLUMNS);
+
+		int n = snapshot.ballCount;
+		changed = 0;
+		for (int b = 0; b < n; b++) {
+			if (!sameLinks(b)) {
+				changed++;
+			}
+		}
+		putVarint(out, changed);
+		next = 0;
+		for (int b = 0; b < n; b++) {
+			if (sameLinks(b)) {
+				continue;
+			}
+			putVarint(out, b - next);
+			next = b + 1;
+			int degree = currentDegrees[b];
+			putVarint(out, degree);
+			int last = 0;
+			for (int k = 0; k < degree; k++) {
+				putVarint(out, currentLinks[b][k] - last);
+				last = currentLinks[b][k];
+			}
+		}
+	}
+
+	private static void putColumns(ByteBuffer out, int[] data, int count, int[] oldData, int oldCount, int columns) {
+		putVarint(out, count);
+		for (int i = 0; i < count; i++) {
+			int changed = 0;
+			for (int c = 0; c < columns; c++) {
+				int old = i < oldCount ? oldData[c * oldCount + i] : 0;
+				if (data[c * count + i] != old) {
+					changed |= 1 << c;
+				}
+			}
+			out.put((byte) changed);
+			for (int c = 0; c < columns; c++) {
+				if ((changed & 1 << c) != 0) {
+					int old = i < oldCount ? oldData[c * oldCount + i] : 0;
+					putZigzag(out, data[c * count + i] - old);
+				}
+			}
+		}
+	}
+
+	private static boolean samePaddle(PaddleState paddle, PaddleState old) {
+		if (paddle == old) {
+			return true;
+		}
+		if (paddle.getClass() != old.getClass() || !paddle.getCenter().equals(old.getCenter())) {
+			return false;
+		}
+		return !(paddle instanceof ReplicatingPaddleState replicating)
+				|| replicating.getCount() == ((ReplicatingPaddleState) old).getCount();
+	}
+
+	private boolean sameLinks(int b) {
+		int degree = currentDegrees[b];
+		if (b >= previous.ballCount) {
+			return degree == 0;
+		}
+		return previousDegrees[b] == degree && Arrays.equals(previousLinks[b], 0, degree, currentLinks[b], 0, degree);
+	}
+
+}
@@ -0,0 +1,164 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+import breakout.gui.BreakoutApplication;
+import breakout.utils.Point;
+
+class StateStreamTest {
+
+	static final BreakoutFacade fac = BreakoutStateTest.fac;
+
+	// Return a copy of the frame, as a spectator would receive it.
+	static ByteBuffer received(ByteBuffer frame) {
+		ByteBuffer copy = ByteBuffer.allocate(frame.remaining());
+		copy.put(frame).flip();
+		return copy;
+	}
+
+	@Test
+	void testStreamFollowsGame() {
+		for (String map : new String[] { BreakoutApplication.initMap, BreakoutApplication.initMap2,
+				BreakoutApplication.initMap3 }) {
+			BreakoutState state = fac.createStateFromDescription(map);
+			StateStreamEncoder encoder = new StateStreamEncoder(100);
+			StateStreamDecoder decoder = new StateStreamDecoder();
+			long keyframeBytes = 0;
+			long deltaBytes = 0;
+			int deltas = 0;
+			for (int tick = 0; tick < 2000 && !fac.isWon(state) && !fac.isDead(state); tick++) {
+				ByteBuffer frame = encoder.encode(state);
+				boolean keyframe = StateStreamDecoder.isKeyframe(frame);
+				assertEquals(tick % 100 == 0, keyframe);
+				if (keyframe) {
+					keyframeBytes = frame.remaining();
+				} else {
+					deltaBytes += frame.remaining();
+					deltas++;
+				}
+				BreakoutState decoded = decoder.apply(received(frame));
+				assertEquals(state.checksum(), decoded.checksum());
+				BreakoutStateTest.trace(state, 1);
+			}
+			assertTrue(deltas > 100);
+			assertTrue(deltaBytes / deltas * 4 < keyframeBytes);
+		}
+	}
+
+	@Test
+	void testLinksKindsAndJumps() {
+		BreakoutState state = StateCodecTest
+				.everyKindState(fac.createReplicatingPaddleState(new Point(25000, 28000), 2));
+		BreakoutSnapshot start = state.snapshot();
+		BreakoutSnapshot normalPaddle = StateCodecTest
+				.everyKindState(fac.createNormalPaddleState(new Point(20000, 28000))).snapshot();
+		StateStreamEncoder encoder = new StateStreamEncoder(1000);
+		StateStreamDecoder decoder = new StateStreamDecoder();
+		for (int tick = 0; tick < 600; tick++) {
+			if (tick == 200) {
+				// the destroyed block comes back and the paddle changes kind
+				state.restore(normalPaddle);
+			} else if (tick == 400) {
+				state.restore(start);
+			} else {
+				fac.tick(state, 0, 20);
+			}
+			ByteBuffer frame = encoder.encode(state);
+			assertEquals(tick == 0, StateStreamDecoder.isKeyframe(frame));
+			assertEquals(state.checksum(), decoder.apply(received(frame)).checksum());
+		}
+		assertEquals(600, decoder.getFrames());
+		assertEquals(600, encoder.getFrames());
+	}
+
+	@Test
+	void testLostFrames() {
+		BreakoutState state = fac.createStateFromDescription(BreakoutApplication.initMap2);
+		StateStreamEncoder encoder = new StateStreamEncoder(StateStreamEncoder.DEFAULT_KEYFRAME_INTERVAL);
+		StateStreamDecoder decoder = new StateStreamDecoder();
+		encoder.encode(state);
+		fac.tick(state, 0, 20);
+		ByteBuffer first = received(encoder.encode(state));
+		assertThrows(IllegalStateException.class, () -> decoder.apply(first));
+		assertNull(decoder.getState());
+
+		encoder.requestKeyframe();
+		fac.tick(state, 0, 20);
+		decoder.apply(received(encoder.encode(state)));
+		BreakoutState decoded = decoder.getState();
+		long checksum = decoded.checksum();
+		fac.tick(state, 0, 20);
+		encoder.encode(state); // lost
+		for (int i = 0; i < 2; i++) {
+			fac.tick(state, 0, 20);
+			ByteBuffer frame = received(encoder.encode(state));
+			assertThrows(IllegalStateException.class, () -> decoder.apply(frame));
+			assertEquals(checksum, decoded.checksum());
+		}
+
+		encoder.requestKeyframe();
+		fac.tick(state, 0, 20);
+		assertEquals(state.checksum(), decoder.apply(received(encoder.encode(state))).checksum());
+		fac.tick(state, 0, 20);
+		assertEquals(state.checksum(), decoder.apply(received(encoder.encode(state))).checksum());
+		assertEquals(3, decoder.getFrames());
+	}
+
+	@Test
+	void testMalformedFrames() {
+		BreakoutState state = fac.createStateFromDescription(BreakoutApplication.initMap2);
+		StateStreamEncoder encoder = new StateStreamEncoder(StateStreamEncoder.DEFAULT_KEYFRAME_INTERVAL);
+		StateStreamDecoder decoder = new StateStreamDecoder();
+		decoder.apply(received(encoder.encode(state)));
+		long checksum = decoder.getState().checksum();
+		fac.tick(state, 0, 20);
+		ByteBuffer delta = received(encoder.encode(state));
+		for (int cut = 0; cut < delta.limit(); cut++) {
+			ByteBuffer truncated = delta.duplicate().limit(cut);
+			assertThrows(IllegalArgumentException.class, () -> decoder.apply(truncated));
+			assertEquals(checksum, decoder.getState().checksum());
+		}
+		assertEquals(state.checksum(), decoder.apply(delta).checksum());
+		ByteBuffer unknown = ByteBuffer.wrap(new byte[] { 9, 0, 1 });
+		assertThrows(IllegalArgumentException.class, () -> decoder.apply(unknown));
+		assertThrows(IllegalArgumentException.class, () -> decoder.apply(null));
+		assertThrows(IllegalArgumentException.class, () -> new StateStreamEncoder(0));
+		assertThrows(IllegalArgumentException.class, () -> encoder.encode(null));
+	}
+
+	@Test
+	void testTrailingBytesLeaveDecoderInSync() {
+		BreakoutState state = fac.createStateFromDescription(BreakoutApplication.initMap2);
+		StateStreamEncoder encoder = new StateStreamEncoder(1000);
+		StateStreamDecoder decoder = new StateStreamDecoder();
+		decoder.apply(received(encoder.encode(state)));
+		for (int tick = 0; tick < 200 && !fac.isWon(state) && !fac.isDead(state); tick++) {
+			BreakoutStateTest.trace(state, 1);
+			ByteBuffer delta = received(encoder.encode(state));
+			if (tick == 50) {
+				ByteBuffer padded = ByteBuffer.allocate(delta.remaining() + 1);
+				padded.put(delta.duplicate()).put((byte) 0).flip();
+				long checksum = decoder.getState().checksum();
+				assertThrows(IllegalArgumentException.class, () -> decoder.apply(padded));
+				assertEquals(checksum, decoder.getState().checksum());
+			}
+			assertEquals(state.checksum(), decoder.apply(delta).checksum());
+		}
+	}
+
+	@Test
+	void testNewFieldGetsKeyframe() {
+		StateStreamEncoder encoder = new StateStreamEncoder(StateStreamEncoder.DEFAULT_KEYFRAME_INTERVAL);
+		StateStreamDecoder decoder = new StateStreamDecoder();
+		decoder.apply(received(encoder.encode(fac.createStateFromDescription(BreakoutApplication.initMap))));
+		BreakoutState other = StateCodecTest.everyKindState(fac.createNormalPaddleState(new Point(25000, 28000)));
+		ByteBuffer frame = encoder.encode(other);
+		assertTrue(StateStreamDecoder.isKeyframe(frame));
+		assertEquals(other.checksum(), decoder.apply(received(frame)).checksum());
+	}
+
+}
@@ -6,9 +6,11 @@ import breakout.radioactivity.*;
 
 public class SturdyBlockState extends BlockState {
 
-	private static final Color COLOR1 = new Color(0x80, 0x00, 0xff);
-	private static final Color COLOR2 = new Color(0x80, 0x00, 0xcf);
-	private static final Color COLOR3 = new Color(0x80, 0x00, 0x9f);
+	private static class Colors {
+		static final Color COLOR1 = new Color(0x80, 0x00, 0xff);
+		static final Color COLOR2 = new Color(0x80, 0x00, 0xcf);
+		static final Color COLOR3 = new Color(0x80, 0x00, 0x9f);
+	}
 	private final int livesLeft;
 
 	public SturdyBlockState(Rect location, int lives) {
@@ -43,11 +45,11 @@ public class SturdyBlockState extends BlockState {
 	public Color getColor() {
 		switch (livesLeft) {
 		case 1:
-			return COLOR1;
+			return Colors.COLOR1;
 		case 2:
-			return COLOR2;
+			return Colors.COLOR2;
 		default:
-			return COLOR3;
+			return Colors.COLOR3;
 		}
 	}
 
@@ -0,0 +1,77 @@
+package breakout;
+
+import breakout.utils.Rect;
+
+/**
+ * Finds when a circle moving along a segment first touches a rectangle.
+ *
+ * The circle is treated as its bounding square, so the test is a ray cast
+ * against the rectangle widened by the radius on every side (the slab method).
+ * The result of the last successful `cast` is kept in this object, so that
+ * casting against many rectangles does not allocate.
+ */
+class Sweep {
+
+	/**
+	 * The fraction of the segment travelled at the moment of impact, between 0
+	 * and 1.
+	 */
+	double time;
+	/**
+	 * Whether the circle hit a vertical side of the rectangle (rather than a
+	 * horizontal one).
+	 */
+	boolean verticalSide;
+
+	/**
+	 * Return whether the circle with the given radius, moving from (`sx`, `sy`)
+	 * by (`dx`, `dy`), runs into `rect` during the move; if so, `time` and
+	 * `verticalSide` describe the impact. A circle that already overlaps `rect`
+	 * at the start does not run into it.
+	 *
+	 * @pre | rect != null
+	 * @pre | radius >= 0
+	 * @mutates this
+	 */
+	boolean cast(Rect rect, int radius, int sx, int sy, int dx, int dy) {
+		int left = rect.getTopLeft().getX() - radius;
+		int top = rect.getTopLeft().getY() - radius;
+		int right = rect.getBottomRight().getX() + radius;
+		int bottom = rect.getBottomRight().getY() + radius;
+
+		double enterX, exitX, enterY, exitY;
+		if (dx == 0) {
+			if (sx < left || right < sx) {
+				return false;
+			}
+			enterX = Double.NEGATIVE_INFINITY;
+			exitX = Double.POSITIVE_INFINITY;
+		} else {
+			double t1 = (double) (left - sx) / dx;
+			double t2 = (double) (right - sx) / dx;
+			enterX = Math.min(t1, t2);
+			exitX = Math.max(t1, t2);
+		}
+		if (dy == 0) {
+			if (sy < top || bottom < sy) {
+				return false;
+			}
+			enterY = Double.NEGATIVE_INFINITY;
+			exitY = Double.POSITIVE_INFINITY;
+		} else {
+			double t1 = (double) (top - sy) / dy;
+			double t2 = (double) (bottom - sy) / dy;
+			enterY = Math.min(t1, t2);
+			exitY = Math.max(t1, t2);
+		}
+		double enter = Math.max(enterX, enterY);
+		double exit = Math.min(exitX, exitY);
+		if (enter > exit || enter < 0 || enter > 1) {
+			return false;
+		}
+		time = enter;
+		verticalSide = enterX >= enterY;
+		return true;
+	}
+
+}
@@ -0,0 +1,112 @@
+package breakout;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import breakout.metrics.TickEvent;
+import breakout.metrics.TickMetrics;
+import breakout.radioactivity.*;
+import breakout.utils.*;
+
+class TickAllocationTest {
+
+	static final BreakoutFacade fac = new BreakoutFacade();
+	static final int WARMUP_TICKS = 20000;
+	static final int MEASURED_TICKS = 5000;
+
+	BreakoutState state;
+
+	static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+				.getCurrentThreadAllocatedBytes();
+	}
+
+	@BeforeEach
+	void setUp() {
+		// Balls and alphas flying horizontally bounce between the side walls forever,
+		// without ever hitting a block or the paddle.
+		Ball[] balls = new Ball[] { fac.createNormalBall(new Point(5000, 5000), 700, new Vector(7, 0)),
+				fac.createNormalBall(new Point(25000, 6000), 700, new Vector(-5, 0)),
+				fac.createSuperchargedBall(new Point(40000, 7000), 700, new Vector(9, 0), 10000) };
+		Alpha[] alphas = new Alpha[] { fac.createAlpha(new Point(10000, 8000), 700, new Vector(-6, 0)) };
+		BlockState[] blocks = new BlockState[40];
+		for (int i = 0; i < blocks.length; i++) {
+			Point tl = new Point(1000 + (i % 10) * 4800, 12000 + (i / 10) * 2000);
+			blocks[i] = fac.createNormalBlockState(tl, tl.plus(new Vector(4000, 1500)));
+		}
+		PaddleState paddle = fac.createNormalPaddleState(new Point(25000, 28000));
+		state = fac.createBreakoutState(alphas, balls, blocks, new Point(50000, 30000), paddle);
+	}
+
+	// Tick the way the game loop does, checking for the end of the game after every tick.
+	int run(int ticks) {
+		int over = 0;
+		for (int i = 0; i < ticks; i++) {
+			state.tick(0, 20);
+			if (fac.isDead(state) || fac.isWon(state)) {
+				over++;
+			}
+		}
+		return over;
+	}
+
+	@Test
+	void testTickDoesNotAllocate() {
+		run(WARMUP_TICKS);
+		// reading the counter may allocate itself; measure that first
+		long overhead = allocatedBytes();
+		overhead = allocatedBytes() - overhead;
+		long before = allocatedBytes();
+		int over = run(MEASURED_TICKS);
+		long bytes = allocatedBytes() - before - overhead;
+
+		assertEquals(0, bytes / MEASURED_TICKS, "bytes allocated per tick");
+		assertEquals(0, over);
+		assertEquals(3, fac.getBallsLen(state));
+		assertEquals(1, fac.getAlphasLen(state));
+		assertEquals(40, fac.getBlocksLen(state));
+	}
+
+	@Test
+	void testRestoreDoesNotAllocate() {
+		BreakoutSnapshot snapshot = state.snapshot();
+		for (int i = 0; i < WARMUP_TICKS; i++) {
+			state.tick(0, 20);
+			state.restore(snapshot);
+		}
+		long overhead = allocatedBytes();
+		overhead = allocatedBytes() - overhead;
+		long before = allocatedBytes();
+		for (int i = 0; i < MEASURED_TICKS; i++) {
+			state.tick(0, 20);
+			state.restore(snapshot);
+		}
+		long bytes = allocatedBytes() - before - overhead;
+
+		assertEquals(0, bytes / MEASURED_TICKS, "bytes allocated per tick and restore");
+		assertEquals(3, fac.getBallsLen(state));
+		assertEquals(1, fac.getAlphasLen(state));
+	}
+
+	@Test
+	void testMeasuredTickDoesNotAllocate() {
+		TickMetrics metrics = new TickMetrics(256);
+		fac.setMetrics(state, metrics);
+		run(WARMUP_TICKS);
+		long overhead = allocatedBytes();
+		overhead = allocatedBytes() - overhead;
+		long before = allocatedBytes();
+		int over = run(MEASURED_TICKS);
+		long bytes = allocatedBytes() - before - overhead;
+
+		assertEquals(0, bytes / MEASURED_TICKS, "bytes allocated per tick");
+		assertEquals(0, over);
+		assertEquals(WARMUP_TICKS + MEASURED_TICKS, metrics.getTicks());
+		assertTrue(metrics.snapshot().getEventCount(TickEvent.WALL_COLLISION) > 0);
+	}
+
+}
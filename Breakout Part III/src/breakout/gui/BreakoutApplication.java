@@ -1,12 +1,18 @@
 package breakout.gui;
 
 import java.awt.EventQueue;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
 import javax.swing.JFrame;
 
 import breakout.BlockState;
 import breakout.BreakoutFacade;
 import breakout.BreakoutState;
 import breakout.PaddleState;
+import breakout.journal.JournalWriter;
 import breakout.radioactivity.Alpha;
 import breakout.radioactivity.Ball;
 import breakout.utils.Point;
@@ -49,15 +55,30 @@ RSSRR##!!R
 """;
 	
 	
+	// Every paddle hit emits an alpha; keep long games from piling them up.
+	public static final int MAX_ALPHAS = 500;
+
+	/**
+	 * The system property naming a file to record the game to, for replaying it
+	 * later with `JournalReplayer`.
+	 */
+	public static final String JOURNAL_PROPERTY = "breakout.journal";
+
 	public static void main(String[] args) {
 
 		
 		
 		BreakoutFacade facade = new BreakoutFacade();
 		BreakoutState state = facade.createStateFromDescription(initMap2); //return to 2
+		facade.setMaxAlphaCount(state, MAX_ALPHAS);
+		String journalFile = System.getProperty(JOURNAL_PROPERTY);
+		JournalWriter journal = journalFile == null ? null : record(facade, state, initMap2, Path.of(journalFile));
 //		BreakoutState state = GameMap.someAlphas();
 		EventQueue.invokeLater(() -> {
-			GameView mazeView = new GameView(state);
+			GameView mazeView = new GameView(state, GameView.ballMoveDelayMillis, true);
+			if (journal != null) {
+				closeOnExit(mazeView, journal);
+			}
 			JFrame frame = new JFrame("Breakout");
 			frame.getContentPane().add(mazeView);
 			frame.pack();
@@ -67,4 +88,38 @@ RSSRR##!!R
 		});
 	}
 
+	// Record the game to the given file.
+	private static JournalWriter record(BreakoutFacade facade, BreakoutState state, String description, Path file) {
+		JournalWriter journal;
+		try {
+			journal = JournalWriter.create(file, description, state, JournalWriter.DEFAULT_CHECKSUM_INTERVAL);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		facade.setJournal(state, journal);
+		return journal;
+	}
+
+	// When the application exits, stop the game so that it no longer records, and write out the rest of the journal.
+	private static void closeOnExit(GameView view, JournalWriter journal) {
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			try {
+				view.stopGame();
+			} catch (InterruptedException e) {
+				System.err.println("Could not flush the journal: " + e);
+				return;
+			}
+			closeJournal(journal, System.err);
+		}));
+	}
+
+	// Write out the rest of the journal and close it, and report on `err` if that fails.
+	static void closeJournal(JournalWriter journal, PrintStream err) {
+		try {
+			journal.close();
+		} catch (IOException e) {
+			err.println("Could not flush the journal: " + e);
+		}
+	}
+
 }
@@ -0,0 +1,59 @@
+package breakout.gui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import breakout.BreakoutFacade;
+import breakout.BreakoutState;
+import breakout.journal.JournalWriter;
+
+class BreakoutApplicationTest {
+
+	static final BreakoutFacade fac = new BreakoutFacade();
+
+	@Test
+	void testFailedJournalFlushIsReported() {
+		BreakoutState state = fac.createStateFromDescription(BreakoutApplication.initMap2);
+		boolean[] failing = { false };
+		WritableByteChannel channel = new WritableByteChannel() {
+
+			@Override
+			public int write(ByteBuffer src) throws IOException {
+				if (failing[0])
+					throw new IOException("disk full");
+				int count = src.remaining();
+				src.position(src.limit());
+				return count;
+			}
+
+			@Override
+			public boolean isOpen() {
+				return true;
+			}
+
+			@Override
+			public void close() {
+			}
+
+		};
+		JournalWriter journal = new JournalWriter(channel, BreakoutApplication.initMap2, state, 10);
+		fac.setJournal(state, journal);
+		fac.tick(state, 0, 20);
+		failing[0] = true;
+
+		ByteArrayOutputStream err = new ByteArrayOutputStream();
+		BreakoutApplication.closeJournal(journal, new PrintStream(err, true, StandardCharsets.UTF_8));
+		String report = err.toString(StandardCharsets.UTF_8);
+		assertTrue(report.startsWith("Could not flush the journal: "));
+		assertTrue(report.contains("disk full"));
+	}
+
+}
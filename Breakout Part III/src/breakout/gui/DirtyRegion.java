@@ -0,0 +1,136 @@
+package breakout.gui;
+
+import java.util.Arrays;
+
+/**
+ * The parts of the screen that need repainting, as a small set of rectangles.
+ *
+ * Rectangles that overlap are merged when they are added, so that no pixel is
+ * repainted twice; once there are more than `maxRects` of them, the region is
+ * said to overflow and the caller had better repaint everything. Adding a
+ * rectangle does not allocate once the region has grown to its working size.
+ *
+ * @invar | 0 <= getRectCount()
+ * @invar | isOverflowed() || getRectCount() <= getMaxRects()
+ */
+class DirtyRegion {
+
+	private final int maxRects;
+	/**
+	 * The x, y, width and height of each rectangle; no two rectangles overlap.
+	 *
+	 * @invar | rects != null && rects.length >= 4 * count
+	 * @representationObject
+	 */
+	private int[] rects = new int[16];
+	private int count;
+	private boolean overflowed;
+
+	/**
+	 * @pre | maxRects >= 1
+	 * @post | getMaxRects() == maxRects
+	 * @post | getRectCount() == 0
+	 */
+	DirtyRegion(int maxRects) {
+		this.maxRects = maxRects;
+	}
+
+	int getMaxRects() {
+		return maxRects;
+	}
+
+	int getRectCount() {
+		return count;
+	}
+
+	boolean isOverflowed() {
+		return overflowed;
+	}
+
+	int getX(int i) {
+		return rects[4 * i];
+	}
+
+	int getY(int i) {
+		return rects[4 * i + 1];
+	}
+
+	int getWidth(int i) {
+		return rects[4 * i + 2];
+	}
+
+	int getHeight(int i) {
+		return rects[4 * i + 3];
+	}
+
+	/**
+	 * Return the total area of the rectangles.
+	 */
+	long getArea() {
+		long area = 0;
+		for (int i = 0; i < count; i++) {
+			area += (long) getWidth(i) * getHeight(i);
+		}
+		return area;
+	}
+
+	/**
+	 * @post | getRectCount() == 0
+	 * @post | !isOverflowed()
+	 */
+	void clear() {
+		count = 0;
+		overflowed = false;
+	}
+
+	/**
+	 * Add the rectangle with top left corner (`x`, `y`) and the given size,
+	 * merging it with the rectangles it overlaps.
+	 */
+	void add(int x, int y, int width, int height) {
+		if (overflowed || width <= 0 || height <= 0) {
+			return;
+		}
+		int x2 = x + width;
+		int y2 = y + height;
+		// merging two rectangles can make their union overlap others, so keep going until none does
+		boolean merged = true;
+		while (merged) {
+			merged = false;
+			for (int i = 0; i < count; i++) {
+				int ix = rects[4 * i];
+				int iy = rects[4 * i + 1];
+				int ix2 = ix + rects[4 * i + 2];
+				int iy2 = iy + rects[4 * i + 3];
+				if (x < ix2 && ix < x2 && y < iy2 && iy < y2) {
+					x = Math.min(x, ix);
+					y = Math.min(y, iy);
+					x2 = Math.max(x2, ix2);
+					y2 = Math.max(y2, iy2);
+					remove(i);
+					merged = true;
+					break;
+				}
+			}
+		}
+		if (count == maxRects) {
+			overflowed = true;
+			return;
+		}
+		if (rects.length < 4 * (count + 1)) {
+			rects = Arrays.copyOf(rects, 2 * rects.length);
+		}
+		rects[4 * count] = x;
+		rects[4 * count + 1] = y;
+		rects[4 * count + 2] = x2 - x;
+		rects[4 * count + 3] = y2 - y;
+		count++;
+	}
+
+	// Move the last rectangle into slot i.
+	private void remove(int i) {
+		count--;
+		System.arraycopy(rects, 4 * count, rects, 4 * i, 4);
+	}
+
+}
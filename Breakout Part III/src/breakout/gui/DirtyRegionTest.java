@@ -0,0 +1,55 @@
+package breakout.gui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class DirtyRegionTest {
+
+	@Test
+	void testSeparateRectanglesStaySeparate() {
+		DirtyRegion region = new DirtyRegion(8);
+		region.add(0, 0, 10, 10);
+		region.add(20, 0, 10, 10);
+		assertEquals(2, region.getRectCount());
+		assertEquals(200, region.getArea());
+		// touching is not overlapping
+		region.add(10, 0, 10, 10);
+		assertEquals(3, region.getRectCount());
+		region.add(5, 5, 0, 10);
+		assertEquals(3, region.getRectCount());
+	}
+
+	@Test
+	void testOverlappingRectanglesMerge() {
+		DirtyRegion region = new DirtyRegion(8);
+		region.add(0, 0, 10, 35);
+		region.add(30, 30, 10, 10);
+		// overlaps only the first, but their union overlaps the second
+		region.add(5, 5, 26, 6);
+		assertEquals(1, region.getRectCount());
+		assertEquals(0, region.getX(0));
+		assertEquals(0, region.getY(0));
+		assertEquals(40, region.getWidth(0));
+		assertEquals(40, region.getHeight(0));
+		assertEquals(1600, region.getArea());
+	}
+
+	@Test
+	void testOverflowAndClear() {
+		DirtyRegion region = new DirtyRegion(2);
+		region.add(0, 0, 1, 1);
+		region.add(10, 0, 1, 1);
+		assertFalse(region.isOverflowed());
+		region.add(20, 0, 1, 1);
+		assertTrue(region.isOverflowed());
+		region.clear();
+		assertFalse(region.isOverflowed());
+		assertEquals(0, region.getRectCount());
+		for (int i = 0; i < 2; i++) {
+			region.add(100 * i, 0, 5, 5);
+		}
+		assertEquals(2, region.getRectCount());
+	}
+
+}
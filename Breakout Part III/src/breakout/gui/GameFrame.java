@@ -0,0 +1,354 @@
+package breakout.gui;
+
+import java.awt.Color;
+
+import breakout.BlockState;
+import breakout.BreakoutFacade;
+import breakout.BreakoutState;
+import breakout.PaddleState;
+import breakout.utils.Point;
+
+/**
+ * What `GameView` paints: a copy of everything visible in a BreakoutState after
+ * a given tick. Frames are made on the game loop thread and painted on the
+ * Event Dispatch Thread; since a frame never changes and shares no mutable
+ * objects with the state, the painting needs no locking.
+ *
+ * A frame made right after the frame of the previous tick also remembers where
+ * the balls, alphas and paddle were in that frame, so that a view can show them
+ * part of the way between the two ticks (see `interpolate`).
+ *
+ * @immutable
+ */
+public class GameFrame {
+
+	private final long tick;
+	private final long time;
+	private final boolean won;
+	private final boolean dead;
+	private final Point bottomRight;
+	private final PaddleState paddle;
+	/**
+	 * How far to the right of the paddle in `paddle` the paddle is shown; only
+	 * interpolated frames have an offset.
+	 */
+	private final int paddleOffsetX;
+	private final int previousPaddleX;
+	private final long blockVersion;
+	/**
+	 * Shared with the previous frame if the blocks did not change since.
+	 * 
+	 * @representationObject
+	 */
+	private final BlockState[] blocks;
+
+	private final int ballCount;
+	/**
+	 * @representationObject
+	 */
+	private final int[] ballX, ballY, ballDiameter;
+	/**
+	 * @representationObject
+	 */
+	private final Color[] ballColor;
+
+	private final int alphaCount;
+	/**
+	 * @representationObject
+	 */
+	private final int[] alphaX, alphaY, alphaDiameter;
+	/**
+	 * @representationObject
+	 */
+	private final Color[] alphaColor;
+
+	private final int linkCount;
+	/**
+	 * The end points of the links: ball x, ball y, alpha x, alpha y for each link.
+	 * 
+	 * @representationObject
+	 */
+	private final int[] linkCoords;
+
+	/**
+	 * The coordinates in the frame of the previous tick, in the same layout as
+	 * above, or the current coordinates if there is no such frame or the number
+	 * of balls, alphas or links changed.
+	 * 
+	 * @representationObject
+	 */
+	private final int[] previousBallX, previousBallY, previousAlphaX, previousAlphaY, previousLinkCoords;
+
+	/**
+	 * Copy what is visible in `state`, which is in the state after tick number
+	 * `tick`.
+	 * 
+	 * @pre | facade != null && state != null
+	 * @pre | tick >= 0
+	 * @inspects state
+	 */
+	public GameFrame(BreakoutFacade facade, BreakoutState state, long tick) {
+		this(facade, state, tick, System.nanoTime(), null);
+	}
+
+	/**
+	 * Copy what is visible in `state`, which is in the state after tick number
+	 * `tick`, the tick that was due at `System.nanoTime()` value `time`. Reuse the
+	 * blocks of `previous`, a frame of the same game, if they are still up to
+	 * date, and remember the positions in `previous` if it is the frame of the
+	 * tick before.
+	 * 
+	 * @pre | facade != null && state != null
+	 * @pre | tick >= 0
+	 * @inspects state
+	 */
+	public GameFrame(BreakoutFacade facade, BreakoutState state, long tick, long time, GameFrame previous) {
+		this.tick = tick;
+		this.time = time;
+		this.won = facade.isWon(state);
+		this.dead = facade.isDead(state);
+		this.bottomRight = facade.getBottomRight(state);
+		this.paddle = facade.getPaddle(state);
+		this.paddleOffsetX = 0;
+		this.blockVersion = facade.getBlockVersion(state);
+		if (previous != null && previous.blockVersion == blockVersion) {
+			this.blocks = previous.blocks;
+		} else {
+			this.blocks = facade.getBlocks(state);
+		}
+
+		ballCount = facade.getBallsLen(state);
+		ballX = new int[ballCount];
+		ballY = new int[ballCount];
+		ballDiameter = new int[ballCount];
+		ballColor = new Color[ballCount];
+		facade.forEachBall(state, (index, x, y, diameter, vx, vy, eCharge, color) -> {
+			ballX[index] = x;
+			ballY[index] = y;
+			ballDiameter[index] = diameter;
+			ballColor[index] = color;
+		});
+
+		alphaCount = facade.getAlphasLen(state);
+		alphaX = new int[alphaCount];
+		alphaY = new int[alphaCount];
+		alphaDiameter = new int[alphaCount];
+		alphaColor = new Color[alphaCount];
+		facade.forEachAlpha(state, (index, x, y, diameter, vx, vy, color) -> {
+			alphaX[index] = x;
+			alphaY[index] = y;
+			alphaDiameter[index] = diameter;
+			alphaColor[index] = color;
+		});
+
+		int[] links = { 0 };
+		facade.forEachLink(state, (ballIndex, alphaIndex, bx, by, ax, ay) -> links[0]++);
+		linkCount = links[0];
+		linkCoords = new int[4 * linkCount];
+		links[0] = 0;
+		facade.forEachLink(state, (ballIndex, alphaIndex, bx, by, ax, ay) -> {
+			int k = 4 * links[0]++;
+			linkCoords[k] = bx;
+			linkCoords[k + 1] = by;
+			linkCoords[k + 2] = ax;
+			linkCoords[k + 3] = ay;
+		});
+
+		// Balls and alphas keep their order from one tick to the next, but when some
+		// are added or removed there is no telling which is which: show those as they are.
+		boolean follows = previous != null && previous.tick == tick - 1;
+		boolean sameBalls = follows && previous.ballCount == ballCount;
+		boolean sameAlphas = follows && previous.alphaCount == alphaCount;
+		boolean sameLinks = follows && previous.linkCount == linkCount;
+		previousPaddleX = follows ? previous.getPaddleX() : getPaddleX();
+		previousBallX = sameBalls ? previous.ballX : ballX;
+		previousBallY = sameBalls ? previous.ballY : ballY;
+		previousAlphaX = sameAlphas ? previous.alphaX : alphaX;
+		previousAlphaY = sameAlphas ? previous.alphaY : alphaY;
+		previousLinkCoords = sameLinks ? previous.linkCoords : linkCoords;
+	}
+
+	private GameFrame(GameFrame frame, int paddleOffsetX, int[] ballX, int[] ballY, int[] alphaX, int[] alphaY,
+			int[] linkCoords) {
+		this.tick = frame.tick;
+		this.time = frame.time;
+		this.won = frame.won;
+		this.dead = frame.dead;
+		this.bottomRight = frame.bottomRight;
+		this.paddle = frame.paddle;
+		this.paddleOffsetX = paddleOffsetX;
+		this.blockVersion = frame.blockVersion;
+		this.blocks = frame.blocks;
+		this.ballCount = frame.ballCount;
+		this.ballX = ballX;
+		this.ballY = ballY;
+		this.ballDiameter = frame.ballDiameter;
+		this.ballColor = frame.ballColor;
+		this.alphaCount = frame.alphaCount;
+		this.alphaX = alphaX;
+		this.alphaY = alphaY;
+		this.alphaDiameter = frame.alphaDiameter;
+		this.alphaColor = frame.alphaColor;
+		this.linkCount = frame.linkCount;
+		this.linkCoords = linkCoords;
+		this.previousPaddleX = getPaddleX();
+		this.previousBallX = ballX;
+		this.previousBallY = ballY;
+		this.previousAlphaX = alphaX;
+		this.previousAlphaY = alphaY;
+		this.previousLinkCoords = linkCoords;
+	}
+
+	/**
+	 * Return a frame that shows the balls, alphas, links and paddle at the given
+	 * fraction of the way from their positions in the frame of the previous tick
+	 * to their positions in this frame.
+	 *
+	 * @pre | 0 <= fraction && fraction <= 1
+	 * @post | result.getTick() == getTick()
+	 * @post | result.getBlockVersion() == getBlockVersion()
+	 */
+	public GameFrame interpolate(double fraction) {
+		if (fraction >= 1) {
+			return this;
+		}
+		int paddleX = blend(previousPaddleX, getPaddleX(), fraction);
+		return new GameFrame(this, paddleX - getPaddleX(), blend(previousBallX, ballX, fraction),
+				blend(previousBallY, ballY, fraction), blend(previousAlphaX, alphaX, fraction),
+				blend(previousAlphaY, alphaY, fraction), blend(previousLinkCoords, linkCoords, fraction));
+	}
+
+	private static int blend(int from, int to, double fraction) {
+		return from + (int) Math.round((to - from) * fraction);
+	}
+
+	private static int[] blend(int[] from, int[] to, double fraction) {
+		if (from == to) {
+			return to;
+		}
+		int[] result = new int[to.length];
+		for (int i = 0; i < to.length; i++) {
+			result[i] = blend(from[i], to[i], fraction);
+		}
+		return result;
+	}
+
+	/**
+	 * Return the number of the tick after which this frame was taken.
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Return the `System.nanoTime()` value at which the tick of this frame was due.
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	public boolean isWon() {
+		return won;
+	}
+
+	public boolean isDead() {
+		return dead;
+	}
+
+	public Point getBottomRight() {
+		return bottomRight;
+	}
+
+	public PaddleState getPaddle() {
+		return paddle;
+	}
+
+	/**
+	 * Return how far to the right of the location of `getPaddle()` the paddle is
+	 * to be shown.
+	 */
+	public int getPaddleOffsetX() {
+		return paddleOffsetX;
+	}
+
+	private int getPaddleX() {
+		return paddle.getCenter().getX() + paddleOffsetX;
+	}
+
+	/**
+	 * Return the block version of the state this frame was taken from: frames
+	 * with the same block version have the same blocks.
+	 */
+	public long getBlockVersion() {
+		return blockVersion;
+	}
+
+	public int getBlockCount() {
+		return blocks.length;
+	}
+
+	public BlockState getBlock(int i) {
+		return blocks[i];
+	}
+
+	public int getBallCount() {
+		return ballCount;
+	}
+
+	public int getBallX(int i) {
+		return ballX[i];
+	}
+
+	public int getBallY(int i) {
+		return ballY[i];
+	}
+
+	public int getBallDiameter(int i) {
+		return ballDiameter[i];
+	}
+
+	public Color getBallColor(int i) {
+		return ballColor[i];
+	}
+
+	public int getAlphaCount() {
+		return alphaCount;
+	}
+
+	public int getAlphaX(int j) {
+		return alphaX[j];
+	}
+
+	public int getAlphaY(int j) {
+		return alphaY[j];
+	}
+
+	public int getAlphaDiameter(int j) {
+		return alphaDiameter[j];
+	}
+
+	public Color getAlphaColor(int j) {
+		return alphaColor[j];
+	}
+
+	public int getLinkCount() {
+		return linkCount;
+	}
+
+	public int getLinkBallX(int k) {
+		return linkCoords[4 * k];
+	}
+
+	public int getLinkBallY(int k) {
+		return linkCoords[4 * k + 1];
+	}
+
+	public int getLinkAlphaX(int k) {
+		return linkCoords[4 * k + 2];
+	}
+
+	public int getLinkAlphaY(int k) {
+		return linkCoords[4 * k + 3];
+	}
+
+}
@@ -0,0 +1,145 @@
+package breakout.gui;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import breakout.BreakoutFacade;
+import breakout.BreakoutState;
+import breakout.headless.HeadlessRunner;
+
+/**
+ * Runs the game on a thread of its own, so that the cost of the simulation never
+ * delays input handling or painting on the Event Dispatch Thread.
+ *
+ * The loop measures time with `System.nanoTime` and lets a `HeadlessRunner`
+ * turn it into ticks of a fixed time step. The keys reach the loop through
+ * atomic bit sets, so the EDT never waits for a tick; a key that is pressed and
+ * released between two ticks still moves the paddle during the next one. After
+ * every batch of ticks the loop publishes a new `GameFrame`, which the EDT can
+ * paint whenever and as often as it likes.
+ *
+ * The state must not be used by other threads once the loop has started.
+ */
+public class GameLoop {
+
+	public static final int LEFT = 1;
+	public static final int RIGHT = 2;
+
+	/**
+	 * Time the loop does not try to catch up with, for example after the process
+	 * was suspended, in ms.
+	 */
+	public static final int MAX_CATCH_UP_TIME = 250;
+
+	private static final long NANOS_PER_MILLI = 1_000_000;
+
+	private final BreakoutFacade facade = new BreakoutFacade();
+	private final HeadlessRunner runner;
+	private final AtomicInteger heldKeys = new AtomicInteger();
+	private final AtomicInteger pressedKeys = new AtomicInteger();
+	private final Thread thread;
+	private volatile boolean running;
+	private volatile GameFrame frame;
+
+	/**
+	 * Construct a loop that advances `state` in ticks of `timeStep` ms once it
+	 * is started.
+	 *
+	 * @throws IllegalArgumentException | state == null
+	 * @throws IllegalArgumentException | timeStep < 1 || BreakoutState.MAX_ELAPSED_TIME < timeStep
+	 * @post | getFrame().getTick() == 0
+	 */
+	public GameLoop(BreakoutState state, int timeStep) {
+		this.runner = new HeadlessRunner(state, timeStep, (tick, s) -> paddleDir());
+		this.frame = new GameFrame(facade, state, 0);
+		this.thread = new Thread(this::run, "breakout-game-loop");
+		thread.setDaemon(true);
+	}
+
+	/**
+	 * Return the frame published after the most recent batch of ticks. Can be
+	 * called from any thread.
+	 */
+	public GameFrame getFrame() {
+		return frame;
+	}
+
+	public int getTimeStep() {
+		return runner.getTimeStep();
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Report that `key` (`LEFT` or `RIGHT`) went down. Can be called from any
+	 * thread.
+	 */
+	public void keyPressed(int key) {
+		heldKeys.getAndUpdate(keys -> keys | key);
+		pressedKeys.getAndUpdate(keys -> keys | key);
+	}
+
+	/**
+	 * Report that `key` (`LEFT` or `RIGHT`) went up. Can be called from any
+	 * thread.
+	 */
+	public void keyReleased(int key) {
+		heldKeys.getAndUpdate(keys -> keys & ~key);
+	}
+
+	// Called on the loop thread, once before every tick.
+	private int paddleDir() {
+		int keys = heldKeys.get() | pressedKeys.getAndSet(0);
+		boolean left = (keys & LEFT) != 0;
+		boolean right = (keys & RIGHT) != 0;
+		return left == right ? 0 : left ? -1 : 1;
+	}
+
+	/**
+	 * Start running the game, until it is over or `stop` is called.
+	 *
+	 * @throws IllegalStateException if the loop was started before
+	 */
+	public void start() {
+		if (thread.getState() != Thread.State.NEW)
+			throw new IllegalStateException();
+		running = true;
+		thread.start();
+	}
+
+	/**
+	 * Stop running the game and wait for the loop thread to finish its tick.
+	 */
+	public void stop() throws InterruptedException {
+		running = false;
+		LockSupport.unpark(thread);
+		if (thread.getState() != Thread.State.NEW) {
+			thread.join();
+		}
+	}
+
+	private void run() {
+		try {
+			long last = System.nanoTime();
+			while (running && !runner.isOver()) {
+				long now = System.nanoTime();
+				long elapsedTime = (now - last) / NANOS_PER_MILLI;
+				last += elapsedTime * NANOS_PER_MILLI;
+				if (runner.advance(Math.min(elapsedTime, MAX_CATCH_UP_TIME)) > 0) {
+					long tickTime = last - runner.getPendingTime() * NANOS_PER_MILLI;
+					frame = new GameFrame(facade, runner.getState(), runner.getTicks(), tickTime, frame);
+				}
+				long untilNextTick = (runner.getTimeStep() - runner.getPendingTime()) * NANOS_PER_MILLI
+						- (System.nanoTime() - last);
+				if (untilNextTick > 0) {
+					LockSupport.parkNanos(this, untilNextTick);
+				}
+			}
+		} finally {
+			running = false;
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+package breakout.gui;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import breakout.BlockState;
+import breakout.BreakoutFacade;
+import breakout.BreakoutState;
+import breakout.PaddleState;
+import breakout.radioactivity.Ball;
+import breakout.utils.Point;
+import breakout.utils.Vector;
+
+class GameLoopTest {
+
+	static final BreakoutFacade fac = new BreakoutFacade();
+
+	static GameFrame awaitTick(GameLoop loop, long tick) throws InterruptedException {
+		long deadline = System.nanoTime() + 10_000_000_000L;
+		while (loop.getFrame().getTick() < tick && System.nanoTime() < deadline) {
+			Thread.sleep(1);
+		}
+		return loop.getFrame();
+	}
+
+	@Test
+	void testFramesFollowTheGame() throws InterruptedException {
+		BreakoutState state = fac.createStateFromDescription(BreakoutApplication.initMap2);
+		int paddleX = fac.getPaddle(state).getCenter().getX();
+		GameLoop loop = new GameLoop(state, 5);
+		GameFrame first = loop.getFrame();
+		assertEquals(0, first.getTick());
+		assertEquals(fac.getBallsLen(state), first.getBallCount());
+		assertEquals(fac.getBlocksLen(state), first.getBlockCount());
+
+		loop.keyPressed(GameLoop.RIGHT);
+		loop.start();
+		GameFrame frame = awaitTick(loop, 10);
+		loop.stop();
+		assertFalse(loop.isRunning());
+		assertTrue(frame.getTick() >= 10);
+		assertTrue(frame.getPaddle().getCenter().getX() > paddleX);
+		// the first frame is not affected by the ticks after it
+		assertEquals(paddleX, first.getPaddle().getCenter().getX());
+		assertThrows(IllegalStateException.class, () -> loop.start());
+	}
+
+	@Test
+	void testShortKeyPressMovesPaddle() throws InterruptedException {
+		BreakoutState state = fac.createStateFromDescription(BreakoutApplication.initMap2);
+		int paddleX = fac.getPaddle(state).getCenter().getX();
+		GameLoop loop = new GameLoop(state, 5);
+		// pressed and released before the loop got to see it
+		loop.keyPressed(GameLoop.LEFT);
+		loop.keyReleased(GameLoop.LEFT);
+		loop.start();
+		GameFrame frame = awaitTick(loop, 3);
+		loop.stop();
+		assertTrue(frame.getPaddle().getCenter().getX() < paddleX);
+	}
+
+	@Test
+	void testFramesShareBlocksUntilOneIsHit() {
+		BlockState block = fac.createNormalBlockState(new Point(3000, 0), new Point(5000, 500));
+		BlockState other = fac.createNormalBlockState(new Point(7000, 0), new Point(9000, 500));
+		Ball ball = fac.createNormalBall(new Point(4000, 1000), 700, new Vector(0, -5));
+		PaddleState paddle = fac.createNormalPaddleState(new Point(8000, 2500));
+		BreakoutState state = fac.createBreakoutState(new Ball[] { ball }, new BlockState[] { block, other },
+				new Point(10000, 3000), paddle);
+
+		GameFrame first = new GameFrame(fac, state, 0);
+		fac.tick(state, 0, 10);
+		GameFrame second = new GameFrame(fac, state, 1, 0, first);
+		assertEquals(first.getBlockVersion(), second.getBlockVersion());
+		assertSame(first.getBlock(1), second.getBlock(1));
+
+		fac.tickDuring(state, 200);
+		GameFrame third = new GameFrame(fac, state, 2, 0, second);
+		assertNotEquals(second.getBlockVersion(), third.getBlockVersion());
+		assertEquals(1, third.getBlockCount());
+		assertEquals(2, second.getBlockCount());
+	}
+
+	@Test
+	void testInterpolateBetweenTicks() {
+		Ball ball = fac.createNormalBall(new Point(4000, 1000), 700, new Vector(10, 4));
+		PaddleState paddle = fac.createNormalPaddleState(new Point(5000, 2500));
+		BreakoutState state = fac.createBreakoutState(new Ball[] { ball }, new BlockState[] {},
+				new Point(10000, 3000), paddle);
+		GameFrame first = new GameFrame(fac, state, 0, 0, null);
+		fac.movePaddleRight(state, 10);
+		fac.tick(state, 1, 10);
+		GameFrame second = new GameFrame(fac, state, 1, 0, first);
+		int paddleMove = fac.getPaddle(state).getCenter().getX() - 5000;
+		assertTrue(paddleMove > 0);
+
+		assertSame(second, second.interpolate(1));
+		GameFrame start = second.interpolate(0);
+		assertEquals(4000, start.getBallX(0));
+		assertEquals(1000, start.getBallY(0));
+		assertEquals(-paddleMove, start.getPaddleOffsetX());
+		GameFrame half = second.interpolate(0.5);
+		assertEquals(4050, half.getBallX(0));
+		assertEquals(1020, half.getBallY(0));
+		assertEquals(-paddleMove / 2, half.getPaddleOffsetX());
+		assertEquals(second.getBlockVersion(), half.getBlockVersion());
+
+		// a frame that does not directly follow the previous one is shown as it is
+		fac.tick(state, 0, 10);
+		GameFrame later = new GameFrame(fac, state, 5, 0, second);
+		assertEquals(later.getBallX(0), later.interpolate(0).getBallX(0));
+		assertEquals(0, later.interpolate(0).getPaddleOffsetX());
+	}
+
+}
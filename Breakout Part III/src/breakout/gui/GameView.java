@@ -1,12 +1,18 @@
 package breakout.gui;
 
+import java.awt.AlphaComposite;
 import java.awt.Color;
+import java.awt.DisplayMode;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
 import java.awt.Toolkit;
+import java.awt.Transparency;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.util.Set;
 
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
@@ -16,8 +22,6 @@ import breakout.BlockState;
 import breakout.BreakoutFacade;
 import breakout.BreakoutState;
 import breakout.PaddleState;
-import breakout.radioactivity.Alpha;
-import breakout.radioactivity.Ball;
 import breakout.utils.Point;
 import breakout.utils.Rect;
 import breakout.utils.Vector;
@@ -25,38 +29,160 @@ import breakout.utils.Vector;
 @SuppressWarnings("serial")
 public class GameView extends JPanel {
 	public static final int ballMoveDelayMillis = 20;
+	// used when the screen does not report its refresh rate
+	private static final int DEFAULT_REFRESH_RATE = 60;
+	// Past this many separate rectangles, or this share of the panel, repaint the whole panel.
+	private static final int MAX_DIRTY_RECTS = 32;
+	private static final double MAX_DIRTY_AREA = 0.5;
+	// pixels around each moving object that are repainted too, to cover rounding
+	private static final int DIRTY_MARGIN = 2;
 
 	public BreakoutState breakoutState;
-	private Timer ballTimer;
-	private boolean leftKeyDown = false;
-	private boolean rightKeyDown = false;
-
-	long prevTimestamp = 0;
+	// The simulation runs on the loop's own thread; this view only paints its frames.
+	private final GameLoop gameLoop;
+	private Timer repaintTimer;
+	// The latest frame of the game loop that was looked at, and the frame on the screen
+	// (or being put there), which may be part of the way from the previous tick to it.
+	// paintComponent paints only shownFrame.
+	private GameFrame sourceFrame;
+	private GameFrame shownFrame;
+	// Whether to show the moving objects in between ticks, and how far in between shownFrame is.
+	private final boolean interpolating;
+	private double shownFraction = 1;
+	private final DirtyRegion dirtyRegion = new DirtyRegion(MAX_DIRTY_RECTS);
+	// The blocks as drawn for the frames with block version blockLayerVersion.
+	private BufferedImage blockLayer;
+	private long blockLayerVersion;
 	
 	private BreakoutFacade facade;
 
-	private void gameChanged() {
-		repaint(10);
+	// Repaint at the rate of the screen, whatever the rate of the simulation.
+	private void startRepainting() {
+		int refreshRate = DEFAULT_REFRESH_RATE;
+		if (!GraphicsEnvironment.isHeadless()) {
+			DisplayMode mode = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+					.getDisplayMode();
+			if (mode.getRefreshRate() != DisplayMode.REFRESH_RATE_UNKNOWN) {
+				refreshRate = mode.getRefreshRate();
+			}
+		}
+		repaintTimer = new Timer(1000 / refreshRate, actionEvent -> frameDue());
+		repaintTimer.start();
 	}
 
-	private void startMovingBalls() {
-		ballTimer = new Timer(ballMoveDelayMillis, actionEvent -> {
-			long timestamp = System.currentTimeMillis();
-			moveBalls(timestamp);
-		});
-		ballTimer.start();
+	private void frameDue() {
+		GameFrame frame = gameLoop.getFrame();
+		if (interpolating) {
+			// Show the game one tick late: in between the previous tick and the latest
+			// one, as far as the time since the latest one was due.
+			double tickNanos = gameLoop.getTimeStep() * 1e6;
+			double fraction = Math.max(0, Math.min(1, (System.nanoTime() - frame.getTime()) / tickNanos));
+			if (frame != sourceFrame || shownFraction < 1) {
+				repaintChanges(shownFrame, frame.interpolate(fraction));
+			}
+			shownFraction = fraction;
+		} else if (frame != sourceFrame) {
+			repaintChanges(shownFrame, frame);
+		}
+		sourceFrame = frame;
+		if (frame.isDead()) {
+			gameOver("Game over :-(");
+		} else if (frame.isWon()) {
+			gameOver("Gewonnen!");
+		}
+	}
+
+	// As long as the blocks stay the same, only the moving objects change from one
+	// frame to the next: repaint where they were and where they are now.
+	private void repaintChanges(GameFrame previous, GameFrame frame) {
+		shownFrame = frame;
+		if (previous.getBlockVersion() != frame.getBlockVersion()) {
+			repaint();
+			return;
+		}
+		dirtyRegion.clear();
+		addMovingObjects(previous);
+		addMovingObjects(frame);
+		if (dirtyRegion.isOverflowed() || dirtyRegion.getArea() > MAX_DIRTY_AREA * getWidth() * getHeight()) {
+			repaint();
+			return;
+		}
+		// one by one, since RepaintManager would merge separate repaint requests into their bounding box
+		for (int i = 0; i < dirtyRegion.getRectCount(); i++) {
+			paintImmediately(dirtyRegion.getX(i), dirtyRegion.getY(i), dirtyRegion.getWidth(i),
+					dirtyRegion.getHeight(i));
+		}
+	}
+
+	private void addMovingObjects(GameFrame frame) {
+		for (int i = 0; i < frame.getBallCount(); i++) {
+			int radius = frame.getBallDiameter(i) / 2;
+			addDirty(frame.getBallX(i) - radius, frame.getBallY(i) - radius, frame.getBallX(i) + radius,
+					frame.getBallY(i) + radius);
+		}
+		for (int j = 0; j < frame.getAlphaCount(); j++) {
+			int radius = frame.getAlphaDiameter(j) / 2;
+			addDirty(frame.getAlphaX(j) - radius, frame.getAlphaY(j) - radius / 2, frame.getAlphaX(j) + radius,
+					frame.getAlphaY(j) + radius / 2);
+		}
+		for (int k = 0; k < frame.getLinkCount(); k++) {
+			addDirty(Math.min(frame.getLinkBallX(k), frame.getLinkAlphaX(k)),
+					Math.min(frame.getLinkBallY(k), frame.getLinkAlphaY(k)),
+					Math.max(frame.getLinkBallX(k), frame.getLinkAlphaX(k)),
+					Math.max(frame.getLinkBallY(k), frame.getLinkAlphaY(k)));
+		}
+		Rect paddle = facade.getLocation(frame.getPaddle());
+		int offset = frame.getPaddleOffsetX();
+		addDirty(paddle.getTopLeft().getX() + offset, paddle.getTopLeft().getY(),
+				paddle.getBottomRight().getX() + offset, paddle.getBottomRight().getY());
+	}
+
+	// Same conversion as toGUICoord, without allocating.
+	private void addDirty(int left, int top, int right, int bottom) {
+		int x = Math.floorDiv(left, 50) + 5 - DIRTY_MARGIN;
+		int y = Math.floorDiv(top, 50) + 5 - DIRTY_MARGIN;
+		int x2 = Math.floorDiv(right, 50) + 5 + DIRTY_MARGIN + 1;
+		int y2 = Math.floorDiv(bottom, 50) + 5 + DIRTY_MARGIN + 1;
+		dirtyRegion.add(x, y, x2 - x, y2 - y);
+	}
+
+	private void gameOver(String message) {
+		repaintTimer.stop();
+		paintImmediately(getBounds());
+		JOptionPane.showMessageDialog(this, message);
+		System.exit(0);
 	}
 	
 
 	/**
 	 * Create a new GameView for playing breakout starting from a given
-	 * breakoutState.
+	 * breakoutState. The view shows every tick as soon as it is simulated,
+	 * without interpolating.
 	 * 
 	 * @param breakoutState initial state for the game.
 	 */
 	public GameView(BreakoutState breakoutState) {
+		this(breakoutState, ballMoveDelayMillis, false);
+	}
+
+	/**
+	 * Create a new GameView for playing breakout starting from a given
+	 * breakoutState, simulated in ticks of `timeStep` ms.
+	 * 
+	 * @param breakoutState initial state for the game.
+	 * @param timeStep the game time simulated by one tick, in ms.
+	 * @param interpolating whether to show the balls, alphas and paddle moving
+	 *        smoothly between ticks, one tick behind the simulation, rather than
+	 *        jumping from tick to tick. This keeps the picture smooth when the
+	 *        screen refreshes more often than the game ticks.
+	 */
+	public GameView(BreakoutState breakoutState, int timeStep, boolean interpolating) {
 		this.breakoutState = breakoutState;
 		this.facade = new BreakoutFacade();
+		this.gameLoop = new GameLoop(breakoutState, timeStep);
+		this.interpolating = interpolating;
+		this.sourceFrame = gameLoop.getFrame();
+		this.shownFrame = sourceFrame;
 
 		setBackground(Color.black);
 
@@ -65,11 +191,11 @@ public class GameView extends JPanel {
 			public void keyPressed(KeyEvent e) {
 				switch (e.getKeyCode()) {
 				case KeyEvent.VK_RIGHT -> {
-					rightKeyDown = true;
+					gameLoop.keyPressed(GameLoop.RIGHT);
 					break;
 				}
 				case KeyEvent.VK_LEFT -> {
-					leftKeyDown = true;
+					gameLoop.keyPressed(GameLoop.LEFT);
 					break;
 				}
 				}
@@ -79,52 +205,34 @@ public class GameView extends JPanel {
 			public void keyReleased(KeyEvent e) {
 				switch (e.getKeyCode()) {
 				case KeyEvent.VK_RIGHT -> {
-					rightKeyDown = false;
+					gameLoop.keyReleased(GameLoop.RIGHT);
 					break;
 				}
 				case KeyEvent.VK_LEFT -> {
-					leftKeyDown = false;
+					gameLoop.keyReleased(GameLoop.LEFT);
 					break;
 				}
 				}
 			}
 		});
-		startMovingBalls();
+		gameLoop.start();
+		startRepainting();
 	}
 
-	private void moveBalls(long timestamp) {
-		if (prevTimestamp != 0) {
-			int elapsedTime = (int) (timestamp - prevTimestamp);
-			// very high elapsed times (for example during debugging) are annoying.
-			elapsedTime = Math.min(elapsedTime, BreakoutState.MAX_ELAPSED_TIME);
-
-			int curPaddleDir = 0;
-			if (leftKeyDown && !rightKeyDown) {
-				facade.movePaddleLeft(breakoutState, elapsedTime);
-				curPaddleDir = -1;
-			}
-			if (!leftKeyDown && rightKeyDown) {
-				facade.movePaddleRight(breakoutState, elapsedTime);
-				curPaddleDir = 1;
-			}
-			facade.tick(breakoutState, curPaddleDir, elapsedTime);
-			if (facade.isDead(breakoutState)) {
-				JOptionPane.showMessageDialog(this, "Game over :-(");
-				System.exit(0);
-			}
-			if (facade.isWon(breakoutState)) {
-				JOptionPane.showMessageDialog(this, "Gewonnen!");
-				System.exit(0);
-			}
-			gameChanged();
-		}
-		prevTimestamp = timestamp;
+	/**
+	 * Stop simulating the game shown by this view, and wait until the tick in
+	 * progress, if any, is done. The view keeps showing the last frame.
+	 * 
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void stopGame() throws InterruptedException {
+		gameLoop.stop();
 	}
 
 	@Override
 	public Dimension getPreferredSize() {
 		Point size = toGUICoord(
-				facade.getBottomRight(breakoutState).plus(new Vector(200, 200)));
+				shownFrame.getBottomRight().plus(new Vector(200, 200)));
 				//breakoutState.getBottomRight().plus(new Vector(200, 200)));
 		return new Dimension(size.getX(), size.getY());
 	}
@@ -142,29 +250,30 @@ public class GameView extends JPanel {
 	@Override
 	protected void paintComponent(Graphics g) {
 		super.paintComponent(g);
+		GameFrame frame = shownFrame;
 
-		Point botRight = toGUICoord(
-				facade.getBottomRight(breakoutState));
+		Point botRight = toGUICoord(frame.getBottomRight());
 		g.setColor(Color.black);
 		g.drawRect(0, 0, botRight.getX(), botRight.getY());
 
-		paintBlocks(g);
-		paintBalls(g);
-		paintAlphas(g); //squished circles in principle.
-		paintLinks(g);
-		paintPaddle(g);
+		paintBlocks(g, frame);
+		paintBalls(g, frame);
+		paintAlphas(g, frame); //squished circles in principle.
+		paintLinks(g, frame);
+		paintPaddle(g, frame);
 		
 		// domi: this fixes a visual latency bug on my system...
 		Toolkit.getDefaultToolkit().sync();
 	}
 
-	private void paintPaddle(Graphics g) {
+	private void paintPaddle(Graphics g, GameFrame frame) {
 		// paddle
-		PaddleState paddle = facade.getPaddle(breakoutState);
+		PaddleState paddle = frame.getPaddle();
 		Rect loc = facade.getLocation(paddle);
 		Color c = facade.getColor(paddle);
-		Point tl = loc.getTopLeft();
-		Point br = loc.getBottomRight();
+		Vector offset = new Vector(frame.getPaddleOffsetX(), 0);
+		Point tl = loc.getTopLeft().plus(offset);
+		Point br = loc.getBottomRight().plus(offset);
 		g.setColor(c);
 		paintPaddle(g, tl, br);
 	}
@@ -175,16 +284,15 @@ public class GameView extends JPanel {
 		g.fillRect(tl.getX(), tl.getY(), br.getX() - tl.getX(), br.getY() - tl.getY());
 	}
 
-	private void paintBalls(Graphics g) {
+	private void paintBalls(Graphics g, GameFrame frame) {
 		// ball
-		for (Ball ball : facade.getBalls(breakoutState)) {
-			Point center = facade.getCenter(ball);
-			int diam = facade.getDiameter(ball);
-			int radius = diam/2;
-			Point tl = center.plus(new Vector(-radius,-radius));
-			Point br = center.plus(new Vector(radius,radius));
-			Color color = facade.getColor(ball);
-			paintBall(g, color, tl, br);
+		for (int i = 0; i < frame.getBallCount(); i++) {
+			int x = frame.getBallX(i);
+			int y = frame.getBallY(i);
+			int radius = frame.getBallDiameter(i) / 2;
+			Point tl = new Point(x - radius, y - radius);
+			Point br = new Point(x + radius, y + radius);
+			paintBall(g, frame.getBallColor(i), tl, br);
 		}
 	}
 	
@@ -195,15 +303,12 @@ public class GameView extends JPanel {
 		g.fillOval(tl.getX(), tl.getY(), br.getX() - tl.getX(), br.getY() - tl.getY());
 	}
 
-	private void paintAlphas(Graphics g) {
-		for (Alpha alpha : facade.getAlphas(breakoutState)) {
-			Point center = facade.getCenter(alpha);
-			int diam = facade.getDiameter(alpha);
+	private void paintAlphas(Graphics g, GameFrame frame) {
+		for (int j = 0; j < frame.getAlphaCount(); j++) {
+			int diam = frame.getAlphaDiameter(j);
 			int radius = diam/2;
-			Point tl = center.plus(new Vector(-radius,-radius / 2)); //alphas are squished ovals for now
-			Color color = facade.getColor(alpha);
-			paintAlpha(g, color, tl, diam, radius);
-			
+			Point tl = new Point(frame.getAlphaX(j) - radius, frame.getAlphaY(j) - radius / 2); //alphas are squished ovals for now
+			paintAlpha(g, frame.getAlphaColor(j), tl, diam, radius);
 		}
 	}
 	
@@ -214,16 +319,12 @@ public class GameView extends JPanel {
 		g.fillOval(tl.getX(), tl.getY(), width/50 , height/50);
 	}
 	
-	private void paintLinks(Graphics g) {
-//		for (Alpha alpha : facade.getAlphas(breakoutState) ) {	//deep copy
-//			for (Ball ball : facade.getBalls(alpha)) {	//shallow cop
-		for (Ball ball : facade.getBalls(breakoutState) ) {	//deep copy
-			for (Alpha alpha : facade.getAlphas(ball)) {	//shallow cop
-				Point start = toGUICoord(facade.getCenter(ball));
-				Point end = toGUICoord(facade.getCenter(alpha));
-				g.setColor(Color.red);
-				g.drawLine(start.getX(), start.getY(), end.getX(), end.getY());
-			}
+	private void paintLinks(Graphics g, GameFrame frame) {
+		g.setColor(Color.red);
+		for (int k = 0; k < frame.getLinkCount(); k++) {
+			Point start = toGUICoord(new Point(frame.getLinkBallX(k), frame.getLinkBallY(k)));
+			Point end = toGUICoord(new Point(frame.getLinkAlphaX(k), frame.getLinkAlphaY(k)));
+			g.drawLine(start.getX(), start.getY(), end.getX(), end.getY());
 		}
 	}
 
@@ -235,15 +336,37 @@ public class GameView extends JPanel {
 		g.fillRect(tl.getX(), tl.getY(), br.getX() - tl.getX(), br.getY() - tl.getY());
 	}
 
-	private void paintBlocks(Graphics g) {
-		// blocks
-		for (BlockState block : facade.getBlocks(breakoutState)) {
+	private void paintBlocks(Graphics g, GameFrame frame) {
+		// blocks only change when one is hit, so they are drawn once into a layer
+		// that every frame copies as a whole
+		if (blockLayer == null || blockLayerVersion != frame.getBlockVersion()) {
+			drawBlockLayer(frame);
+		}
+		g.drawImage(blockLayer, 0, 0, null);
+	}
+
+	private void drawBlockLayer(GameFrame frame) {
+		if (blockLayer == null) {
+			Point size = toGUICoord(frame.getBottomRight()).plus(new Vector(1, 1));
+			GraphicsConfiguration config = getGraphicsConfiguration();
+			blockLayer = config != null
+					? config.createCompatibleImage(size.getX(), size.getY(), Transparency.BITMASK)
+					: new BufferedImage(size.getX(), size.getY(), BufferedImage.TYPE_INT_ARGB);
+		}
+		Graphics2D g = blockLayer.createGraphics();
+		g.setComposite(AlphaComposite.Clear);
+		g.fillRect(0, 0, blockLayer.getWidth(), blockLayer.getHeight());
+		g.setComposite(AlphaComposite.SrcOver);
+		for (int i = 0; i < frame.getBlockCount(); i++) {
+			BlockState block = frame.getBlock(i);
 			g.setColor(facade.getColor(block));
 			Rect loc = facade.getLocation(block);
 			Point tl = loc.getTopLeft();
 			Point br = loc.getBottomRight();
 			paintBlock(g, tl, br);
 		}
+		g.dispose();
+		blockLayerVersion = frame.getBlockVersion();
 	}
 
 }
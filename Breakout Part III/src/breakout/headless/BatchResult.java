@@ -0,0 +1,149 @@
+package breakout.headless;
+
+import java.util.List;
+
+/**
+ * The outcome of `BatchSimulator.run`: the result of every game, in the order
+ * of their specs, and figures aggregated over all of them.
+ *
+ * @immutable
+ */
+public class BatchResult {
+
+	/**
+	 * @invar | games != null
+	 * @invar | games.stream().allMatch(g -> g != null)
+	 * @invar | elapsedNanos >= 0
+	 * @representationObject
+	 */
+	private final List<GameResult> games;
+	private final long elapsedNanos;
+
+	/**
+	 * @throws IllegalArgumentException | games == null || games.stream().anyMatch(g -> g == null)
+	 * @throws IllegalArgumentException | elapsedNanos < 0
+	 * @inspects games
+	 * @post | getGames().equals(games)
+	 * @post | getElapsedNanos() == elapsedNanos
+	 */
+	public BatchResult(List<GameResult> games, long elapsedNanos) {
+		if (games == null || games.stream().anyMatch(g -> g == null))
+			throw new IllegalArgumentException();
+		if (elapsedNanos < 0)
+			throw new IllegalArgumentException();
+		this.games = List.copyOf(games);
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * Return the results of the games, in the order of their specs.
+	 *
+	 * @post | result != null
+	 * @immutable
+	 */
+	public List<GameResult> getGames() {
+		return games;
+	}
+
+	/**
+	 * Return the wall-clock time the whole batch took, in ns.
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @post | result == getGames().stream().filter(g -> g.getOutcome() == RunResult.Outcome.WON).count()
+	 */
+	public int getWins() {
+		return count(RunResult.Outcome.WON);
+	}
+
+	/**
+	 * @post | result == getGames().stream().filter(g -> g.getOutcome() == RunResult.Outcome.DEAD).count()
+	 */
+	public int getLosses() {
+		return count(RunResult.Outcome.DEAD);
+	}
+
+	private int count(RunResult.Outcome outcome) {
+		int n = 0;
+		for (GameResult game : games) {
+			if (game.getOutcome() == outcome) {
+				n++;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Return the fraction of the games that were won.
+	 *
+	 * @post | getGames().isEmpty() ? result == 0 : result == (double) getWins() / getGames().size()
+	 */
+	public double getWinRate() {
+		return games.isEmpty() ? 0 : (double) getWins() / games.size();
+	}
+
+	/**
+	 * @post | result == getGames().stream().mapToLong(g -> g.getTicks()).sum()
+	 */
+	public long getTotalTicks() {
+		long sum = 0;
+		for (GameResult game : games) {
+			sum += game.getTicks();
+		}
+		return sum;
+	}
+
+	/**
+	 * Return the mean duration of the games, in game time ms.
+	 *
+	 * @post | result == getGames().stream().mapToLong(g -> g.getGameTime()).average().orElse(0)
+	 */
+	public double getMeanGameTime() {
+		return games.stream().mapToLong(GameResult::getGameTime).average().orElse(0);
+	}
+
+	/**
+	 * Return the duration of the longest game, in game time ms.
+	 *
+	 * @post | result == getGames().stream().mapToLong(g -> g.getGameTime()).max().orElse(0)
+	 */
+	public long getMaxGameTime() {
+		return games.stream().mapToLong(GameResult::getGameTime).max().orElse(0);
+	}
+
+	/**
+	 * @post | result == getGames().stream().mapToInt(g -> g.getPeakBalls()).max().orElse(0)
+	 */
+	public int getPeakBalls() {
+		return games.stream().mapToInt(GameResult::getPeakBalls).max().orElse(0);
+	}
+
+	/**
+	 * @post | result == getGames().stream().mapToInt(g -> g.getPeakAlphas()).max().orElse(0)
+	 */
+	public int getPeakAlphas() {
+		return games.stream().mapToInt(GameResult::getPeakAlphas).max().orElse(0);
+	}
+
+	/**
+	 * Return the simulation speed of the whole batch, in ticks per wall-clock
+	 * second, summed over the games that ran at the same time.
+	 *
+	 * @post | getElapsedNanos() == 0 ? result == 0 : result == getTotalTicks() * 1e9 / getElapsedNanos()
+	 */
+	public double getTicksPerSecond() {
+		return elapsedNanos == 0 ? 0 : getTotalTicks() * 1e9 / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"%d games in %.1f ms (%.0f ticks/s): %d won (%.1f%%), %d lost, mean %.0f ms, max %d ms, at most %d balls and %d alphas",
+				games.size(), elapsedNanos / 1e6, getTicksPerSecond(), getWins(), getWinRate() * 100, getLosses(),
+				getMeanGameTime(), getMaxGameTime(), getPeakBalls(), getPeakAlphas());
+	}
+
+}
@@ -0,0 +1,183 @@
+package breakout.headless;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import breakout.BreakoutState;
+
+/**
+ * Plays many independent games at once, for Monte Carlo sweeps over maps and
+ * paddle policies.
+ *
+ * Each game gets its own state and its own paddle input, and the simulation
+ * shares nothing between states, so the games run on a fork-join pool with
+ * one worker per core without any locking, and throughput grows with the
+ * number of cores. Every game is played by a `HeadlessRunner` with the same
+ * time step, until it is won or lost or has used up the tick budget.
+ *
+ * Games are deterministic: the result of a game only depends on its spec, the
+ * time step and the tick budget, not on the parallelism or on the other games
+ * in the batch.
+ *
+ * @invar | 1 <= getTimeStep() && getTimeStep() <= BreakoutState.MAX_ELAPSED_TIME
+ * @invar | getMaxTicks() >= 0
+ * @invar | getParallelism() >= 1
+ */
+public class BatchSimulator {
+
+	/**
+	 * @invar | 1 <= timeStep && timeStep <= BreakoutState.MAX_ELAPSED_TIME
+	 * @invar | maxTicks >= 0
+	 * @invar | parallelism >= 1
+	 */
+	private final int timeStep;
+	private final long maxTicks;
+	private final int parallelism;
+
+	/**
+	 * Construct a simulator that plays games in ticks of `timeStep` ms for at most
+	 * `maxTicks` ticks each, running `parallelism` games at a time.
+	 *
+	 * @throws IllegalArgumentException | timeStep < 1 || BreakoutState.MAX_ELAPSED_TIME < timeStep
+	 * @throws IllegalArgumentException | maxTicks < 0
+	 * @throws IllegalArgumentException | parallelism < 1
+	 * @post | getTimeStep() == timeStep
+	 * @post | getMaxTicks() == maxTicks
+	 * @post | getParallelism() == parallelism
+	 */
+	public BatchSimulator(int timeStep, long maxTicks, int parallelism) {
+		if (timeStep < 1 || BreakoutState.MAX_ELAPSED_TIME < timeStep)
+			throw new IllegalArgumentException();
+		if (maxTicks < 0)
+			throw new IllegalArgumentException();
+		if (parallelism < 1)
+			throw new IllegalArgumentException();
+		this.timeStep = timeStep;
+		this.maxTicks = maxTicks;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Construct a simulator that runs as many games at a time as there are
+	 * processors.
+	 *
+	 * @throws IllegalArgumentException | timeStep < 1 || BreakoutState.MAX_ELAPSED_TIME < timeStep
+	 * @throws IllegalArgumentException | maxTicks < 0
+	 * @post | getTimeStep() == timeStep
+	 * @post | getMaxTicks() == maxTicks
+	 * @post | getParallelism() == Runtime.getRuntime().availableProcessors()
+	 */
+	public BatchSimulator(int timeStep, long maxTicks) {
+		this(timeStep, maxTicks, Runtime.getRuntime().availableProcessors());
+	}
+
+	public int getTimeStep() {
+		return timeStep;
+	}
+
+	public long getMaxTicks() {
+		return maxTicks;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * Play the game of the given spec on the calling thread and return how it went.
+	 *
+	 * @throws IllegalArgumentException | spec == null
+	 * @post | result.getSpec() == spec
+	 * @post | result.getTicks() <= getMaxTicks()
+	 */
+	public GameResult play(GameSpec spec) {
+		if (spec == null)
+			throw new IllegalArgumentException();
+		long start = System.nanoTime();
+		BreakoutState state = spec.createState();
+		HeadlessRunner runner = new HeadlessRunner(state, timeStep, spec.createInput());
+		int peakBalls = state.getBallCount();
+		int peakAlphas = state.getAlphaCount();
+		while (runner.getTicks() < maxTicks && runner.step()) {
+			peakBalls = Math.max(peakBalls, state.getBallCount());
+			peakAlphas = Math.max(peakAlphas, state.getAlphaCount());
+		}
+		RunResult.Outcome outcome = state.isWon() ? RunResult.Outcome.WON
+				: state.isDead() ? RunResult.Outcome.DEAD : RunResult.Outcome.RUNNING;
+		return new GameResult(spec, outcome, runner.getTicks(), runner.getTicks() * timeStep,
+				System.nanoTime() - start, peakBalls, peakAlphas, state.getBlockCount());
+	}
+
+	/**
+	 * Play the games of the given specs, `getParallelism()` at a time, and return
+	 * their results. If a game throws, the first such exception in spec order is
+	 * rethrown once all games are done.
+	 *
+	 * @throws IllegalArgumentException | specs == null || specs.stream().anyMatch(s -> s == null)
+	 * @inspects specs
+	 * @post | result.getGames().size() == specs.size()
+	 * @post | IntStream.range(0, specs.size()).allMatch(i -> result.getGames().get(i).getSpec() == specs.get(i))
+	 */
+	public BatchResult run(List<GameSpec> specs) {
+		if (specs == null || specs.stream().anyMatch(s -> s == null))
+			throw new IllegalArgumentException();
+		List<Callable<GameResult>> tasks = new ArrayList<>(specs.size());
+		for (GameSpec spec : specs) {
+			tasks.add(() -> play(spec));
+		}
+		long start = System.nanoTime();
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			List<Future<GameResult>> futures = pool.invokeAll(tasks);
+			List<GameResult> games = new ArrayList<>(futures.size());
+			for (Future<GameResult> future : futures) {
+				games.add(future.get());
+			}
+			return new BatchResult(games, System.nanoTime() - start);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			if (e.getCause() instanceof Error)
+				throw (Error) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted while waiting for the games", e);
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Play the map described in the given file (in the format of
+	 * `GameMap.createStateFromDescription`) GAMES times, each with a paddle that
+	 * moves at random with a different seed, and print the aggregated results.
+	 *
+	 * Usage: BatchSimulator MAPFILE GAMES [MAXTICKS [TIMESTEP [PARALLELISM]]]
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2 || args.length > 5) {
+			System.err.println("Usage: BatchSimulator MAPFILE GAMES [MAXTICKS [TIMESTEP [PARALLELISM]]]");
+			System.exit(2);
+		}
+		String description = Files.readString(Path.of(args[0]));
+		int games = Integer.parseInt(args[1]);
+		long maxTicks = args.length > 2 ? Long.parseLong(args[2]) : 100_000;
+		int timeStep = args.length > 3 ? Integer.parseInt(args[3]) : HeadlessRunner.DEFAULT_TIME_STEP;
+		int parallelism = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+		List<GameSpec> specs = new ArrayList<>(games);
+		for (int i = 0; i < games; i++) {
+			specs.add(new GameSpec(description, seed -> PaddleInput.random(seed, 25), i));
+		}
+		System.out.println(new BatchSimulator(timeStep, maxTicks, parallelism).run(specs));
+	}
+
+}
@@ -0,0 +1,112 @@
+package breakout.headless;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import breakout.BreakoutFacade;
+import breakout.gui.BreakoutApplication;
+
+class BatchSimulatorTest {
+
+	static final BreakoutFacade fac = new BreakoutFacade();
+
+	static List<GameSpec> specs(int count) {
+		List<GameSpec> specs = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			if (i % 4 == 0) {
+				specs.add(new GameSpec(BreakoutApplication.initMap2, seed -> PaddleInput.followBall(), i));
+			} else {
+				specs.add(new GameSpec(BreakoutApplication.initMap, seed -> PaddleInput.random(seed, 25), i));
+			}
+		}
+		return specs;
+	}
+
+	@Test
+	void testParallelRunMatchesPlayingOneByOne() {
+		List<GameSpec> specs = specs(16);
+		BatchSimulator sequential = new BatchSimulator(20, 5000, 1);
+		BatchResult batch = new BatchSimulator(20, 5000, 4).run(specs);
+
+		assertEquals(specs.size(), batch.getGames().size());
+		for (int i = 0; i < specs.size(); i++) {
+			GameResult expected = sequential.play(specs.get(i));
+			GameResult actual = batch.getGames().get(i);
+			assertSame(specs.get(i), actual.getSpec());
+			assertEquals(expected.toString(), actual.toString());
+			assertEquals(actual.getTicks() * 20, actual.getGameTime());
+			assertTrue(actual.getTicks() <= 5000);
+			assertTrue(actual.getPeakBalls() >= 1);
+		}
+		BatchResult one = sequential.run(specs);
+		assertEquals(one.getWins(), batch.getWins());
+		assertEquals(one.getTotalTicks(), batch.getTotalTicks());
+		assertEquals(one.getPeakBalls(), batch.getPeakBalls());
+		assertEquals(one.getPeakAlphas(), batch.getPeakAlphas());
+	}
+
+	@Test
+	void testAggregates() {
+		BatchResult batch = new BatchSimulator(20, 5000, 2).run(specs(8));
+		int wins = 0;
+		long ticks = 0;
+		long maxTime = 0;
+		int peakBalls = 0;
+		for (GameResult game : batch.getGames()) {
+			wins += game.getOutcome() == RunResult.Outcome.WON ? 1 : 0;
+			ticks += game.getTicks();
+			maxTime = Math.max(maxTime, game.getGameTime());
+			peakBalls = Math.max(peakBalls, game.getPeakBalls());
+		}
+		assertEquals(wins, batch.getWins());
+		assertEquals(wins / 8.0, batch.getWinRate());
+		assertEquals(ticks, batch.getTotalTicks());
+		assertEquals(ticks * 20 / 8.0, batch.getMeanGameTime());
+		assertEquals(maxTime, batch.getMaxGameTime());
+		assertEquals(peakBalls, batch.getPeakBalls());
+		assertTrue(batch.getTicksPerSecond() > 0);
+
+		BatchResult empty = new BatchSimulator(20, 10).run(List.of());
+		assertEquals(0, empty.getWinRate());
+		assertEquals(0, empty.getPeakBalls());
+	}
+
+	@Test
+	void testRandomInputIsDeterministic() {
+		PaddleInput a = PaddleInput.random(7, 10);
+		PaddleInput b = PaddleInput.random(7, 10);
+		boolean[] seen = new boolean[3];
+		for (long tick = 0; tick < 1000; tick++) {
+			int dir = a.paddleDir(tick, null);
+			assertEquals(dir, b.paddleDir(tick, null));
+			assertEquals(dir, a.paddleDir(tick / 10 * 10, null));
+			seen[dir + 1] = true;
+		}
+		assertArrayEquals(new boolean[] { true, true, true }, seen);
+	}
+
+	@Test
+	void testFailingGameIsRethrown() {
+		List<GameSpec> specs = specs(4);
+		specs.add(new GameSpec(BreakoutApplication.initMap, seed -> (tick, state) -> 2, 0));
+		assertThrows(IllegalStateException.class, () -> new BatchSimulator(20, 100, 2).run(specs));
+		specs.set(4, new GameSpec(BreakoutApplication.initMap, seed -> null, 0));
+		assertThrows(IllegalStateException.class, () -> new BatchSimulator(20, 100, 2).run(specs));
+	}
+
+	@Test
+	void testInvalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new BatchSimulator(0, 100, 1));
+		assertThrows(IllegalArgumentException.class, () -> new BatchSimulator(20, -1, 1));
+		assertThrows(IllegalArgumentException.class, () -> new BatchSimulator(20, 100, 0));
+		assertThrows(IllegalArgumentException.class, () -> new GameSpec(null, seed -> PaddleInput.NONE, 0));
+		assertThrows(IllegalArgumentException.class, () -> new GameSpec(BreakoutApplication.initMap, null, 0));
+		assertThrows(IllegalArgumentException.class, () -> PaddleInput.random(0, 0));
+		assertThrows(IllegalArgumentException.class, () -> new BatchSimulator(20, 100).run(null));
+	}
+
+}
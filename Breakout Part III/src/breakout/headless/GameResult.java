@@ -0,0 +1,102 @@
+package breakout.headless;
+
+/**
+ * How one game of a batch simulation went: how it ended, how many ticks it
+ * took, the most balls and alphas that were in play at once, and the number
+ * of blocks left at the end.
+ *
+ * @immutable
+ */
+public class GameResult {
+
+	/**
+	 * @invar | spec != null
+	 * @invar | outcome != null
+	 * @invar | ticks >= 0 && gameTime >= 0 && elapsedNanos >= 0
+	 * @invar | peakBalls >= 0 && peakAlphas >= 0 && blocksLeft >= 0
+	 */
+	private final GameSpec spec;
+	private final RunResult.Outcome outcome;
+	private final long ticks;
+	private final long gameTime;
+	private final long elapsedNanos;
+	private final int peakBalls;
+	private final int peakAlphas;
+	private final int blocksLeft;
+
+	/**
+	 * @throws IllegalArgumentException | spec == null || outcome == null
+	 * @throws IllegalArgumentException | ticks < 0 || gameTime < 0 || elapsedNanos < 0
+	 * @throws IllegalArgumentException | peakBalls < 0 || peakAlphas < 0 || blocksLeft < 0
+	 * @post | getSpec() == spec
+	 * @post | getOutcome() == outcome
+	 * @post | getTicks() == ticks
+	 * @post | getGameTime() == gameTime
+	 * @post | getElapsedNanos() == elapsedNanos
+	 * @post | getPeakBalls() == peakBalls
+	 * @post | getPeakAlphas() == peakAlphas
+	 * @post | getBlocksLeft() == blocksLeft
+	 */
+	public GameResult(GameSpec spec, RunResult.Outcome outcome, long ticks, long gameTime, long elapsedNanos,
+			int peakBalls, int peakAlphas, int blocksLeft) {
+		if (spec == null || outcome == null)
+			throw new IllegalArgumentException();
+		if (ticks < 0 || gameTime < 0 || elapsedNanos < 0)
+			throw new IllegalArgumentException();
+		if (peakBalls < 0 || peakAlphas < 0 || blocksLeft < 0)
+			throw new IllegalArgumentException();
+		this.spec = spec;
+		this.outcome = outcome;
+		this.ticks = ticks;
+		this.gameTime = gameTime;
+		this.elapsedNanos = elapsedNanos;
+		this.peakBalls = peakBalls;
+		this.peakAlphas = peakAlphas;
+		this.blocksLeft = blocksLeft;
+	}
+
+	public GameSpec getSpec() {
+		return spec;
+	}
+
+	public RunResult.Outcome getOutcome() {
+		return outcome;
+	}
+
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Return the duration of the game in game time, in ms.
+	 */
+	public long getGameTime() {
+		return gameTime;
+	}
+
+	/**
+	 * Return the wall-clock time it took to simulate the game, in ns.
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	public int getPeakBalls() {
+		return peakBalls;
+	}
+
+	public int getPeakAlphas() {
+		return peakAlphas;
+	}
+
+	public int getBlocksLeft() {
+		return blocksLeft;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s after %d ticks (%d ms), %d blocks left, at most %d balls and %d alphas", outcome,
+				ticks, gameTime, blocksLeft, peakBalls, peakAlphas);
+	}
+
+}
@@ -0,0 +1,76 @@
+package breakout.headless;
+
+import java.util.function.LongFunction;
+
+import breakout.BreakoutState;
+import breakout.GameMap;
+
+/**
+ * One game of a batch simulation: the map to play, in the format of
+ * `GameMap.createStateFromDescription`, and the paddle policy to play it with,
+ * given as a function from a seed to a `PaddleInput`, together with the seed.
+ *
+ * A spec only holds the recipe for a game; every run of it creates a new
+ * state and a new input, so one spec can be run any number of times, also
+ * concurrently, and policies that keep state need not be thread-safe.
+ *
+ * @immutable
+ */
+public class GameSpec {
+
+	/**
+	 * @invar | description != null
+	 * @invar | policy != null
+	 */
+	private final String description;
+	private final LongFunction<PaddleInput> policy;
+	private final long seed;
+
+	/**
+	 * @throws IllegalArgumentException | description == null || policy == null
+	 * @post | getDescription() == description
+	 * @post | getPolicy() == policy
+	 * @post | getSeed() == seed
+	 */
+	public GameSpec(String description, LongFunction<PaddleInput> policy, long seed) {
+		if (description == null || policy == null)
+			throw new IllegalArgumentException();
+		this.description = description;
+		this.policy = policy;
+		this.seed = seed;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public LongFunction<PaddleInput> getPolicy() {
+		return policy;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Return a new state for the map of this spec.
+	 *
+	 * @creates result
+	 */
+	public BreakoutState createState() {
+		return GameMap.createStateFromDescription(description);
+	}
+
+	/**
+	 * Return the input of the policy of this spec for its seed.
+	 *
+	 * @throws IllegalStateException | getPolicy().apply(getSeed()) == null
+	 */
+	public PaddleInput createInput() {
+		PaddleInput input = policy.apply(seed);
+		if (input == null)
+			throw new IllegalStateException("policy returned null for seed " + seed);
+		return input;
+	}
+
+}
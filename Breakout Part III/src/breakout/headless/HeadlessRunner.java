@@ -0,0 +1,211 @@
+package breakout.headless;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import breakout.BreakoutState;
+import breakout.GameMap;
+
+/**
+ * Drives a BreakoutState without a display, for simulations on a server.
+ *
+ * The game always advances in ticks of the same fixed time step, whatever the
+ * time passed to `advance`: elapsed time is accumulated and turned into as
+ * many whole ticks as it covers, and the rest is carried over to the next call.
+ * `run` does not look at the clock at all and ticks as fast as it can.
+ *
+ * Nothing here uses AWT or Swing, and neither does the simulation itself, so
+ * no AWT classes get loaded.
+ *
+ * @invar | getState() != null
+ * @invar | 1 <= getTimeStep() && getTimeStep() <= BreakoutState.MAX_ELAPSED_TIME
+ * @invar | getTicks() >= 0
+ * @invar | 0 <= getPendingTime() && getPendingTime() < getTimeStep()
+ */
+public class HeadlessRunner {
+
+	/**
+	 * The time step used by the Swing timer in `GameView`.
+	 */
+	public static final int DEFAULT_TIME_STEP = 20;
+
+	/**
+	 * @invar | state != null
+	 * @invar | input != null
+	 * @invar | 1 <= timeStep && timeStep <= BreakoutState.MAX_ELAPSED_TIME
+	 * @invar | ticks >= 0
+	 * @invar | 0 <= pendingTime && pendingTime < timeStep
+	 * @representationObject
+	 */
+	private final BreakoutState state;
+	private final int timeStep;
+	private final PaddleInput input;
+	private long ticks;
+	private long pendingTime;
+
+	/**
+	 * Construct a runner that advances `state` in ticks of `timeStep` ms, asking
+	 * `input` for the paddle direction before every tick.
+	 *
+	 * @throws IllegalArgumentException | state == null || input == null
+	 * @throws IllegalArgumentException | timeStep < 1 || BreakoutState.MAX_ELAPSED_TIME < timeStep
+	 * @post | getState() == state
+	 * @post | getTimeStep() == timeStep
+	 * @post | getTicks() == 0
+	 * @post | getPendingTime() == 0
+	 */
+	public HeadlessRunner(BreakoutState state, int timeStep, PaddleInput input) {
+		if (state == null || input == null)
+			throw new IllegalArgumentException();
+		if (timeStep < 1 || BreakoutState.MAX_ELAPSED_TIME < timeStep)
+			throw new IllegalArgumentException();
+		this.state = state;
+		this.timeStep = timeStep;
+		this.input = input;
+	}
+
+	public BreakoutState getState() {
+		return state;
+	}
+
+	public int getTimeStep() {
+		return timeStep;
+	}
+
+	/**
+	 * Return the number of ticks done so far.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Return the elapsed time, in ms, that was passed to `advance` but is too
+	 * short to make up a tick yet.
+	 */
+	public long getPendingTime() {
+		return pendingTime;
+	}
+
+	/**
+	 * Return whether the game is won or lost.
+	 *
+	 * @post | result == (getState().isWon() || getState().isDead())
+	 */
+	public boolean isOver() {
+		return state.isWon() || state.isDead();
+	}
+
+	/**
+	 * Advance the game by one tick, unless it is over, and return whether a tick
+	 * was done. Like the game loop in `GameView`, this first moves the paddle in
+	 * the direction given by the input and then ticks the state.
+	 *
+	 * @mutates this
+	 * @post | result == !old(isOver())
+	 * @post | getTicks() == old(getTicks()) + (result ? 1 : 0)
+	 */
+	public boolean step() {
+		if (isOver()) {
+			return false;
+		}
+		int paddleDir = input.paddleDir(ticks, state);
+		if (paddleDir < -1 || 1 < paddleDir)
+			throw new IllegalStateException("paddle input returned " + paddleDir);
+		if (paddleDir == -1) {
+			state.movePaddleLeft(timeStep);
+		} else if (paddleDir == 1) {
+			state.movePaddleRight(timeStep);
+		}
+		state.tick(paddleDir, timeStep);
+		ticks++;
+		return true;
+	}
+
+	/**
+	 * Let `elapsedTime` ms pass: do a tick for every whole time step of the
+	 * elapsed time plus the time left over by the previous call, and return the
+	 * number of ticks done. Time left over once the game is over is dropped.
+	 *
+	 * @throws IllegalArgumentException | elapsedTime < 0
+	 * @mutates this
+	 * @post | result >= 0
+	 * @post | getTicks() == old(getTicks()) + result
+	 * @post | isOver() || result == (old(getPendingTime()) + elapsedTime) / getTimeStep()
+	 */
+	public int advance(long elapsedTime) {
+		if (elapsedTime < 0)
+			throw new IllegalArgumentException();
+		pendingTime += elapsedTime;
+		int done = 0;
+		while (pendingTime >= timeStep) {
+			if (!step()) {
+				pendingTime = 0;
+				break;
+			}
+			pendingTime -= timeStep;
+			done++;
+		}
+		return done;
+	}
+
+	/**
+	 * Tick back to back, as fast as possible, until the game is over or `maxTicks`
+	 * ticks are done, and return how many ticks were done and how long it took.
+	 *
+	 * @throws IllegalArgumentException | maxTicks < 0
+	 * @mutates this
+	 * @post | result.getTicks() == getTicks() - old(getTicks())
+	 * @post | result.getTicks() <= maxTicks
+	 * @post | result.getOutcome() == (getState().isWon() ? RunResult.Outcome.WON :
+	 *       |     getState().isDead() ? RunResult.Outcome.DEAD : RunResult.Outcome.RUNNING)
+	 */
+	public RunResult run(long maxTicks) {
+		if (maxTicks < 0)
+			throw new IllegalArgumentException();
+		long start = System.nanoTime();
+		long done = 0;
+		while (done < maxTicks && step()) {
+			done++;
+		}
+		long elapsedNanos = System.nanoTime() - start;
+		return new RunResult(done, elapsedNanos, outcome());
+	}
+
+	private RunResult.Outcome outcome() {
+		if (state.isWon()) {
+			return RunResult.Outcome.WON;
+		}
+		if (state.isDead()) {
+			return RunResult.Outcome.DEAD;
+		}
+		return RunResult.Outcome.RUNNING;
+	}
+
+	/**
+	 * Simulate the map described in the given file (in the format of
+	 * `GameMap.createStateFromDescription`) with a paddle that sweeps back and
+	 * forth, and print the simulation speed.
+	 *
+	 * Usage: HeadlessRunner MAPFILE [MAXTICKS [TIMESTEP]]
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1 || args.length > 3) {
+			System.err.println("Usage: HeadlessRunner MAPFILE [MAXTICKS [TIMESTEP]]");
+			System.exit(2);
+		}
+		String description = Files.readString(Path.of(args[0]));
+		long maxTicks = args.length > 1 ? Long.parseLong(args[1]) : 1_000_000;
+		int timeStep = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_TIME_STEP;
+
+		int[] sweep = new int[200];
+		for (int i = 0; i < sweep.length; i++) {
+			sweep[i] = i < sweep.length / 2 ? 1 : -1;
+		}
+		HeadlessRunner runner = new HeadlessRunner(GameMap.createStateFromDescription(description), timeStep,
+				PaddleInput.scripted(sweep));
+		System.out.println(runner.run(maxTicks));
+	}
+
+}
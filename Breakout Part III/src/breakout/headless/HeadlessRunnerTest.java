@@ -0,0 +1,105 @@
+package breakout.headless;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import breakout.BreakoutFacade;
+import breakout.BreakoutState;
+import breakout.gui.BreakoutApplication;
+import breakout.radioactivity.Ball;
+import breakout.utils.Point;
+
+class HeadlessRunnerTest {
+
+	static final BreakoutFacade fac = new BreakoutFacade();
+
+	static BreakoutState newState() {
+		return fac.createStateFromDescription(BreakoutApplication.initMap2);
+	}
+
+	@Test
+	void testAdvanceCarriesOverRemainder() {
+		HeadlessRunner runner = new HeadlessRunner(newState(), 20, PaddleInput.NONE);
+		assertEquals(2, runner.advance(50));
+		assertEquals(10, runner.getPendingTime());
+		assertEquals(0, runner.advance(5));
+		assertEquals(1, runner.advance(5));
+		assertEquals(0, runner.getPendingTime());
+		assertEquals(3, runner.getTicks());
+		assertThrows(IllegalArgumentException.class, () -> runner.advance(-1));
+	}
+
+	@Test
+	void testMatchesTickingByHand() {
+		BreakoutState expected = newState();
+		HeadlessRunner runner = new HeadlessRunner(newState(), 10, PaddleInput.scripted(1, 1, 0, -1));
+		int[] dirs = { 1, 1, 0, -1 };
+		for (int i = 0; i < 200; i++) {
+			int dir = dirs[i % dirs.length];
+			if (dir == 1) {
+				fac.movePaddleRight(expected, 10);
+			} else if (dir == -1) {
+				fac.movePaddleLeft(expected, 10);
+			}
+			fac.tick(expected, dir, 10);
+		}
+		runner.advance(2000);
+
+		assertEquals(200, runner.getTicks());
+		BreakoutState actual = runner.getState();
+		assertEquals(fac.getPaddle(expected).getCenter(), fac.getPaddle(actual).getCenter());
+		Ball[] expectedBalls = fac.getBalls(expected);
+		Ball[] actualBalls = fac.getBalls(actual);
+		assertEquals(expectedBalls.length, actualBalls.length);
+		for (int i = 0; i < expectedBalls.length; i++) {
+			assertEquals(fac.getCenter(expectedBalls[i]), fac.getCenter(actualBalls[i]));
+			assertEquals(fac.getVelocity(expectedBalls[i]), fac.getVelocity(actualBalls[i]));
+		}
+		assertEquals(fac.getBlocksLen(expected), fac.getBlocksLen(actual));
+	}
+
+	@Test
+	void testRunStopsWhenGameIsOver() {
+		// without a paddle in the way the ball is lost quickly
+		BreakoutState state = newState();
+		HeadlessRunner runner = new HeadlessRunner(state, 20, PaddleInput.scripted(-1));
+		RunResult result = runner.run(1_000_000);
+		assertTrue(result.getTicks() < 1_000_000);
+		assertEquals(RunResult.Outcome.DEAD, result.getOutcome());
+		assertTrue(runner.isOver());
+		assertEquals(0, runner.advance(1000));
+		assertEquals(0, runner.getPendingTime());
+		assertEquals(0, runner.run(10).getTicks());
+	}
+
+	@Test
+	void testRunIsBoundedByMaxTicks() {
+		HeadlessRunner runner = new HeadlessRunner(newState(), 20, PaddleInput.NONE);
+		RunResult result = runner.run(10);
+		assertEquals(10, result.getTicks());
+		assertEquals(RunResult.Outcome.RUNNING, result.getOutcome());
+		assertTrue(result.getTicksPerSecond() > 0);
+	}
+
+	@Test
+	void testCallbackInputSeesState() {
+		Point start = fac.getPaddle(newState()).getCenter();
+		HeadlessRunner runner = new HeadlessRunner(newState(), 20,
+				(tick, state) -> fac.getPaddle(state).getCenter().getX() < start.getX() + 1000 ? 1 : 0);
+		runner.run(1000);
+		assertEquals(start.getX() + 1000, fac.getPaddle(runner.getState()).getCenter().getX());
+	}
+
+	@Test
+	void testInvalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new HeadlessRunner(null, 20, PaddleInput.NONE));
+		assertThrows(IllegalArgumentException.class, () -> new HeadlessRunner(newState(), 0, PaddleInput.NONE));
+		assertThrows(IllegalArgumentException.class, () -> new HeadlessRunner(newState(), 20, null));
+		assertThrows(IllegalArgumentException.class, () -> PaddleInput.scripted());
+		assertThrows(IllegalArgumentException.class, () -> PaddleInput.scripted(0, 2));
+		HeadlessRunner runner = new HeadlessRunner(newState(), 20, (tick, state) -> 3);
+		assertThrows(IllegalStateException.class, () -> runner.step());
+	}
+
+}
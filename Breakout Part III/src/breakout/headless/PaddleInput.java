@@ -0,0 +1,85 @@
+package breakout.headless;
+
+import breakout.BreakoutState;
+
+/**
+ * Decides in which direction the paddle moves during a tick of a headless run:
+ * -1 for left, 1 for right and 0 for standing still, like the arrow keys in the GUI.
+ */
+@FunctionalInterface
+public interface PaddleInput {
+
+	/**
+	 * A paddle that never moves.
+	 */
+	PaddleInput NONE = (tick, state) -> 0;
+
+	/**
+	 * Return the paddle direction for the tick with the given number (counting
+	 * from 0), given the state before that tick.
+	 *
+	 * @pre | tick >= 0
+	 * @pre | state != null
+	 * @inspects state
+	 * @post | -1 <= result && result <= 1
+	 */
+	int paddleDir(long tick, BreakoutState state);
+
+	/**
+	 * Return an input that plays back the given paddle directions, one per tick,
+	 * starting over when it reaches the end.
+	 *
+	 * @throws IllegalArgumentException | directions == null || directions.length == 0
+	 * @throws IllegalArgumentException | Arrays.stream(directions).anyMatch(d -> d < -1 || 1 < d)
+	 * @inspects directions
+	 */
+	static PaddleInput scripted(int... directions) {
+		if (directions == null || directions.length == 0)
+			throw new IllegalArgumentException();
+		int[] script = directions.clone();
+		for (int dir : script) {
+			if (dir < -1 || 1 < dir)
+				throw new IllegalArgumentException();
+		}
+		return (tick, state) -> script[(int) (tick % script.length)];
+	}
+
+	/**
+	 * Return an input that keeps the paddle under the first ball, so that a game
+	 * goes on for a while. It stands still when there are no balls.
+	 */
+	static PaddleInput followBall() {
+		return (tick, state) -> {
+			int paddleX = state.getPaddle().getCenter().getX();
+			int[] ballX = { paddleX };
+			state.forEachBall((index, x, y, diameter, vx, vy, eCharge, color) -> {
+				if (index == 0) {
+					ballX[0] = x;
+				}
+			});
+			return Integer.signum(ballX[0] - paddleX);
+		};
+	}
+
+	/**
+	 * Return an input that moves the paddle in a random direction for stretches
+	 * of `holdTicks` ticks. The direction for a tick only depends on the seed and
+	 * the tick number, so the input keeps no state, and the same seed always
+	 * plays the same game.
+	 *
+	 * @throws IllegalArgumentException | holdTicks < 1
+	 */
+	static PaddleInput random(long seed, int holdTicks) {
+		if (holdTicks < 1)
+			throw new IllegalArgumentException();
+		return (tick, state) -> {
+			// the finalizer of SplittableRandom, over the seed and the number of the stretch
+			long z = seed + (tick / holdTicks + 1) * 0x9e3779b97f4a7c15L;
+			z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+			z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+			z = z ^ (z >>> 31);
+			return (int) Long.remainderUnsigned(z, 3) - 1;
+		};
+	}
+
+}
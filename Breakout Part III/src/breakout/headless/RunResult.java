@@ -0,0 +1,66 @@
+package breakout.headless;
+
+/**
+ * The outcome of `HeadlessRunner.run`: how many ticks were simulated, how long
+ * that took in wall-clock time, and how the game stood afterwards.
+ *
+ * @immutable
+ */
+public class RunResult {
+
+	/**
+	 * How the game stood at the end of a run.
+	 */
+	public enum Outcome {
+		WON, DEAD, RUNNING
+	}
+
+	private final long ticks;
+	private final long elapsedNanos;
+	private final Outcome outcome;
+
+	/**
+	 * @throws IllegalArgumentException | ticks < 0 || elapsedNanos < 0
+	 * @throws IllegalArgumentException | outcome == null
+	 * @post | getTicks() == ticks
+	 * @post | getElapsedNanos() == elapsedNanos
+	 * @post | getOutcome() == outcome
+	 */
+	public RunResult(long ticks, long elapsedNanos, Outcome outcome) {
+		if (ticks < 0 || elapsedNanos < 0)
+			throw new IllegalArgumentException();
+		if (outcome == null)
+			throw new IllegalArgumentException();
+		this.ticks = ticks;
+		this.elapsedNanos = elapsedNanos;
+		this.outcome = outcome;
+	}
+
+	public long getTicks() {
+		return ticks;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	public Outcome getOutcome() {
+		return outcome;
+	}
+
+	/**
+	 * Return the simulation speed of the run, in ticks per wall-clock second.
+	 *
+	 * @post | getElapsedNanos() == 0 ? result == 0 : result == getTicks() * 1e9 / getElapsedNanos()
+	 */
+	public double getTicksPerSecond() {
+		return elapsedNanos == 0 ? 0 : ticks * 1e9 / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d ticks in %.1f ms (%.0f ticks/s), %s", ticks, elapsedNanos / 1e6,
+				getTicksPerSecond(), outcome);
+	}
+
+}
@@ -0,0 +1,32 @@
+package breakout.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * An alpha emitted by the paddle when a ball bounced on it.
+ */
+@Name(AlphaSpawnedEvent.NAME)
+@Label("Alpha Spawned")
+@Description("A ball hitting the paddle emitted a linked alpha")
+@Category({ "Breakout", "Simulation" })
+@StackTrace(false)
+public class AlphaSpawnedEvent extends Event {
+
+	public static final String NAME = "breakout.AlphaSpawned";
+
+	@Label("X")
+	public int x;
+
+	@Label("Y")
+	public int y;
+
+	@Label("Alphas")
+	@Description("The number of alphas after the spawn")
+	public int alphaCount;
+
+}
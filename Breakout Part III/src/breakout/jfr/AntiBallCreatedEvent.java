@@ -0,0 +1,32 @@
+package breakout.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A ball emitted by the paddle when an alpha bounced on it.
+ */
+@Name(AntiBallCreatedEvent.NAME)
+@Label("Anti-Ball Created")
+@Description("An alpha hitting the paddle emitted a linked ball")
+@Category({ "Breakout", "Simulation" })
+@StackTrace(false)
+public class AntiBallCreatedEvent extends Event {
+
+	public static final String NAME = "breakout.AntiBallCreated";
+
+	@Label("X")
+	public int x;
+
+	@Label("Y")
+	public int y;
+
+	@Label("Balls")
+	@Description("The number of balls after the creation")
+	public int ballCount;
+
+}
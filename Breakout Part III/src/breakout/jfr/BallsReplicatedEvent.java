@@ -0,0 +1,29 @@
+package breakout.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Balls added by a replicating paddle when a ball bounced on it.
+ */
+@Name(BallsReplicatedEvent.NAME)
+@Label("Balls Replicated")
+@Description("A replicating paddle added copies of a ball that hit it")
+@Category({ "Breakout", "Simulation" })
+@StackTrace(false)
+public class BallsReplicatedEvent extends Event {
+
+	public static final String NAME = "breakout.BallsReplicated";
+
+	@Label("Copies")
+	public int copies;
+
+	@Label("Balls")
+	@Description("The number of balls after the replication")
+	public int ballCount;
+
+}
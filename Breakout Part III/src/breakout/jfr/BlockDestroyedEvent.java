@@ -0,0 +1,34 @@
+package breakout.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A block that was destroyed by a ball.
+ */
+@Name(BlockDestroyedEvent.NAME)
+@Label("Block Destroyed")
+@Description("A ball destroyed a block")
+@Category({ "Breakout", "Simulation" })
+@StackTrace(false)
+public class BlockDestroyedEvent extends Event {
+
+	public static final String NAME = "breakout.BlockDestroyed";
+
+	@Label("Block Type")
+	public String blockType;
+
+	@Label("Left")
+	public int left;
+
+	@Label("Top")
+	public int top;
+
+	@Label("Remaining Blocks")
+	public int remainingBlocks;
+
+}
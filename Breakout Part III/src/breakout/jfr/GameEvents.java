@@ -0,0 +1,106 @@
+package breakout.jfr;
+
+import breakout.BlockState;
+import jdk.jfr.EventType;
+
+/**
+ * Emits the Flight Recorder events of the game simulation.
+ *
+ * Each method first asks JFR whether its event is enabled in a running
+ * recording, which is a field read; only then is an event object created and
+ * filled in. Outside a recording the simulation therefore does not allocate
+ * for these events.
+ *
+ * Record them with, for example,
+ * `java -XX:StartFlightRecording:settings=breakout.jfc,filename=game.jfr ...`
+ * using the configuration next to the sources.
+ */
+public final class GameEvents {
+
+	private static final EventType TICK = EventType.getEventType(GameTickEvent.class);
+	private static final EventType BLOCK_DESTROYED = EventType.getEventType(BlockDestroyedEvent.class);
+	private static final EventType BALLS_REPLICATED = EventType.getEventType(BallsReplicatedEvent.class);
+	private static final EventType ALPHA_SPAWNED = EventType.getEventType(AlphaSpawnedEvent.class);
+	private static final EventType ANTI_BALL_CREATED = EventType.getEventType(AntiBallCreatedEvent.class);
+
+	private GameEvents() {
+	}
+
+	/**
+	 * Return a started tick event, to be passed to `endTick` when the tick is
+	 * done, or null if tick events are not being recorded.
+	 */
+	public static GameTickEvent beginTick() {
+		if (!TICK.isEnabled()) {
+			return null;
+		}
+		GameTickEvent event = new GameTickEvent();
+		event.begin();
+		return event;
+	}
+
+	/**
+	 * End the given tick event and commit it, unless it is shorter than the
+	 * threshold of the recording.
+	 *
+	 * @pre | event != null
+	 */
+	public static void endTick(GameTickEvent event, int elapsedTime, int ballCount, int alphaCount, int blockCount) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.elapsedTime = elapsedTime;
+			event.ballCount = ballCount;
+			event.alphaCount = alphaCount;
+			event.blockCount = blockCount;
+			event.commit();
+		}
+	}
+
+	/**
+	 * @pre | block != null
+	 */
+	public static void blockDestroyed(BlockState block, int remainingBlocks) {
+		if (!BLOCK_DESTROYED.isEnabled()) {
+			return;
+		}
+		BlockDestroyedEvent event = new BlockDestroyedEvent();
+		event.blockType = block.getClass().getSimpleName();
+		event.left = block.getLocation().getTopLeft().getX();
+		event.top = block.getLocation().getTopLeft().getY();
+		event.remainingBlocks = remainingBlocks;
+		event.commit();
+	}
+
+	public static void ballsReplicated(int copies, int ballCount) {
+		if (!BALLS_REPLICATED.isEnabled()) {
+			return;
+		}
+		BallsReplicatedEvent event = new BallsReplicatedEvent();
+		event.copies = copies;
+		event.ballCount = ballCount;
+		event.commit();
+	}
+
+	public static void alphaSpawned(int x, int y, int alphaCount) {
+		if (!ALPHA_SPAWNED.isEnabled()) {
+			return;
+		}
+		AlphaSpawnedEvent event = new AlphaSpawnedEvent();
+		event.x = x;
+		event.y = y;
+		event.alphaCount = alphaCount;
+		event.commit();
+	}
+
+	public static void antiBallCreated(int x, int y, int ballCount) {
+		if (!ANTI_BALL_CREATED.isEnabled()) {
+			return;
+		}
+		AntiBallCreatedEvent event = new AntiBallCreatedEvent();
+		event.x = x;
+		event.y = y;
+		event.ballCount = ballCount;
+		event.commit();
+	}
+
+}
@@ -0,0 +1,62 @@
+package breakout.jfr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import breakout.BreakoutFacade;
+import breakout.BreakoutState;
+import breakout.gui.BreakoutApplication;
+import breakout.headless.HeadlessRunner;
+import breakout.headless.PaddleInput;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class GameEventsTest {
+
+	static final BreakoutFacade fac = new BreakoutFacade();
+
+	static long count(List<RecordedEvent> events, String name) {
+		return events.stream().filter(e -> e.getEventType().getName().equals(name)).count();
+	}
+
+	@Test
+	void testRecordedGame() throws IOException {
+		BreakoutState state = fac.createStateFromDescription(BreakoutApplication.initMap2);
+		int blocksBefore = fac.getBlocksLen(state);
+		HeadlessRunner runner = new HeadlessRunner(state, 20, PaddleInput.followBall());
+		Path file = Files.createTempFile("breakout", ".jfr");
+		List<RecordedEvent> events;
+		try (Recording recording = new Recording()) {
+			recording.enable(GameTickEvent.NAME).withThreshold(Duration.ZERO);
+			recording.enable(BlockDestroyedEvent.NAME);
+			recording.enable(BallsReplicatedEvent.NAME);
+			recording.enable(AlphaSpawnedEvent.NAME);
+			recording.enable(AntiBallCreatedEvent.NAME);
+			recording.start();
+			runner.run(3000);
+			recording.stop();
+			recording.dump(file);
+			events = RecordingFile.readAllEvents(file);
+		} finally {
+			Files.delete(file);
+		}
+
+		assertEquals(runner.getTicks(), count(events, GameTickEvent.NAME));
+		assertEquals(blocksBefore - fac.getBlocksLen(state), count(events, BlockDestroyedEvent.NAME));
+		assertTrue(count(events, AlphaSpawnedEvent.NAME) > 0);
+		RecordedEvent last = events.stream().filter(e -> e.getEventType().getName().equals(GameTickEvent.NAME))
+				.reduce((a, b) -> b.getEndTime().isBefore(a.getEndTime()) ? a : b).get();
+		assertEquals(20, last.getDuration("elapsedTime").toMillis());
+		assertEquals(fac.getBlocksLen(state), last.getInt("blockCount"));
+		assertEquals(fac.getBallsLen(state), last.getInt("ballCount"));
+	}
+
+}
@@ -0,0 +1,37 @@
+package breakout.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A call of `BreakoutState.tick`, with the number of objects it left behind.
+ */
+@Name(GameTickEvent.NAME)
+@Label("Game Tick")
+@Description("One tick of the game simulation")
+@Category({ "Breakout", "Simulation" })
+@StackTrace(false)
+public class GameTickEvent extends Event {
+
+	public static final String NAME = "breakout.GameTick";
+
+	@Label("Elapsed Time")
+	@Description("The game time simulated by the tick")
+	@Timespan(Timespan.MILLISECONDS)
+	public long elapsedTime;
+
+	@Label("Balls")
+	public int ballCount;
+
+	@Label("Alphas")
+	public int alphaCount;
+
+	@Label("Blocks")
+	public int blockCount;
+
+}
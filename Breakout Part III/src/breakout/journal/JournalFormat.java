@@ -0,0 +1,66 @@
+package breakout.journal;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import breakout.utils.Varints;
+
+/**
+ * The layout of a journal file, shared by `JournalWriter` and `JournalReplayer`.
+ *
+ * A journal starts with a header: the magic number `MAGIC` and the format
+ * `VERSION` (one byte); the checksum interval, the ordinal of the collision
+ * mode and the maximum number of alphas of the state, as varints; the map
+ * description, as a varint byte count and UTF-8 bytes; and the checksum of the
+ * state when recording started (eight bytes).
+ *
+ * Then come the records, one per call of `tick`, `movePaddleLeft` or
+ * `movePaddleRight`, in the order of the calls, plus a checksum record after
+ * every `checksumInterval` ticks. A record is an op byte, followed by a
+ * zigzag varint for a paddle direction other than -1, 0 or 1, then a zigzag
+ * varint for the elapsed time unless the `SAME_TIME` bit of the op says it
+ * equals that of the previous record, or the eight bytes of a checksum.
+ * In a game with a fixed time step almost every record is a single byte.
+ *
+ * There is no trailer: a journal may be cut off anywhere, for instance when
+ * the game was killed, and a partial last record is ignored.
+ */
+final class JournalFormat {
+
+	static final int MAGIC = 0x42524B4A; // "BRKJ"
+	static final byte VERSION = 1;
+
+	// tick with paddle direction -1, 0 or 1 (OP_TICK + direction + 1)
+	static final int OP_TICK = 0;
+	// tick with any other paddle direction, which follows as a varint
+	static final int OP_TICK_DIR = 3;
+	static final int OP_LEFT = 4;
+	static final int OP_RIGHT = 5;
+	static final int OP_CHECKSUM = 6;
+	static final int SAME_TIME = 0x80;
+
+	/**
+	 * The largest number of bytes a record takes.
+	 */
+	static final int MAX_RECORD = 1 + 5 + 5;
+
+	private JournalFormat() {
+	}
+
+	/**
+	 * Read a varint, or return `Long.MIN_VALUE` if the buffer ends before it does.
+	 * The position of the buffer is only moved past a complete varint.
+	 */
+	static long getVarint(ByteBuffer buffer) {
+		int start = buffer.position();
+		try {
+			return Varints.getVarint(buffer);
+		} catch (BufferUnderflowException e) {
+			buffer.position(start);
+			return Long.MIN_VALUE;
+		} catch (IllegalArgumentException e) {
+			throw new IllegalStateException("malformed varint in journal", e);
+		}
+	}
+
+}
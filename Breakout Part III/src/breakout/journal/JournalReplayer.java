@@ -0,0 +1,207 @@
+package breakout.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import breakout.BreakoutState;
+import breakout.CollisionMode;
+import breakout.GameMap;
+import breakout.utils.Varints;
+
+/**
+ * Plays a journal written by `JournalWriter` again, as fast as possible and
+ * without a display: it creates a state from the recorded map description and
+ * settings, makes the recorded calls on it in order, and compares the
+ * checksum of the state with every checksum in the journal.
+ *
+ * Since the simulation is deterministic, a journal of a game replays to the
+ * same states, so a mismatch means the simulation changed since the journal
+ * was recorded, or the journal was damaged.
+ */
+public final class JournalReplayer {
+
+	private JournalReplayer() {
+	}
+
+	/**
+	 * Replay the journal read from `channel`, up to its end or its first checksum
+	 * mismatch. The channel is not closed.
+	 *
+	 * @throws IllegalArgumentException | channel == null
+	 * @throws IllegalStateException if the channel does not hold a journal of a known version
+	 * @throws UncheckedIOException if reading fails
+	 */
+	public static ReplayResult replay(ReadableByteChannel channel) {
+		if (channel == null)
+			throw new IllegalArgumentException();
+		long start = System.nanoTime();
+		Input in = new Input(channel);
+		if (!in.ensure(5) || in.buffer.getInt() != JournalFormat.MAGIC)
+			throw new IllegalStateException("not a journal");
+		byte version = in.buffer.get();
+		if (version != JournalFormat.VERSION)
+			throw new IllegalStateException("unknown journal version " + version);
+		in.ensure(4 * 5);
+		int checksumInterval = (int) in.varint();
+		int collisionMode = (int) in.varint();
+		int maxAlphaCount = (int) in.varint();
+		byte[] text = in.bytes((int) in.varint());
+		if (!in.ensure(8))
+			throw new IllegalStateException("journal header is cut off");
+		long initialChecksum = in.buffer.getLong();
+
+		BreakoutState state = GameMap.createStateFromDescription(new String(text, StandardCharsets.UTF_8));
+		state.setCollisionMode(CollisionMode.values()[collisionMode]);
+		state.setMaxAlphaCount(maxAlphaCount);
+		if (state.checksum() != initialChecksum) {
+			return new ReplayResult(state, 0, 0, 0, System.nanoTime() - start);
+		}
+
+		long ticks = 0;
+		long checksums = 1;
+		int lastTime = -1;
+		ByteBuffer buffer = in.buffer;
+		while (true) {
+			in.ensure(JournalFormat.MAX_RECORD + 9);
+			if (!buffer.hasRemaining()) {
+				break;
+			}
+			int recordStart = buffer.position();
+			int op = buffer.get() & 0xFF;
+			int kind = op & ~JournalFormat.SAME_TIME;
+			if (kind == JournalFormat.OP_CHECKSUM) {
+				if (buffer.remaining() < 8) {
+					break;
+				}
+				if (buffer.getLong() != state.checksum()) {
+					return new ReplayResult(state, ticks, checksums, ticks, System.nanoTime() - start);
+				}
+				checksums++;
+				continue;
+			}
+			int paddleDir = 0;
+			if (kind == JournalFormat.OP_TICK_DIR) {
+				long dir = JournalFormat.getVarint(buffer);
+				if (dir == Long.MIN_VALUE) {
+					break;
+				}
+				paddleDir = Varints.unzigzag((int) dir);
+			} else if (kind < JournalFormat.OP_TICK_DIR) {
+				paddleDir = kind - JournalFormat.OP_TICK - 1;
+			} else if (kind != JournalFormat.OP_LEFT && kind != JournalFormat.OP_RIGHT) {
+				throw new IllegalStateException("unknown journal record " + op + " after tick " + ticks);
+			}
+			int elapsedTime = lastTime;
+			if ((op & JournalFormat.SAME_TIME) == 0) {
+				long time = JournalFormat.getVarint(buffer);
+				if (time == Long.MIN_VALUE) {
+					// a partial last record
+					buffer.position(recordStart);
+					break;
+				}
+				elapsedTime = Varints.unzigzag((int) time);
+			}
+			lastTime = elapsedTime;
+
+			if (kind == JournalFormat.OP_LEFT) {
+				state.movePaddleLeft(elapsedTime);
+			} else if (kind == JournalFormat.OP_RIGHT) {
+				state.movePaddleRight(elapsedTime);
+			} else {
+				state.tick(paddleDir, elapsedTime);
+				ticks++;
+			}
+		}
+		return new ReplayResult(state, ticks, checksums, -1, System.nanoTime() - start);
+	}
+
+	/**
+	 * Replay the journal in the file at `path`.
+	 *
+	 * @throws IllegalArgumentException | path == null
+	 * @throws IllegalStateException if the file does not hold a journal of a known version
+	 * @throws IOException if the file cannot be read
+	 */
+	public static ReplayResult replay(Path path) throws IOException {
+		if (path == null)
+			throw new IllegalArgumentException();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return replay(channel);
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	// A buffer that is refilled from the channel when a record may not fit in what is left.
+	private static class Input {
+
+		final ReadableByteChannel channel;
+		final ByteBuffer buffer = ByteBuffer.allocate(JournalWriter.BUFFER_SIZE);
+		boolean eof;
+
+		Input(ReadableByteChannel channel) {
+			this.channel = channel;
+			buffer.flip();
+		}
+
+		// Read more until at least `bytes` bytes are left or the channel ends, and return whether they are.
+		boolean ensure(int bytes) {
+			while (buffer.remaining() < bytes && !eof) {
+				buffer.compact();
+				try {
+					eof = channel.read(buffer) < 0;
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				} finally {
+					buffer.flip();
+				}
+			}
+			return buffer.remaining() >= bytes;
+		}
+
+		long varint() {
+			long value = JournalFormat.getVarint(buffer);
+			if (value == Long.MIN_VALUE)
+				throw new IllegalStateException("journal header is cut off");
+			return value;
+		}
+
+		byte[] bytes(int count) {
+			byte[] result = new byte[count];
+			int done = 0;
+			while (done < count) {
+				if (!ensure(1))
+					throw new IllegalStateException("journal header is cut off");
+				int n = Math.min(count - done, buffer.remaining());
+				buffer.get(result, done, n);
+				done += n;
+			}
+			return result;
+		}
+
+	}
+
+	/**
+	 * Replay the journal in the given file and print how it went.
+	 *
+	 * Usage: JournalReplayer JOURNAL
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 1) {
+			System.err.println("Usage: JournalReplayer JOURNAL");
+			System.exit(2);
+		}
+		ReplayResult result = replay(Path.of(args[0]));
+		System.out.println(result);
+		if (!result.isConsistent()) {
+			System.exit(1);
+		}
+	}
+
+}
@@ -0,0 +1,196 @@
+package breakout.journal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import breakout.BreakoutFacade;
+import breakout.BreakoutState;
+import breakout.CollisionMode;
+import breakout.gui.BreakoutApplication;
+import breakout.headless.HeadlessRunner;
+import breakout.headless.PaddleInput;
+
+class JournalTest {
+
+	static final BreakoutFacade fac = new BreakoutFacade();
+
+	// Record 3000 ticks of the second map and return the journal, leaving the final state in `played[0]`.
+	static byte[] record(int checksumInterval, BreakoutState[] played) throws IOException {
+		BreakoutState state = fac.createStateFromDescription(BreakoutApplication.initMap2);
+		fac.setMaxAlphaCount(state, BreakoutApplication.MAX_ALPHAS);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (JournalWriter journal = new JournalWriter(Channels.newChannel(bytes), BreakoutApplication.initMap2,
+				state, checksumInterval)) {
+			fac.setJournal(state, journal);
+			assertSame(journal, fac.getJournal(state));
+			long ticks = new HeadlessRunner(state, 20, PaddleInput.followBall()).run(3000).getTicks();
+			assertEquals(ticks, journal.getTicks());
+		}
+		played[0] = state;
+		return bytes.toByteArray();
+	}
+
+	static ReplayResult replay(byte[] journal) {
+		return JournalReplayer.replay(Channels.newChannel(new ByteArrayInputStream(journal)));
+	}
+
+	@Test
+	void testReplayReproducesGame() throws IOException {
+		BreakoutState[] played = new BreakoutState[1];
+		byte[] journal = record(10, played);
+		ReplayResult result = replay(journal);
+
+		assertTrue(result.isConsistent(), result.toString());
+		assertEquals(result.getTicks() / 10 + 1, result.getChecksums());
+		assertEquals(fac.checksum(played[0]), fac.checksum(result.getState()));
+		assertEquals(BreakoutApplication.MAX_ALPHAS, fac.getMaxAlphaCount(result.getState()));
+		assertEquals(fac.getBlocksLen(played[0]), fac.getBlocksLen(result.getState()));
+		// a header, then a byte per tick and per paddle move, plus the checksums
+		assertTrue(journal.length < 200 + 2 * result.getTicks() + 9 * result.getChecksums(),
+				journal.length + " bytes");
+	}
+
+	@Test
+	void testReplayDetectsDivergence() throws IOException {
+		byte[] journal = record(10, new BreakoutState[1]);
+		// move the paddle the other way in the 500th paddle move
+		int header = headerLength(journal);
+		int seen = 0;
+		int at = -1;
+		for (int i = header; i < journal.length; i++) {
+			int op = journal[i] & 0xFF;
+			int kind = op & ~JournalFormat.SAME_TIME;
+			if ((kind == JournalFormat.OP_LEFT || kind == JournalFormat.OP_RIGHT) && ++seen == 500) {
+				at = i;
+				break;
+			}
+			if (kind == JournalFormat.OP_CHECKSUM) {
+				i += 8;
+			} else if ((op & JournalFormat.SAME_TIME) == 0) {
+				i++;
+			}
+		}
+		assertTrue(at > 0);
+		journal[at] ^= JournalFormat.OP_LEFT ^ JournalFormat.OP_RIGHT;
+
+		ReplayResult result = replay(journal);
+		assertFalse(result.isConsistent());
+		assertTrue(result.getMismatchTick() > 0);
+		assertEquals(result.getMismatchTick(), result.getTicks());
+	}
+
+	// The magic number and version, four varints, the description and the initial checksum.
+	static int headerLength(byte[] journal) {
+		int varintBytes = 0;
+		for (int i = 5, n = 0; n < 4; i++, varintBytes++) {
+			if ((journal[i] & 0x80) == 0) {
+				n++;
+			}
+		}
+		return 5 + varintBytes + BreakoutApplication.initMap2.length() + 8;
+	}
+
+	@Test
+	void testCutOffJournalReplaysWhatIsThere() throws IOException {
+		byte[] journal = record(25, new BreakoutState[1]);
+		ReplayResult full = replay(journal);
+		ReplayResult half = replay(Arrays.copyOf(journal, journal.length / 2));
+		assertTrue(half.isConsistent());
+		assertTrue(0 < half.getTicks() && half.getTicks() < full.getTicks());
+
+		assertThrows(IllegalStateException.class, () -> replay(new byte[] { 1, 2, 3, 4, 5 }));
+		assertThrows(IllegalStateException.class, () -> replay(Arrays.copyOf(journal, 20)));
+	}
+
+	@Test
+	void testOtherDirectionsAndTimes(@TempDir Path dir) throws IOException {
+		BreakoutState state = fac.createStateFromDescription(BreakoutApplication.initMap);
+		fac.setCollisionMode(state, CollisionMode.SWEPT);
+		Path file = dir.resolve("game.journal");
+		try (JournalWriter journal = JournalWriter.create(file, BreakoutApplication.initMap, state, 3)) {
+			fac.setJournal(state, journal);
+			for (int i = 0; i < 400; i++) {
+				int time = 5 + i % 7 * 7;
+				if (i % 3 == 0) {
+					fac.movePaddleLeft(state, time);
+				} else {
+					fac.movePaddleRight(state, time);
+				}
+				fac.tick(state, i % 5 - 2, time);
+			}
+		}
+		ReplayResult result = JournalReplayer.replay(file);
+		assertTrue(result.isConsistent(), result.toString());
+		assertEquals(CollisionMode.SWEPT, fac.getCollisionMode(result.getState()));
+		assertEquals(fac.checksum(state), fac.checksum(result.getState()));
+
+		Files.write(file, new byte[] { 1 });
+		assertThrows(IllegalStateException.class, () -> JournalReplayer.replay(file));
+	}
+
+	@Test
+	void testChecksumFollowsState() {
+		BreakoutState a = fac.createStateFromDescription(BreakoutApplication.initMap2);
+		BreakoutState b = fac.createStateFromDescription(BreakoutApplication.initMap2);
+		assertEquals(fac.checksum(a), fac.checksum(b));
+		fac.tick(a, 0, 20);
+		assertNotEquals(fac.checksum(a), fac.checksum(b));
+		fac.tick(b, 0, 20);
+		assertEquals(fac.checksum(a), fac.checksum(b));
+		fac.movePaddleLeft(b, 20);
+		assertNotEquals(fac.checksum(a), fac.checksum(b));
+	}
+
+	// A channel that takes everything until `failing` is set, and then fails every write.
+	static class FailingChannel implements WritableByteChannel {
+
+		boolean failing;
+		boolean open = true;
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			if (failing)
+				throw new IOException("disk full");
+			int count = src.remaining();
+			src.position(src.limit());
+			return count;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return open;
+		}
+
+		@Override
+		public void close() {
+			open = false;
+		}
+
+	}
+
+	@Test
+	void testCloseReportsFailedFlush() {
+		BreakoutState state = fac.createStateFromDescription(BreakoutApplication.initMap2);
+		FailingChannel channel = new FailingChannel();
+		JournalWriter journal = new JournalWriter(channel, BreakoutApplication.initMap2, state, 10);
+		fac.setJournal(state, journal);
+		fac.tick(state, 0, 20);
+		channel.failing = true;
+		IOException e = assertThrows(IOException.class, journal::close);
+		assertEquals("disk full", e.getMessage());
+		assertFalse(channel.isOpen());
+	}
+
+}
@@ -0,0 +1,245 @@
+package breakout.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import breakout.BreakoutState;
+import breakout.utils.Varints;
+
+/**
+ * Records the inputs of a game, so that `JournalReplayer` can play it again
+ * exactly: the map description and settings it started from, and then the
+ * paddle direction and elapsed time of every call of `tick`, `movePaddleLeft`
+ * and `movePaddleRight` on its state, with a checksum of the state every
+ * `getChecksumInterval()` ticks. See `JournalFormat` for the layout.
+ *
+ * A state reports to a writer that was attached to it with
+ * `BreakoutState.setJournal`. Records go into a buffer in memory, which is
+ * only written out when it is full, on `flush` and on `close`, so recording
+ * costs a tick a few stores and the game loop never waits for the disk apart
+ * from the rare write of a full buffer. Like `TickMetrics`, a writer is not
+ * thread-safe: flush and close it on the thread that ticks the state, or once
+ * that thread has stopped.
+ *
+ * Write errors are thrown as `UncheckedIOException` from the call that writes
+ * out the buffer.
+ *
+ * @invar | getChecksumInterval() >= 1
+ * @invar | getTicks() >= 0
+ */
+public class JournalWriter implements Closeable {
+
+	/**
+	 * The checksum interval used when none is given: every second at the default
+	 * time step.
+	 */
+	public static final int DEFAULT_CHECKSUM_INTERVAL = 50;
+	static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * @invar | channel != null
+	 * @invar | buffer != null
+	 * @invar | checksumInterval >= 1
+	 * @invar | ticks >= 0
+	 * @representationObject
+	 */
+	private final WritableByteChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private final int checksumInterval;
+	private long ticks;
+	private int lastTime = -1;
+	private boolean closed;
+
+	/**
+	 * Construct a writer that records the game of `state`, which was created
+	 * from the given map description, to `channel`, and write the header.
+	 * The state is not attached to the writer; see `BreakoutState.setJournal`.
+	 *
+	 * @throws IllegalArgumentException | channel == null || description == null || state == null
+	 * @throws IllegalArgumentException | checksumInterval < 1
+	 * @throws UncheckedIOException if the header cannot be written
+	 * @inspects state
+	 * @post | getChecksumInterval() == checksumInterval
+	 * @post | getTicks() == 0
+	 */
+	public JournalWriter(WritableByteChannel channel, String description, BreakoutState state, int checksumInterval) {
+		if (channel == null || description == null || state == null)
+			throw new IllegalArgumentException();
+		if (checksumInterval < 1)
+			throw new IllegalArgumentException();
+		this.channel = channel;
+		this.checksumInterval = checksumInterval;
+
+		byte[] text = description.getBytes(StandardCharsets.UTF_8);
+		ByteBuffer header = ByteBuffer.allocate(32 + text.length);
+		header.putInt(JournalFormat.MAGIC);
+		header.put(JournalFormat.VERSION);
+		Varints.putVarint(header, checksumInterval);
+		Varints.putVarint(header, state.getCollisionMode().ordinal());
+		Varints.putVarint(header, state.getMaxAlphaCount());
+		Varints.putVarint(header, text.length);
+		header.put(text);
+		header.putLong(state.checksum());
+		header.flip();
+		write(header);
+	}
+
+	/**
+	 * Return a writer that records the game of `state` to a new file at `path`,
+	 * replacing any file that is there.
+	 *
+	 * @throws IllegalArgumentException | path == null || description == null || state == null
+	 * @throws IllegalArgumentException | checksumInterval < 1
+	 * @throws IOException if the file cannot be created
+	 * @inspects state
+	 */
+	public static JournalWriter create(Path path, String description, BreakoutState state, int checksumInterval)
+			throws IOException {
+		if (path == null || description == null || state == null)
+			throw new IllegalArgumentException();
+		if (checksumInterval < 1)
+			throw new IllegalArgumentException();
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			return new JournalWriter(channel, description, state, checksumInterval);
+		} catch (RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	public int getChecksumInterval() {
+		return checksumInterval;
+	}
+
+	/**
+	 * Return the number of ticks recorded so far.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Record a call of `movePaddleLeft` (`dir == -1`) or `movePaddleRight`
+	 * (`dir == 1`) with the given elapsed time. Does nothing once this writer is
+	 * closed.
+	 *
+	 * @pre | dir == -1 || dir == 1
+	 * @mutates this
+	 */
+	public void paddleMoved(int dir, int elapsedTime) {
+		if (closed) {
+			return;
+		}
+		reserve(JournalFormat.MAX_RECORD);
+		putTimed(dir < 0 ? JournalFormat.OP_LEFT : JournalFormat.OP_RIGHT, elapsedTime);
+	}
+
+	/**
+	 * Record a call of `state.tick(paddleDir, elapsedTime)`, made just now, and a
+	 * checksum of `state` if this was the last tick of a checksum interval. Does
+	 * nothing once this writer is closed.
+	 *
+	 * @pre | state != null
+	 * @inspects state
+	 * @mutates this
+	 */
+	public void ticked(BreakoutState state, int paddleDir, int elapsedTime) {
+		if (closed) {
+			return;
+		}
+		reserve(JournalFormat.MAX_RECORD + 9);
+		if (-1 <= paddleDir && paddleDir <= 1) {
+			putTimed(JournalFormat.OP_TICK + paddleDir + 1, elapsedTime);
+		} else {
+			boolean sameTime = elapsedTime == lastTime;
+			buffer.put((byte) (JournalFormat.OP_TICK_DIR | (sameTime ? JournalFormat.SAME_TIME : 0)));
+			Varints.putZigzag(buffer, paddleDir);
+			if (!sameTime) {
+				Varints.putZigzag(buffer, elapsedTime);
+				lastTime = elapsedTime;
+			}
+		}
+		ticks++;
+		if (ticks % checksumInterval == 0) {
+			buffer.put((byte) JournalFormat.OP_CHECKSUM);
+			buffer.putLong(state.checksum());
+		}
+	}
+
+	private void putTimed(int op, int elapsedTime) {
+		if (elapsedTime == lastTime) {
+			buffer.put((byte) (op | JournalFormat.SAME_TIME));
+		} else {
+			buffer.put((byte) op);
+			Varints.putZigzag(buffer, elapsedTime);
+			lastTime = elapsedTime;
+		}
+	}
+
+	// Write out the buffer if fewer than `bytes` bytes are left in it.
+	private void reserve(int bytes) {
+		if (buffer.remaining() < bytes) {
+			buffer.flip();
+			write(buffer);
+			buffer.clear();
+		}
+	}
+
+	private void write(ByteBuffer bytes) {
+		try {
+			while (bytes.hasRemaining()) {
+				channel.write(bytes);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Write out everything recorded so far.
+	 *
+	 * @throws UncheckedIOException if the records cannot be written
+	 * @mutates this
+	 */
+	public void flush() {
+		if (closed) {
+			return;
+		}
+		buffer.flip();
+		write(buffer);
+		buffer.clear();
+	}
+
+	/**
+	 * Write out everything recorded so far and close the channel. Later records
+	 * are dropped. The channel is closed even if writing fails.
+	 *
+	 * @throws IOException if the records cannot be written or the channel cannot
+	 *         be closed
+	 * @mutates this
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			flush();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			closed = true;
+			channel.close();
+		}
+	}
+
+}
@@ -0,0 +1,112 @@
+package breakout.journal;
+
+import breakout.BreakoutState;
+
+/**
+ * The outcome of `JournalReplayer.replay`: the state the journal was played
+ * on, how much of it was played, how many checksums were verified, and at
+ * which tick the replay first disagreed with the recording, if it did.
+ *
+ * @invar | getState() != null
+ * @invar | getTicks() >= 0 && getChecksums() >= 0 && getElapsedNanos() >= 0
+ * @invar | getMismatchTick() >= -1
+ */
+public class ReplayResult {
+
+	/**
+	 * @invar | state != null
+	 * @invar | ticks >= 0 && checksums >= 0 && elapsedNanos >= 0
+	 * @invar | mismatchTick >= -1
+	 */
+	private final BreakoutState state;
+	private final long ticks;
+	private final long checksums;
+	private final long mismatchTick;
+	private final long elapsedNanos;
+
+	/**
+	 * @throws IllegalArgumentException | state == null
+	 * @throws IllegalArgumentException | ticks < 0 || checksums < 0 || elapsedNanos < 0
+	 * @throws IllegalArgumentException | mismatchTick < -1
+	 * @post | getState() == state
+	 * @post | getTicks() == ticks
+	 * @post | getChecksums() == checksums
+	 * @post | getMismatchTick() == mismatchTick
+	 * @post | getElapsedNanos() == elapsedNanos
+	 */
+	public ReplayResult(BreakoutState state, long ticks, long checksums, long mismatchTick, long elapsedNanos) {
+		if (state == null)
+			throw new IllegalArgumentException();
+		if (ticks < 0 || checksums < 0 || elapsedNanos < 0)
+			throw new IllegalArgumentException();
+		if (mismatchTick < -1)
+			throw new IllegalArgumentException();
+		this.state = state;
+		this.ticks = ticks;
+		this.checksums = checksums;
+		this.mismatchTick = mismatchTick;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * Return the state the journal was played on, as it was when the replay
+	 * ended.
+	 */
+	public BreakoutState getState() {
+		return state;
+	}
+
+	/**
+	 * Return the number of ticks replayed.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Return the number of checksums that matched, counting the one of the
+	 * initial state.
+	 */
+	public long getChecksums() {
+		return checksums;
+	}
+
+	/**
+	 * Return the number of ticks after which the checksum of the replayed state
+	 * first differed from the recorded one, 0 if the map description did not give
+	 * the recorded initial state, or -1 if all checksums matched. The replay stops
+	 * at the first mismatch.
+	 */
+	public long getMismatchTick() {
+		return mismatchTick;
+	}
+
+	/**
+	 * @post | result == (getMismatchTick() == -1)
+	 */
+	public boolean isConsistent() {
+		return mismatchTick == -1;
+	}
+
+	/**
+	 * Return the wall-clock time the replay took, in ns.
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @post | getElapsedNanos() == 0 ? result == 0 : result == getTicks() * 1e9 / getElapsedNanos()
+	 */
+	public double getTicksPerSecond() {
+		return elapsedNanos == 0 ? 0 : ticks * 1e9 / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d ticks in %.1f ms (%.0f ticks/s), %d checksums, %s", ticks, elapsedNanos / 1e6,
+				getTicksPerSecond(), checksums,
+				isConsistent() ? "consistent" : "diverged after tick " + mismatchTick);
+	}
+
+}
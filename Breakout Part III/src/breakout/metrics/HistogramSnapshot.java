@@ -0,0 +1,110 @@
+package breakout.metrics;
+
+import java.util.Arrays;
+
+/**
+ * The distribution of the values in the window of a `RollingHistogram` at the
+ * time the snapshot was taken.
+ *
+ * @immutable
+ * @invar | getCount() >= 0
+ * @invar | getCount() == 0 || getMin() <= getMax()
+ */
+public class HistogramSnapshot {
+
+	/**
+	 * The number of power-of-two buckets in `getBucketCounts()`.
+	 */
+	public static final int BUCKETS = 64;
+
+	/**
+	 * @invar | sorted != null
+	 * @invar | IntStream.range(1, sorted.length).allMatch(i -> sorted[i - 1] <= sorted[i])
+	 * @representationObject
+	 */
+	private final long[] sorted;
+
+	/**
+	 * @throws IllegalArgumentException | values == null
+	 * @post | getCount() == values.length
+	 */
+	public HistogramSnapshot(long[] values) {
+		if (values == null)
+			throw new IllegalArgumentException();
+		this.sorted = values.clone();
+		Arrays.sort(this.sorted);
+	}
+
+	public int getCount() {
+		return sorted.length;
+	}
+
+	/**
+	 * @post | getCount() > 0 || result == 0
+	 */
+	public long getMin() {
+		return sorted.length == 0 ? 0 : sorted[0];
+	}
+
+	/**
+	 * @post | getCount() > 0 || result == 0
+	 */
+	public long getMax() {
+		return sorted.length == 0 ? 0 : sorted[sorted.length - 1];
+	}
+
+	/**
+	 * @post | getCount() > 0 || result == 0
+	 */
+	public double getMean() {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		double sum = 0;
+		for (long value : sorted) {
+			sum += value;
+		}
+		return sum / sorted.length;
+	}
+
+	/**
+	 * Return the smallest value such that at least `percentile` percent of the
+	 * values are not larger (nearest-rank method), or 0 if there are no values.
+	 *
+	 * @throws IllegalArgumentException | percentile < 0 || 100 < percentile
+	 * @post | getCount() > 0 || result == 0
+	 * @post | getCount() == 0 || getMin() <= result && result <= getMax()
+	 */
+	public long getPercentile(double percentile) {
+		if (percentile < 0 || 100 < percentile)
+			throw new IllegalArgumentException();
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+		return sorted[Math.max(0, rank - 1)];
+	}
+
+	/**
+	 * Return how many values fall in each power-of-two bucket: bucket 0 holds the
+	 * values up to 1, and bucket `k > 0` the values from `2^k` up to `2^(k+1) - 1`.
+	 *
+	 * @creates result
+	 * @post | result.length == BUCKETS
+	 * @post | Arrays.stream(result).sum() == getCount()
+	 */
+	public long[] getBucketCounts() {
+		long[] buckets = new long[BUCKETS];
+		for (long value : sorted) {
+			buckets[value <= 1 ? 0 : 63 - Long.numberOfLeadingZeros(value)]++;
+		}
+		return buckets;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("n=%d min=%d p50=%d p90=%d p99=%d max=%d mean=%.1f", getCount(), getMin(),
+				getPercentile(50), getPercentile(90), getPercentile(99), getMax(), getMean());
+	}
+
+}
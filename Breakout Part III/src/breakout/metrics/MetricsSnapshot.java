@@ -0,0 +1,114 @@
+package breakout.metrics;
+
+/**
+ * The metrics recorded by a `TickMetrics` at the time the snapshot was taken.
+ *
+ * Timings are in nanoseconds. Histograms cover the window of recent ticks;
+ * totals cover all ticks since the recorder was created or reset.
+ *
+ * @immutable
+ * @invar | getTicks() >= 0
+ * @invar | getTickNanos() != null
+ */
+public class MetricsSnapshot {
+
+	private final long ticks;
+	private final HistogramSnapshot tickNanos;
+	/**
+	 * @representationObject
+	 */
+	private final HistogramSnapshot[] phaseNanos;
+	/**
+	 * @representationObject
+	 */
+	private final long[] phaseTotalNanos;
+	/**
+	 * @representationObject
+	 */
+	private final HistogramSnapshot[] eventsPerTick;
+	/**
+	 * @representationObject
+	 */
+	private final long[] eventTotals;
+
+	MetricsSnapshot(long ticks, HistogramSnapshot tickNanos, HistogramSnapshot[] phaseNanos, long[] phaseTotalNanos,
+			HistogramSnapshot[] eventsPerTick, long[] eventTotals) {
+		this.ticks = ticks;
+		this.tickNanos = tickNanos;
+		this.phaseNanos = phaseNanos;
+		this.phaseTotalNanos = phaseTotalNanos.clone();
+		this.eventsPerTick = eventsPerTick;
+		this.eventTotals = eventTotals.clone();
+	}
+
+	/**
+	 * Return the number of ticks recorded.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Return the distribution of the time spent in a whole tick.
+	 */
+	public HistogramSnapshot getTickNanos() {
+		return tickNanos;
+	}
+
+	/**
+	 * Return the distribution of the time spent in the given phase of a tick.
+	 *
+	 * @pre | phase != null
+	 * @post | result != null
+	 */
+	public HistogramSnapshot getPhaseNanos(TickPhase phase) {
+		return phaseNanos[phase.ordinal()];
+	}
+
+	/**
+	 * Return the total time spent in the given phase over all recorded ticks.
+	 *
+	 * @pre | phase != null
+	 * @post | result >= 0
+	 */
+	public long getPhaseTotalNanos(TickPhase phase) {
+		return phaseTotalNanos[phase.ordinal()];
+	}
+
+	/**
+	 * Return the distribution of the number of times the given event happened
+	 * per tick.
+	 *
+	 * @pre | event != null
+	 * @post | result != null
+	 */
+	public HistogramSnapshot getEventsPerTick(TickEvent event) {
+		return eventsPerTick[event.ordinal()];
+	}
+
+	/**
+	 * Return the number of times the given event happened over all recorded ticks.
+	 *
+	 * @pre | event != null
+	 * @post | result >= 0
+	 */
+	public long getEventCount(TickEvent event) {
+		return eventTotals[event.ordinal()];
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		result.append(String.format("%d ticks, tick ns: %s%n", ticks, tickNanos));
+		for (TickPhase phase : TickPhase.values()) {
+			result.append(String.format("  %-24s total %,d ns, %s%n", phase, getPhaseTotalNanos(phase),
+					getPhaseNanos(phase)));
+		}
+		for (TickEvent event : TickEvent.values()) {
+			result.append(String.format("  %-24s %,d (max %d per tick)%n", event, getEventCount(event),
+					getEventsPerTick(event).getMax()));
+		}
+		return result.toString();
+	}
+
+}
@@ -0,0 +1,85 @@
+package breakout.metrics;
+
+/**
+ * Keeps the last `getWindow()` recorded values, so that their distribution can
+ * be summarized at any time. Recording a value takes constant time and does not
+ * allocate; the work of sorting is left to `snapshot`.
+ *
+ * @invar | getWindow() >= 1
+ * @invar | getCount() >= 0
+ */
+public class RollingHistogram {
+
+	/**
+	 * A ring buffer: the most recent value is at `next - 1` (modulo the window).
+	 *
+	 * @invar | samples != null && samples.length >= 1
+	 * @invar | 0 <= next && next < samples.length
+	 * @invar | count >= 0
+	 * @representationObject
+	 */
+	private final long[] samples;
+	private int next;
+	private long count;
+
+	/**
+	 * Construct a histogram over the last `window` recorded values.
+	 *
+	 * @throws IllegalArgumentException | window < 1
+	 * @post | getWindow() == window
+	 * @post | getCount() == 0
+	 */
+	public RollingHistogram(int window) {
+		if (window < 1)
+			throw new IllegalArgumentException();
+		this.samples = new long[window];
+	}
+
+	public int getWindow() {
+		return samples.length;
+	}
+
+	/**
+	 * Return how many values were recorded in total, including those that have
+	 * dropped out of the window.
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @mutates this
+	 * @post | getCount() == old(getCount()) + 1
+	 */
+	public void record(long value) {
+		samples[next] = value;
+		next = next + 1 == samples.length ? 0 : next + 1;
+		count++;
+	}
+
+	/**
+	 * Forget all recorded values.
+	 *
+	 * @mutates this
+	 * @post | getCount() == 0
+	 */
+	public void reset() {
+		next = 0;
+		count = 0;
+	}
+
+	/**
+	 * Return the distribution of the values currently in the window.
+	 *
+	 * @creates result
+	 * @post | result.getCount() == Math.min(getCount(), getWindow())
+	 */
+	public HistogramSnapshot snapshot() {
+		int n = (int) Math.min(count, samples.length);
+		long[] values = new long[n];
+		// the window holds the first n slots until it has wrapped around once
+		System.arraycopy(samples, 0, values, 0, n);
+		return new HistogramSnapshot(values);
+	}
+
+}
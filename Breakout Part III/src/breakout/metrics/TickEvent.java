@@ -0,0 +1,25 @@
+package breakout.metrics;
+
+/**
+ * The things that can happen during a tick that `TickMetrics` counts.
+ */
+public enum TickEvent {
+	/** A ball or alpha bounced on a wall. */
+	WALL_COLLISION,
+	/** A ball hit a block. */
+	BLOCK_COLLISION,
+	/** A block was destroyed by a hit. */
+	BLOCK_DESTROYED,
+	/** A ball or alpha bounced on the paddle. */
+	PADDLE_COLLISION,
+	/** A ball hitting the paddle emitted a new alpha. */
+	ALPHA_SPAWNED,
+	/** A replicating paddle added a copy of a ball that hit it. */
+	BALL_REPLICATED,
+	/** An alpha hitting the paddle created a new ball linked to it. */
+	ANTI_BALL_SPAWNED,
+	/** A ball left the field through the bottom. */
+	BALL_LOST,
+	/** An alpha left the field through the bottom. */
+	ALPHA_LOST
+}
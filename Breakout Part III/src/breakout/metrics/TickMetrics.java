@@ -0,0 +1,187 @@
+package breakout.metrics;
+
+/**
+ * Records how long each phase of `BreakoutState.tick` takes and how often the
+ * events in `TickEvent` happen, over a rolling window of recent ticks.
+ *
+ * A state only reports to a recorder that was attached to it with
+ * `BreakoutState.setMetrics`; without one, a tick does no timing at all.
+ * Recording does not allocate, so that it does not disturb the numbers it
+ * measures; only `snapshot` does. A recorder is not thread-safe: take
+ * snapshots on the thread that ticks the state.
+ *
+ * @invar | getWindow() >= 1
+ * @invar | getTicks() >= 0
+ */
+public class TickMetrics {
+
+	/**
+	 * The number of ticks in the window when no window is given.
+	 */
+	public static final int DEFAULT_WINDOW = 1024;
+
+	private static final TickPhase[] PHASES = TickPhase.values();
+	private static final TickEvent[] EVENTS = TickEvent.values();
+
+	/**
+	 * @invar | tickNanos != null
+	 * @invar | phaseNanos != null && phaseNanos.length == PHASES.length
+	 * @invar | phaseTotalNanos != null && phaseTotalNanos.length == PHASES.length
+	 * @invar | eventsPerTick != null && eventsPerTick.length == EVENTS.length
+	 * @invar | eventTotals != null && eventTotals.length == EVENTS.length
+	 * @invar | eventsThisTick != null && eventsThisTick.length == EVENTS.length
+	 * @invar | ticks >= 0
+	 * @representationObject
+	 */
+	private final RollingHistogram tickNanos;
+	private final RollingHistogram[] phaseNanos;
+	private final long[] phaseTotalNanos;
+	private final RollingHistogram[] eventsPerTick;
+	private final long[] eventTotals;
+	private final int[] eventsThisTick;
+	private long ticks;
+
+	/**
+	 * @post | getWindow() == DEFAULT_WINDOW
+	 * @post | getTicks() == 0
+	 */
+	public TickMetrics() {
+		this(DEFAULT_WINDOW);
+	}
+
+	/**
+	 * Construct a recorder that keeps the timings and event counts of the last
+	 * `window` ticks.
+	 *
+	 * @throws IllegalArgumentException | window < 1
+	 * @post | getWindow() == window
+	 * @post | getTicks() == 0
+	 */
+	public TickMetrics(int window) {
+		if (window < 1)
+			throw new IllegalArgumentException();
+		tickNanos = new RollingHistogram(window);
+		phaseNanos = new RollingHistogram[PHASES.length];
+		for (int i = 0; i < PHASES.length; i++) {
+			phaseNanos[i] = new RollingHistogram(window);
+		}
+		phaseTotalNanos = new long[PHASES.length];
+		eventsPerTick = new RollingHistogram[EVENTS.length];
+		for (int i = 0; i < EVENTS.length; i++) {
+			eventsPerTick[i] = new RollingHistogram(window);
+		}
+		eventTotals = new long[EVENTS.length];
+		eventsThisTick = new int[EVENTS.length];
+	}
+
+	public int getWindow() {
+		return tickNanos.getWindow();
+	}
+
+	/**
+	 * Return the number of ticks recorded since construction or the last `reset`.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * Return the time at which a tick starts, for passing to `endPhase`.
+	 */
+	public long startTick() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Record that `phase` ran from `phaseStart` until now, and return the current
+	 * time, which is when the next phase starts.
+	 *
+	 * @pre | phase != null
+	 * @mutates this
+	 */
+	public long endPhase(TickPhase phase, long phaseStart) {
+		long now = System.nanoTime();
+		long nanos = now - phaseStart;
+		phaseNanos[phase.ordinal()].record(nanos);
+		phaseTotalNanos[phase.ordinal()] += nanos;
+		return now;
+	}
+
+	/**
+	 * Record that the tick that started at `tickStart` ended at `tickEnd`, the
+	 * time returned by its last `endPhase`, together with the events counted
+	 * since the previous tick.
+	 *
+	 * @mutates this
+	 * @post | getTicks() == old(getTicks()) + 1
+	 */
+	public void endTick(long tickStart, long tickEnd) {
+		tickNanos.record(tickEnd - tickStart);
+		for (int i = 0; i < eventsThisTick.length; i++) {
+			eventsPerTick[i].record(eventsThisTick[i]);
+			eventsThisTick[i] = 0;
+		}
+		ticks++;
+	}
+
+	/**
+	 * Record that `event` happened once during the current tick.
+	 *
+	 * @pre | event != null
+	 * @mutates this
+	 */
+	public void count(TickEvent event) {
+		count(event, 1);
+	}
+
+	/**
+	 * Record that `event` happened `times` times during the current tick.
+	 *
+	 * @pre | event != null
+	 * @pre | times >= 0
+	 * @mutates this
+	 */
+	public void count(TickEvent event, int times) {
+		eventsThisTick[event.ordinal()] += times;
+		eventTotals[event.ordinal()] += times;
+	}
+
+	/**
+	 * Forget everything recorded so far.
+	 *
+	 * @mutates this
+	 * @post | getTicks() == 0
+	 */
+	public void reset() {
+		tickNanos.reset();
+		for (int i = 0; i < PHASES.length; i++) {
+			phaseNanos[i].reset();
+			phaseTotalNanos[i] = 0;
+		}
+		for (int i = 0; i < EVENTS.length; i++) {
+			eventsPerTick[i].reset();
+			eventTotals[i] = 0;
+			eventsThisTick[i] = 0;
+		}
+		ticks = 0;
+	}
+
+	/**
+	 * Return the metrics recorded so far.
+	 *
+	 * @creates result
+	 * @post | result.getTicks() == getTicks()
+	 */
+	public MetricsSnapshot snapshot() {
+		HistogramSnapshot[] phases = new HistogramSnapshot[PHASES.length];
+		for (int i = 0; i < PHASES.length; i++) {
+			phases[i] = phaseNanos[i].snapshot();
+		}
+		HistogramSnapshot[] events = new HistogramSnapshot[EVENTS.length];
+		for (int i = 0; i < EVENTS.length; i++) {
+			events[i] = eventsPerTick[i].snapshot();
+		}
+		return new MetricsSnapshot(ticks, tickNanos.snapshot(), phases, phaseTotalNanos, events, eventTotals);
+	}
+
+}
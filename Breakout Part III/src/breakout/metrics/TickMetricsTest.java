@@ -0,0 +1,106 @@
+package breakout.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import breakout.BreakoutFacade;
+import breakout.BreakoutState;
+import breakout.gui.BreakoutApplication;
+import breakout.headless.HeadlessRunner;
+import breakout.headless.PaddleInput;
+import breakout.radioactivity.Ball;
+
+class TickMetricsTest {
+
+	static final BreakoutFacade fac = new BreakoutFacade();
+
+	@Test
+	void testHistogramKeepsLastWindow() {
+		RollingHistogram histogram = new RollingHistogram(4);
+		assertEquals(0, histogram.snapshot().getCount());
+		assertEquals(0, histogram.snapshot().getPercentile(99));
+		for (long value = 1; value <= 6; value++) {
+			histogram.record(value);
+		}
+		assertEquals(6, histogram.getCount());
+		HistogramSnapshot snapshot = histogram.snapshot();
+		assertEquals(4, snapshot.getCount());
+		assertEquals(3, snapshot.getMin());
+		assertEquals(6, snapshot.getMax());
+		assertEquals(4.5, snapshot.getMean());
+		assertEquals(4, snapshot.getPercentile(50));
+		assertEquals(6, snapshot.getPercentile(99));
+		assertEquals(3, snapshot.getPercentile(0));
+
+		histogram.reset();
+		assertEquals(0, histogram.snapshot().getCount());
+		assertThrows(IllegalArgumentException.class, () -> new RollingHistogram(0));
+		assertThrows(IllegalArgumentException.class, () -> snapshot.getPercentile(101));
+	}
+
+	@Test
+	void testHistogramBuckets() {
+		long[] buckets = new HistogramSnapshot(new long[] { 0, 1, 2, 3, 4, 1000, Long.MAX_VALUE }).getBucketCounts();
+		assertEquals(HistogramSnapshot.BUCKETS, buckets.length);
+		assertEquals(2, buckets[0]);
+		assertEquals(2, buckets[1]);
+		assertEquals(1, buckets[2]);
+		assertEquals(1, buckets[9]);
+		assertEquals(1, buckets[62]);
+		assertEquals(7, Arrays.stream(buckets).sum());
+	}
+
+	@Test
+	void testMeasuredGame() {
+		BreakoutState state = fac.createStateFromDescription(BreakoutApplication.initMap2);
+		int blocksBefore = fac.getBlocksLen(state);
+		TickMetrics metrics = new TickMetrics(4096);
+		fac.setMetrics(state, metrics);
+		assertSame(metrics, fac.getMetrics(state));
+		HeadlessRunner runner = new HeadlessRunner(state, 20, PaddleInput.followBall());
+		long ticks = runner.run(3000).getTicks();
+
+		MetricsSnapshot snapshot = metrics.snapshot();
+		assertEquals(ticks, snapshot.getTicks());
+		assertEquals(ticks, snapshot.getTickNanos().getCount());
+		long phaseNanos = 0;
+		for (TickPhase phase : TickPhase.values()) {
+			assertEquals(ticks, snapshot.getPhaseNanos(phase).getCount());
+			phaseNanos += snapshot.getPhaseTotalNanos(phase);
+		}
+		assertTrue(phaseNanos > 0);
+		assertEquals(blocksBefore - fac.getBlocksLen(state), snapshot.getEventCount(TickEvent.BLOCK_DESTROYED));
+		assertTrue(snapshot.getEventCount(TickEvent.BLOCK_COLLISION) >= snapshot.getEventCount(TickEvent.BLOCK_DESTROYED));
+		assertTrue(snapshot.getEventCount(TickEvent.WALL_COLLISION) > 0);
+		assertEquals(fac.getAlphasLen(state) + snapshot.getEventCount(TickEvent.ALPHA_LOST),
+				snapshot.getEventCount(TickEvent.ALPHA_SPAWNED));
+		assertTrue(snapshot.getEventsPerTick(TickEvent.WALL_COLLISION).getMax() >= 1);
+
+		metrics.reset();
+		assertEquals(0, metrics.snapshot().getTicks());
+		assertEquals(0, metrics.snapshot().getEventCount(TickEvent.WALL_COLLISION));
+	}
+
+	@Test
+	void testMeasuringDoesNotChangeTheGame() {
+		BreakoutState measured = fac.createStateFromDescription(BreakoutApplication.initMap2);
+		BreakoutState plain = fac.createStateFromDescription(BreakoutApplication.initMap2);
+		fac.setMetrics(measured, new TickMetrics());
+		PaddleInput input = PaddleInput.followBall();
+		new HeadlessRunner(measured, 20, input).run(2000);
+		new HeadlessRunner(plain, 20, input).run(2000);
+
+		Ball[] expected = fac.getBalls(plain);
+		Ball[] actual = fac.getBalls(measured);
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(fac.getCenter(expected[i]), fac.getCenter(actual[i]));
+		}
+		assertEquals(fac.getAlphasLen(plain), fac.getAlphasLen(measured));
+		assertEquals(fac.getBlocksLen(plain), fac.getBlocksLen(measured));
+	}
+
+}
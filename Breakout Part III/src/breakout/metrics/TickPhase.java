@@ -0,0 +1,29 @@
+package breakout.metrics;
+
+/**
+ * The phases of `BreakoutState.tick`, in the order in which they run.
+ */
+public enum TickPhase {
+	/** Moving the balls and counting down the lifetime of supercharged balls. */
+	STEP_BALLS,
+	/** Moving the alphas. */
+	STEP_ALPHAS,
+	/** Bouncing the balls on the walls. */
+	BOUNCE_BALLS_ON_WALLS,
+	/** Bouncing the alphas on the walls, and the magnetic pull on their balls. */
+	BOUNCE_ALPHAS_ON_WALLS,
+	/** Finding the balls and alphas that left the field and unlinking them. */
+	REMOVE_DEAD,
+	/** Closing the gaps left by the removed balls and alphas. */
+	COMPACT,
+	/** Bouncing the balls on the blocks, and the effects of the blocks that are hit. */
+	BOUNCE_BALLS_ON_BLOCKS,
+	/** Bouncing the balls on the paddle, emitting alphas and replicating balls. */
+	BOUNCE_BALLS_ON_PADDLE,
+	/** Bouncing the alphas on the paddle, creating anti-balls. */
+	BOUNCE_ALPHAS_ON_PADDLE,
+	/** Keeping the balls inside the field. */
+	CLAMP_BALLS,
+	/** Keeping the alphas inside the field. */
+	CLAMP_ALPHAS
+}
@@ -22,9 +22,23 @@ import breakout.utils.Vector;
  * 		  | 	&& b != null)
  */
 public class Alpha {
-	protected Circle location;
-	protected Vector velocity;
+	/**
+	 * As for balls, the location and velocity are kept as primitive coordinates and
+	 * only materialized as a `Circle` and `Vector` when asked for.
+	 * 
+	 * @invar | diameter >= 0
+	 */
+	private int x;
+	private int y;
+	private int diameter;
+	private int vx;
+	private int vy;
+	private Circle location;
+	private Vector velocity;
 	private final int eCharge = 1;
+	private static class Colors {
+		static final Color COLOR = Color.white;
+	}
 
 	/**
      * @invar | linkedBalls != null
@@ -43,6 +57,15 @@ public class Alpha {
     public Set<Ball> getLinkedBalls() {
     	return Set.copyOf(linkedBalls); }
     
+    /**
+     * Return the number of balls linked to this alpha, without copying them.
+     * 
+     * @post | result == getLinkedBalls().size()
+     */
+    public int getLinkedBallCount() {
+    	return linkedBalls.size();
+    }
+    
     
     /**
 	 * Construct a new alpha at a given `location`, with a given `velocity`.
@@ -57,8 +80,8 @@ public class Alpha {
 	 * @post | getLinkedBalls().isEmpty()
 	 */
     public Alpha(Circle location, Vector velocity) {
-		this.location = location;
-		this.velocity = velocity;
+		setLocation(location);
+		setVelocity(velocity);
 	}
 	
     /**
@@ -66,6 +89,9 @@ public class Alpha {
 	 * @inspects this
 	 */
 	public Circle getLocation() {
+		if (location == null) {
+			location = new Circle(new Point(x, y), diameter);
+		}
 		return location;
 	}
 	
@@ -74,9 +100,62 @@ public class Alpha {
 	 * @inspects this
 	 */
 	public Vector getVelocity() {
+		if (velocity == null) {
+			velocity = new Vector(vx, vy);
+		}
 		return velocity;
 	}
 
+	/**
+	 * Return the x coordinate of this alpha's center.
+	 * 
+	 * @post | result == getLocation().getCenter().getX()
+	 * @inspects this
+	 */
+	public int getCenterX() {
+		return x;
+	}
+
+	/**
+	 * Return the y coordinate of this alpha's center.
+	 * 
+	 * @post | result == getLocation().getCenter().getY()
+	 * @inspects this
+	 */
+	public int getCenterY() {
+		return y;
+	}
+
+	/**
+	 * Return this alpha's diameter.
+	 * 
+	 * @post | result == getLocation().getDiameter()
+	 * @inspects this
+	 */
+	public int getDiameter() {
+		return diameter;
+	}
+
+	/**
+	 * Return the x component of this alpha's velocity.
+	 * 
+	 * @post | result == getVelocity().getX()
+	 * @inspects this
+	 */
+	public int getVelocityX() {
+		return vx;
+	}
+
+	/**
+	 * Return the y component of this alpha's velocity.
+	 * 
+	 * @post | result == getVelocity().getY()
+	 * @inspects this
+	 */
+	public int getVelocityY() {
+		return vy;
+	}
+
 	/**
 	 * Return the echarge
 	 * @inspects this
@@ -100,6 +179,9 @@ public class Alpha {
 	 * @post | getLocation() == location
 	 */
 	public void setLocation(Circle location) {
+		this.x = location.getCenter().getX();
+		this.y = location.getCenter().getY();
+		this.diameter = location.getDiameter();
 		this.location = location;
 	}
 
@@ -108,6 +190,8 @@ public class Alpha {
 	 * @post | getVelocity() == velocity
 	 */
 	public void setVelocity(Vector velocity) {
+		this.vx = velocity.getX();
+		this.vy = velocity.getY();
 		this.velocity = velocity;
 	}
 	
@@ -120,8 +204,7 @@ public class Alpha {
 	 * @inspects this
 	 */
 	public boolean collidesWith(Rect rect) {
-		Vector coldir = rect.collideWith(getLocation());
-		return coldir != null && (getVelocity().product(coldir) > 0);
+		return rect.isHitBy(x, y, diameter / 2, vx, vy);
 	}
 	
 
@@ -137,7 +220,7 @@ public class Alpha {
 	 */
 	public void hitPaddle(Rect rect, Vector paddleVel) {
 		Vector nspeed = bounceOn(rect);
-		velocity = nspeed.plus(paddleVel.scaledDiv(5));
+		setVelocity(nspeed.plus(paddleVel.scaledDiv(5)));
 	}
 	
 	
@@ -156,10 +239,8 @@ public class Alpha {
 	 */
 	
 	public void hitWall(Rect rect) {
-
-
-		velocity = bounceOn(rect);
-		for(Ball ball: getLinkedBalls()) {
+		reflectOn(rect);
+		for(Ball ball: linkedBalls) {
 			Vector nspeed = Vector.magnetSpeed(this.getCenter(), ball.getCenter(), ball.getEcharge(), ball.getVelocity());
 			ball.setVelocity(nspeed);
 		}	
@@ -173,13 +254,29 @@ public class Alpha {
 	 * @inspects this
 	 */
 	public Vector bounceOn(Rect rect) {
-		Vector coldir = rect.collideWith(location);
-		if (coldir != null && velocity.product(coldir) > 0) {
-			return velocity.mirrorOver(coldir);
+		Vector coldir = rect.collideWith(getLocation());
+		if (coldir != null && getVelocity().product(coldir) > 0) {
+			return getVelocity().mirrorOver(coldir);
 		}
 		return null;
 	}
 	
+	/**
+	 * Allocation-free equivalent of `setVelocity(bounceOn(rect))`.
+	 * 
+	 * @pre | rect != null
+	 * @pre | collidesWith(rect)
+	 * @post | getVelocity().equals(old(bounceOn(rect)))
+	 * @mutates this
+	 */
+	private void reflectOn(Rect rect) {
+		Vector coldir = Rect.COLLISSION_DIRS[rect.collisionDirection(x, y, diameter / 2)];
+		int product = vx * coldir.getX() + vy * coldir.getY();
+		vx -= 2 * product * coldir.getX();
+		vy -= 2 * product * coldir.getY();
+		velocity = null;
+	}
+
 	/**
 	 * Move this alpha by the given vector.
 	 * 
@@ -191,11 +288,34 @@ public class Alpha {
 	 * @mutates this
 	 */
 	public void move(Vector v, int elapsedTime) {
-		location = new Circle(getLocation().getCenter().plus(v), getLocation().getDiameter());
+		move(v.getX(), v.getY(), elapsedTime);
+	}
+
+	/**
+	 * Move this alpha by the vector (`dx`, `dy`) without allocating.
+	 * 
+	 * @pre | elapsedTime >= 0
+	 * @pre | elapsedTime <= BreakoutState.MAX_ELAPSED_TIME
+	 * @post | getCenterX() == old(getCenterX()) + dx
+	 * @post | getCenterY() == old(getCenterY()) + dy
+	 * @post | getDiameter() == old(getDiameter())
+	 * @mutates this
+	 */
+	public void move(int dx, int dy, int elapsedTime) {
+		x += dx;
+		y += dy;
+		location = null;
 	}
 
 	public Color getColor() {
-		return Color.white;
+		return Colors.COLOR;
+	}
+
+	/**
+	 * Return the color alphas are painted in.
+	 */
+	public static Color getAlphaColor() {
+		return Colors.COLOR;
 	}
 	
 	/**
@@ -54,6 +54,15 @@ public abstract class Ball {
     public Set<Alpha> getLinkedAlphas() {
     	return Set.copyOf(linkedAlphas);}
     
+    /**
+     * Return the number of alphas linked to this ball, without copying them.
+     * 
+     * @post | result == getLinkedAlphas().size()
+     */
+    public int getLinkedAlphaCount() {
+    	return linkedAlphas.size();
+    }
+    
     /**
      * @pre | alpha != null
      * @post | getLinkedAlphas().equals(LogicalSet.plus(old(getLinkedAlphas()), alpha))
@@ -72,10 +81,18 @@ public abstract class Ball {
      */
     
     public void linkTo(Alpha alpha) {
-    	linkedAlphas.add(alpha);
+    	if (!linkedAlphas.add(alpha)) {
+    		return;
+    	}
     	alpha.linkedBalls.add(this);
-    	updateEcharge(); 
-    	updateEcharge(alpha);
+    	int degree = alpha.linkedBalls.size();
+    	for (Ball ball : alpha.linkedBalls) {
+    		if (ball != this) {
+    			ball.alphaDegreeChanged(degree - 1, degree);
+    		}
+    	}
+    	alphaReached(degree);
+    	refreshEcharge();
     }
     
     /**
@@ -95,10 +112,16 @@ public abstract class Ball {
      */
     
     public void unLink(Alpha alpha) {
-    	linkedAlphas.remove(alpha);
+    	if (!linkedAlphas.remove(alpha)) {
+    		return;
+    	}
     	alpha.linkedBalls.remove(this);
-    	updateEcharge();
-    	updateEcharge(alpha); 
+    	int degree = alpha.linkedBalls.size();
+    	for (Ball ball : alpha.linkedBalls) {
+    		ball.alphaDegreeChanged(degree + 1, degree);
+    	}
+    	alphaLeft(degree + 1);
+    	refreshEcharge();
     }
    
     /**
@@ -113,11 +136,31 @@ public abstract class Ball {
 
     protected int eCharge = 1;
     /**
-     * @invar | location != null
-     * @invar | velocity != null
+     * The largest number of balls linked to one of this ball's alphas (0 if there
+     * are none), and how many of its alphas have that many balls. They let
+     * `linkTo` and `unLink` update the eCharges of the affected balls without
+     * rescanning all of their alphas; see `LinkGraph` for the same bookkeeping
+     * over int ids.
+     * 
+     * @invar | maxAlphaDegree == linkedAlphas.stream().mapToInt(a -> a.linkedBalls.size()).max().orElse(0)
+     * @invar | maxAlphaDegreeCount == linkedAlphas.stream().filter(a -> a.linkedBalls.size() == maxAlphaDegree).count()
      */
-	protected Circle location;
-	protected Vector velocity;
+    private int maxAlphaDegree;
+    private int maxAlphaDegreeCount;
+    /**
+     * The location and velocity are kept as primitive coordinates, so that moving
+     * or bouncing a ball does not allocate. `getLocation()` and `getVelocity()`
+     * materialize them on demand and cache the result until the next change.
+     * 
+     * @invar | diameter >= 0
+     */
+	private int x;
+	private int y;
+	private int diameter;
+	private int vx;
+	private int vy;
+	private Circle location;
+	private Vector velocity;
 
 	/**
 	 * Construct a new ball at a given `location`, with a given `velocity`.
@@ -135,8 +178,8 @@ public abstract class Ball {
 	 */
 	public Ball(Circle location, Vector velocity) {	
 		updateEcharge();
-		this.location = location;
-		this.velocity = velocity;
+		setLocation(location);
+		setVelocity(velocity);
 		
 	}
 
@@ -144,6 +187,9 @@ public abstract class Ball {
 	 * Return this ball's location.
 	 */
 	public Circle getLocation() {
+		if (location == null) {
+			location = new Circle(new Point(x, y), diameter);
+		}
 		return location;
 	}
 
@@ -151,9 +197,57 @@ public abstract class Ball {
 	 * Return this ball's velocity.
 	 */
 	public Vector getVelocity() {
+		if (velocity == null) {
+			velocity = new Vector(vx, vy);
+		}
 		return velocity;
 	}
 	
+	/**
+	 * Return the x coordinate of this ball's center.
+	 * 
+	 * @post | result == getLocation().getCenter().getX()
+	 */
+	public int getCenterX() {
+		return x;
+	}
+
+	/**
+	 * Return the y coordinate of this ball's center.
+	 * 
+	 * @post | result == getLocation().getCenter().getY()
+	 */
+	public int getCenterY() {
+		return y;
+	}
+
+	/**
+	 * Return this ball's diameter.
+	 * 
+	 * @post | result == getLocation().getDiameter()
+	 */
+	public int getDiameter() {
+		return diameter;
+	}
+
+	/**
+	 * Return the x component of this ball's velocity.
+	 * 
+	 * @post | result == getVelocity().getX()
+	 */
+	public int getVelocityX() {
+		return vx;
+	}
+
+	/**
+	 * Return the y component of this ball's velocity.
+	 * 
+	 * @post | result == getVelocity().getY()
+	 */
+	public int getVelocityY() {
+		return vy;
+	}
+	
 	/**
 	 * Return this ball's eCharge
 	 */
@@ -166,6 +260,9 @@ public abstract class Ball {
 	 * @post | getLocation() == location
 	 */
 	public void setLocation(Circle location) {
+		this.x = location.getCenter().getX();
+		this.y = location.getCenter().getY();
+		this.diameter = location.getDiameter();
 		this.location = location;
 	}
 
@@ -174,6 +271,8 @@ public abstract class Ball {
 	 * @post | getVelocity() == velocity
 	 */
 	public void setVelocity(Vector velocity) {
+		this.vx = velocity.getX();
+		this.vy = velocity.getY();
 		this.velocity = velocity;
 	}
 
@@ -188,13 +287,31 @@ public abstract class Ball {
 	 * @inspects this
 	 */
 	public Vector bounceOn(Rect rect) {
-		Vector coldir = rect.collideWith(location);
-		if (coldir != null && velocity.product(coldir) > 0) {
-			return velocity.mirrorOver(coldir);
+		Vector coldir = rect.collideWith(getLocation());
+		if (coldir != null && getVelocity().product(coldir) > 0) {
+			return getVelocity().mirrorOver(coldir);
 		}
 		return null;
 	}
 
+	/**
+	 * Allocation-free equivalent of `setVelocity(bounceOn(rect))`: mirror this
+	 * ball's velocity over the direction in which it collides with `rect`.
+	 * 
+	 * @pre | rect != null
+	 * @pre | collidesWith(rect)
+	 * @post | getVelocity().equals(old(bounceOn(rect)))
+	 * @post | getLocation().equals(old(getLocation()))
+	 * @mutates this
+	 */
+	protected void reflectOn(Rect rect) {
+		Vector coldir = Rect.COLLISSION_DIRS[rect.collisionDirection(x, y, diameter / 2)];
+		int product = vx * coldir.getX() + vy * coldir.getY();
+		vx -= 2 * product * coldir.getX();
+		vy -= 2 * product * coldir.getY();
+		velocity = null;
+	}
+
 	/**
 	 * Check whether this ball collides with a given `rect`.
 	 * 
@@ -204,8 +321,7 @@ public abstract class Ball {
 	 * @inspects this
 	 */
 	public boolean collidesWith(Rect rect) {
-		Vector coldir = rect.collideWith(getLocation());
-		return coldir != null && (getVelocity().product(coldir) > 0);
+		return rect.isHitBy(x, y, diameter / 2, vx, vy);
 	}
 
 	/**
@@ -218,7 +334,34 @@ public abstract class Ball {
 	 * @post | getLocation().getDiameter() == old(getLocation()).getDiameter()
 	 * @mutates this
 	 */
-	public abstract void move(Vector v, int elapsedTime);
+	public void move(Vector v, int elapsedTime) {
+		move(v.getX(), v.getY(), elapsedTime);
+	}
+
+	/**
+	 * Move this BallState by the vector (`dx`, `dy`) without allocating.
+	 * 
+	 * @pre | elapsedTime >= 0
+	 * @pre | elapsedTime <= BreakoutState.MAX_ELAPSED_TIME
+	 * @post | getCenterX() == old(getCenterX()) + dx
+	 * @post | getCenterY() == old(getCenterY()) + dy
+	 * @post | getDiameter() == old(getDiameter())
+	 * @mutates this
+	 */
+	public abstract void move(int dx, int dy, int elapsedTime);
+
+	/**
+	 * Translate this ball's center by (`dx`, `dy`).
+	 * 
+	 * @post | getCenterX() == old(getCenterX()) + dx
+	 * @post | getCenterY() == old(getCenterY()) + dy
+	 * @mutates this
+	 */
+	protected void translate(int dx, int dy) {
+		x += dx;
+		y += dy;
+		location = null;
+	}
 
 	/**
 	 * Update the BallState after hitting a block at a given location, taking into account whether the block was destroyed by the hit or not.
@@ -298,15 +441,9 @@ public abstract class Ball {
      * 			
 	 * 
 	 */
-	public void updateEcharge() {	//Wanneer? als linkTo() of unLink() wordt opgeroepen
-		// Waarde update
-		if (getLinkedAlphas().size() == 0) {eCharge = 1;}
-		else {eCharge = getLinkedAlphas().stream().mapToInt(a -> a.getLinkedBalls().size()).max().getAsInt();}
-		// Teken update
-		if (getLinkedAlphas().size() % 2 == 0) {
-			eCharge = Math.abs(eCharge);
-		}
-		else {eCharge = - Math.abs(eCharge);}
+	public void updateEcharge() {	//Full recomputation; linkTo() and unLink() keep the eCharge up to date incrementally
+		recountMaxAlphaDegree();
+		refreshEcharge();
 	}
 	
 	/**
@@ -316,9 +453,50 @@ public abstract class Ball {
 	 * 
 	 */
 	public void updateEcharge(Alpha alpha) {	
-		for (Ball ball: alpha.getLinkedBalls()) {
+		for (Ball ball: alpha.linkedBalls) {
 			ball.updateEcharge();
 		}
 			
 	}
+
+	// Derive the eCharge from the maximum alpha degree (waarde) and the number of alphas (teken).
+	private void refreshEcharge() {
+		eCharge = linkedAlphas.isEmpty() ? 1 : maxAlphaDegree;
+		if (linkedAlphas.size() % 2 != 0) {
+			eCharge = -eCharge;
+		}
+	}
+
+	// One of this ball's alphas went from `oldDegree` to `newDegree` linked balls.
+	// Counting the new degree first means a recount in alphaLeft already sees it.
+	private void alphaDegreeChanged(int oldDegree, int newDegree) {
+		alphaReached(newDegree);
+		alphaLeft(oldDegree);
+		refreshEcharge();
+	}
+
+	// This ball now has an alpha with `degree` linked balls that it did not have before.
+	private void alphaReached(int degree) {
+		if (degree > maxAlphaDegree) {
+			maxAlphaDegree = degree;
+			maxAlphaDegreeCount = 1;
+		} else if (degree == maxAlphaDegree) {
+			maxAlphaDegreeCount++;
+		}
+	}
+
+	// This ball no longer has an alpha with `degree` linked balls that it had before.
+	private void alphaLeft(int degree) {
+		if (degree == maxAlphaDegree && --maxAlphaDegreeCount == 0) {
+			recountMaxAlphaDegree();
+		}
+	}
+
+	private void recountMaxAlphaDegree() {
+		maxAlphaDegree = 0;
+		maxAlphaDegreeCount = 0;
+		for (Alpha alpha : linkedAlphas) {
+			alphaReached(alpha.linkedBalls.size());
+		}
+	}
 }
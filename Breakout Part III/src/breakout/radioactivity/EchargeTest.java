@@ -0,0 +1,106 @@
+package breakout.radioactivity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import breakout.utils.Circle;
+import breakout.utils.Point;
+import breakout.utils.Vector;
+
+/**
+ * Checks the incremental eCharge bookkeeping of `Ball.linkTo`/`unLink` and of
+ * `LinkGraph` against a full recomputation after every link change.
+ */
+class EchargeTest {
+
+	static final int BALLS = 12;
+	static final int ALPHAS = 8;
+	static final int ROUNDS = 20000;
+
+	// The eCharge rule, recomputed from scratch over (copies of) the link sets.
+	static int recomputedEcharge(Ball ball) {
+		int charge = ball.getLinkedAlphas().stream().mapToInt(a -> a.getLinkedBalls().size()).max().orElse(1);
+		return ball.getLinkedAlphas().size() % 2 == 0 ? charge : -charge;
+	}
+
+	static Ball[] newBalls() {
+		Ball[] balls = new Ball[BALLS];
+		for (int i = 0; i < BALLS; i++) {
+			Circle loc = new Circle(new Point(1000 + 100 * i, 1000), 700);
+			balls[i] = i % 3 == 0 ? new SuperChargedBall(loc, new Vector(1, 1), 10000) : new NormalBall(loc, new Vector(1, 1));
+		}
+		return balls;
+	}
+
+	static Alpha[] newAlphas() {
+		Alpha[] alphas = new Alpha[ALPHAS];
+		for (int j = 0; j < ALPHAS; j++) {
+			alphas[j] = new Alpha(new Circle(new Point(1000, 1000 + 100 * j), 700), new Vector(1, 1));
+		}
+		return alphas;
+	}
+
+	@Test
+	void testBallEchargeMatchesRecomputation() {
+		Random random = new Random(3);
+		Ball[] balls = newBalls();
+		Alpha[] alphas = newAlphas();
+		for (int round = 0; round < ROUNDS; round++) {
+			Ball ball = balls[random.nextInt(BALLS)];
+			Alpha alpha = alphas[random.nextInt(ALPHAS)];
+			if (random.nextInt(5) < 3) {
+				ball.linkTo(alpha);
+			} else {
+				ball.unLink(alpha);
+			}
+			for (Ball b : balls) {
+				assertEquals(recomputedEcharge(b), b.getEcharge());
+			}
+		}
+	}
+
+	@Test
+	void testUpdateEchargeKeepsIncrementalState() {
+		Ball[] balls = newBalls();
+		Alpha[] alphas = newAlphas();
+		balls[0].linkTo(alphas[0]);
+		balls[1].linkTo(alphas[0]);
+		balls[0].updateEcharge();
+		balls[0].updateEcharge(alphas[0]);
+		balls[1].unLink(alphas[0]);
+		assertEquals(-1, balls[0].getEcharge());
+		assertEquals(1, balls[1].getEcharge());
+	}
+
+	@Test
+	void testLinkGraphEchargeMatchesBalls() {
+		Random random = new Random(5);
+		Ball[] balls = newBalls();
+		Alpha[] alphas = newAlphas();
+		LinkGraph graph = new LinkGraph();
+		for (int i = 0; i < BALLS; i++) {
+			graph.addBall();
+		}
+		for (int j = 0; j < ALPHAS; j++) {
+			graph.addAlpha();
+		}
+		for (int round = 0; round < ROUNDS; round++) {
+			int b = random.nextInt(BALLS);
+			int a = random.nextInt(ALPHAS);
+			if (random.nextInt(5) < 3) {
+				balls[b].linkTo(alphas[a]);
+				graph.link(b, a);
+			} else {
+				balls[b].unLink(alphas[a]);
+				graph.unlink(b, a);
+			}
+			for (int i = 0; i < BALLS; i++) {
+				assertEquals(recomputedEcharge(balls[i]), graph.getEcharge(i));
+			}
+		}
+	}
+
+}
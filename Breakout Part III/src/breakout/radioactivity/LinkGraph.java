@@ -0,0 +1,422 @@
+package breakout.radioactivity;
+
+import java.util.Arrays;
+
+/**
+ * The links between a set of balls and a set of alphas, as adjacency lists over
+ * compact int ids: balls are numbered 0 to `getBallCount() - 1` and alphas 0 to
+ * `getAlphaCount() - 1`, in the order they were added.
+ *
+ * Unlike `Ball.getLinkedAlphas()` and `Alpha.getLinkedBalls()`, nothing here
+ * copies: degrees are stored, neighbours are read by position, and linking or
+ * unlinking only allocates when an adjacency list has to grow.
+ *
+ * The graph also maintains each ball's eCharge incrementally (see
+ * `getEcharge`): a link change only touches the balls linked to the alpha
+ * involved, and only rescans a ball's alphas when the last of its alphas with
+ * the largest degree loses a ball.
+ *
+ * @invar | getBallCount() >= 0
+ * @invar | getAlphaCount() >= 0
+ * @invar | IntStream.range(0, getBallCount()).allMatch(b -> IntStream.range(0, getBallDegree(b)).allMatch(k ->
+ *        |     isLinked(b, getLinkedAlpha(b, k))))
+ * @invar | IntStream.range(0, getAlphaCount()).allMatch(a -> IntStream.range(0, getAlphaDegree(a)).allMatch(k ->
+ *        |     isLinked(getLinkedBall(a, k), a)))
+ */
+public class LinkGraph {
+
+	/**
+	 * The first `ballDegree[b]` entries of `ballLinks[b]` are the alphas linked to
+	 * ball `b`, the first `alphaDegree[a]` entries of `alphaLinks[a]` the balls
+	 * linked to alpha `a`. Entries beyond the counts are kept for reuse.
+	 *
+	 * @invar | 0 <= ballCount && ballCount <= ballLinks.length
+	 * @invar | 0 <= alphaCount && alphaCount <= alphaLinks.length
+	 * @invar | ballDegree.length == ballLinks.length
+	 * @invar | alphaDegree.length == alphaLinks.length
+	 * @invar | IntStream.range(0, ballCount).allMatch(b -> IntStream.range(0, ballDegree[b]).allMatch(k ->
+	 *        |     IntStream.range(0, alphaDegree[ballLinks[b][k]]).filter(l -> alphaLinks[ballLinks[b][k]][l] == b).count() == 1))
+	 * @invar | IntStream.range(0, alphaCount).map(a -> alphaDegree[a]).sum() ==
+	 *        |     IntStream.range(0, ballCount).map(b -> ballDegree[b]).sum()
+	 * @representationObject
+	 */
+	private int ballCount;
+	private int[][] ballLinks = {};
+	private int[] ballDegree = {};
+	private int alphaCount;
+	private int[][] alphaLinks = {};
+	private int[] alphaDegree = {};
+	/**
+	 * For each ball, the largest degree of the alphas linked to it (0 if there are
+	 * none) and how many of its alphas have that degree.
+	 *
+	 * @invar | maxAlphaDegree.length == ballLinks.length && maxAlphaDegreeCount.length == ballLinks.length
+	 * @invar | IntStream.range(0, ballCount).allMatch(b -> maxAlphaDegree[b] ==
+	 *        |     IntStream.range(0, ballDegree[b]).map(k -> alphaDegree[ballLinks[b][k]]).max().orElse(0))
+	 * @invar | IntStream.range(0, ballCount).allMatch(b -> maxAlphaDegreeCount[b] ==
+	 *        |     IntStream.range(0, ballDegree[b]).filter(k -> alphaDegree[ballLinks[b][k]] == maxAlphaDegree[b]).count())
+	 */
+	private int[] maxAlphaDegree = {};
+	private int[] maxAlphaDegreeCount = {};
+
+	/**
+	 * Construct an empty link graph.
+	 *
+	 * @post | getBallCount() == 0
+	 * @post | getAlphaCount() == 0
+	 */
+	public LinkGraph() {
+	}
+
+	/**
+	 * Return the number of balls in this graph.
+	 */
+	public int getBallCount() {
+		return ballCount;
+	}
+
+	/**
+	 * Return the number of alphas in this graph.
+	 */
+	public int getAlphaCount() {
+		return alphaCount;
+	}
+
+	/**
+	 * Return the number of alphas linked to ball `b`.
+	 *
+	 * @pre | 0 <= b && b < getBallCount()
+	 * @post | result >= 0
+	 */
+	public int getBallDegree(int b) {
+		return ballDegree[b];
+	}
+
+	/**
+	 * Return the number of balls linked to alpha `a`.
+	 *
+	 * @pre | 0 <= a && a < getAlphaCount()
+	 * @post | result >= 0
+	 */
+	public int getAlphaDegree(int a) {
+		return alphaDegree[a];
+	}
+
+	/**
+	 * Return the `k`th alpha linked to ball `b`. The order of the linked alphas is
+	 * unspecified and changes when links are removed.
+	 *
+	 * @pre | 0 <= b && b < getBallCount()
+	 * @pre | 0 <= k && k < getBallDegree(b)
+	 * @post | 0 <= result && result < getAlphaCount()
+	 */
+	public int getLinkedAlpha(int b, int k) {
+		return ballLinks[b][k];
+	}
+
+	/**
+	 * Return the `k`th ball linked to alpha `a`. The order of the linked balls is
+	 * unspecified and changes when links are removed.
+	 *
+	 * @pre | 0 <= a && a < getAlphaCount()
+	 * @pre | 0 <= k && k < getAlphaDegree(a)
+	 * @post | 0 <= result && result < getBallCount()
+	 */
+	public int getLinkedBall(int a, int k) {
+		return alphaLinks[a][k];
+	}
+
+	/**
+	 * Return the eCharge of ball `b`: its magnitude is the largest number of balls
+	 * linked to one of the alphas of `b`, or 1 if `b` has no alphas; it is negative
+	 * iff `b` has an odd number of alphas. This is the rule of `Ball.updateEcharge()`.
+	 *
+	 * @pre | 0 <= b && b < getBallCount()
+	 * @post | Math.abs(result) == (getBallDegree(b) == 0 ? 1 :
+	 *       |     IntStream.range(0, getBallDegree(b)).map(k -> getAlphaDegree(getLinkedAlpha(b, k))).max().getAsInt())
+	 * @post | (result < 0) == (getBallDegree(b) % 2 != 0)
+	 */
+	public int getEcharge(int b) {
+		int charge = ballDegree[b] == 0 ? 1 : maxAlphaDegree[b];
+		return ballDegree[b] % 2 == 0 ? charge : -charge;
+	}
+
+	/**
+	 * Return whether ball `b` is linked to alpha `a`.
+	 *
+	 * @pre | 0 <= b && b < getBallCount()
+	 * @pre | 0 <= a && a < getAlphaCount()
+	 */
+	public boolean isLinked(int b, int a) {
+		return indexOf(ballLinks[b], ballDegree[b], a) >= 0;
+	}
+
+	/**
+	 * Add a ball without links and return its id.
+	 *
+	 * @mutates this
+	 * @post | result == old(getBallCount())
+	 * @post | getBallCount() == old(getBallCount()) + 1
+	 * @post | getBallDegree(result) == 0
+	 */
+	public int addBall() {
+		if (ballCount == ballLinks.length) {
+			int capacity = Math.max(4, 2 * ballCount);
+			ballLinks = Arrays.copyOf(ballLinks, capacity);
+			ballDegree = Arrays.copyOf(ballDegree, capacity);
+			maxAlphaDegree = Arrays.copyOf(maxAlphaDegree, capacity);
+			maxAlphaDegreeCount = Arrays.copyOf(maxAlphaDegreeCount, capacity);
+		}
+		int b = ballCount++;
+		ballDegree[b] = 0;
+		maxAlphaDegree[b] = 0;
+		maxAlphaDegreeCount[b] = 0;
+		if (ballLinks[b] == null) {
+			ballLinks[b] = new int[2];
+		}
+		return b;
+	}
+
+	/**
+	 * Add an alpha without links and return its id.
+	 *
+	 * @mutates this
+	 * @post | result == old(getAlphaCount())
+	 * @post | getAlphaCount() == old(getAlphaCount()) + 1
+	 * @post | getAlphaDegree(result) == 0
+	 */
+	public int addAlpha() {
+		if (alphaCount == alphaLinks.length) {
+			int capacity = Math.max(4, 2 * alphaCount);
+			alphaLinks = Arrays.copyOf(alphaLinks, capacity);
+			alphaDegree = Arrays.copyOf(alphaDegree, capacity);
+		}
+		int a = alphaCount++;
+		alphaDegree[a] = 0;
+		if (alphaLinks[a] == null) {
+			alphaLinks[a] = new int[2];
+		}
+		return a;
+	}
+
+	/**
+	 * Link ball `b` to alpha `a`, and return whether they were not linked yet.
+	 *
+	 * @pre | 0 <= b && b < getBallCount()
+	 * @pre | 0 <= a && a < getAlphaCount()
+	 * @mutates this
+	 * @post | result == !old(isLinked(b, a))
+	 * @post | isLinked(b, a)
+	 * @post | getBallDegree(b) == old(getBallDegree(b)) + (result ? 1 : 0)
+	 * @post | getAlphaDegree(a) == old(getAlphaDegree(a)) + (result ? 1 : 0)
+	 */
+	public boolean link(int b, int a) {
+		if (isLinked(b, a)) {
+			return false;
+		}
+		if (ballDegree[b] == ballLinks[b].length) {
+			ballLinks[b] = Arrays.copyOf(ballLinks[b], 2 * ballLinks[b].length);
+		}
+		ballLinks[b][ballDegree[b]++] = a;
+		if (alphaDegree[a] == alphaLinks[a].length) {
+			alphaLinks[a] = Arrays.copyOf(alphaLinks[a], 2 * alphaLinks[a].length);
+		}
+		alphaLinks[a][alphaDegree[a]++] = b;
+
+		int degree = alphaDegree[a];
+		for (int k = 0; k < degree - 1; k++) {
+			alphaDegreeChanged(alphaLinks[a][k], degree - 1, degree);
+		}
+		alphaReached(b, degree);
+		return true;
+	}
+
+	/**
+	 * Remove the link between ball `b` and alpha `a`, and return whether there was one.
+	 *
+	 * @pre | 0 <= b && b < getBallCount()
+	 * @pre | 0 <= a && a < getAlphaCount()
+	 * @mutates this
+	 * @post | result == old(isLinked(b, a))
+	 * @post | !isLinked(b, a)
+	 * @post | getBallDegree(b) == old(getBallDegree(b)) - (result ? 1 : 0)
+	 * @post | getAlphaDegree(a) == old(getAlphaDegree(a)) - (result ? 1 : 0)
+	 */
+	public boolean unlink(int b, int a) {
+		int k = indexOf(ballLinks[b], ballDegree[b], a);
+		if (k < 0) {
+			return false;
+		}
+		ballLinks[b][k] = ballLinks[b][--ballDegree[b]];
+		k = indexOf(alphaLinks[a], alphaDegree[a], b);
+		alphaLinks[a][k] = alphaLinks[a][--alphaDegree[a]];
+
+		int degree = alphaDegree[a];
+		for (k = 0; k < degree; k++) {
+			alphaDegreeChanged(alphaLinks[a][k], degree + 1, degree);
+		}
+		alphaLeft(b, degree + 1);
+		return true;
+	}
+
+	// Ball `b` now has an alpha with `degree` balls that it did not have before.
+	private void alphaReached(int b, int degree) {
+		if (degree > maxAlphaDegree[b]) {
+			maxAlphaDegree[b] = degree;
+			maxAlphaDegreeCount[b] = 1;
+		} else if (degree == maxAlphaDegree[b]) {
+			maxAlphaDegreeCount[b]++;
+		}
+	}
+
+	// Ball `b` no longer has an alpha with `degree` balls that it had before.
+	private void alphaLeft(int b, int degree) {
+		if (degree == maxAlphaDegree[b] && --maxAlphaDegreeCount[b] == 0) {
+			recountMaxAlphaDegree(b);
+		}
+	}
+
+	// The degree of one of the alphas of ball `b` went from `oldDegree` to `newDegree`.
+	// Counting the new degree first means a recount in alphaLeft already sees it.
+	private void alphaDegreeChanged(int b, int oldDegree, int newDegree) {
+		alphaReached(b, newDegree);
+		alphaLeft(b, oldDegree);
+	}
+
+	private void recountMaxAlphaDegree(int b) {
+		int max = 0;
+		int count = 0;
+		for (int k = 0; k < ballDegree[b]; k++) {
+			int degree = alphaDegree[ballLinks[b][k]];
+			if (degree > max) {
+				max = degree;
+				count = 1;
+			} else if (degree == max) {
+				count++;
+			}
+		}
+		maxAlphaDegree[b] = max;
+		maxAlphaDegreeCount[b] = count;
+	}
+
+	/**
+	 * Make this graph a copy of `other`: the same balls, alphas and links, with the
+	 * same ids and the linked balls and alphas in the same order. Storage of this
+	 * graph is reused, so this only allocates when `other` has more balls or
+	 * alphas, or longer adjacency lists, than this graph has room for.
+	 *
+	 * @pre | other != null
+	 * @inspects other
+	 * @mutates this
+	 * @post | getBallCount() == other.getBallCount()
+	 * @post | getAlphaCount() == other.getAlphaCount()
+	 * @post | IntStream.range(0, getBallCount()).allMatch(b -> getBallDegree(b) == other.getBallDegree(b) &&
+	 *       |     IntStream.range(0, getBallDegree(b)).allMatch(k -> getLinkedAlpha(b, k) == other.getLinkedAlpha(b, k)))
+	 */
+	public void copyFrom(LinkGraph other) {
+		if (ballLinks.length < other.ballCount) {
+			int capacity = other.ballCount;
+			ballLinks = Arrays.copyOf(ballLinks, capacity);
+			ballDegree = Arrays.copyOf(ballDegree, capacity);
+			maxAlphaDegree = Arrays.copyOf(maxAlphaDegree, capacity);
+			maxAlphaDegreeCount = Arrays.copyOf(maxAlphaDegreeCount, capacity);
+		}
+		if (alphaLinks.length < other.alphaCount) {
+			int capacity = other.alphaCount;
+			alphaLinks = Arrays.copyOf(alphaLinks, capacity);
+			alphaDegree = Arrays.copyOf(alphaDegree, capacity);
+		}
+		ballCount = other.ballCount;
+		alphaCount = other.alphaCount;
+		System.arraycopy(other.ballDegree, 0, ballDegree, 0, ballCount);
+		System.arraycopy(other.maxAlphaDegree, 0, maxAlphaDegree, 0, ballCount);
+		System.arraycopy(other.maxAlphaDegreeCount, 0, maxAlphaDegreeCount, 0, ballCount);
+		System.arraycopy(other.alphaDegree, 0, alphaDegree, 0, alphaCount);
+		copyLists(other.ballLinks, ballLinks, ballDegree, ballCount);
+		copyLists(other.alphaLinks, alphaLinks, alphaDegree, alphaCount);
+	}
+
+	private static void copyLists(int[][] from, int[][] to, int[] degree, int count) {
+		for (int i = 0; i < count; i++) {
+			if (to[i] == null || to[i].length < degree[i]) {
+				to[i] = new int[Math.max(2, from[i].length)];
+			}
+			System.arraycopy(from[i], 0, to[i], 0, degree[i]);
+		}
+	}
+
+	/**
+	 * Renumber the balls: ball `b` gets id `newIds[b]`, or is dropped if that is -1.
+	 * The surviving balls must keep their relative order and get the ids
+	 * 0 to `newCount - 1`; dropped balls must no longer have links.
+	 *
+	 * @pre | newIds != null && newIds.length >= getBallCount()
+	 * @pre | IntStream.range(0, getBallCount()).allMatch(b -> newIds[b] >= 0 || getBallDegree(b) == 0)
+	 * @pre | IntStream.range(0, getBallCount()).filter(b -> newIds[b] >= 0).count() == newCount
+	 * @inspects newIds
+	 * @mutates this
+	 * @post | getBallCount() == newCount
+	 */
+	public void compactBalls(int[] newIds, int newCount) {
+		for (int b = 0; b < ballCount; b++) {
+			if (newIds[b] >= 0) {
+				maxAlphaDegree[newIds[b]] = maxAlphaDegree[b];
+				maxAlphaDegreeCount[newIds[b]] = maxAlphaDegreeCount[b];
+			}
+		}
+		compact(ballLinks, ballDegree, ballCount, newIds);
+		ballCount = newCount;
+		renumber(alphaLinks, alphaDegree, alphaCount, newIds);
+	}
+
+	/**
+	 * Renumber the alphas: alpha `a` gets id `newIds[a]`, or is dropped if that is -1.
+	 * The surviving alphas must keep their relative order and get the ids
+	 * 0 to `newCount - 1`; dropped alphas must no longer have links.
+	 *
+	 * @pre | newIds != null && newIds.length >= getAlphaCount()
+	 * @pre | IntStream.range(0, getAlphaCount()).allMatch(a -> newIds[a] >= 0 || getAlphaDegree(a) == 0)
+	 * @pre | IntStream.range(0, getAlphaCount()).filter(a -> newIds[a] >= 0).count() == newCount
+	 * @inspects newIds
+	 * @mutates this
+	 * @post | getAlphaCount() == newCount
+	 */
+	public void compactAlphas(int[] newIds, int newCount) {
+		compact(alphaLinks, alphaDegree, alphaCount, newIds);
+		alphaCount = newCount;
+		renumber(ballLinks, ballDegree, ballCount, newIds);
+	}
+
+	private static int indexOf(int[] links, int degree, int id) {
+		for (int k = 0; k < degree; k++) {
+			if (links[k] == id) {
+				return k;
+			}
+		}
+		return -1;
+	}
+
+	// Move the adjacency list of each survivor to its new id; the lists of the
+	// dropped ids are swapped to the back so their storage is reused.
+	private static void compact(int[][] links, int[] degree, int count, int[] newIds) {
+		for (int i = 0; i < count; i++) {
+			int n = newIds[i];
+			if (n < 0 || n == i) {
+				continue;
+			}
+			int[] list = links[n];
+			links[n] = links[i];
+			links[i] = list;
+			degree[n] = degree[i];
+		}
+	}
+
+	private static void renumber(int[][] links, int[] degree, int count, int[] newIds) {
+		for (int i = 0; i < count; i++) {
+			for (int k = 0; k < degree[i]; k++) {
+				links[i][k] = newIds[links[i][k]];
+			}
+		}
+	}
+
+}
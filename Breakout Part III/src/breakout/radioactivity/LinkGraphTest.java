@@ -0,0 +1,149 @@
+package breakout.radioactivity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class LinkGraphTest {
+
+	@Test
+	void testLinkAndUnlink() {
+		LinkGraph graph = new LinkGraph();
+		int b0 = graph.addBall();
+		int b1 = graph.addBall();
+		int a0 = graph.addAlpha();
+		assertEquals(0, b0);
+		assertEquals(1, b1);
+		assertEquals(0, a0);
+
+		assertTrue(graph.link(b0, a0));
+		assertFalse(graph.link(b0, a0));
+		assertTrue(graph.link(b1, a0));
+		assertEquals(1, graph.getBallDegree(b0));
+		assertEquals(2, graph.getAlphaDegree(a0));
+		assertTrue(graph.isLinked(b1, a0));
+
+		assertTrue(graph.unlink(b0, a0));
+		assertFalse(graph.unlink(b0, a0));
+		assertEquals(0, graph.getBallDegree(b0));
+		assertEquals(1, graph.getAlphaDegree(a0));
+		assertEquals(b1, graph.getLinkedBall(a0, 0));
+		assertEquals(a0, graph.getLinkedAlpha(b1, 0));
+	}
+
+	@Test
+	void testCompact() {
+		LinkGraph graph = new LinkGraph();
+		for (int i = 0; i < 4; i++) {
+			graph.addBall();
+			graph.addAlpha();
+		}
+		graph.link(0, 3);
+		graph.link(2, 3);
+		graph.link(3, 1);
+		graph.link(3, 3);
+
+		// drop balls 1 and 2 (after unlinking ball 2) and alpha 0
+		graph.unlink(2, 3);
+		graph.compactBalls(new int[] { 0, -1, -1, 1 }, 2);
+		graph.compactAlphas(new int[] { -1, 0, 1, 2 }, 3);
+
+		assertEquals(2, graph.getBallCount());
+		assertEquals(3, graph.getAlphaCount());
+		assertTrue(graph.isLinked(0, 2));
+		assertTrue(graph.isLinked(1, 0));
+		assertTrue(graph.isLinked(1, 2));
+		assertEquals(2, graph.getAlphaDegree(2));
+		assertEquals(0, graph.getAlphaDegree(1));
+
+		// ids freed by compaction are handed out again, without links
+		assertEquals(2, graph.addBall());
+		assertEquals(0, graph.getBallDegree(2));
+	}
+
+	@Test
+	void testMatchesSetsOfPairs() {
+		Random random = new Random(7);
+		LinkGraph graph = new LinkGraph();
+		List<Set<Integer>> model = new ArrayList<>();
+		int alphas = 0;
+		for (int round = 0; round < 20000; round++) {
+			int op = random.nextInt(10);
+			if (op == 0 || model.isEmpty()) {
+				graph.addBall();
+				model.add(new HashSet<>());
+			} else if (op == 1 || alphas == 0) {
+				graph.addAlpha();
+				alphas++;
+			} else {
+				int b = random.nextInt(model.size());
+				int a = random.nextInt(alphas);
+				if (op < 7) {
+					assertEquals(model.get(b).add(a), graph.link(b, a));
+				} else {
+					assertEquals(model.get(b).remove(a), graph.unlink(b, a));
+				}
+			}
+		}
+
+		int[] alphaDegrees = new int[alphas];
+		for (int b = 0; b < model.size(); b++) {
+			Set<Integer> linked = new HashSet<>();
+			for (int k = 0; k < graph.getBallDegree(b); k++) {
+				linked.add(graph.getLinkedAlpha(b, k));
+			}
+			assertEquals(model.get(b), linked);
+			for (int a : linked) {
+				alphaDegrees[a]++;
+			}
+		}
+		for (int a = 0; a < alphas; a++) {
+			assertEquals(alphaDegrees[a], graph.getAlphaDegree(a));
+			for (int k = 0; k < graph.getAlphaDegree(a); k++) {
+				assertTrue(model.get(graph.getLinkedBall(a, k)).contains(a));
+			}
+		}
+	}
+
+	@Test
+	void testCopyFrom() {
+		Random random = new Random(3);
+		LinkGraph graph = new LinkGraph();
+		for (int i = 0; i < 30; i++) {
+			graph.addBall();
+			graph.addAlpha();
+		}
+		for (int i = 0; i < 200; i++) {
+			graph.link(random.nextInt(30), random.nextInt(30));
+		}
+		LinkGraph copy = new LinkGraph();
+		copy.addBall();
+		copy.link(0, copy.addAlpha());
+		copy.copyFrom(graph);
+
+		assertEquals(graph.getBallCount(), copy.getBallCount());
+		assertEquals(graph.getAlphaCount(), copy.getAlphaCount());
+		for (int b = 0; b < 30; b++) {
+			assertEquals(graph.getBallDegree(b), copy.getBallDegree(b));
+			assertEquals(graph.getEcharge(b), copy.getEcharge(b));
+			for (int k = 0; k < graph.getBallDegree(b); k++) {
+				assertEquals(graph.getLinkedAlpha(b, k), copy.getLinkedAlpha(b, k));
+			}
+		}
+		for (int a = 0; a < 30; a++) {
+			assertEquals(graph.getAlphaDegree(a), copy.getAlphaDegree(a));
+		}
+
+		// the copy is independent of the original
+		int alpha = copy.getLinkedAlpha(5, 0);
+		copy.unlink(5, alpha);
+		assertTrue(graph.isLinked(5, alpha));
+	}
+
+}
@@ -8,7 +8,18 @@ import breakout.utils.*;
 
 public class NormalBall extends Ball {
 
-	private static final Color BALL_COLOR = Color.yellow;
+	// Colors are only needed for painting. Keeping them in a holder class means
+	// that simulating a game does not load AWT.
+	private static class Colors {
+		static final Color BALL_COLOR = Color.yellow;
+	}
+
+	/**
+	 * Return the color normal balls are painted in.
+	 */
+	public static Color getNormalColor() {
+		return Colors.BALL_COLOR;
+	}
 
 	public NormalBall(Circle location, Vector velocity) {
 		super(location, velocity);
@@ -26,28 +37,28 @@ public class NormalBall extends Ball {
 	 */
 	@Override
 	public void hitBlock(Rect rect, boolean destroyed) {
-		velocity = bounceOn(rect);
+		reflectOn(rect);
 	}
 
 	@Override
-	public void move(Vector v, int elapsedTime) {
-		location = new Circle(getLocation().getCenter().plus(v), getLocation().getDiameter());
+	public void move(int dx, int dy, int elapsedTime) {
+		translate(dx, dy);
 	}
 
 	@Override
 	public void hitPaddle(Rect rect, Vector paddleVel) {
 		Vector nspeed = bounceOn(rect);
-		velocity = nspeed.plus(paddleVel.scaledDiv(5));
+		setVelocity(nspeed.plus(paddleVel.scaledDiv(5)));
 	}
 
 	@Override
 	public void hitWall(Rect rect) {
-		velocity = bounceOn(rect);
+		reflectOn(rect);
 	}
 
 	@Override
 	public Color getColor() {
-		return BALL_COLOR;
+		return Colors.BALL_COLOR;
 	}
 
 	@Override
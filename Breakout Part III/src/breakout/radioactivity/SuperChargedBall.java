@@ -10,7 +10,9 @@ import breakout.utils.*;
 public class SuperChargedBall extends NormalBall {
 
 	private int lifetime;
-	private static Color COLOR = Color.red;
+	private static class Colors {
+		static final Color COLOR = Color.red;
+	}
 
 	public SuperChargedBall(Circle location, Vector velocity, int lifetime) {
 		super(location, velocity);
@@ -47,22 +49,29 @@ public class SuperChargedBall extends NormalBall {
 	@Override
 	public Color getColor() {
 		if(lifetime >= 0) {
-			return COLOR;
+			return Colors.COLOR;
 		} else {
 			return super.getColor();
 		}
 	}
 
+	/**
+	 * Return the color supercharged balls are painted in while their lifetime lasts.
+	 */
+	public static Color getChargedColor() {
+		return Colors.COLOR;
+	}
+
 	public int getLifetime() {
 		return lifetime;
 	}
 	
 	@Override
-	public void move(Vector v, int elapsedTime) {
+	public void move(int dx, int dy, int elapsedTime) {
 		if(lifetime >= 0) {
 			lifetime -= elapsedTime;
 		}
-		location = new Circle(getLocation().getCenter().plus(v), getLocation().getDiameter());
+		translate(dx, dy);
 	}
 	
 	
@@ -0,0 +1,452 @@
+package breakout.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import breakout.BreakoutState;
+import breakout.GameMap;
+import breakout.headless.HeadlessRunner;
+
+/**
+ * Hosts many single-player games at once, each played by a client over a
+ * local TCP or Unix-domain socket.
+ *
+ * Every connection gets its own game, on the map the server was started with,
+ * which is ticked every `getTimeStep()` ms until it is won or lost. The
+ * protocol, with ints in big-endian order:
+ *
+ * - the client sends input messages of `INPUT_SIZE` bytes: the paddle
+ *   direction plus one (0 for left, 1 for standing still, 2 for right) and an
+ *   int sequence number of the client's choosing. The paddle keeps moving in
+ *   the last direction sent, like with the arrow keys in the GUI;
+ * - after every tick the server sends an update: the int length of the rest of
+ *   the update, a status byte (`RUNNING`, `WON` or `DEAD`), the int number of
+ *   the tick, the sequence number of the last input played in it, the int
+ *   latency of the tick in microseconds (how long after it was due it was
+ *   done), and a frame of a `StateStreamEncoder` for the game's state.
+ *
+ * After the update with a status other than `RUNNING` the game stops; the
+ * client closes the connection.
+ *
+ * Three kinds of threads share the work. One I/O thread accepts connections
+ * and reads input with a selector. One scheduler thread cuts time into slices
+ * of a millisecond and, at the start of every slice, hands the games that are
+ * due in it to a pool of worker threads, in batches of `BATCH_SIZE`. A game
+ * is due in the slice it joined in and then every `getTimeStep()` ms after
+ * that, so games that join in the same slice are ticked together and the
+ * load spreads over the slices of a time step. The worker that ticks a game
+ * also writes its update; only an update the socket does not take at once is
+ * left to the I/O thread. When the workers fall behind, a game whose previous
+ * tick was not played yet skips a tick, which counts as an overrun, so that
+ * the games slow down instead of the latency growing without bound.
+ *
+ * @invar | 1 <= getTimeStep() && getTimeStep() <= BreakoutState.MAX_ELAPSED_TIME
+ * @invar | getWorkerCount() >= 1
+ */
+public final class GameServer implements Closeable {
+
+	public static final int INPUT_SIZE = 1 + 4;
+	public static final int UPDATE_HEADER_SIZE = 4 + 1 + 4 + 4 + 4;
+	public static final byte RUNNING = 0;
+	public static final byte WON = 1;
+	public static final byte DEAD = 2;
+
+	/**
+	 * The number of games ticked by a single task on the worker pool.
+	 */
+	public static final int BATCH_SIZE = 64;
+
+	static final long SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+	/**
+	 * The most bytes of updates waiting for a client before it is disconnected.
+	 */
+	static final int MAX_PENDING_OUTPUT = 1 << 20;
+
+	/**
+	 * @invar | mapDescription != null
+	 * @invar | buckets.size() == timeStep
+	 * @representationObject
+	 */
+	private final String mapDescription;
+	private final int timeStep;
+	private final int workerCount;
+	private final ForkJoinPool workers;
+	// The games per slice of a time step; only used by the scheduler thread.
+	private final List<Bucket> buckets;
+	private final ConcurrentLinkedQueue<Session> joined = new ConcurrentLinkedQueue<>();
+	private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+	private final LongAdder ticks = new LongAdder();
+	private final LongAdder overruns = new LongAdder();
+
+	private ServerSocketChannel serverChannel;
+	private Selector selector;
+	private Path socketFile;
+	private Thread ioThread;
+	private Thread schedulerThread;
+	private volatile boolean running;
+
+	/**
+	 * Construct a server whose games are played on the map described by
+	 * `mapDescription`, in the format of `GameMap.createStateFromDescription`,
+	 * with ticks of `timeStep` ms, by `workerCount` worker threads.
+	 *
+	 * @throws IllegalArgumentException | mapDescription == null
+	 * @throws IllegalArgumentException if `mapDescription` does not describe a valid map
+	 * @throws IllegalArgumentException | timeStep < 1 || BreakoutState.MAX_ELAPSED_TIME < timeStep
+	 * @throws IllegalArgumentException | workerCount < 1
+	 * @post | getTimeStep() == timeStep
+	 * @post | getWorkerCount() == workerCount
+	 * @post | getSessionCount() == 0
+	 */
+	public GameServer(String mapDescription, int timeStep, int workerCount) {
+		if (mapDescription == null)
+			throw new IllegalArgumentException();
+		if (timeStep < 1 || BreakoutState.MAX_ELAPSED_TIME < timeStep)
+			throw new IllegalArgumentException();
+		if (workerCount < 1)
+			throw new IllegalArgumentException();
+		GameMap.createStateFromDescription(mapDescription);
+		this.mapDescription = mapDescription;
+		this.timeStep = timeStep;
+		this.workerCount = workerCount;
+		this.workers = new ForkJoinPool(workerCount);
+		this.buckets = new ArrayList<>(timeStep);
+		for (int i = 0; i < timeStep; i++) {
+			buckets.add(new Bucket());
+		}
+	}
+
+	public int getTimeStep() {
+		return timeStep;
+	}
+
+	public int getWorkerCount() {
+		return workerCount;
+	}
+
+	/**
+	 * Return the number of games being played: their game is not over and their
+	 * connection is open.
+	 */
+	public int getSessionCount() {
+		return sessions.size();
+	}
+
+	/**
+	 * Return the number of ticks played so far, over all games.
+	 */
+	public long getTicks() {
+		return ticks.sum();
+	}
+
+	/**
+	 * Return the number of ticks skipped because the previous tick of their game
+	 * was not played yet.
+	 */
+	public long getOverruns() {
+		return overruns.sum();
+	}
+
+	/**
+	 * Return the latencies of the ticks of the games being played.
+	 *
+	 * @creates result
+	 */
+	public LatencyHistogram getTickLatencies() {
+		LatencyHistogram result = new LatencyHistogram();
+		for (Session session : sessions) {
+			result.add(session.getLatencies());
+		}
+		return result;
+	}
+
+	/**
+	 * Start accepting connections on the given address, on the loopback
+	 * interface or a Unix-domain socket, and return the address the server is
+	 * bound to, which has the port chosen by the system for port 0.
+	 *
+	 * @throws IllegalArgumentException | address == null
+	 * @throws IllegalStateException if the server was started before
+	 * @throws IOException if the address cannot be bound
+	 */
+	public synchronized SocketAddress start(SocketAddress address) throws IOException {
+		if (address == null)
+			throw new IllegalArgumentException();
+		if (serverChannel != null)
+			throw new IllegalStateException("already started");
+		if (address instanceof UnixDomainSocketAddress unix) {
+			serverChannel = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+			socketFile = unix.getPath();
+		} else {
+			serverChannel = ServerSocketChannel.open();
+		}
+		try {
+			serverChannel.bind(address, 1024);
+			serverChannel.configureBlocking(false);
+			selector = Selector.open();
+			serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+		} catch (IOException e) {
+			serverChannel.close();
+			throw e;
+		}
+		running = true;
+		ioThread = new Thread(this::serveConnections, "breakout-server-io");
+		schedulerThread = new Thread(this::scheduleTicks, "breakout-server-scheduler");
+		ioThread.start();
+		schedulerThread.start();
+		return serverChannel.getLocalAddress();
+	}
+
+	/**
+	 * Stop the server: close all connections and stop its threads.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (!running) {
+			return;
+		}
+		running = false;
+		selector.wakeup();
+		try {
+			ioThread.join();
+			schedulerThread.join();
+			// let the ticks that were handed out finish, so that `getTicks()` no longer changes
+			workers.shutdown();
+			workers.awaitTermination(1, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		workers.shutdownNow();
+		// also the connections of games that are over, which are no longer in `sessions`
+		for (SelectionKey key : selector.keys()) {
+			if (key.attachment() instanceof Session session) {
+				session.close();
+			}
+		}
+		selector.close();
+		serverChannel.close();
+		if (socketFile != null) {
+			Files.deleteIfExists(socketFile);
+		}
+	}
+
+	/**
+	 * Stop counting the given session, because its game is over or its
+	 * connection is closed. The scheduler drops it from its bucket the next
+	 * time the bucket is due.
+	 */
+	void retire(Session session) {
+		sessions.remove(session);
+	}
+
+	private void serveConnections() {
+		try {
+			while (running) {
+				selector.select();
+				for (SelectionKey key : selector.selectedKeys()) {
+					if (!key.isValid()) {
+						continue;
+					}
+					if (key.isAcceptable()) {
+						accept();
+						continue;
+					}
+					Session session = (Session) key.attachment();
+					try {
+						if (key.isReadable() && !session.read()) {
+							session.close();
+						} else if (key.isValid() && key.isWritable()) {
+							session.flush();
+						}
+					} catch (IOException e) {
+						session.close();
+					}
+				}
+				selector.selectedKeys().clear();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void accept() throws IOException {
+		SocketChannel channel;
+		while ((channel = serverChannel.accept()) != null) {
+			channel.configureBlocking(false);
+			if (socketFile == null) {
+				channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			}
+			SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+			Session session = new Session(this, channel, key,
+					GameMap.createStateFromDescription(mapDescription));
+			key.attach(session);
+			sessions.add(session);
+			joined.add(session);
+		}
+	}
+
+	private void scheduleTicks() {
+		long origin = System.nanoTime();
+		for (long slice = 0; running; slice++) {
+			long due = origin + slice * SLICE_NANOS;
+			long wait;
+			while ((wait = due - System.nanoTime()) > 0 && running) {
+				LockSupport.parkNanos(wait);
+			}
+			Bucket bucket = buckets.get((int) (slice % timeStep));
+			Session joining;
+			while ((joining = joined.poll()) != null) {
+				bucket.members.add(joining);
+			}
+			bucket.members.removeIf(Session::isDone);
+			int batches = 0;
+			Batch batch = null;
+			for (Session session : bucket.members) {
+				if (!session.schedule()) {
+					overruns.increment();
+					continue;
+				}
+				if (batch == null) {
+					batch = bucket.batch(batches++, due);
+				}
+				batch.games[batch.size++] = session;
+				if (batch.size == BATCH_SIZE) {
+					workers.execute(batch);
+					batch = null;
+				}
+			}
+			if (batch != null) {
+				workers.execute(batch);
+			}
+		}
+	}
+
+	/**
+	 * The games that are due in one slice of a time step, and the tasks that
+	 * tick them, which are reused from one time step to the next so that
+	 * scheduling allocates nothing once the games are running.
+	 */
+	private final class Bucket {
+
+		final List<Session> members = new ArrayList<>();
+		private final List<Batch> batches = new ArrayList<>();
+
+		// Return the task for the given batch of this bucket, empty and due at `due`.
+		Batch batch(int index, long due) {
+			Batch batch;
+			if (index == batches.size()) {
+				batch = new Batch();
+				batches.add(batch);
+			} else {
+				batch = batches.get(index);
+				if (batch.isDone()) {
+					batch.reinitialize();
+				} else {
+					// still ticking the previous time step; leave it to finish
+					batch = new Batch();
+					batches.set(index, batch);
+				}
+			}
+			batch.size = 0;
+			batch.due = due;
+			return batch;
+		}
+
+	}
+
+	/**
+	 * Ticks up to `BATCH_SIZE` games on a worker thread.
+	 */
+	private final class Batch extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		final Session[] games = new Session[BATCH_SIZE];
+		int size;
+		long due;
+
+		@Override
+		protected void compute() {
+			for (int i = 0; i < size; i++) {
+				if (games[i].tick(due, timeStep)) {
+					ticks.increment();
+				}
+				games[i] = null;
+			}
+		}
+
+	}
+
+	/**
+	 * Return the address for the given argument: a port on the loopback
+	 * interface if it is a number, and a Unix-domain socket at that path otherwise.
+	 *
+	 * @throws IllegalArgumentException | argument == null
+	 */
+	public static SocketAddress parseAddress(String argument) {
+		if (argument == null)
+			throw new IllegalArgumentException();
+		if (argument.chars().allMatch(Character::isDigit) && !argument.isEmpty()) {
+			return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(argument));
+		}
+		return UnixDomainSocketAddress.of(argument);
+	}
+
+	/**
+	 * Serve games on the map described in the given file (in the format of
+	 * `GameMap.createStateFromDescription`) until killed, and print how it goes
+	 * every five seconds.
+	 *
+	 * Usage: GameServer MAPFILE PORT|SOCKETPATH [WORKERS [TIMESTEP]]
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length < 2 || args.length > 4) {
+			System.err.println("Usage: GameServer MAPFILE PORT|SOCKETPATH [WORKERS [TIMESTEP]]");
+			System.exit(2);
+		}
+		String description = Files.readString(Path.of(args[0]));
+		int workers = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+		int timeStep = args.length > 3 ? Integer.parseInt(args[3]) : HeadlessRunner.DEFAULT_TIME_STEP;
+		GameServer server = new GameServer(description, timeStep, workers);
+		System.out.println("Listening on " + server.start(parseAddress(args[1])));
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			try {
+				server.close();
+			} catch (IOException e) {
+				// exiting anyway
+			}
+		}));
+		long lastTicks = 0;
+		while (true) {
+			Thread.sleep(5000);
+			long ticks = server.getTicks();
+			System.out.printf("%d sessions, %.0f ticks/s, %d overruns, tick latency %s%n", server.getSessionCount(),
+					(ticks - lastTicks) / 5.0, server.getOverruns(), server.getTickLatencies());
+			lastTicks = ticks;
+		}
+	}
+
+}
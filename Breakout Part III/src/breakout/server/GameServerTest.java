@@ -0,0 +1,145 @@
+package breakout.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import breakout.BreakoutState;
+import breakout.GameMap;
+import breakout.StateStreamDecoder;
+import breakout.gui.BreakoutApplication;
+
+class GameServerTest {
+
+	static final SocketAddress ANY_PORT = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+
+	// Read the next update from a blocking channel, apply its frame and return its header.
+	static int[] readUpdate(SocketChannel channel, StateStreamDecoder decoder) throws IOException {
+		ByteBuffer length = ByteBuffer.allocate(4);
+		while (length.hasRemaining()) {
+			assertTrue(channel.read(length) >= 0);
+		}
+		ByteBuffer update = ByteBuffer.allocate(length.flip().getInt());
+		while (update.hasRemaining()) {
+			assertTrue(channel.read(update) >= 0);
+		}
+		update.flip();
+		int[] header = { update.get(), update.getInt(), update.getInt(), update.getInt() };
+		decoder.apply(update);
+		return header;
+	}
+
+	@Test
+	void testPlayOneGame() throws IOException {
+		try (GameServer server = new GameServer(BreakoutApplication.initMap2, 20, 2)) {
+			SocketAddress address = server.start(ANY_PORT);
+			try (SocketChannel channel = SocketChannel.open(address)) {
+				StateStreamDecoder decoder = new StateStreamDecoder();
+				int[] first = readUpdate(channel, decoder);
+				assertEquals(GameServer.RUNNING, first[0]);
+				assertEquals(1, first[1]);
+				assertEquals(0, first[2]);
+				assertTrue(first[3] >= 0);
+				BreakoutState expected = GameMap.createStateFromDescription(BreakoutApplication.initMap2);
+				expected.tick(0, 20);
+				assertEquals(expected.checksum(), decoder.getState().checksum());
+
+				int startX = decoder.getState().getPaddle().getCenter().getX();
+				channel.write(ByteBuffer.allocate(GameServer.INPUT_SIZE).put((byte) 2).putInt(7).flip());
+				int[] header;
+				do {
+					header = readUpdate(channel, decoder);
+				} while (header[2] != 7);
+				int movedX = decoder.getState().getPaddle().getCenter().getX();
+				assertTrue(movedX > startX);
+				readUpdate(channel, decoder);
+				assertTrue(decoder.getState().getPaddle().getCenter().getX() > movedX);
+				assertEquals(1, server.getSessionCount());
+			}
+		}
+	}
+
+	@Test
+	void testGameOverRetiresSession() throws IOException, InterruptedException {
+		// without a ball the game is lost in its first tick
+		try (GameServer server = new GameServer("#\n\n\n=\n", 20, 1)) {
+			SocketAddress address = server.start(ANY_PORT);
+			try (SocketChannel channel = SocketChannel.open(address)) {
+				int[] header = readUpdate(channel, new StateStreamDecoder());
+				assertEquals(GameServer.DEAD, header[0]);
+				assertEquals(0, server.getSessionCount());
+				assertEquals(0, server.getTickLatencies().getCount());
+				// the game is no longer ticked, though the connection is still open
+				Thread.sleep(100);
+				channel.configureBlocking(false);
+				assertEquals(0, channel.read(ByteBuffer.allocate(1)));
+				assertEquals(1, server.getTicks());
+			}
+		}
+	}
+
+	// Check what holds however fast the machine is: every player was played and
+	// no game got more updates than there were time steps while it ran. The
+	// client itself checks that the ticks and echoed inputs of a game are in order.
+	static void checkReports(GameServer server, List<SessionReport> reports, int players, long elapsedMillis)
+			throws IOException {
+		server.close();
+		assertEquals(players, reports.size());
+		long updates = 0;
+		for (SessionReport report : reports) {
+			assertTrue(report.getUpdates() > 0, report.toString());
+			assertTrue(report.getUpdates() <= elapsedMillis / server.getTimeStep() + report.getGames() + 1,
+					report.toString());
+			LatencyHistogram ticks = report.getTickLatencies();
+			assertEquals(report.getUpdates(), ticks.getCount());
+			assertTrue(ticks.getPercentile(50) <= ticks.getPercentile(99));
+			assertTrue(report.getInputLatencies().getCount() <= report.getUpdates());
+			updates += report.getUpdates();
+		}
+		assertTrue(updates <= server.getTicks());
+	}
+
+	@Test
+	void testLoadTestOverTcp() throws IOException {
+		try (GameServer server = new GameServer(BreakoutApplication.initMap2, 20, 2)) {
+			SocketAddress address = server.start(ANY_PORT);
+			long start = System.nanoTime();
+			List<SessionReport> reports = new LoadTestClient(address, 20, 5, true, 1).run(1500);
+			checkReports(server, reports, 20, (System.nanoTime() - start) / 1_000_000);
+		}
+	}
+
+	@Test
+	void testLoadTestOverUnixSocket(@TempDir Path dir) throws IOException {
+		SocketAddress address = UnixDomainSocketAddress.of(dir.resolve("breakout.sock"));
+		try (GameServer server = new GameServer(BreakoutApplication.initMap, 20, 1)) {
+			server.start(address);
+			assertThrows(IllegalStateException.class, () -> server.start(address));
+			long start = System.nanoTime();
+			List<SessionReport> reports = new LoadTestClient(address, 5, 5, false, 2).run(500);
+			checkReports(server, reports, 5, (System.nanoTime() - start) / 1_000_000);
+		}
+	}
+
+	@Test
+	void testInvalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new GameServer(null, 20, 1));
+		assertThrows(IllegalArgumentException.class, () -> new GameServer(BreakoutApplication.initMap, 0, 1));
+		assertThrows(IllegalArgumentException.class, () -> new GameServer(BreakoutApplication.initMap, 20, 0));
+		assertThrows(IllegalArgumentException.class, () -> new LoadTestClient(ANY_PORT, 0, 1, false, 0));
+		assertEquals(new InetSocketAddress(InetAddress.getLoopbackAddress(), 4000), GameServer.parseAddress("4000"));
+		assertEquals(UnixDomainSocketAddress.of("/tmp/breakout.sock"), GameServer.parseAddress("/tmp/breakout.sock"));
+	}
+
+}
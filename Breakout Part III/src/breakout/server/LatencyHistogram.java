@@ -0,0 +1,142 @@
+package breakout.server;
+
+/**
+ * Counts latencies, in microseconds, in buckets that are exact below 64 us and
+ * then 32 to every power of two, so that a percentile is off by at most about
+ * 3%, in constant space however many latencies are recorded.
+ *
+ * The methods are synchronized, so that a histogram filled by one thread can
+ * be read by another.
+ *
+ * @invar | getCount() >= 0
+ * @invar | getMax() >= 0
+ */
+public final class LatencyHistogram {
+
+	private static final int EXACT = 64;
+	private static final int SUB_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	/**
+	 * Larger latencies, over 6 days, are counted as this one.
+	 */
+	private static final long LIMIT = (1L << 39) - 1;
+
+	/**
+	 * @invar | counts.length == EXACT + (39 - 6) * SUB_BUCKETS
+	 * @invar | count >= 0 && max >= 0
+	 * @representationObject
+	 */
+	private final long[] counts = new long[EXACT + (39 - 6) * SUB_BUCKETS];
+	private long count;
+	private long max;
+
+	/**
+	 * @post | getCount() == 0
+	 * @post | getMax() == 0
+	 */
+	public LatencyHistogram() {
+	}
+
+	static int bucket(long micros) {
+		if (micros < EXACT) {
+			return (int) micros;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(micros);
+		int sub = (int) (micros >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return EXACT + (exponent - 6) * SUB_BUCKETS + sub;
+	}
+
+	// The largest latency counted in the given bucket.
+	static long highest(int bucket) {
+		if (bucket < EXACT) {
+			return bucket;
+		}
+		int exponent = (bucket - EXACT) / SUB_BUCKETS + 6;
+		int sub = (bucket - EXACT) % SUB_BUCKETS;
+		long lowest = (long) (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+		return lowest + (1L << (exponent - SUB_BITS)) - 1;
+	}
+
+	/**
+	 * Count the given latency. Negative latencies are counted as 0.
+	 *
+	 * @mutates this
+	 * @post | getCount() == old(getCount()) + 1
+	 */
+	public synchronized void record(long micros) {
+		micros = Math.max(0, Math.min(micros, LIMIT));
+		counts[bucket(micros)]++;
+		count++;
+		max = Math.max(max, micros);
+	}
+
+	/**
+	 * Add the latencies counted by `other` to this histogram.
+	 *
+	 * @throws IllegalArgumentException | other == null || other == this
+	 * @mutates this
+	 * @inspects other
+	 * @post | getCount() == old(getCount()) + other.getCount()
+	 */
+	public void add(LatencyHistogram other) {
+		if (other == null || other == this)
+			throw new IllegalArgumentException();
+		long[] otherCounts;
+		long otherCount;
+		long otherMax;
+		synchronized (other) {
+			otherCounts = other.counts.clone();
+			otherCount = other.count;
+			otherMax = other.max;
+		}
+		synchronized (this) {
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] += otherCounts[i];
+			}
+			count += otherCount;
+			max = Math.max(max, otherMax);
+		}
+	}
+
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * Return the largest latency counted, or 0 if there are none.
+	 */
+	public synchronized long getMax() {
+		return max;
+	}
+
+	/**
+	 * Return the latency below or at which `percentile` percent of the counted
+	 * latencies are, rounded up to the end of its bucket, or 0 if there are none.
+	 *
+	 * @throws IllegalArgumentException | !(0 <= percentile && percentile <= 100)
+	 * @post | result <= getMax()
+	 */
+	public synchronized long getPercentile(double percentile) {
+		if (!(0 <= percentile && percentile <= 100))
+			throw new IllegalArgumentException();
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(highest(i), max);
+			}
+		}
+		return max;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("p50 %d us, p99 %d us, max %d us (%d samples)", getPercentile(50), getPercentile(99),
+				max, count);
+	}
+
+}
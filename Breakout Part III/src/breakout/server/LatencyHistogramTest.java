@@ -0,0 +1,54 @@
+package breakout.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+	@Test
+	void testPercentiles() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getPercentile(99));
+		for (int micros = 1; micros <= 10_000; micros++) {
+			histogram.record(micros);
+		}
+		assertEquals(10_000, histogram.getCount());
+		assertEquals(10_000, histogram.getMax());
+		assertEquals(1, histogram.getPercentile(0));
+		assertEquals(50, histogram.getPercentile(0.5));
+		assertEquals(5000, histogram.getPercentile(50), 5000 / 32);
+		assertEquals(9900, histogram.getPercentile(99), 9900 / 32);
+		assertTrue(histogram.getPercentile(99) >= 9900);
+		assertEquals(10_000, histogram.getPercentile(100));
+		assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(101));
+	}
+
+	@Test
+	void testBuckets() {
+		for (long micros = 0; micros < 1 << 20; micros += 7) {
+			int bucket = LatencyHistogram.bucket(micros);
+			assertTrue(micros <= LatencyHistogram.highest(bucket));
+			assertTrue(bucket == 0 || micros > LatencyHistogram.highest(bucket - 1));
+		}
+	}
+
+	@Test
+	void testAdd() {
+		LatencyHistogram fast = new LatencyHistogram();
+		LatencyHistogram slow = new LatencyHistogram();
+		for (int i = 0; i < 98; i++) {
+			fast.record(100);
+		}
+		slow.record(-5);
+		slow.record(1_000_000);
+		fast.add(slow);
+		assertEquals(100, fast.getCount());
+		assertEquals(1_000_000, fast.getMax());
+		assertEquals(0, fast.getPercentile(0));
+		assertEquals(100, fast.getPercentile(99), 100 / 32);
+		assertTrue(fast.getPercentile(100) >= 1_000_000 - 1_000_000 / 32);
+		assertThrows(IllegalArgumentException.class, () -> fast.add(fast));
+	}
+
+}
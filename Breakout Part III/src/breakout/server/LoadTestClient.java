@@ -0,0 +1,255 @@
+package breakout.server;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.StandardSocketOptions;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import breakout.StateStreamDecoder;
+
+/**
+ * Plays many games on a `GameServer` at once, from a single thread, to see
+ * how the server copes: every simulated player holds a connection, changes its
+ * paddle direction at random every `inputInterval` ticks, and starts a new game
+ * on a new connection when its game ends.
+ *
+ * Optionally every player also decodes the frames it gets, like a real client
+ * that draws the game, which costs the client far more than the server.
+ *
+ * The client checks that the tick numbers of a game's updates go up and that
+ * the inputs they echo go neither back nor ahead of what was sent.
+ */
+public final class LoadTestClient {
+
+	private final SocketAddress address;
+	private final int players;
+	private final int inputInterval;
+	private final boolean decodeFrames;
+	private final long seed;
+
+	/**
+	 * @throws IllegalArgumentException | address == null
+	 * @throws IllegalArgumentException | players < 1 || inputInterval < 1
+	 */
+	public LoadTestClient(SocketAddress address, int players, int inputInterval, boolean decodeFrames, long seed) {
+		if (address == null)
+			throw new IllegalArgumentException();
+		if (players < 1 || inputInterval < 1)
+			throw new IllegalArgumentException();
+		this.address = address;
+		this.players = players;
+		this.inputInterval = inputInterval;
+		this.decodeFrames = decodeFrames;
+		this.seed = seed;
+	}
+
+	private final class Player {
+
+		final int number;
+		final SplittableRandom random;
+		final LatencyHistogram tickLatencies = new LatencyHistogram();
+		final LatencyHistogram inputLatencies = new LatencyHistogram();
+		int games;
+		long updates;
+
+		SocketChannel channel;
+		StateStreamDecoder decoder;
+		ByteBuffer in = ByteBuffer.allocate(1 << 12);
+		final ByteBuffer out = ByteBuffer.allocate(64 * GameServer.INPUT_SIZE);
+		int lastSeq;
+		long lastSentAt;
+		int lastTick;
+		int lastPlayedSeq;
+
+		Player(int number) {
+			this.number = number;
+			this.random = new SplittableRandom(seed + number);
+		}
+
+		void connect(Selector selector) throws IOException {
+			channel = SocketChannel.open(address instanceof UnixDomainSocketAddress ? StandardProtocolFamily.UNIX
+					: StandardProtocolFamily.INET);
+			channel.configureBlocking(false);
+			if (!(address instanceof UnixDomainSocketAddress)) {
+				channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			}
+			decoder = decodeFrames ? new StateStreamDecoder() : null;
+			in.clear();
+			out.clear();
+			lastSentAt = 0;
+			lastTick = 0;
+			lastPlayedSeq = 0;
+			if (channel.connect(address)) {
+				channel.register(selector, SelectionKey.OP_READ, this);
+			} else {
+				channel.register(selector, SelectionKey.OP_CONNECT, this);
+			}
+		}
+
+		// Read the updates that arrived, and return false once the game is over.
+		boolean read() throws IOException {
+			if (channel.read(in) < 0) {
+				throw new IOException("server closed the connection of player " + number);
+			}
+			in.flip();
+			try {
+				while (in.remaining() >= 4) {
+					int length = in.getInt(in.position());
+					if (in.remaining() < 4 + length) {
+						if (in.capacity() < 4 + length) {
+							ByteBuffer larger = ByteBuffer.allocate(Math.max(4 + length, 2 * in.capacity()));
+							larger.put(in);
+							in = larger.flip();
+						}
+						break;
+					}
+					long now = System.nanoTime();
+					in.getInt();
+					byte status = in.get();
+					int tick = in.getInt();
+					int seq = in.getInt();
+					int latency = in.getInt();
+					if (tick <= lastTick || seq - lastPlayedSeq < 0 || lastSeq - seq < 0) {
+						throw new IOException("update out of order for player " + number + ": tick " + tick
+								+ ", input " + seq);
+					}
+					lastTick = tick;
+					lastPlayedSeq = seq;
+					int frameEnd = in.position() + length - (GameServer.UPDATE_HEADER_SIZE - 4);
+					if (decoder != null) {
+						decoder.apply(in.duplicate().limit(frameEnd));
+					}
+					in.position(frameEnd);
+					updates++;
+					tickLatencies.record(latency);
+					if (lastSentAt != 0 && seq == lastSeq) {
+						inputLatencies.record((now - lastSentAt) / 1000);
+						lastSentAt = 0;
+					}
+					if (status != GameServer.RUNNING) {
+						games++;
+						return false;
+					}
+					if (tick % inputInterval == 0) {
+						send(now);
+					}
+				}
+			} finally {
+				in.compact();
+			}
+			return true;
+		}
+
+		void send(long now) throws IOException {
+			out.put((byte) random.nextInt(3));
+			out.putInt(++lastSeq);
+			lastSentAt = now;
+			flush();
+		}
+
+		void flush() throws IOException {
+			out.flip();
+			channel.write(out);
+			out.compact();
+		}
+
+		SessionReport report() {
+			return new SessionReport(number, games, updates, tickLatencies, inputLatencies);
+		}
+
+	}
+
+	/**
+	 * Play for `durationMillis` ms and return a report per player.
+	 *
+	 * @throws IllegalArgumentException | durationMillis < 0
+	 * @throws IOException if a connection fails or the server closes one
+	 */
+	public List<SessionReport> run(long durationMillis) throws IOException {
+		if (durationMillis < 0)
+			throw new IllegalArgumentException();
+		List<Player> all = new ArrayList<>();
+		try (Selector selector = Selector.open()) {
+			for (int i = 0; i < players; i++) {
+				Player player = new Player(i);
+				all.add(player);
+				player.connect(selector);
+			}
+			long end = System.nanoTime() + durationMillis * 1_000_000;
+			long left;
+			while ((left = end - System.nanoTime()) > 0) {
+				selector.select(Math.max(1, left / 1_000_000));
+				for (SelectionKey key : selector.selectedKeys()) {
+					Player player = (Player) key.attachment();
+					if (key.isConnectable()) {
+						player.channel.finishConnect();
+						key.interestOps(SelectionKey.OP_READ);
+					} else if (key.isReadable() && !player.read()) {
+						player.channel.close();
+						player.connect(selector);
+					}
+				}
+				selector.selectedKeys().clear();
+			}
+		} finally {
+			for (Player player : all) {
+				if (player.channel != null) {
+					player.channel.close();
+				}
+			}
+		}
+		List<SessionReport> reports = new ArrayList<>();
+		for (Player player : all) {
+			reports.add(player.report());
+		}
+		return reports;
+	}
+
+	/**
+	 * Run a load test against a server on this machine and print the p50 and
+	 * p99 tick and input latencies of every player, slowest first, after a
+	 * summary over all players.
+	 *
+	 * Usage: LoadTestClient PORT|SOCKETPATH PLAYERS SECONDS [INPUTINTERVAL [decode]]
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3 || args.length > 5) {
+			System.err.println("Usage: LoadTestClient PORT|SOCKETPATH PLAYERS SECONDS [INPUTINTERVAL [decode]]");
+			System.exit(2);
+		}
+		SocketAddress address = GameServer.parseAddress(args[0]);
+		int players = Integer.parseInt(args[1]);
+		long seconds = Long.parseLong(args[2]);
+		int inputInterval = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+		boolean decode = args.length > 4 && args[4].equals("decode");
+		List<SessionReport> reports = new LoadTestClient(address, players, inputInterval, decode, 42)
+				.run(seconds * 1000);
+
+		LatencyHistogram ticks = new LatencyHistogram();
+		LatencyHistogram inputs = new LatencyHistogram();
+		long updates = 0;
+		for (SessionReport report : reports) {
+			ticks.add(report.getTickLatencies());
+			inputs.add(report.getInputLatencies());
+			updates += report.getUpdates();
+		}
+		System.out.printf("%d players, %.0f updates/s%n", players, updates / (double) seconds);
+		System.out.println("tick latency:  " + ticks);
+		System.out.println("input latency: " + inputs);
+		reports.sort(Comparator.comparingLong((SessionReport report) -> report.getTickLatencies().getPercentile(99))
+				.reversed());
+		for (SessionReport report : reports) {
+			System.out.println(report);
+		}
+	}
+
+}
@@ -0,0 +1,202 @@
+package breakout.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import breakout.BreakoutState;
+import breakout.StateStreamEncoder;
+
+/**
+ * One game of a `GameServer` and the connection of its player.
+ *
+ * The I/O thread of the server reads the input and flushes output the socket
+ * did not take at once; the worker threads tick the game and write the
+ * updates. `scheduled` makes sure a session is handed to only one worker at a
+ * time, and `outputLock` guards the output that is waiting to be written.
+ */
+final class Session {
+
+	private final GameServer server;
+	private final SocketChannel channel;
+	private final SelectionKey key;
+	private final BreakoutState state;
+	private final StateStreamEncoder encoder = new StateStreamEncoder(StateStreamEncoder.DEFAULT_KEYFRAME_INTERVAL);
+	private final LatencyHistogram latencies = new LatencyHistogram();
+
+	private final ByteBuffer inputBuffer = ByteBuffer.allocate(16 * GameServer.INPUT_SIZE);
+	/**
+	 * The last input, written by the I/O thread and read by the workers: the
+	 * sequence number in the high 32 bits and the paddle direction plus one in
+	 * the low ones, so that both are read together. Before the first input the
+	 * paddle stands still.
+	 */
+	private volatile long input = 1;
+
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	private volatile boolean over;
+	private volatile boolean closed;
+	private int ticks;
+	private ByteBuffer update = ByteBuffer.allocate(1 << 10);
+
+	private final Object outputLock = new Object();
+	/**
+	 * The bytes that still have to be written, from 0 to the position.
+	 */
+	private ByteBuffer output = ByteBuffer.allocate(1 << 10);
+
+	Session(GameServer server, SocketChannel channel, SelectionKey key, BreakoutState state) {
+		this.server = server;
+		this.channel = channel;
+		this.key = key;
+		this.state = state;
+	}
+
+	LatencyHistogram getLatencies() {
+		return latencies;
+	}
+
+	/**
+	 * Return whether this session no longer needs ticks: its game is over or its
+	 * connection is closed.
+	 */
+	boolean isDone() {
+		return over || closed;
+	}
+
+	/**
+	 * Read the input that arrived, and return false if the connection ended or
+	 * sent something that is not input.
+	 */
+	boolean read() throws IOException {
+		if (channel.read(inputBuffer) < 0) {
+			return false;
+		}
+		inputBuffer.flip();
+		while (inputBuffer.remaining() >= GameServer.INPUT_SIZE) {
+			int dir = inputBuffer.get() - 1;
+			int seq = inputBuffer.getInt();
+			if (dir < -1 || 1 < dir) {
+				return false;
+			}
+			input = ((long) seq << 32) | (dir + 1);
+		}
+		inputBuffer.compact();
+		return true;
+	}
+
+	/**
+	 * Mark this session as handed to a worker for its next tick, and return false
+	 * if its previous tick was not played yet.
+	 */
+	boolean schedule() {
+		return scheduled.compareAndSet(false, true);
+	}
+
+	/**
+	 * Play the tick that was due at `dueNanos` and send the update, and return
+	 * whether the tick was played. The session must have been scheduled.
+	 */
+	boolean tick(long dueNanos, int timeStep) {
+		try {
+			if (isDone()) {
+				return false;
+			}
+			long last = input;
+			int seq = (int) (last >>> 32);
+			int dir = (int) last - 1;
+			if (dir == -1) {
+				state.movePaddleLeft(timeStep);
+			} else if (dir == 1) {
+				state.movePaddleRight(timeStep);
+			}
+			state.tick(dir, timeStep);
+			ticks++;
+			byte status = state.isWon() ? GameServer.WON : state.isDead() ? GameServer.DEAD : GameServer.RUNNING;
+			ByteBuffer frame = encoder.encode(state);
+			long latency = (System.nanoTime() - dueNanos) / 1000;
+			latencies.record(latency);
+
+			int length = GameServer.UPDATE_HEADER_SIZE + frame.remaining();
+			if (update.capacity() < length) {
+				update = ByteBuffer.allocate(Math.max(length, 2 * update.capacity()));
+			}
+			update.clear();
+			update.putInt(length - 4);
+			update.put(status);
+			update.putInt(ticks);
+			update.putInt(seq);
+			update.putInt((int) Math.min(latency, Integer.MAX_VALUE));
+			update.put(frame);
+			if (status != GameServer.RUNNING) {
+				over = true;
+				server.retire(this);
+			}
+			send(update.flip());
+			return true;
+		} finally {
+			scheduled.set(false);
+		}
+	}
+
+	private void send(ByteBuffer bytes) {
+		synchronized (outputLock) {
+			try {
+				if (output.position() == 0) {
+					channel.write(bytes);
+					if (!bytes.hasRemaining()) {
+						return;
+					}
+				}
+				if (output.remaining() < bytes.remaining()) {
+					int needed = output.position() + bytes.remaining();
+					if (needed > GameServer.MAX_PENDING_OUTPUT) {
+						// the player cannot keep up
+						close();
+						return;
+					}
+					ByteBuffer larger = ByteBuffer.allocate(Math.max(needed, 2 * output.capacity()));
+					output.flip();
+					larger.put(output);
+					output = larger;
+				}
+				output.put(bytes);
+				key.interestOpsOr(SelectionKey.OP_WRITE);
+				key.selector().wakeup();
+			} catch (IOException | CancelledKeyException e) {
+				close();
+			}
+		}
+	}
+
+	/**
+	 * Write what the socket did not take before, now that it can take more.
+	 */
+	void flush() throws IOException {
+		synchronized (outputLock) {
+			output.flip();
+			channel.write(output);
+			output.compact();
+			if (output.position() == 0) {
+				key.interestOpsAnd(~SelectionKey.OP_WRITE);
+			}
+		}
+	}
+
+	synchronized void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			channel.close();
+		} catch (IOException e) {
+			// nothing more to do
+		}
+		server.retire(this);
+	}
+
+}
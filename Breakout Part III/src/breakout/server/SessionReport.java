@@ -0,0 +1,78 @@
+package breakout.server;
+
+/**
+ * What one simulated player of a `LoadTestClient` saw: how many games it
+ * played and updates it got, the latencies of its ticks as reported by the
+ * server, and how long its inputs took to be played, from sending them to
+ * getting the update of the first tick that played them.
+ *
+ * @invar | getGames() >= 0
+ * @invar | getUpdates() >= 0
+ * @invar | getTickLatencies() != null
+ * @invar | getInputLatencies() != null
+ */
+public final class SessionReport {
+
+	private final int player;
+	private final int games;
+	private final long updates;
+	/**
+	 * @representationObject
+	 */
+	private final LatencyHistogram tickLatencies;
+	/**
+	 * @representationObject
+	 */
+	private final LatencyHistogram inputLatencies;
+
+	SessionReport(int player, int games, long updates, LatencyHistogram tickLatencies,
+			LatencyHistogram inputLatencies) {
+		this.player = player;
+		this.games = games;
+		this.updates = updates;
+		this.tickLatencies = tickLatencies;
+		this.inputLatencies = inputLatencies;
+	}
+
+	/**
+	 * Return the number of the player, from 0.
+	 */
+	public int getPlayer() {
+		return player;
+	}
+
+	/**
+	 * Return the number of games the player finished.
+	 */
+	public int getGames() {
+		return games;
+	}
+
+	public long getUpdates() {
+		return updates;
+	}
+
+	/**
+	 * Return the latencies of the player's ticks. The histogram belongs to this
+	 * report and must not be changed.
+	 */
+	public LatencyHistogram getTickLatencies() {
+		return tickLatencies;
+	}
+
+	/**
+	 * Return the latencies of the player's inputs. The histogram belongs to this
+	 * report and must not be changed.
+	 */
+	public LatencyHistogram getInputLatencies() {
+		return inputLatencies;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("player %d: %d updates, %d games, tick p50 %d us p99 %d us, input p50 %d us p99 %d us",
+				player, updates, games, tickLatencies.getPercentile(50), tickLatencies.getPercentile(99),
+				inputLatencies.getPercentile(50), inputLatencies.getPercentile(99));
+	}
+
+}
@@ -60,6 +60,15 @@ public class Rect {
 		return getTopLeft().isUpAndLeftFrom(loc) && loc.isUpAndLeftFrom(getBottomRight());
 	}
 
+	/**
+	 * Return whether the point with coordinates (`x`, `y`) is inside this rectangle.
+	 * 
+	 * @post | result == contains(new Point(x, y))
+	 */
+	public boolean contains(int x, int y) {
+		return topLeft.getX() <= x && topLeft.getY() <= y && x <= bottomRight.getX() && y <= bottomRight.getY();
+	}
+
 	/**
 	 * Return whether this rectangle contains a given circle.
 	 * 
@@ -99,6 +108,40 @@ public class Rect {
 		return null;
 	}
 
+	/**
+	 * Allocation-free version of `collideWith` for the circle with center (`cx`, `cy`) and the given radius.
+	 * Return the index in `COLLISSION_DIRS` of the direction from the circle to this rectangle,
+	 * or -1 if they do not intersect.
+	 * 
+	 * @pre | radius >= 0
+	 * @post | result == -1 ?
+	 *       |     collideWith(new Circle(new Point(cx, cy), 2 * radius)) == null
+	 *       | :   COLLISSION_DIRS[result].equals(collideWith(new Circle(new Point(cx, cy), 2 * radius)))
+	 */
+	public int collisionDirection(int cx, int cy, int radius) {
+		for (int i = 0; i < COLLISSION_DIRS.length; i++) {
+			Vector coldir = COLLISSION_DIRS[i];
+			if (contains(cx + coldir.getX() * radius, cy + coldir.getY() * radius)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Return whether the circle with center (`cx`, `cy`) and the given radius, moving with
+	 * velocity (`vx`, `vy`), collides with this rectangle: it intersects this rectangle and
+	 * moves towards it. This is the allocation-free counterpart of `Ball.collidesWith(Rect)`.
+	 * 
+	 * @pre | radius >= 0
+	 * @post | result == (collisionDirection(cx, cy, radius) >= 0 &&
+	 *       |            COLLISSION_DIRS[collisionDirection(cx, cy, radius)].product(new Vector(vx, vy)) > 0)
+	 */
+	public boolean isHitBy(int cx, int cy, int radius, int vx, int vy) {
+		int dir = collisionDirection(cx, cy, radius);
+		return dir >= 0 && vx * COLLISSION_DIRS[dir].getX() + vy * COLLISSION_DIRS[dir].getY() > 0;
+	}
+
 	/**
 	 * Return the rectangle obtained by subtracting an inner margin from all sides of this rectangle.
 	 * 
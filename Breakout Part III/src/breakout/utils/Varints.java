@@ -0,0 +1,92 @@
+package breakout.utils;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes and reads ints as varints: seven bits per byte, least significant
+ * first, with the high bit of a byte set when more bytes follow. Small values
+ * take a single byte. Signed values are written zigzagged, so that small
+ * negative values are short too.
+ *
+ * These are the building blocks of the binary formats of the game, such as
+ * journals, encoded states and spectator streams.
+ */
+public final class Varints {
+
+	/**
+	 * The largest number of bytes an int takes as a varint.
+	 */
+	public static final int MAX_BYTES = 5;
+
+	private Varints() {
+	}
+
+	/**
+	 * Write `value` as an unsigned varint.
+	 *
+	 * @pre | buffer != null
+	 * @mutates buffer
+	 */
+	public static void putVarint(ByteBuffer buffer, int value) {
+		while ((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Write `value` as a zigzag varint.
+	 *
+	 * @pre | buffer != null
+	 * @mutates buffer
+	 */
+	public static void putZigzag(ByteBuffer buffer, int value) {
+		putVarint(buffer, (value << 1) ^ (value >> 31));
+	}
+
+	/**
+	 * Read an unsigned varint and return its value, from 0 to 2^32 - 1.
+	 *
+	 * @pre | buffer != null
+	 * @mutates buffer
+	 * @throws BufferUnderflowException if the buffer ends before the varint does
+	 * @throws IllegalArgumentException if the varint does not fit in 32 bits
+	 */
+	public static long getVarint(ByteBuffer buffer) {
+		long value = 0;
+		for (int shift = 0; shift < 7 * MAX_BYTES; shift += 7) {
+			int b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				if (value >>> 32 != 0)
+					break;
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("malformed varint");
+	}
+
+	/**
+	 * Read a zigzag varint, which may be any int.
+	 *
+	 * @pre | buffer != null
+	 * @mutates buffer
+	 * @throws BufferUnderflowException if the buffer ends before the varint does
+	 * @throws IllegalArgumentException if the varint does not fit in 32 bits
+	 */
+	public static int getZigzag(ByteBuffer buffer) {
+		return unzigzag((int) getVarint(buffer));
+	}
+
+	/**
+	 * Return the signed value of the given zigzagged bits.
+	 *
+	 * @post | ((result << 1) ^ (result >> 31)) == bits
+	 */
+	public static int unzigzag(int bits) {
+		return (bits >>> 1) ^ -(bits & 1);
+	}
+
+}
@@ -0,0 +1,50 @@
+package breakout.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import org.junit.jupiter.api.Test;
+
+class VarintsTest {
+
+	@Test
+	void testRoundTrip() {
+		int[] values = { 0, 1, 127, 128, 300, 16384, Integer.MAX_VALUE, -1, Integer.MIN_VALUE };
+		ByteBuffer buffer = ByteBuffer.allocate(2 * values.length * Varints.MAX_BYTES);
+		for (int value : values) {
+			Varints.putVarint(buffer, value);
+			Varints.putZigzag(buffer, value);
+		}
+		buffer.flip();
+		for (int value : values) {
+			assertEquals(value & 0xFFFFFFFFL, Varints.getVarint(buffer));
+			assertEquals(value, Varints.getZigzag(buffer));
+		}
+		assertFalse(buffer.hasRemaining());
+	}
+
+	@Test
+	void testLengths() {
+		ByteBuffer buffer = ByteBuffer.allocate(Varints.MAX_BYTES);
+		Varints.putVarint(buffer, 127);
+		assertEquals(1, buffer.position());
+		buffer.clear();
+		Varints.putZigzag(buffer, -64);
+		assertEquals(1, buffer.position());
+		buffer.clear();
+		Varints.putVarint(buffer, -1);
+		assertEquals(Varints.MAX_BYTES, buffer.position());
+	}
+
+	@Test
+	void testMalformed() {
+		assertThrows(BufferUnderflowException.class, () -> Varints.getVarint(ByteBuffer.wrap(new byte[] { (byte) 0x80 })));
+		byte[] tooLong = { (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0 };
+		assertThrows(IllegalArgumentException.class, () -> Varints.getVarint(ByteBuffer.wrap(tooLong)));
+		byte[] tooLarge = { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x1F };
+		assertThrows(IllegalArgumentException.class, () -> Varints.getVarint(ByteBuffer.wrap(tooLarge)));
+	}
+
+}